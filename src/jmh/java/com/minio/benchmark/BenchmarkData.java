@@ -0,0 +1,120 @@
+package com.minio.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minio.dto.FilterConditionDto;
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.dto.UserRequestDto;
+import com.minio.evaluation.MembershipLookup;
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.model.LogicalOperator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shared inputs for the evaluation benchmarks: a fixed user sample, filter shapes from
+ * examples/all-filter-variations.json and an in-memory stand-in for list lookups
+ */
+final class BenchmarkData {
+
+    static final String EXAMPLES_RESOURCE = "/all-filter-variations.json";
+
+    /**
+     * Members of every list used by the example filters, so lookups hit and miss
+     */
+    static final Set<String> LIST_MEMBERS = Set.of("111", "3586067540", "380501234567");
+
+    static final MembershipLookup IN_MEMORY_LOOKUP = (fileId, smid) -> LIST_MEMBERS.contains(smid);
+
+    static final int USER_COUNT = 8;
+
+    static final UserRequestDto[] USERS = {
+        user("111", "UA", "Android 14", "Chrome", "3.2.1"),
+        user("222", "PL", "iOS 17.4", "Safari", "2.9.0"),
+        user("3586067540", "DE", "Windows 11", "Edge", "3.0.0"),
+        user("380501234567", "UA", "iOS 16.7", "Chrome Mobile", "1.5.2"),
+        user("050777", "US", "Android 10", "Samsung Internet", "2.10.0"),
+        user("067123", "BY", "macOS 14", "Firefox", "4.0"),
+        user("999", "UK", "Linux", "Opera", "0.9.1"),
+        user(null, "UA", "Android 13", "Chrome", null)
+    };
+
+    static {
+        if (USERS.length != USER_COUNT) {
+            throw new IllegalStateException("USER_COUNT must match the user sample");
+        }
+    }
+
+    private BenchmarkData() {
+    }
+
+    static MarketingTargetFilterDto filter(FilterConditionDto... conditions) {
+        MarketingTargetFilterDto filter = new MarketingTargetFilterDto("Benchmark filter", 1L);
+        filter.setConditions(Arrays.asList(conditions));
+        return filter;
+    }
+
+    static FilterConditionDto condition(FilterFieldType fieldType, FilterOperator operator, String value,
+                                        LogicalOperator logicalOperator) {
+        FilterConditionDto condition = new FilterConditionDto(fieldType, operator, value);
+        condition.setLogicalOperator(logicalOperator);
+        return condition;
+    }
+
+    /**
+     * Filter shapes by "section:index", e.g. "complex_logic_examples:0"
+     */
+    static Map<String, MarketingTargetFilterDto> exampleFilters() {
+        ObjectMapper objectMapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        try (InputStream input = BenchmarkData.class.getResourceAsStream(EXAMPLES_RESOURCE)) {
+            if (input == null) {
+                throw new IllegalStateException("Benchmark resource not found: " + EXAMPLES_RESOURCE);
+            }
+
+            Map<String, MarketingTargetFilterDto> filters = new HashMap<>();
+            JsonNode variations = objectMapper.readTree(input).get("variations");
+            variations.fields().forEachRemaining(section -> {
+                JsonNode examples = section.getValue().get("examples");
+                for (int i = 0; i < examples.size(); i++) {
+                    JsonNode filter = examples.get(i).get("filter");
+                    if (filter != null) {
+                        filters.put(section.getKey() + ":" + i, toFilter(objectMapper, filter));
+                    }
+                }
+            });
+            return filters;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MarketingTargetFilterDto toFilter(ObjectMapper objectMapper, JsonNode node) {
+        try {
+            MarketingTargetFilterDto filter = objectMapper.treeToValue(node, MarketingTargetFilterDto.class);
+            filter.setIsActive(true);
+            return filter;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static UserRequestDto user(String smid, String country, String operatingSystem, String browser,
+                                       String clientVersion) {
+        UserRequestDto user = new UserRequestDto();
+        user.setSmid(smid);
+        user.setCountry(country);
+        user.setOperatingSystem(operatingSystem);
+        user.setBrowser(browser);
+        user.setClientVersion(clientVersion);
+        return user;
+    }
+}
@@ -0,0 +1,100 @@
+package com.minio.benchmark;
+
+import com.minio.dto.UserRequestDto;
+import com.minio.evaluation.CompiledFilter;
+import com.minio.evaluation.FilterCompiler;
+import com.minio.evaluation.UserAttributes;
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.service.FilterEvaluationService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Single-condition filter per operator, evaluated against the user sample
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConditionBenchmark {
+
+    @Param({
+        "EQUAL", "NOT_EQUAL", "CONTAINS", "NOT_CONTAINS", "STARTS_WITH", "ENDS_WITH",
+        "GREATER_THAN", "GREATER_THAN_OR_EQUAL", "LESS_THAN", "LESS_THAN_OR_EQUAL",
+        "IN", "NOT_IN", "REGEX", "IS_NULL", "IS_NOT_NULL"
+    })
+    public FilterOperator operator;
+
+    private final FilterEvaluationService evaluationService = new FilterEvaluationService();
+    private CompiledFilter plan;
+
+    @Setup
+    public void setUp() {
+        plan = FilterCompiler.compile(BenchmarkData.filter(
+            BenchmarkData.condition(fieldType(operator), operator, value(operator), null)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.USER_COUNT)
+    public void evaluate(Blackhole blackhole) {
+        for (UserRequestDto user : BenchmarkData.USERS) {
+            blackhole.consume(evaluationService.evaluatePlan(plan, UserAttributes.of(user), BenchmarkData.IN_MEMORY_LOOKUP));
+        }
+    }
+
+    private static FilterFieldType fieldType(FilterOperator operator) {
+        switch (operator) {
+            case EQUAL:
+            case NOT_EQUAL:
+            case IN:
+            case NOT_IN:
+                return FilterFieldType.COUNTRY;
+            case STARTS_WITH:
+                return FilterFieldType.BROWSER;
+            case GREATER_THAN:
+            case GREATER_THAN_OR_EQUAL:
+            case LESS_THAN:
+            case LESS_THAN_OR_EQUAL:
+                return FilterFieldType.CLIENT_VERSION;
+            case IS_NULL:
+            case IS_NOT_NULL:
+                return FilterFieldType.SMID;
+            default:
+                return FilterFieldType.OPERATING_SYSTEM;
+        }
+    }
+
+    private static String value(FilterOperator operator) {
+        switch (operator) {
+            case EQUAL:
+            case NOT_EQUAL:
+                return "UA";
+            case CONTAINS:
+            case NOT_CONTAINS:
+                return "android";
+            case STARTS_WITH:
+                return "Chrome";
+            case ENDS_WITH:
+                return "14";
+            case IN:
+            case NOT_IN:
+                return "[\"UA\", \"PL\", \"DE\"]";
+            case REGEX:
+                return "^(Android|iOS) 1[4-7].*";
+            case IS_NULL:
+            case IS_NOT_NULL:
+                return "";
+            default:
+                return "2.10.0";
+        }
+    }
+}
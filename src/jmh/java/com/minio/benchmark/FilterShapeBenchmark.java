@@ -0,0 +1,73 @@
+package com.minio.benchmark;
+
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.dto.UserRequestDto;
+import com.minio.evaluation.CompiledFilter;
+import com.minio.evaluation.FilterCompiler;
+import com.minio.evaluation.UserAttributes;
+import com.minio.service.FilterEvaluationService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Evaluates the filter shapes from examples/all-filter-variations.json against the user sample.
+ * DISTRIBUTION_GROUPS_FILE conditions are resolved in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilterShapeBenchmark {
+
+    @Param({
+        "complex_logic_examples:0",
+        "complex_logic_examples:1",
+        "complex_logic_examples:2",
+        "complex_logic_examples:3",
+        "complex_logic_examples:4",
+        "complex_logic_examples:5",
+        "complex_logic_examples:6",
+        "real_world_examples:0",
+        "real_world_examples:1",
+        "real_world_examples:2"
+    })
+    public String shape;
+
+    private final FilterEvaluationService evaluationService = new FilterEvaluationService();
+    private MarketingTargetFilterDto filter;
+    private CompiledFilter plan;
+
+    @Setup
+    public void setUp() {
+        filter = BenchmarkData.exampleFilters().get(shape);
+        plan = FilterCompiler.compile(filter);
+    }
+
+    /**
+     * Full request path: attribute vector plus evaluation
+     */
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.USER_COUNT)
+    public void evaluate(Blackhole blackhole) {
+        for (UserRequestDto user : BenchmarkData.USERS) {
+            UserAttributes attributes = UserAttributes.of(user);
+            blackhole.consume(evaluationService.evaluatePlan(plan, attributes, BenchmarkData.IN_MEMORY_LOOKUP));
+        }
+    }
+
+    /**
+     * Cost of a plan cache miss
+     */
+    @Benchmark
+    public CompiledFilter compile() {
+        return FilterCompiler.compile(filter);
+    }
+}
@@ -0,0 +1,73 @@
+package com.minio.benchmark;
+
+import com.minio.dto.FilterConditionDto;
+import com.minio.dto.FilterGroupDto;
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.dto.UserRequestDto;
+import com.minio.evaluation.CompiledFilter;
+import com.minio.evaluation.FilterCompiler;
+import com.minio.evaluation.UserAttributes;
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.model.LogicalOperator;
+import com.minio.service.FilterEvaluationService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Filters with many groups of mixed AND/OR conditions. Filters have a single level of groups,
+ * so tree size is driven by the number of groups and the way they are combined.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GroupTreeBenchmark {
+
+    @Param({"1", "8", "32"})
+    public int groups;
+
+    @Param({"AND", "OR"})
+    public LogicalOperator groupOperator;
+
+    private final FilterEvaluationService evaluationService = new FilterEvaluationService();
+    private CompiledFilter plan;
+
+    @Setup
+    public void setUp() {
+        MarketingTargetFilterDto filter = BenchmarkData.filter(
+            BenchmarkData.condition(FilterFieldType.SMID, FilterOperator.IS_NOT_NULL, "", null));
+
+        List<FilterGroupDto> filterGroups = new ArrayList<>();
+        for (int i = 0; i < groups; i++) {
+            FilterGroupDto group = new FilterGroupDto("Group " + i, groupOperator);
+            group.setConditions(Arrays.<FilterConditionDto>asList(
+                BenchmarkData.condition(FilterFieldType.COUNTRY, FilterOperator.NOT_EQUAL, "BY", null),
+                BenchmarkData.condition(FilterFieldType.OPERATING_SYSTEM, FilterOperator.CONTAINS, i % 2 == 0 ? "android" : "ios", LogicalOperator.AND),
+                BenchmarkData.condition(FilterFieldType.BROWSER, FilterOperator.STARTS_WITH, "Chrome", LogicalOperator.OR),
+                BenchmarkData.condition(FilterFieldType.CLIENT_VERSION, FilterOperator.GREATER_THAN_OR_EQUAL, i + ".0", LogicalOperator.AND)));
+            filterGroups.add(group);
+        }
+        filter.setGroups(filterGroups);
+        plan = FilterCompiler.compile(filter);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.USER_COUNT)
+    public void evaluate(Blackhole blackhole) {
+        for (UserRequestDto user : BenchmarkData.USERS) {
+            blackhole.consume(evaluationService.evaluatePlan(plan, UserAttributes.of(user), BenchmarkData.IN_MEMORY_LOOKUP));
+        }
+    }
+}
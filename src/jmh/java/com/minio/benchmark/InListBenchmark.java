@@ -0,0 +1,61 @@
+package com.minio.benchmark;
+
+import com.minio.dto.UserRequestDto;
+import com.minio.evaluation.CompiledFilter;
+import com.minio.evaluation.FilterCompiler;
+import com.minio.evaluation.UserAttributes;
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.service.FilterEvaluationService;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * SMID IN lists of growing size (numeric values) and COUNTRY IN lists (string values)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class InListBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    @Param({"SMID", "COUNTRY"})
+    public FilterFieldType fieldType;
+
+    private final FilterEvaluationService evaluationService = new FilterEvaluationService();
+    private CompiledFilter plan;
+
+    @Setup
+    public void setUp() {
+        StringJoiner values = new StringJoiner(",");
+        for (int i = 0; i < size; i++) {
+            // Every other sample user is in the list
+            values.add(fieldType == FilterFieldType.SMID ? Long.toString(i * 7L) : "C" + i);
+        }
+        values.add(fieldType == FilterFieldType.SMID ? "111" : "UA");
+        values.add(fieldType == FilterFieldType.SMID ? "3586067540" : "DE");
+
+        plan = FilterCompiler.compile(BenchmarkData.filter(
+            BenchmarkData.condition(fieldType, FilterOperator.IN, values.toString(), null)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.USER_COUNT)
+    public void evaluate(Blackhole blackhole) {
+        for (UserRequestDto user : BenchmarkData.USERS) {
+            blackhole.consume(evaluationService.evaluatePlan(plan, UserAttributes.of(user), BenchmarkData.IN_MEMORY_LOOKUP));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.minio.benchmark;
+
+import com.minio.util.LineRangeInputStream;
+import com.minio.util.SmidListParser;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Rows per second of the list ingestion read path: line-aligned byte ranges parsed in parallel on a fork-join pool,
+ * as ListIngestionService does with ranged GETs. The file is held in memory, so MinIO and COPY are not measured;
+ * ListIngestionDatabaseBenchmark measures complete loads against a local Postgres and MinIO.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ListIngestionBenchmark {
+
+    private static final int ROWS = 1_000_000;
+
+    @Param({"1", "4", "8"})
+    public int ranges;
+
+    private byte[] file;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        // Mostly numeric SMIDs with a CSV column, like the exported lists
+        Random random = new Random(42);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(ROWS * 24);
+        byte[] header = "smid,country\n".getBytes(StandardCharsets.US_ASCII);
+        out.write(header, 0, header.length);
+        for (int i = 0; i < ROWS; i++) {
+            String smid = i % 10 == 0 ? "user-" + Long.toHexString(random.nextLong()) : Long.toString(100_000_000L + random.nextInt(900_000_000));
+            byte[] line = (smid + ",UA\n").getBytes(StandardCharsets.US_ASCII);
+            out.write(line, 0, line.length);
+        }
+        file = out.toByteArray();
+        pool = new ForkJoinPool(ranges);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void parseRanges(Blackhole blackhole) throws Exception {
+        long rangeSize = (file.length + ranges - 1) / ranges;
+        LongAdder bytes = new LongAdder();
+        List<ForkJoinTask<Long>> tasks = new ArrayList<>(ranges);
+        for (long start = 0; start < file.length; start += rangeSize) {
+            long from = start;
+            long to = Math.min(start + rangeSize, file.length);
+            tasks.add(ForkJoinTask.adapt(() -> parseRange(from, to, bytes)));
+        }
+        long accepted = pool.submit(() -> {
+            long total = 0;
+            for (ForkJoinTask<Long> task : ForkJoinTask.invokeAll(tasks)) {
+                total += task.join();
+            }
+            return total;
+        }).get();
+        blackhole.consume(accepted);
+        blackhole.consume(bytes.sum());
+    }
+
+    private long parseRange(long start, long end, LongAdder bytes) {
+        int offset = (int) LineRangeInputStream.openOffset(start);
+        SmidListParser parser = new SmidListParser();
+        try {
+            parser.parse(new LineRangeInputStream(new ByteArrayInputStream(file, offset, file.length - offset), start, end),
+                (buffer, from, length) -> bytes.add(length));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return parser.getAccepted();
+    }
+}
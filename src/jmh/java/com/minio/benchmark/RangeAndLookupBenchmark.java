@@ -0,0 +1,75 @@
+package com.minio.benchmark;
+
+import com.minio.dto.UserRequestDto;
+import com.minio.evaluation.CompiledFilter;
+import com.minio.evaluation.FilterCompiler;
+import com.minio.evaluation.UserAttributes;
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.model.LogicalOperator;
+import com.minio.service.FilterEvaluationService;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * CLIENT_VERSION ranges and DISTRIBUTION_GROUPS_FILE conditions.
+ * List lookups go to an in-memory set instead of the database, so only evaluation overhead is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RangeAndLookupBenchmark {
+
+    private final FilterEvaluationService evaluationService = new FilterEvaluationService();
+    private CompiledFilter versionRange;
+    private CompiledFilter listLookup;
+    private CompiledFilter listLookupAfterCountry;
+
+    @Setup
+    public void setUp() {
+        // 2.0 <= CLIENT_VERSION < 3.5
+        versionRange = FilterCompiler.compile(BenchmarkData.filter(
+            BenchmarkData.condition(FilterFieldType.CLIENT_VERSION, FilterOperator.GREATER_THAN_OR_EQUAL, "2.0", null),
+            BenchmarkData.condition(FilterFieldType.CLIENT_VERSION, FilterOperator.LESS_THAN, "3.5", LogicalOperator.AND)));
+
+        listLookup = FilterCompiler.compile(BenchmarkData.filter(
+            BenchmarkData.condition(FilterFieldType.DISTRIBUTION_GROUPS_FILE, FilterOperator.IN, "blocked-users", null)));
+
+        // The lookup is skipped for users rejected by COUNTRY
+        listLookupAfterCountry = FilterCompiler.compile(BenchmarkData.filter(
+            BenchmarkData.condition(FilterFieldType.DISTRIBUTION_GROUPS_FILE, FilterOperator.NOT_IN, "blocked-users", null),
+            BenchmarkData.condition(FilterFieldType.COUNTRY, FilterOperator.EQUAL, "UA", LogicalOperator.AND)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.USER_COUNT)
+    public void versionRange(Blackhole blackhole) {
+        evaluate(versionRange, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.USER_COUNT)
+    public void listLookup(Blackhole blackhole) {
+        evaluate(listLookup, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkData.USER_COUNT)
+    public void listLookupAfterCountry(Blackhole blackhole) {
+        evaluate(listLookupAfterCountry, blackhole);
+    }
+
+    private void evaluate(CompiledFilter plan, Blackhole blackhole) {
+        for (UserRequestDto user : BenchmarkData.USERS) {
+            blackhole.consume(evaluationService.evaluatePlan(plan, UserAttributes.of(user), BenchmarkData.IN_MEMORY_LOOKUP));
+        }
+    }
+}
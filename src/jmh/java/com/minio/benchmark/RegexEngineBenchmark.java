@@ -0,0 +1,62 @@
+package com.minio.benchmark;
+
+import com.minio.evaluation.CompiledRegex;
+import com.minio.evaluation.RegexEngine;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the budgeted java.util.regex engine with RE2/J on realistic user agent strings.
+ * Each invocation matches the pattern against the whole user agent sample.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RegexEngineBenchmark {
+
+    static final String[] USER_AGENTS = {
+        "Mozilla/5.0 (Linux; Android 14; SM-S918B) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.6367.82 Mobile Safari/537.36",
+        "Mozilla/5.0 (iPhone; CPU iPhone OS 17_4_1 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4.1 Mobile/15E148 Safari/604.1",
+        "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36 Edg/124.0.2478.67",
+        "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4 Safari/605.1.15",
+        "Mozilla/5.0 (X11; Linux x86_64; rv:125.0) Gecko/20100101 Firefox/125.0",
+        "Mozilla/5.0 (Linux; Android 10; K) AppleWebKit/537.36 (KHTML, like Gecko) SamsungBrowser/24.0 Chrome/117.0.0.0 Mobile Safari/537.36",
+        "Mozilla/5.0 (iPad; CPU OS 16_7_7 like Mac OS X) AppleWebKit/605.1.15 (KHTML, like Gecko) CriOS/124.0.6367.88 Mobile/15E148 Safari/604.1",
+        "Dalvik/2.1.0 (Linux; U; Android 13; Redmi Note 12 Pro Build/TKQ1.221114.001)",
+        "okhttp/4.12.0",
+        "Opera/9.80 (J2ME/MIDP; Opera Mini/9.80 (S60; SymbOS; Opera Mobi/23.348; U; en) Presto/2.5.25 Version/10.54"
+    };
+
+    @Param({
+        ".*Android (1[0-9]|[89]).*Chrome/1[0-2][0-9]\\..*",
+        ".*(iPhone|iPad).*OS 1[5-7]_.*",
+        "Mozilla/5\\.0 \\((Windows|Macintosh|X11)[^)]*\\).*",
+        ".*(a|b|c|d|e|f)*(Firefox|Edg|OPR)/[0-9]+.*"
+    })
+    public String pattern;
+
+    @Param({"JDK", "RE2J"})
+    public RegexEngine engine;
+
+    private CompiledRegex regex;
+
+    @Setup
+    public void setUp() {
+        regex = CompiledRegex.compile(pattern, engine);
+    }
+
+    @Benchmark
+    public void matchUserAgents(Blackhole blackhole) {
+        for (String userAgent : USER_AGENTS) {
+            blackhole.consume(regex.matches(userAgent));
+        }
+    }
+}
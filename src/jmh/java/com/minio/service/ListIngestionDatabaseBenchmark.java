@@ -0,0 +1,211 @@
+package com.minio.service;
+
+import io.minio.BucketExistsArgs;
+import io.minio.MakeBucketArgs;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.RemoveObjectArgs;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.postgresql.ds.PGSimpleDataSource;
+
+/**
+ * Rows per second of a full list load against the local Postgres and MinIO of docker-compose.yml: ranged GETs,
+ * parallel COPY streams into the staging table with checkpoint rows, SMID dictionary resolution, the new generation
+ * insert, the switch to it and the cleanup of the replaced generation.
+ *
+ * The schema is created by Hibernate: start the application against the database once before running it.
+ * Excluded from the default run, run with ./gradlew jmh -PjmhDatabase. Connection settings are taken from the
+ * benchmark.db.url, benchmark.db.user, benchmark.db.password, benchmark.minio.url, benchmark.minio.access-key,
+ * benchmark.minio.secret-key and benchmark.minio.bucket system properties, with the docker-compose.yml defaults.
+ * When Postgres or MinIO is not reachable the setup fails and JMH skips the benchmark.
+ *
+ * Every load starts with an empty dictionary cache; the SMIDs are in SMID_DICTIONARY from the second load on, as
+ * for a list that is loaded again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ListIngestionDatabaseBenchmark {
+
+    private static final int ROWS = 1_000_000;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    // 4 MB ranges split the ~12 MB file into several COPY streams
+    @Param({"4194304"})
+    public long rangeSize;
+
+    private PGSimpleDataSource dataSource;
+    private MinioClient minioClient;
+    private String bucket;
+    private String fileName;
+    private Long targetId;
+    private long loadId;
+    private ListIngestionService ingestionService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataSource = new PGSimpleDataSource();
+        dataSource.setUrl(System.getProperty("benchmark.db.url", "jdbc:postgresql://localhost:5432/mydatabase"));
+        dataSource.setUser(System.getProperty("benchmark.db.user", "myuser"));
+        dataSource.setPassword(System.getProperty("benchmark.db.password", "mypassword"));
+        dataSource.setLoginTimeout(5);
+        minioClient = MinioClient.builder()
+            .endpoint(System.getProperty("benchmark.minio.url", "http://localhost:9000"))
+            .credentials(System.getProperty("benchmark.minio.access-key", "admin"),
+                System.getProperty("benchmark.minio.secret-key", "secret123"))
+            .build();
+        bucket = System.getProperty("benchmark.minio.bucket", "uploads");
+
+        checkDatabase();
+        checkMinio();
+
+        byte[] file = createFile();
+        fileName = "benchmark/list-ingestion-" + ROWS + ".csv";
+        minioClient.putObject(PutObjectArgs.builder()
+            .bucket(bucket)
+            .object(fileName)
+            .stream(new ByteArrayInputStream(file), file.length, -1)
+            .contentType("text/csv")
+            .build());
+        targetId = createTarget();
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpLoad() throws SQLException {
+        SmidDictionaryService dictionaryService = new SmidDictionaryService();
+        dictionaryService.dataSource = dataSource;
+        dictionaryService.cacheSize = 2 * ROWS;
+        dictionaryService.idSequence = "SmidDictionary_SEQ";
+        dictionaryService.init();
+
+        ListStorageService storageService = new ListStorageService();
+        storageService.dataSource = dataSource;
+        storageService.cleanupBatchSize = 10000;
+
+        ingestionService = new ListIngestionService();
+        ingestionService.dataSource = dataSource;
+        ingestionService.minioClient = minioClient;
+        ingestionService.storageService = storageService;
+        ingestionService.dictionaryService = dictionaryService;
+        ingestionService.bucketName = bucket;
+        ingestionService.parallelism = parallelism;
+        ingestionService.rangeSize = rangeSize;
+        ingestionService.copyBufferSize = 1 << 20;
+        ingestionService.resolveBatchSize = 10000;
+        ingestionService.cleanupBatchSize = 10000;
+        ingestionService.idSequence = "MarketingTargetListItem_SEQ";
+        ingestionService.claimTimeout = Duration.ofMinutes(10);
+        loadId = ingestionService.claim(targetId, fileName);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDownLoad() {
+        ingestionService.shutdown();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (targetId != null) {
+            ListStorageService storageService = new ListStorageService();
+            storageService.dataSource = dataSource;
+            storageService.cleanupBatchSize = 10000;
+            storageService.dropList(targetId);
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("DELETE FROM MARKETING_TARGET WHERE id = ?")) {
+                statement.setLong(1, targetId);
+                statement.executeUpdate();
+            }
+        }
+        if (fileName != null) {
+            minioClient.removeObject(RemoveObjectArgs.builder().bucket(bucket).object(fileName).build());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long load() {
+        ListIngestionService.Progress loading = new ListIngestionService.Progress(targetId, fileName);
+        ingestionService.ingest(targetId, loadId, fileName, loading);
+        if (!"READY".equals(loading.toDto().getPhase())) {
+            throw new IllegalStateException("List load failed: " + loading.toDto().getError());
+        }
+        return loading.toDto().getRowsLoaded();
+    }
+
+    private void checkDatabase() {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT to_regclass('marketing_target')");
+             ResultSet rows = statement.executeQuery()) {
+            if (!rows.next() || rows.getString(1) == null) {
+                throw new IllegalStateException("MARKETING_TARGET does not exist in " + dataSource.getUrl()
+                    + ": start the application against it once to create the schema");
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Postgres at " + dataSource.getUrl()
+                + " is not available (docker compose up), skipping: " + e.getMessage(), e);
+        }
+    }
+
+    private void checkMinio() {
+        try {
+            if (!minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucket).build())) {
+                minioClient.makeBucket(MakeBucketArgs.builder().bucket(bucket).build());
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("MinIO is not available (docker compose up), skipping: " + e.getMessage(), e);
+        }
+    }
+
+    private Long createTarget() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO MARKETING_TARGET (id, NAME, TARGET_TYPE, STATUS, FILE_NAME, LIST_GENERATION,"
+                + " date_create, last_update) VALUES (nextval('MarketingTarget_SEQ'), ?, 'LIST', 'CREATED', ?, 0,"
+                + " now(), now()) RETURNING id")) {
+            statement.setString(1, "List ingestion benchmark");
+            statement.setString(2, fileName);
+            try (ResultSet rows = statement.executeQuery()) {
+                rows.next();
+                return rows.getLong(1);
+            }
+        }
+    }
+
+    /**
+     * Mostly numeric SMIDs with a CSV column, like the exported lists (as in ListIngestionBenchmark)
+     */
+    private static byte[] createFile() {
+        Random random = new Random(42);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(ROWS * 24);
+        byte[] header = "smid,country\n".getBytes(StandardCharsets.US_ASCII);
+        out.write(header, 0, header.length);
+        for (int i = 0; i < ROWS; i++) {
+            String smid = i % 10 == 0 ? "user-" + Long.toHexString(random.nextLong()) : Long.toString(100_000_000L + random.nextInt(900_000_000));
+            byte[] line = (smid + ",UA\n").getBytes(StandardCharsets.US_ASCII);
+            out.write(line, 0, line.length);
+        }
+        return out.toByteArray();
+    }
+}
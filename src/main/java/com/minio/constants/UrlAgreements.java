@@ -29,6 +29,7 @@ public final class UrlAgreements {
     // Пути для фильтров таргетинга
     public static final String PATH_SALES_TOOLS_FILTERS = "/filters";
     public static final String PATH_SALES_TOOLS_FILTERS_EVALUATE = "/filters/evaluate";
+    public static final String PATH_SALES_TOOLS_FILTERS_MATCH = "/filters/match";
     public static final String PATH_SALES_TOOLS_FILTERS_VALIDATE = "/filters/validate";
     public static final String PATH_SALES_TOOLS_FILTERS_FIELD_TYPES = "/filters/field-types";
     public static final String PATH_SALES_TOOLS_FILTERS_OPERATORS = "/filters/operators";
@@ -39,6 +40,11 @@ public final class UrlAgreements {
     public static final String OPERATION_LIST = "/list";
     public static final String OPERATION_FILE = "/file";
     public static final String OPERATION_ID_PARAM = "/{id}";
+    public static final String OPERATION_EXPLAIN = "/explain";
+    public static final String OPERATION_BATCH = "/batch";
+    public static final String OPERATION_PROGRESS = "/progress";
+    public static final String OPERATION_DELTA = "/delta";
+    public static final String OPERATION_BULK = "/bulk";
     
     private UrlAgreements() {
         // Приватный конструктор для предотвращения создания экземпляров
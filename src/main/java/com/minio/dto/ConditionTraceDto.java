@@ -0,0 +1,77 @@
+package com.minio.dto;
+
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.model.LogicalOperator;
+
+/**
+ * DTO with the evaluation trace of a single condition
+ */
+public class ConditionTraceDto {
+    
+    private FilterFieldType fieldType;
+    private FilterOperator operator;
+    private String conditionValue;
+    private String valueSeen;
+    private LogicalOperator combineOperator;
+    private boolean result;
+    private long timeNanos;
+    
+    public ConditionTraceDto() {}
+    
+    public FilterFieldType getFieldType() {
+        return fieldType;
+    }
+    
+    public void setFieldType(FilterFieldType fieldType) {
+        this.fieldType = fieldType;
+    }
+    
+    public FilterOperator getOperator() {
+        return operator;
+    }
+    
+    public void setOperator(FilterOperator operator) {
+        this.operator = operator;
+    }
+    
+    public String getConditionValue() {
+        return conditionValue;
+    }
+    
+    public void setConditionValue(String conditionValue) {
+        this.conditionValue = conditionValue;
+    }
+    
+    public String getValueSeen() {
+        return valueSeen;
+    }
+    
+    public void setValueSeen(String valueSeen) {
+        this.valueSeen = valueSeen;
+    }
+    
+    public LogicalOperator getCombineOperator() {
+        return combineOperator;
+    }
+    
+    public void setCombineOperator(LogicalOperator combineOperator) {
+        this.combineOperator = combineOperator;
+    }
+    
+    public boolean isResult() {
+        return result;
+    }
+    
+    public void setResult(boolean result) {
+        this.result = result;
+    }
+    
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+    
+    public void setTimeNanos(long timeNanos) {
+        this.timeNanos = timeNanos;
+    }
+}
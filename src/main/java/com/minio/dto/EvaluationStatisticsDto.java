@@ -0,0 +1,43 @@
+package com.minio.dto;
+
+/**
+ * DTO with filter evaluation counters since application start
+ */
+public class EvaluationStatisticsDto {
+    
+    private long lookupsPerformed;
+    private long lookupsSkipped;
+    private long conditionsSkipped;
+    
+    public EvaluationStatisticsDto() {}
+    
+    /**
+     * DISTRIBUTION_GROUPS_FILE lookups sent to the database
+     */
+    public long getLookupsPerformed() {
+        return lookupsPerformed;
+    }
+    
+    public void setLookupsPerformed(long lookupsPerformed) {
+        this.lookupsPerformed = lookupsPerformed;
+    }
+    
+    /**
+     * DISTRIBUTION_GROUPS_FILE lookups avoided because the result was already decided
+     */
+    public long getLookupsSkipped() {
+        return lookupsSkipped;
+    }
+    
+    public void setLookupsSkipped(long lookupsSkipped) {
+        this.lookupsSkipped = lookupsSkipped;
+    }
+    
+    public long getConditionsSkipped() {
+        return conditionsSkipped;
+    }
+    
+    public void setConditionsSkipped(long conditionsSkipped) {
+        this.conditionsSkipped = conditionsSkipped;
+    }
+}
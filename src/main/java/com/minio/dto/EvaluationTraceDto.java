@@ -0,0 +1,91 @@
+package com.minio.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO with the full evaluation trace of a filter for one user (explain mode)
+ */
+public class EvaluationTraceDto {
+    
+    private Long filterId;
+    private boolean active;
+    private boolean matches;
+    private long timeNanos;
+    private int lookups;
+    private int memoizedLookups;
+    private List<ConditionTraceDto> conditions = new ArrayList<>();
+    private List<GroupTraceDto> groups = new ArrayList<>();
+    
+    public EvaluationTraceDto() {}
+    
+    public Long getFilterId() {
+        return filterId;
+    }
+    
+    public void setFilterId(Long filterId) {
+        this.filterId = filterId;
+    }
+    
+    public boolean isActive() {
+        return active;
+    }
+    
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+    
+    public boolean isMatches() {
+        return matches;
+    }
+    
+    public void setMatches(boolean matches) {
+        this.matches = matches;
+    }
+    
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+    
+    public void setTimeNanos(long timeNanos) {
+        this.timeNanos = timeNanos;
+    }
+    
+    /**
+     * DISTRIBUTION_GROUPS_FILE lookups sent to the membership service for this request
+     */
+    public int getLookups() {
+        return lookups;
+    }
+    
+    public void setLookups(int lookups) {
+        this.lookups = lookups;
+    }
+    
+    /**
+     * DISTRIBUTION_GROUPS_FILE lookups answered from an earlier result of this request
+     */
+    public int getMemoizedLookups() {
+        return memoizedLookups;
+    }
+    
+    public void setMemoizedLookups(int memoizedLookups) {
+        this.memoizedLookups = memoizedLookups;
+    }
+    
+    public List<ConditionTraceDto> getConditions() {
+        return conditions;
+    }
+    
+    public void setConditions(List<ConditionTraceDto> conditions) {
+        this.conditions = conditions;
+    }
+    
+    public List<GroupTraceDto> getGroups() {
+        return groups;
+    }
+    
+    public void setGroups(List<GroupTraceDto> groups) {
+        this.groups = groups;
+    }
+}
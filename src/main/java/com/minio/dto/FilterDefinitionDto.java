@@ -0,0 +1,38 @@
+package com.minio.dto;
+
+import java.util.List;
+
+/**
+ * Filter tree stored in the DEFINITION column of a filter: root conditions and groups with their conditions
+ */
+public class FilterDefinitionDto {
+
+    private List<FilterConditionDto> conditions;
+    private List<FilterGroupDto> groups;
+
+    // Constructors
+    public FilterDefinitionDto() {}
+
+    public FilterDefinitionDto(List<FilterConditionDto> conditions, List<FilterGroupDto> groups) {
+        this.conditions = conditions;
+        this.groups = groups;
+    }
+
+    // Getters and setters
+
+    public List<FilterConditionDto> getConditions() {
+        return conditions;
+    }
+
+    public void setConditions(List<FilterConditionDto> conditions) {
+        this.conditions = conditions;
+    }
+
+    public List<FilterGroupDto> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(List<FilterGroupDto> groups) {
+        this.groups = groups;
+    }
+}
@@ -0,0 +1,59 @@
+package com.minio.dto;
+
+import com.minio.model.LogicalOperator;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO with the evaluation trace of a condition group
+ */
+public class GroupTraceDto {
+    
+    private String groupName;
+    private LogicalOperator combineOperator;
+    private boolean result;
+    private long timeNanos;
+    private List<ConditionTraceDto> conditions = new ArrayList<>();
+    
+    public GroupTraceDto() {}
+    
+    public String getGroupName() {
+        return groupName;
+    }
+    
+    public void setGroupName(String groupName) {
+        this.groupName = groupName;
+    }
+    
+    public LogicalOperator getCombineOperator() {
+        return combineOperator;
+    }
+    
+    public void setCombineOperator(LogicalOperator combineOperator) {
+        this.combineOperator = combineOperator;
+    }
+    
+    public boolean isResult() {
+        return result;
+    }
+    
+    public void setResult(boolean result) {
+        this.result = result;
+    }
+    
+    public long getTimeNanos() {
+        return timeNanos;
+    }
+    
+    public void setTimeNanos(long timeNanos) {
+        this.timeNanos = timeNanos;
+    }
+    
+    public List<ConditionTraceDto> getConditions() {
+        return conditions;
+    }
+    
+    public void setConditions(List<ConditionTraceDto> conditions) {
+        this.conditions = conditions;
+    }
+}
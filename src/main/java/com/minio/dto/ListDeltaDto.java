@@ -0,0 +1,49 @@
+package com.minio.dto;
+
+import java.util.List;
+
+/**
+ * DTO with SMIDs to add to and remove from the list of a marketing target, given as arrays
+ * and/or as list files in MinIO (same format as a full list upload)
+ */
+public class ListDeltaDto {
+
+    private List<String> add;
+    private List<String> remove;
+    private String addFileName;
+    private String removeFileName;
+
+    public ListDeltaDto() {}
+
+    public List<String> getAdd() {
+        return add;
+    }
+
+    public void setAdd(List<String> add) {
+        this.add = add;
+    }
+
+    public List<String> getRemove() {
+        return remove;
+    }
+
+    public void setRemove(List<String> remove) {
+        this.remove = remove;
+    }
+
+    public String getAddFileName() {
+        return addFileName;
+    }
+
+    public void setAddFileName(String addFileName) {
+        this.addFileName = addFileName;
+    }
+
+    public String getRemoveFileName() {
+        return removeFileName;
+    }
+
+    public void setRemoveFileName(String removeFileName) {
+        this.removeFileName = removeFileName;
+    }
+}
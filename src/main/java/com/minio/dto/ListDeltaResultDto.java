@@ -0,0 +1,64 @@
+package com.minio.dto;
+
+/**
+ * DTO with the result of applying a list delta
+ */
+public class ListDeltaResultDto {
+
+    private Long marketingTargetId;
+    private Long listVersion;
+    private long added;
+    private long removed;
+    private Long listSize;
+
+    public ListDeltaResultDto() {}
+
+    public Long getMarketingTargetId() {
+        return marketingTargetId;
+    }
+
+    public void setMarketingTargetId(Long marketingTargetId) {
+        this.marketingTargetId = marketingTargetId;
+    }
+
+    /**
+     * List version created by the delta
+     */
+    public Long getListVersion() {
+        return listVersion;
+    }
+
+    public void setListVersion(Long listVersion) {
+        this.listVersion = listVersion;
+    }
+
+    /**
+     * SMIDs that were not in the list before
+     */
+    public long getAdded() {
+        return added;
+    }
+
+    public void setAdded(long added) {
+        this.added = added;
+    }
+
+    /**
+     * SMIDs that were in the list before
+     */
+    public long getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(long removed) {
+        this.removed = removed;
+    }
+
+    public Long getListSize() {
+        return listSize;
+    }
+
+    public void setListSize(Long listSize) {
+        this.listSize = listSize;
+    }
+}
@@ -0,0 +1,131 @@
+package com.minio.dto;
+
+/**
+ * DTO with the progress of loading a marketing target list from MinIO
+ */
+public class ListIngestionProgressDto {
+
+    private Long marketingTargetId;
+    private String fileName;
+    private String phase;
+    private long bytesRead;
+    private long rowsAccepted;
+    private long rowsRejected;
+    private long rowsLoaded;
+    private int rangesTotal;
+    private int rangesCompleted;
+    private long elapsedMillis;
+    private String error;
+
+    public ListIngestionProgressDto() {}
+
+    public Long getMarketingTargetId() {
+        return marketingTargetId;
+    }
+
+    public void setMarketingTargetId(Long marketingTargetId) {
+        this.marketingTargetId = marketingTargetId;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * QUEUED, COPYING, MERGING, READY or FAILED
+     */
+    public String getPhase() {
+        return phase;
+    }
+
+    public void setPhase(String phase) {
+        this.phase = phase;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    public void setBytesRead(long bytesRead) {
+        this.bytesRead = bytesRead;
+    }
+
+    /**
+     * SMIDs read from the file and sent to the staging table
+     */
+    public long getRowsAccepted() {
+        return rowsAccepted;
+    }
+
+    public void setRowsAccepted(long rowsAccepted) {
+        this.rowsAccepted = rowsAccepted;
+    }
+
+    /**
+     * Lines skipped as invalid SMIDs
+     */
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    public void setRowsRejected(long rowsRejected) {
+        this.rowsRejected = rowsRejected;
+    }
+
+    /**
+     * Unique SMIDs written to the list after the merge
+     */
+    public long getRowsLoaded() {
+        return rowsLoaded;
+    }
+
+    public void setRowsLoaded(long rowsLoaded) {
+        this.rowsLoaded = rowsLoaded;
+    }
+
+    /**
+     * Byte ranges of the file loaded in parallel
+     */
+    public int getRangesTotal() {
+        return rangesTotal;
+    }
+
+    public void setRangesTotal(int rangesTotal) {
+        this.rangesTotal = rangesTotal;
+    }
+
+    /**
+     * Ranges staged and checkpointed, including those kept from a failed earlier attempt
+     */
+    public int getRangesCompleted() {
+        return rangesCompleted;
+    }
+
+    public void setRangesCompleted(int rangesCompleted) {
+        this.rangesCompleted = rangesCompleted;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public long getRowsPerSecond() {
+        return elapsedMillis > 0 ? rowsAccepted * 1000 / elapsedMillis : 0;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,119 @@
+package com.minio.dto;
+
+/**
+ * DTO with list membership cache state and Bloom filter counters since application start
+ */
+public class ListMembershipStatisticsDto {
+
+    private long loadedLists;
+    private long indexFiles;
+    private long mappedBytes;
+    private long bloomFilters;
+    private long loadedBytes;
+    private long bloomChecks;
+    private long bloomNegatives;
+    private long bloomFalsePositives;
+    private long deltaUpdates;
+
+    public ListMembershipStatisticsDto() {}
+
+    /**
+     * Lists held in memory as exact SMID sets
+     */
+    public long getLoadedLists() {
+        return loadedLists;
+    }
+
+    public void setLoadedLists(long loadedLists) {
+        this.loadedLists = loadedLists;
+    }
+
+    /**
+     * Lists too large for memory, served from memory-mapped index files
+     */
+    public long getIndexFiles() {
+        return indexFiles;
+    }
+
+    public void setIndexFiles(long indexFiles) {
+        this.indexFiles = indexFiles;
+    }
+
+    /**
+     * Size of the mapped index files (page cache, not heap)
+     */
+    public long getMappedBytes() {
+        return mappedBytes;
+    }
+
+    public void setMappedBytes(long mappedBytes) {
+        this.mappedBytes = mappedBytes;
+    }
+
+    /**
+     * Lists too large for memory without an index file, fronted by a Bloom filter
+     */
+    public long getBloomFilters() {
+        return bloomFilters;
+    }
+
+    public void setBloomFilters(long bloomFilters) {
+        this.bloomFilters = bloomFilters;
+    }
+
+    public long getLoadedBytes() {
+        return loadedBytes;
+    }
+
+    public void setLoadedBytes(long loadedBytes) {
+        this.loadedBytes = loadedBytes;
+    }
+
+    public long getBloomChecks() {
+        return bloomChecks;
+    }
+
+    public void setBloomChecks(long bloomChecks) {
+        this.bloomChecks = bloomChecks;
+    }
+
+    /**
+     * Checks answered "not present" by the Bloom filter without a database query
+     */
+    public long getBloomNegatives() {
+        return bloomNegatives;
+    }
+
+    public void setBloomNegatives(long bloomNegatives) {
+        this.bloomNegatives = bloomNegatives;
+    }
+
+    /**
+     * Checks the Bloom filter passed to the database that found no list item
+     */
+    public long getBloomFalsePositives() {
+        return bloomFalsePositives;
+    }
+
+    public void setBloomFalsePositives(long bloomFalsePositives) {
+        this.bloomFalsePositives = bloomFalsePositives;
+    }
+
+    /**
+     * Loaded lists brought to a new version by applying recorded deltas instead of a reload
+     */
+    public long getDeltaUpdates() {
+        return deltaUpdates;
+    }
+
+    public void setDeltaUpdates(long deltaUpdates) {
+        this.deltaUpdates = deltaUpdates;
+    }
+
+    /**
+     * Share of Bloom filter checks that did not need the database
+     */
+    public double getBloomHitRate() {
+        return bloomChecks > 0 ? (double) bloomNegatives / bloomChecks : 0;
+    }
+}
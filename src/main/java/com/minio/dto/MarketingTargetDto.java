@@ -11,6 +11,8 @@ public class MarketingTargetDto {
     private String name;
     private String targetType;
     private String status;
+    private String fileName;
+    private Long listSize;
     
     public MarketingTargetDto() {}
     
@@ -52,4 +54,23 @@ public class MarketingTargetDto {
     public void setStatus(String status) {
         this.status = status;
     }
+    
+    /**
+     * Имя объекта со списком SMID (CSV/TXT) в бакете MinIO
+     */
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+    
+    public Long getListSize() {
+        return listSize;
+    }
+    
+    public void setListSize(Long listSize) {
+        this.listSize = listSize;
+    }
 }
@@ -9,6 +9,7 @@ public class MarketingTargetFilterDto {
     private String filterName;
     private String description;
     private Boolean isActive;
+    private Boolean highTraffic;
     private List<FilterConditionDto> conditions;
     private List<FilterGroupDto> groups;
     
@@ -21,6 +22,19 @@ public class MarketingTargetFilterDto {
         this.isActive = true;
     }
     
+    /**
+     * Filter without groups and conditions, used by the listing projections
+     */
+    public MarketingTargetFilterDto(Long id, Long marketingTargetId, String filterName, String description,
+                                    Boolean isActive, Boolean highTraffic) {
+        this.id = id;
+        this.marketingTargetId = marketingTargetId;
+        this.filterName = filterName;
+        this.description = description;
+        this.isActive = isActive;
+        this.highTraffic = highTraffic;
+    }
+    
     // Getters and setters
     
     public Long getId() {
@@ -63,6 +77,14 @@ public class MarketingTargetFilterDto {
         this.isActive = isActive;
     }
     
+    public Boolean getHighTraffic() {
+        return highTraffic;
+    }
+    
+    public void setHighTraffic(Boolean highTraffic) {
+        this.highTraffic = highTraffic;
+    }
+    
     public List<FilterConditionDto> getConditions() {
         return conditions;
     }
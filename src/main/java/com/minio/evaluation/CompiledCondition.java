@@ -0,0 +1,165 @@
+package com.minio.evaluation;
+
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.model.LogicalOperator;
+
+/**
+ * Immutable, pre-parsed form of a single filter condition.
+ * All values that do not depend on the user request are computed once at compile time.
+ */
+public final class CompiledCondition {
+
+    private final FilterFieldType fieldType;
+    private final FilterOperator operator;
+    private final String value;
+    private final LogicalOperator combineOperator;
+
+    // Pre-computed representations of the condition value
+    private final String lowerCaseValue;
+    private final Double numericValue;
+    private final Version version;
+    private final InValueSet inValues;
+    private final CompiledRegex regex;
+
+    CompiledCondition(FilterFieldType fieldType, FilterOperator operator, String value,
+                      LogicalOperator combineOperator, String lowerCaseValue, Double numericValue,
+                      Version version, InValueSet inValues, CompiledRegex regex) {
+        this.fieldType = fieldType;
+        this.operator = operator;
+        this.value = value;
+        this.combineOperator = combineOperator;
+        this.lowerCaseValue = lowerCaseValue;
+        this.numericValue = numericValue;
+        this.version = version;
+        this.inValues = inValues;
+        this.regex = regex;
+    }
+
+    public FilterFieldType getFieldType() {
+        return fieldType;
+    }
+
+    public FilterOperator getOperator() {
+        return operator;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Operator used to combine this condition with the result of the previous ones.
+     * The "last non-null operator" rule is already applied, so this is never null.
+     */
+    public LogicalOperator getCombineOperator() {
+        return combineOperator;
+    }
+
+    /**
+     * True for DISTRIBUTION_GROUPS_FILE conditions, which are checked with a list lookup instead of {@link #matches}
+     */
+    public boolean isLookup() {
+        return fieldType == FilterFieldType.DISTRIBUTION_GROUPS_FILE;
+    }
+
+    /**
+     * Pre-parsed IN/NOT_IN values, null for other operators
+     */
+    public InValueSet getInValues() {
+        return inValues;
+    }
+
+    /**
+     * Check the user field value against this condition.
+     * Not applicable to DISTRIBUTION_GROUPS_FILE conditions, which need a list lookup.
+     */
+    public boolean matches(UserAttributes attributes) {
+        String fieldValue = attributes.get(fieldType);
+        // If field value is empty, condition is not met (except IS_NULL/IS_NOT_NULL)
+        if (fieldValue == null) {
+            return operator == FilterOperator.IS_NULL;
+        }
+
+        if (value == null) {
+            return operator == FilterOperator.IS_NOT_NULL;
+        }
+
+        switch (operator) {
+            case EQUAL:
+                return fieldValue.equals(value);
+
+            case NOT_EQUAL:
+                return !fieldValue.equals(value);
+
+            case CONTAINS:
+                return attributes.getLowerCase(fieldType).contains(lowerCaseValue);
+
+            case NOT_CONTAINS:
+                return !attributes.getLowerCase(fieldType).contains(lowerCaseValue);
+
+            case STARTS_WITH:
+                return attributes.getLowerCase(fieldType).startsWith(lowerCaseValue);
+
+            case ENDS_WITH:
+                return attributes.getLowerCase(fieldType).endsWith(lowerCaseValue);
+
+            case GREATER_THAN:
+                return compare(attributes) > 0;
+
+            case GREATER_THAN_OR_EQUAL:
+                return compare(attributes) >= 0;
+
+            case LESS_THAN:
+                return compare(attributes) < 0;
+
+            case LESS_THAN_OR_EQUAL:
+                return compare(attributes) <= 0;
+
+            case IN:
+                return inValues.contains(fieldValue);
+
+            case NOT_IN:
+                return !inValues.contains(fieldValue);
+
+            case REGEX:
+                return regex != null && regex.matches(fieldValue);
+
+            case IS_NULL:
+                return false; // fieldValue already checked above
+
+            case IS_NOT_NULL:
+                return true; // fieldValue already checked above
+
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Compare versions component by component (CLIENT_VERSION), otherwise as numbers
+     */
+    private int compare(UserAttributes attributes) {
+        if (version != null) {
+            // Packed versions are compared without parsing the field value into a Version
+            int result = Version.compare(attributes.get(fieldType), version);
+            if (result != Integer.MIN_VALUE) {
+                return result;
+            }
+        }
+        return compareNumeric(attributes);
+    }
+
+    /**
+     * Compare numeric values, falling back to string comparison if either side is not a number
+     */
+    private int compareNumeric(UserAttributes attributes) {
+        if (numericValue != null) {
+            Double fieldNumber = attributes.getNumber(fieldType);
+            if (fieldNumber != null) {
+                return Double.compare(fieldNumber, numericValue);
+            }
+        }
+        return attributes.get(fieldType).compareTo(value);
+    }
+}
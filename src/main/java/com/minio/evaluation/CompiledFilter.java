@@ -0,0 +1,82 @@
+package com.minio.evaluation;
+
+import java.util.List;
+
+/**
+ * Immutable evaluation plan of a marketing target filter.
+ * Built once by {@link FilterCompiler} and safe to share between threads.
+ */
+public final class CompiledFilter {
+
+    private final Long id;
+    private final Long marketingTargetId;
+    private final boolean active;
+    private final List<CompiledCondition> conditions;
+    private final List<CompiledGroup> groups;
+    private final List<ConditionRun> conditionRuns;
+    private final int groupConditionCount;
+    private final int groupLookupCount;
+
+    CompiledFilter(Long id, Long marketingTargetId, boolean active,
+                   List<CompiledCondition> conditions, List<CompiledGroup> groups) {
+        this.id = id;
+        this.marketingTargetId = marketingTargetId;
+        this.active = active;
+        this.conditions = List.copyOf(conditions);
+        this.groups = List.copyOf(groups);
+        this.conditionRuns = List.copyOf(ConditionRun.split(this.conditions));
+
+        int conditionCount = 0;
+        int lookupCount = 0;
+        for (CompiledGroup group : this.groups) {
+            conditionCount += group.getConditions().size();
+            lookupCount += group.getLookupCount();
+        }
+        this.groupConditionCount = conditionCount;
+        this.groupLookupCount = lookupCount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getMarketingTargetId() {
+        return marketingTargetId;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Root-level conditions in definition order
+     */
+    public List<CompiledCondition> getConditions() {
+        return conditions;
+    }
+
+    /**
+     * Root-level conditions split into same-operator runs for short-circuit evaluation
+     */
+    public List<ConditionRun> getConditionRuns() {
+        return conditionRuns;
+    }
+
+    public List<CompiledGroup> getGroups() {
+        return groups;
+    }
+
+    /**
+     * Total number of conditions in all groups
+     */
+    public int getGroupConditionCount() {
+        return groupConditionCount;
+    }
+
+    /**
+     * Total number of list lookups in all groups
+     */
+    public int getGroupLookupCount() {
+        return groupLookupCount;
+    }
+}
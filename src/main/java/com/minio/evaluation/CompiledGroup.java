@@ -0,0 +1,50 @@
+package com.minio.evaluation;
+
+import com.minio.model.LogicalOperator;
+import java.util.List;
+
+/**
+ * Immutable, pre-parsed form of a filter condition group
+ */
+public final class CompiledGroup {
+
+    private final String groupName;
+    private final LogicalOperator combineOperator;
+    private final List<CompiledCondition> conditions;
+    private final List<ConditionRun> runs;
+    private final int lookupCount;
+
+    CompiledGroup(String groupName, LogicalOperator combineOperator, List<CompiledCondition> conditions) {
+        this.groupName = groupName;
+        this.combineOperator = combineOperator;
+        this.conditions = List.copyOf(conditions);
+        this.runs = List.copyOf(ConditionRun.split(this.conditions));
+        this.lookupCount = ConditionRun.countLookups(runs);
+    }
+
+    public String getGroupName() {
+        return groupName;
+    }
+
+    /**
+     * Operator used to combine this group with the result of the previous groups (never null)
+     */
+    public LogicalOperator getCombineOperator() {
+        return combineOperator;
+    }
+
+    public List<CompiledCondition> getConditions() {
+        return conditions;
+    }
+
+    /**
+     * Conditions split into same-operator runs for short-circuit evaluation
+     */
+    public List<ConditionRun> getRuns() {
+        return runs;
+    }
+
+    public int getLookupCount() {
+        return lookupCount;
+    }
+}
@@ -0,0 +1,137 @@
+package com.minio.evaluation;
+
+/**
+ * Pre-compiled REGEX condition value. Instances are immutable and thread-safe.
+ */
+public abstract class CompiledRegex {
+
+    /**
+     * Maximum number of character reads per JDK match. A pathological pattern that
+     * backtracks beyond this budget is treated as a non-match instead of stalling the thread.
+     */
+    static final int JDK_MATCH_STEP_BUDGET = 1_000_000;
+
+    private final String pattern;
+    private final RegexEngine engine;
+
+    CompiledRegex(String pattern, RegexEngine engine) {
+        this.pattern = pattern;
+        this.engine = engine;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public RegexEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Check if the whole value matches the pattern
+     */
+    public abstract boolean matches(String value);
+
+    /**
+     * Compile the pattern with the given engine
+     * @throws IllegalArgumentException if the pattern is not valid for the engine
+     */
+    public static CompiledRegex compile(String pattern, RegexEngine engine) {
+        switch (engine) {
+            case RE2J:
+                return new Re2jRegex(pattern);
+            case JDK:
+            default:
+                return new JdkRegex(pattern);
+        }
+    }
+
+    private static final class JdkRegex extends CompiledRegex {
+
+        private final java.util.regex.Pattern compiled;
+
+        JdkRegex(String pattern) {
+            super(pattern, RegexEngine.JDK);
+            try {
+                this.compiled = java.util.regex.Pattern.compile(pattern);
+            } catch (java.util.regex.PatternSyntaxException e) {
+                throw new IllegalArgumentException(e.getDescription(), e);
+            }
+        }
+
+        @Override
+        public boolean matches(String value) {
+            try {
+                return compiled.matcher(new BudgetedCharSequence(value, JDK_MATCH_STEP_BUDGET)).matches();
+            } catch (MatchBudgetExceededException e) {
+                return false;
+            }
+        }
+    }
+
+    private static final class Re2jRegex extends CompiledRegex {
+
+        private final com.google.re2j.Pattern compiled;
+
+        Re2jRegex(String pattern) {
+            super(pattern, RegexEngine.RE2J);
+            try {
+                this.compiled = com.google.re2j.Pattern.compile(pattern);
+            } catch (com.google.re2j.PatternSyntaxException e) {
+                throw new IllegalArgumentException(e.getDescription(), e);
+            }
+        }
+
+        @Override
+        public boolean matches(String value) {
+            return compiled.matcher(value).matches();
+        }
+    }
+
+    /**
+     * Character sequence that aborts the match once the engine has read too many characters
+     */
+    private static final class BudgetedCharSequence implements CharSequence {
+
+        private final String value;
+        private int remaining;
+
+        BudgetedCharSequence(String value, int budget) {
+            this.value = value;
+            this.remaining = budget;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (--remaining < 0) {
+                throw MatchBudgetExceededException.INSTANCE;
+            }
+            return value.charAt(index);
+        }
+
+        @Override
+        public int length() {
+            return value.length();
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return value.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return value;
+        }
+    }
+
+    private static final class MatchBudgetExceededException extends RuntimeException {
+
+        // Stackless singleton: thrown on the evaluation path, so it must be cheap
+        static final MatchBudgetExceededException INSTANCE = new MatchBudgetExceededException();
+
+        private MatchBudgetExceededException() {
+            super("Regex match step budget exceeded", null, false, false);
+        }
+    }
+}
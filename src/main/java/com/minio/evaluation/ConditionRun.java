@@ -0,0 +1,103 @@
+package com.minio.evaluation;
+
+import com.minio.model.FilterOperator;
+import com.minio.model.LogicalOperator;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Maximal run of consecutive conditions combined with the same logical operator.
+ * Within a run the left-to-right fold is a plain AND (or OR) of its conditions, so their order
+ * does not affect the result: conditions are stored cheapest first, with list lookups last.
+ */
+public final class ConditionRun {
+
+    private static final Comparator<CompiledCondition> BY_COST = Comparator.comparingInt(ConditionRun::cost);
+
+    private final LogicalOperator operator;
+    private final CompiledCondition[] conditions;
+
+    /**
+     * lookupsFrom[i] - number of list lookups among conditions[i..]
+     */
+    private final int[] lookupsFrom;
+
+    private ConditionRun(LogicalOperator operator, List<CompiledCondition> conditions) {
+        List<CompiledCondition> ordered = new ArrayList<>(conditions);
+        ordered.sort(BY_COST); // stable, so equally cheap conditions keep their order
+
+        this.operator = operator;
+        this.conditions = ordered.toArray(new CompiledCondition[0]);
+        this.lookupsFrom = new int[this.conditions.length + 1];
+        for (int i = this.conditions.length - 1; i >= 0; i--) {
+            lookupsFrom[i] = lookupsFrom[i + 1] + (this.conditions[i].isLookup() ? 1 : 0);
+        }
+    }
+
+    /**
+     * Split a condition list with resolved combine operators into runs.
+     * The first condition is not combined with anything, so it joins the run of the second one.
+     */
+    static List<ConditionRun> split(List<CompiledCondition> conditions) {
+        List<ConditionRun> runs = new ArrayList<>();
+        int start = 0;
+        while (start < conditions.size()) {
+            LogicalOperator operator;
+            if (start == 0) {
+                operator = conditions.size() > 1 ? conditions.get(1).getCombineOperator() : LogicalOperator.AND;
+            } else {
+                operator = conditions.get(start).getCombineOperator();
+            }
+
+            int end = start + 1;
+            while (end < conditions.size() && conditions.get(end).getCombineOperator() == operator) {
+                end++;
+            }
+            runs.add(new ConditionRun(operator, conditions.subList(start, end)));
+            start = end;
+        }
+        return runs;
+    }
+
+    /**
+     * Operator combining the conditions of this run and the run with the result before it
+     */
+    public LogicalOperator getOperator() {
+        return operator;
+    }
+
+    public int size() {
+        return conditions.length;
+    }
+
+    public CompiledCondition get(int index) {
+        return conditions[index];
+    }
+
+    /**
+     * Number of list lookups among the conditions starting at the given index
+     */
+    public int getLookupCount(int fromIndex) {
+        return lookupsFrom[fromIndex];
+    }
+
+    public int getLookupCount() {
+        return lookupsFrom[0];
+    }
+
+    private static int cost(CompiledCondition condition) {
+        if (condition.isLookup()) {
+            return 2;
+        }
+        return condition.getOperator() == FilterOperator.REGEX ? 1 : 0;
+    }
+
+    static int countLookups(List<ConditionRun> runs) {
+        int count = 0;
+        for (ConditionRun run : runs) {
+            count += run.getLookupCount();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,64 @@
+package com.minio.evaluation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Evaluation state of one request: the user attributes (derived values such as lower-cased fields and parsed
+ * versions are computed once, see {@link UserAttributes}) and memoized list membership results.
+ * Shared by every condition, group and filter evaluated for the request, so a list referenced several times
+ * is looked up once. Not thread-safe.
+ */
+public final class EvaluationContext implements MembershipLookup {
+
+    private final UserAttributes attributes;
+    private final MembershipLookup source;
+    private final Map<String, Boolean> memberships = new HashMap<>(4);
+    private int lookups;
+    private int memoizedLookups;
+
+    public EvaluationContext(UserAttributes attributes, MembershipLookup source) {
+        this.attributes = attributes;
+        this.source = source;
+    }
+
+    public UserAttributes getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * Membership of the request's SMID is resolved once per file; other SMIDs go to the source every time
+     */
+    @Override
+    public boolean contains(String fileId, String smid) {
+        if (!Objects.equals(smid, attributes.getSmid())) {
+            lookups++;
+            return source.contains(fileId, smid);
+        }
+
+        Boolean member = memberships.get(fileId);
+        if (member != null) {
+            memoizedLookups++;
+            return member;
+        }
+        lookups++;
+        boolean result = source.contains(fileId, smid);
+        memberships.put(fileId, result);
+        return result;
+    }
+
+    /**
+     * Lookups sent to the membership source for this request
+     */
+    public int getLookupCount() {
+        return lookups;
+    }
+
+    /**
+     * Lookups answered from an earlier result of this request
+     */
+    public int getMemoizedLookupCount() {
+        return memoizedLookups;
+    }
+}
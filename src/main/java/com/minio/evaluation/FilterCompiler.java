@@ -0,0 +1,154 @@
+package com.minio.evaluation;
+
+import com.minio.dto.FilterConditionDto;
+import com.minio.dto.FilterGroupDto;
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.model.LogicalOperator;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiles a filter DTO into an immutable {@link CompiledFilter}.
+ * Condition order is taken as-is from the DTO lists.
+ */
+public final class FilterCompiler {
+
+    private FilterCompiler() {
+    }
+
+    public static CompiledFilter compile(MarketingTargetFilterDto filter) {
+        RegexEngine regexEngine = regexEngine(filter);
+        List<CompiledGroup> groups = new ArrayList<>();
+        if (filter.getGroups() != null) {
+            for (FilterGroupDto group : filter.getGroups()) {
+                groups.add(compileGroup(group, regexEngine));
+            }
+        }
+
+        return new CompiledFilter(
+            filter.getId(),
+            filter.getMarketingTargetId(),
+            Boolean.TRUE.equals(filter.getIsActive()),
+            compileConditions(filter.getConditions(), regexEngine),
+            groups
+        );
+    }
+
+    /**
+     * High-traffic filters use the linear-time engine for REGEX conditions
+     */
+    public static RegexEngine regexEngine(MarketingTargetFilterDto filter) {
+        return Boolean.TRUE.equals(filter.getHighTraffic()) ? RegexEngine.RE2J : RegexEngine.JDK;
+    }
+
+    private static CompiledGroup compileGroup(FilterGroupDto group, RegexEngine regexEngine) {
+        // Groups without an operator are combined with AND
+        LogicalOperator operator = group.getLogicalOperator() != null ? group.getLogicalOperator() : LogicalOperator.AND;
+        return new CompiledGroup(group.getGroupName(), operator, compileConditions(group.getConditions(), regexEngine));
+    }
+
+    /**
+     * Compile a condition list, resolving the operator each condition is combined with.
+     * A null operator inherits the last non-null operator seen, starting from the first condition's one (AND by default).
+     */
+    private static List<CompiledCondition> compileConditions(List<FilterConditionDto> conditions, RegexEngine regexEngine) {
+        List<CompiledCondition> compiled = new ArrayList<>();
+        if (conditions == null || conditions.isEmpty()) {
+            return compiled;
+        }
+
+        LogicalOperator lastOperator = conditions.get(0).getLogicalOperator();
+        if (lastOperator == null) {
+            lastOperator = LogicalOperator.AND;
+        }
+
+        for (FilterConditionDto condition : conditions) {
+            if (condition.getLogicalOperator() != null) {
+                lastOperator = condition.getLogicalOperator();
+            }
+            compiled.add(compileCondition(condition, lastOperator, regexEngine));
+        }
+        return compiled;
+    }
+
+    private static CompiledCondition compileCondition(FilterConditionDto condition, LogicalOperator combineOperator,
+                                                      RegexEngine regexEngine) {
+        String value = condition.getFieldValue();
+        FilterOperator operator = condition.getOperator();
+
+        String lowerCaseValue = value != null ? value.toLowerCase() : null;
+        Double numericValue = null;
+        Version version = null;
+        InValueSet inValues = null;
+        CompiledRegex regex = null;
+
+        if (value != null) {
+            switch (operator) {
+                case GREATER_THAN:
+                case GREATER_THAN_OR_EQUAL:
+                case LESS_THAN:
+                case LESS_THAN_OR_EQUAL:
+                    numericValue = parseNumber(value);
+                    if (condition.getFieldType() == FilterFieldType.CLIENT_VERSION) {
+                        version = Version.parse(value);
+                    }
+                    break;
+                case IN:
+                case NOT_IN:
+                    inValues = InValueSet.of(parseInValues(value));
+                    break;
+                case REGEX:
+                    regex = compileRegex(value, regexEngine);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return new CompiledCondition(condition.getFieldType(), operator, value, combineOperator,
+            lowerCaseValue, numericValue, version, inValues, regex);
+    }
+
+    /**
+     * Parse IN/NOT_IN values given either as a JSON array or as comma-separated values
+     */
+    public static String[] parseInValues(String conditionValue) {
+        String trimmed = conditionValue.trim();
+        if (trimmed.startsWith("[") && trimmed.endsWith("]")) {
+            String[] values = trimmed.substring(1, trimmed.length() - 1).split(",");
+            for (int i = 0; i < values.length; i++) {
+                values[i] = values[i].trim();
+                // Remove surrounding quotes if present
+                if (values[i].length() >= 2 && values[i].startsWith("\"") && values[i].endsWith("\"")) {
+                    values[i] = values[i].substring(1, values[i].length() - 1);
+                }
+            }
+            return values;
+        }
+
+        String[] values = conditionValue.split(",");
+        for (int i = 0; i < values.length; i++) {
+            values[i] = values[i].trim();
+        }
+        return values;
+    }
+
+    private static Double parseNumber(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static CompiledRegex compileRegex(String value, RegexEngine regexEngine) {
+        try {
+            return RegexCache.get(value, regexEngine);
+        } catch (IllegalArgumentException e) {
+            // Invalid patterns never match (filters saved before patterns were validated)
+            return null;
+        }
+    }
+}
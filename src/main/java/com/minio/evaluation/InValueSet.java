@@ -0,0 +1,117 @@
+package com.minio.evaluation;
+
+import com.minio.util.LongHashSet;
+import com.minio.util.Longs;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Immutable set of IN/NOT_IN condition values, parsed once at compile time.
+ * Small lists use a compact array, numeric lists (e.g. SMID) a primitive long set,
+ * everything else a hash set. Lookups do not allocate.
+ */
+public abstract class InValueSet {
+
+    /**
+     * Lists up to this size are scanned linearly, which is faster than hashing for a handful of values
+     */
+    static final int SMALL_SET_MAX_SIZE = 8;
+
+    InValueSet() {
+    }
+
+    /**
+     * Check if the value equals one of the set values (exact, case-sensitive match)
+     */
+    public abstract boolean contains(String value);
+
+    public abstract int size();
+
+    public static InValueSet of(String[] values) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String value : values) {
+            distinct.add(value);
+        }
+        String[] unique = distinct.toArray(new String[0]);
+
+        if (unique.length <= SMALL_SET_MAX_SIZE) {
+            return new Small(unique);
+        }
+
+        long[] numbers = new long[unique.length];
+        for (int i = 0; i < unique.length; i++) {
+            numbers[i] = Longs.parseCanonical(unique[i]);
+            if (numbers[i] < 0) {
+                return new Hashed(distinct);
+            }
+        }
+        return new Numeric(LongHashSet.of(numbers));
+    }
+
+    private static final class Small extends InValueSet {
+
+        private final String[] values;
+
+        Small(String[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean contains(String value) {
+            for (String candidate : values) {
+                if (candidate.equals(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+
+    private static final class Hashed extends InValueSet {
+
+        private final Set<String> values;
+
+        Hashed(Set<String> values) {
+            this.values = Set.copyOf(values);
+        }
+
+        @Override
+        public boolean contains(String value) {
+            return values.contains(value);
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+    }
+
+    /**
+     * All values are canonical non-negative numbers, so a string matches exactly when
+     * it is canonical itself and its parsed value is in the set
+     */
+    private static final class Numeric extends InValueSet {
+
+        private final LongHashSet values;
+
+        Numeric(LongHashSet values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean contains(String value) {
+            long number = Longs.parseCanonical(value);
+            return number >= 0 && values.contains(number);
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.minio.evaluation;
+
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.model.LogicalOperator;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Field and values under which a filter is put into the match index.
+ * A filter can only match a user whose field value is one of these values, because the key is taken from
+ * an EQUAL/IN condition that must hold for the whole filter to match.
+ */
+public final class IndexKey {
+
+    private final FilterFieldType fieldType;
+    private final Set<String> values;
+
+    private IndexKey(FilterFieldType fieldType, Set<String> values) {
+        this.fieldType = fieldType;
+        this.values = Set.copyOf(values);
+    }
+
+    public FilterFieldType getFieldType() {
+        return fieldType;
+    }
+
+    public Set<String> getValues() {
+        return values;
+    }
+
+    /**
+     * Pick the most selective required EQUAL/IN condition of the filter (fewest values).
+     * Returns null if the filter has none and has to be evaluated for every user.
+     */
+    public static IndexKey of(CompiledFilter filter) {
+        List<CompiledCondition> required = new ArrayList<>();
+        addRequired(filter.getConditionRuns(), required);
+
+        List<CompiledGroup> groups = filter.getGroups();
+        if (!groups.isEmpty()) {
+            // Groups are folded left to right too: only a trailing AND group (or the only one) is required
+            CompiledGroup last = groups.get(groups.size() - 1);
+            if (groups.size() == 1 || last.getCombineOperator() == LogicalOperator.AND) {
+                addRequired(last.getRuns(), required);
+            }
+        }
+
+        IndexKey best = null;
+        for (CompiledCondition condition : required) {
+            IndexKey key = of(condition);
+            if (key != null && (best == null || key.values.size() < best.values.size())) {
+                best = key;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Conditions of the last run are required when it is combined with AND (a single condition is an AND run):
+     * the fold ends with "result AND c1 AND c2 ...", so each of them has to be true
+     */
+    private static void addRequired(List<ConditionRun> runs, List<CompiledCondition> required) {
+        if (runs.isEmpty()) {
+            return;
+        }
+        ConditionRun last = runs.get(runs.size() - 1);
+        if (last.getOperator() == LogicalOperator.AND) {
+            for (int i = 0; i < last.size(); i++) {
+                required.add(last.get(i));
+            }
+        }
+    }
+
+    private static IndexKey of(CompiledCondition condition) {
+        if (condition.isLookup() || condition.getValue() == null) {
+            return null;
+        }
+
+        if (condition.getOperator() == FilterOperator.EQUAL) {
+            return new IndexKey(condition.getFieldType(), Set.of(condition.getValue()));
+        }
+        if (condition.getOperator() == FilterOperator.IN) {
+            Set<String> values = new LinkedHashSet<>();
+            for (String value : FilterCompiler.parseInValues(condition.getValue())) {
+                values.add(value);
+            }
+            return new IndexKey(condition.getFieldType(), values);
+        }
+        return null;
+    }
+}
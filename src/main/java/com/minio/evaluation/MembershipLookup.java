@@ -0,0 +1,10 @@
+package com.minio.evaluation;
+
+/**
+ * Source of DISTRIBUTION_GROUPS_FILE membership: is the SMID listed in the file
+ */
+@FunctionalInterface
+public interface MembershipLookup {
+
+    boolean contains(String fileId, String smid);
+}
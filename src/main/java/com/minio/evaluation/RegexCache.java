@@ -0,0 +1,45 @@
+package com.minio.evaluation;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide cache of compiled REGEX condition values, shared by all filter plans.
+ * Patterns are compiled when a filter is validated on save and reused on every plan load.
+ */
+public final class RegexCache {
+
+    private static final int MAX_SIZE = 10_000;
+
+    private static final ConcurrentHashMap<String, CompiledRegex> CACHE = new ConcurrentHashMap<>();
+
+    private RegexCache() {
+    }
+
+    /**
+     * Get the compiled pattern, compiling it on first use
+     * @throws IllegalArgumentException if the pattern is not valid for the engine
+     */
+    public static CompiledRegex get(String pattern, RegexEngine engine) {
+        String key = engine.name() + ':' + pattern;
+        CompiledRegex regex = CACHE.get(key);
+        if (regex == null) {
+            regex = CompiledRegex.compile(pattern, engine);
+            evictIfFull();
+            CACHE.putIfAbsent(key, regex);
+        }
+        return regex;
+    }
+
+    public static int size() {
+        return CACHE.size();
+    }
+
+    private static void evictIfFull() {
+        Iterator<String> keys = CACHE.keySet().iterator();
+        while (CACHE.size() >= MAX_SIZE && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
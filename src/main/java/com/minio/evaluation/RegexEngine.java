@@ -0,0 +1,15 @@
+package com.minio.evaluation;
+
+/**
+ * Regular expression engine used for REGEX conditions
+ */
+public enum RegexEngine {
+    /**
+     * java.util.regex with a per-match step budget (backtracking, full syntax)
+     */
+    JDK,
+    /**
+     * RE2/J linear-time engine (no backreferences or lookaround), used for high-traffic filters
+     */
+    RE2J
+}
@@ -0,0 +1,184 @@
+package com.minio.evaluation;
+
+import com.minio.dto.UserRequestDto;
+import com.minio.model.FilterFieldType;
+
+/**
+ * Flat attribute vector of one user request, indexed by {@link FilterFieldType} ordinal.
+ * Field values (including custom fields) are resolved once when the vector is built: custom fields that
+ * conditions can refer to are field types with their own slot, other custom fields are never read.
+ * Trimmed, lowercased and numeric forms are derived lazily on first use and reused by every
+ * condition of every filter evaluated for the request.
+ * Not thread-safe: create one instance per request.
+ */
+public final class UserAttributes {
+
+    private static final FilterFieldType[] FIELD_TYPES = FilterFieldType.values();
+    private static final byte NOT_PARSED = 0;
+    private static final byte PARSED = 1;
+    private static final byte INVALID = 2;
+
+    private final String[] values;
+
+    // Lazily derived forms, allocated on first use
+    private String[] trimmedValues;
+    private String[] lowerCaseValues;
+    private Double[] numbers;
+    private byte[] numberStates;
+
+    private UserAttributes(String[] values) {
+        this.values = values;
+    }
+
+    public static UserAttributes of(UserRequestDto userRequest) {
+        String[] values = new String[FIELD_TYPES.length];
+        for (FilterFieldType fieldType : FIELD_TYPES) {
+            values[fieldType.ordinal()] = userRequest.getFieldValue(fieldType.name());
+        }
+        return new UserAttributes(values);
+    }
+
+    public String get(FilterFieldType fieldType) {
+        return values[fieldType.ordinal()];
+    }
+
+    public String getSmid() {
+        return values[FilterFieldType.SMID.ordinal()];
+    }
+
+    /**
+     * Field value without leading and trailing whitespace, or null if the field is not set
+     */
+    public String getTrimmed(FilterFieldType fieldType) {
+        int slot = fieldType.ordinal();
+        if (values[slot] == null) {
+            return null;
+        }
+        if (trimmedValues == null) {
+            trimmedValues = new String[values.length];
+        }
+        String trimmed = trimmedValues[slot];
+        if (trimmed == null) {
+            // The value itself when there is nothing to trim
+            trimmed = values[slot].trim();
+            trimmedValues[slot] = trimmed;
+        }
+        return trimmed;
+    }
+
+    /**
+     * Lowercased field value, or null if the field is not set
+     */
+    public String getLowerCase(FilterFieldType fieldType) {
+        int slot = fieldType.ordinal();
+        if (values[slot] == null) {
+            return null;
+        }
+        if (lowerCaseValues == null) {
+            lowerCaseValues = new String[values.length];
+        }
+        String lowerCase = lowerCaseValues[slot];
+        if (lowerCase == null) {
+            lowerCase = values[slot].toLowerCase();
+            lowerCaseValues[slot] = lowerCase;
+        }
+        return lowerCase;
+    }
+
+    /**
+     * Field value parsed as a number (surrounding whitespace ignored, as by {@link Double#parseDouble}),
+     * or null if it is not set or not a number
+     */
+    public Double getNumber(FilterFieldType fieldType) {
+        int slot = fieldType.ordinal();
+        if (numberStates == null) {
+            numberStates = new byte[values.length];
+            numbers = new Double[values.length];
+        }
+        if (numberStates[slot] == NOT_PARSED) {
+            numbers[slot] = parseNumber(getTrimmed(fieldType));
+            numberStates[slot] = numbers[slot] != null ? PARSED : INVALID;
+        }
+        return numbers[slot];
+    }
+
+    /**
+     * Parse a trimmed value. Plain decimals are checked before parsing, so that the common non-numeric values
+     * (country codes, versions, names) are rejected without an exception; only hexadecimal, NaN and Infinity
+     * forms are left to {@link Double#parseDouble} to validate.
+     */
+    static Double parseNumber(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (isDecimal(value)) {
+            return Double.parseDouble(value);
+        }
+        if (!mayBeSpecialNumber(value)) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * [sign] (digits [. [digits]] | . digits) [e|E [sign] digits] [f|F|d|D]
+     */
+    private static boolean isDecimal(String value) {
+        int length = value.length();
+        int i = 0;
+        if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+            i++;
+        }
+        int digits = 0;
+        while (i < length && isDigit(value.charAt(i))) {
+            i++;
+            digits++;
+        }
+        if (i < length && value.charAt(i) == '.') {
+            i++;
+            while (i < length && isDigit(value.charAt(i))) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        if (i < length && (value.charAt(i) == 'e' || value.charAt(i) == 'E')) {
+            i++;
+            if (i < length && (value.charAt(i) == '+' || value.charAt(i) == '-')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            while (i < length && isDigit(value.charAt(i))) {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+        if (i < length && "fFdD".indexOf(value.charAt(i)) >= 0) {
+            i++;
+        }
+        return i == length;
+    }
+
+    private static boolean mayBeSpecialNumber(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == 'x' || c == 'X' || c == 'N' || c == 'I') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
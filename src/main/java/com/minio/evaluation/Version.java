@@ -0,0 +1,193 @@
+package com.minio.evaluation;
+
+/**
+ * Parsed dotted version (e.g. 2.10.3) compared component by component, so 2.10 > 2.9.
+ * Missing components count as zero (2.1 == 2.1.0).
+ * Versions with up to four components below 32768 are packed into a single long,
+ * which covers practically all client versions and makes comparison a single long compare.
+ */
+public final class Version implements Comparable<Version> {
+
+    private static final int MAX_PACKED_COMPONENTS = 4;
+    private static final int PACKED_COMPONENT_BITS = 15;
+    private static final int MAX_PACKED_COMPONENT = (1 << PACKED_COMPONENT_BITS) - 1;
+    private static final int MAX_COMPONENT_DIGITS = 9;
+
+    /**
+     * Packed form, or -1 if the version does not fit (then components is set)
+     */
+    private final long packed;
+    private final int[] components;
+
+    private Version(long packed, int[] components) {
+        this.packed = packed;
+        this.components = components;
+    }
+
+    /**
+     * Parse a version in the format validated on save (digits separated by dots).
+     * Returns null if the value is not a valid version. Never throws.
+     */
+    public static Version parse(CharSequence value) {
+        long packed = pack(value);
+        if (packed >= 0) {
+            return new Version(packed, null);
+        }
+
+        int[] components = parseComponents(value);
+        return components != null ? new Version(-1, components) : null;
+    }
+
+    /**
+     * Compare a raw version string with a parsed version without allocating in the common case.
+     * Returns the sign of (value - version), or {@link Integer#MIN_VALUE} if value is not a valid version.
+     */
+    public static int compare(CharSequence value, Version version) {
+        if (version.packed >= 0) {
+            long packedValue = pack(value);
+            if (packedValue >= 0) {
+                return Long.compare(packedValue, version.packed);
+            }
+        }
+
+        Version parsed = parse(value);
+        return parsed != null ? parsed.compareTo(version) : Integer.MIN_VALUE;
+    }
+
+    @Override
+    public int compareTo(Version other) {
+        if (packed >= 0 && other.packed >= 0) {
+            return Long.compare(packed, other.packed);
+        }
+
+        int[] left = toComponents();
+        int[] right = other.toComponents();
+        for (int i = 0; i < Math.max(left.length, right.length); i++) {
+            int l = i < left.length ? left[i] : 0;
+            int r = i < right.length ? right[i] : 0;
+            if (l != r) {
+                return Integer.compare(l, r);
+            }
+        }
+        return 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Version && compareTo((Version) o) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int[] values = toComponents();
+        int length = values.length;
+        while (length > 0 && values[length - 1] == 0) {
+            length--;
+        }
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + values[i];
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        int[] values = toComponents();
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append('.');
+            }
+            sb.append(values[i]);
+        }
+        return sb.toString();
+    }
+
+    private int[] toComponents() {
+        if (components != null) {
+            return components;
+        }
+        int[] values = new int[MAX_PACKED_COMPONENTS];
+        for (int i = 0; i < MAX_PACKED_COMPONENTS; i++) {
+            int shift = PACKED_COMPONENT_BITS * (MAX_PACKED_COMPONENTS - 1 - i);
+            values[i] = (int) ((packed >>> shift) & MAX_PACKED_COMPONENT);
+        }
+        return values;
+    }
+
+    /**
+     * Pack a version into a long, or return -1 if it is invalid or does not fit
+     */
+    private static long pack(CharSequence value) {
+        if (value == null || value.length() == 0) {
+            return -1;
+        }
+
+        long packed = 0;
+        int componentCount = 0;
+        int component = 0;
+        int digits = 0;
+        for (int i = 0; i <= value.length(); i++) {
+            char c = i < value.length() ? value.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                component = component * 10 + (c - '0');
+                if (++digits > MAX_COMPONENT_DIGITS || component > MAX_PACKED_COMPONENT) {
+                    return -1;
+                }
+            } else if (c == '.' && digits > 0) {
+                if (componentCount == MAX_PACKED_COMPONENTS) {
+                    // Extra trailing components are only representable if they are zero
+                    if (component != 0) {
+                        return -1;
+                    }
+                } else {
+                    packed = (packed << PACKED_COMPONENT_BITS) | component;
+                    componentCount++;
+                }
+                component = 0;
+                digits = 0;
+            } else {
+                return -1;
+            }
+        }
+
+        // Pad missing components with zeros
+        for (; componentCount < MAX_PACKED_COMPONENTS; componentCount++) {
+            packed <<= PACKED_COMPONENT_BITS;
+        }
+        return packed;
+    }
+
+    private static int[] parseComponents(CharSequence value) {
+        if (value == null || value.length() == 0) {
+            return null;
+        }
+
+        int count = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '.') {
+                count++;
+            }
+        }
+
+        int[] components = new int[count];
+        int index = 0;
+        int digits = 0;
+        for (int i = 0; i <= value.length(); i++) {
+            char c = i < value.length() ? value.charAt(i) : '.';
+            if (c >= '0' && c <= '9') {
+                if (++digits > MAX_COMPONENT_DIGITS) {
+                    return null;
+                }
+                components[index] = components[index] * 10 + (c - '0');
+            } else if (c == '.' && digits > 0) {
+                index++;
+                digits = 0;
+            } else {
+                return null;
+            }
+        }
+        return components;
+    }
+}
@@ -0,0 +1,26 @@
+package com.minio.executor;
+
+import com.minio.dto.ListDeltaDto;
+import com.minio.dto.ListDeltaResultDto;
+import com.minio.service.ListDeltaService;
+
+/**
+ * Экзекютор для применения изменений (добавление/удаление SMID) к списку маркетинговой цели
+ */
+public class ApplyListDeltaExecutor extends AWSExecutor<ListDeltaResultDto> {
+
+    private final ListDeltaService deltaService;
+    private final Long marketingTargetId;
+    private final ListDeltaDto delta;
+
+    public ApplyListDeltaExecutor(ListDeltaService deltaService, Long marketingTargetId, ListDeltaDto delta) {
+        this.deltaService = deltaService;
+        this.marketingTargetId = marketingTargetId;
+        this.delta = delta;
+    }
+
+    @Override
+    public ListDeltaResultDto execute() throws Exception {
+        return deltaService.applyDelta(marketingTargetId, delta);
+    }
+}
@@ -0,0 +1,24 @@
+package com.minio.executor;
+
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.service.MarketingTargetFilterService;
+import java.util.List;
+
+/**
+ * Экзекютор для массового создания фильтров
+ */
+public class CreateFiltersExecutor extends AWSExecutor<List<MarketingTargetFilterDto>> {
+
+    private final MarketingTargetFilterService filterService;
+    private final List<MarketingTargetFilterDto> filterDtos;
+
+    public CreateFiltersExecutor(MarketingTargetFilterService filterService, List<MarketingTargetFilterDto> filterDtos) {
+        this.filterService = filterService;
+        this.filterDtos = filterDtos;
+    }
+
+    @Override
+    public List<MarketingTargetFilterDto> execute() throws Exception {
+        return filterService.createFilters(filterDtos);
+    }
+}
@@ -0,0 +1,35 @@
+package com.minio.executor;
+
+import com.minio.evaluation.CompiledFilter;
+import com.minio.service.FilterBatchEvaluationService;
+import com.minio.service.FilterEvaluationService;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.InputStream;
+import java.util.Optional;
+
+/**
+ * Executor for evaluating a stream of users against one filter; results are written as NDJSON when the response
+ * is sent. Empty if the filter is not found.
+ */
+public class EvaluateFilterBatchExecutor extends AWSExecutor<Optional<StreamingOutput>> {
+
+    private final FilterEvaluationService evaluationService;
+    private final FilterBatchEvaluationService batchEvaluationService;
+    private final Long filterId;
+    private final InputStream body;
+
+    public EvaluateFilterBatchExecutor(FilterEvaluationService evaluationService,
+                                       FilterBatchEvaluationService batchEvaluationService,
+                                       Long filterId, InputStream body) {
+        this.evaluationService = evaluationService;
+        this.batchEvaluationService = batchEvaluationService;
+        this.filterId = filterId;
+        this.body = body;
+    }
+
+    @Override
+    public Optional<StreamingOutput> execute() throws Exception {
+        Optional<CompiledFilter> plan = evaluationService.getPlan(filterId);
+        return plan.map(filter -> output -> batchEvaluationService.evaluateBatch(filter, body, output));
+    }
+}
@@ -0,0 +1,31 @@
+package com.minio.executor;
+
+import com.minio.dto.EvaluationTraceDto;
+import com.minio.dto.UserRequestDto;
+import com.minio.service.FilterEvaluationService;
+import com.minio.util.UserRequestHeraclesMapper;
+import com.minio.util.Heracles;
+import java.util.Optional;
+
+/**
+ * Executor for filter evaluation with a per-condition trace (explain mode)
+ */
+public class ExplainFilterExecutor extends AWSExecutor<Optional<EvaluationTraceDto>> {
+
+    private final FilterEvaluationService evaluationService;
+    private final Long filterId;
+    private final Heracles heraclesData;
+
+    public ExplainFilterExecutor(FilterEvaluationService evaluationService, Long filterId, Heracles heraclesData) {
+        this.evaluationService = evaluationService;
+        this.filterId = filterId;
+        this.heraclesData = heraclesData;
+    }
+
+    @Override
+    public Optional<EvaluationTraceDto> execute() throws Exception {
+        // Unpack UserRequestDto from Heracles
+        UserRequestDto userRequest = UserRequestHeraclesMapper.fromHeracles(heraclesData);
+        return evaluationService.explainFilter(filterId, userRequest);
+    }
+}
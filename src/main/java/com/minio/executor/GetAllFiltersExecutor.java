@@ -1,22 +1,32 @@
 package com.minio.executor;
 
-import com.minio.dto.MarketingTargetFilterDto;
 import com.minio.service.MarketingTargetFilterService;
+import jakarta.ws.rs.core.StreamingOutput;
 import java.util.List;
 
 /**
- * Экзекютор для получения всех фильтров
+ * Экзекютор для получения всех фильтров: страница после afterId (по id), список пишется потоком при отдаче ответа
  */
-public class GetAllFiltersExecutor extends AWSExecutor<List<MarketingTargetFilterDto>> {
+public class GetAllFiltersExecutor extends AWSExecutor<StreamingOutput> {
 
     private final MarketingTargetFilterService filterService;
+    private final Long afterId;
+    private final Integer limit;
+    private final String fields;
 
-    public GetAllFiltersExecutor(MarketingTargetFilterService filterService) {
+    public GetAllFiltersExecutor(MarketingTargetFilterService filterService, Long afterId, Integer limit, String fields) {
         this.filterService = filterService;
+        this.afterId = afterId;
+        this.limit = limit;
+        this.fields = fields;
     }
 
     @Override
-    public List<MarketingTargetFilterDto> execute() throws Exception {
-        return filterService.getAllFilters();
+    public StreamingOutput execute() throws Exception {
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        List<String> summaryFields = filterService.summaryFields(fields);
+        return output -> filterService.writeFilters(null, afterId, limit, summaryFields, output);
     }
 }
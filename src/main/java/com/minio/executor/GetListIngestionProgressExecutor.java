@@ -0,0 +1,24 @@
+package com.minio.executor;
+
+import com.minio.dto.ListIngestionProgressDto;
+import com.minio.service.ListIngestionService;
+import java.util.Optional;
+
+/**
+ * Экзекютор для получения прогресса загрузки списка маркетинговой цели
+ */
+public class GetListIngestionProgressExecutor extends AWSExecutor<Optional<ListIngestionProgressDto>> {
+
+    private final ListIngestionService ingestionService;
+    private final Long marketingTargetId;
+
+    public GetListIngestionProgressExecutor(ListIngestionService ingestionService, Long marketingTargetId) {
+        this.ingestionService = ingestionService;
+        this.marketingTargetId = marketingTargetId;
+    }
+
+    @Override
+    public Optional<ListIngestionProgressDto> execute() throws Exception {
+        return ingestionService.getProgress(marketingTargetId);
+    }
+}
@@ -0,0 +1,28 @@
+package com.minio.executor;
+
+import com.minio.dto.UserRequestDto;
+import com.minio.service.FilterEvaluationService;
+import com.minio.util.UserRequestHeraclesMapper;
+import com.minio.util.Heracles;
+import java.util.List;
+
+/**
+ * Executor for finding all active filters the user matches
+ */
+public class MatchFiltersExecutor extends AWSExecutor<List<Long>> {
+
+    private final FilterEvaluationService evaluationService;
+    private final Heracles heraclesData;
+
+    public MatchFiltersExecutor(FilterEvaluationService evaluationService, Heracles heraclesData) {
+        this.evaluationService = evaluationService;
+        this.heraclesData = heraclesData;
+    }
+
+    @Override
+    public List<Long> execute() throws Exception {
+        // Unpack UserRequestDto from Heracles
+        UserRequestDto userRequest = UserRequestHeraclesMapper.fromHeracles(heraclesData);
+        return evaluationService.matchFilters(userRequest);
+    }
+}
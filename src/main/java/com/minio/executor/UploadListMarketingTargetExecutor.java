@@ -0,0 +1,23 @@
+package com.minio.executor;
+
+import com.minio.dto.MarketingTargetDto;
+import com.minio.service.ListIngestionService;
+
+/**
+ * Экзекютор для запуска загрузки списка SMID маркетинговой цели из MinIO
+ */
+public class UploadListMarketingTargetExecutor extends AWSExecutor<Long> {
+
+    private final ListIngestionService ingestionService;
+    private final MarketingTargetDto dto;
+
+    public UploadListMarketingTargetExecutor(ListIngestionService ingestionService, MarketingTargetDto dto) {
+        this.ingestionService = ingestionService;
+        this.dto = dto;
+    }
+
+    @Override
+    public Long execute() throws Exception {
+        return ingestionService.startIngestion(dto);
+    }
+}
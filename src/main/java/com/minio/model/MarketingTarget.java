@@ -1,6 +1,7 @@
 package com.minio.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "MARKETING_TARGET")
@@ -24,6 +25,39 @@ public class MarketingTarget extends ABase {
     @Column(name = "STATUS", length = 20, nullable = false)
     private MarketingTargetStatus status;
     
+    /**
+     * Версия загруженного списка SMID, увеличивается при каждой перезагрузке списка
+     */
+    @Column(name = "LIST_VERSION")
+    private Long listVersion;
+    
+    /**
+     * Имя объекта со списком SMID в бакете MinIO
+     */
+    @Column(name = "FILE_NAME")
+    private String fileName;
+    
+    /**
+     * Количество уникальных SMID в загруженном списке
+     */
+    @Column(name = "LIST_SIZE")
+    private Long listSize;
+    
+    /**
+     * Поколение строк MARKETING_TARGET_LIST_ITEM, которое является текущим списком. Новый список загружается
+     * в следующее поколение и становится текущим одним обновлением этого поля
+     */
+    @ColumnDefault("0")
+    @Column(name = "LIST_GENERATION", nullable = false)
+    private Long listGeneration = 0L;
+    
+    /**
+     * Идентификатор загрузки списка, которая сейчас владеет таргетом (см. ListIngestionService), null вне загрузки.
+     * Пишется только загрузкой через JDBC
+     */
+    @Column(name = "LOAD_ID", insertable = false, updatable = false)
+    private Long loadId;
+    
     // Getters and setters
     
     public String getName() {
@@ -49,4 +83,40 @@ public class MarketingTarget extends ABase {
     public void setStatus(MarketingTargetStatus status) {
         this.status = status;
     }
+    
+    public Long getListVersion() {
+        return listVersion;
+    }
+    
+    public void setListVersion(Long listVersion) {
+        this.listVersion = listVersion;
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+    
+    public Long getListSize() {
+        return listSize;
+    }
+    
+    public void setListSize(Long listSize) {
+        this.listSize = listSize;
+    }
+    
+    public Long getListGeneration() {
+        return listGeneration;
+    }
+    
+    public void setListGeneration(Long listGeneration) {
+        this.listGeneration = listGeneration;
+    }
+    
+    public Long getLoadId() {
+        return loadId;
+    }
 }
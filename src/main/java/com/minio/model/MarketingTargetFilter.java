@@ -2,9 +2,12 @@ package com.minio.model;
 
 import jakarta.persistence.*;
 import java.util.List;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 @Entity
-@Table(name = "MARKETING_TARGET_FILTER")
+@Table(name = "MARKETING_TARGET_FILTER",
+       indexes = @Index(name = "IDX_MARKETING_TARGET_FILTER_TARGET_ID_ID", columnList = "MARKETING_TARGET_ID,id"))
 public class MarketingTargetFilter extends ABase {
     
     @Column(name = "MARKETING_TARGET_ID", nullable = false)
@@ -19,6 +22,20 @@ public class MarketingTargetFilter extends ABase {
     @Column(name = "IS_ACTIVE", nullable = false)
     private Boolean isActive = true;
     
+    /**
+     * Filter evaluated on hot paths: REGEX conditions use the linear-time engine
+     */
+    @Column(name = "HIGH_TRAFFIC")
+    private Boolean highTraffic = false;
+    
+    /**
+     * Дерево фильтра (условия и группы с условиями, в порядке orderIndex) в JSONB: пишется в одной транзакции
+     * с таблицами условий и групп, фильтр для чтения и вычисления загружается одной строкой
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "DEFINITION", columnDefinition = "jsonb")
+    private String definition;
+    
     @OneToMany(mappedBy = "marketingTargetFilterId", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<MarketingTargetFilterCondition> conditions;
     
@@ -59,6 +76,22 @@ public class MarketingTargetFilter extends ABase {
         this.isActive = isActive;
     }
     
+    public Boolean getHighTraffic() {
+        return highTraffic;
+    }
+    
+    public void setHighTraffic(Boolean highTraffic) {
+        this.highTraffic = highTraffic;
+    }
+    
+    public String getDefinition() {
+        return definition;
+    }
+    
+    public void setDefinition(String definition) {
+        this.definition = definition;
+    }
+    
     public List<MarketingTargetFilterCondition> getConditions() {
         return conditions;
     }
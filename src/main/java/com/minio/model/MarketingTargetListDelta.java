@@ -0,0 +1,83 @@
+package com.minio.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Изменение списка SMID маркетингового таргета, применённое в версии списка LIST_VERSION.
+ * Позволяет кэшам списков обновляться по изменениям вместо полной перезагрузки.
+ * SMID хранится как ссылка на словарь SMID_DICTIONARY, как в MarketingTargetListItem.
+ */
+@Entity
+@Table(name = "MARKETING_TARGET_LIST_DELTA",
+       indexes = @Index(name = "IDX_TARGET_LIST_DELTA_TARGET_ID_VERSION", columnList = "MARKETING_TARGET_ID,LIST_VERSION"))
+public class MarketingTargetListDelta extends ABase {
+    
+    public enum DeltaOperation {
+        ADD,        // SMID added to the list
+        REMOVE      // SMID removed from the list
+    }
+    
+    @Column(name = "MARKETING_TARGET_ID", nullable = false)
+    private Long marketingTargetId;
+    
+    @Column(name = "LIST_VERSION", nullable = false)
+    private Long listVersion;
+    
+    /**
+     * Идентификатор SMID в словаре SMID_DICTIONARY
+     */
+    @Column(name = "SMID_ID", nullable = false)
+    private Long smidId;
+    
+    /**
+     * SMID из словаря, заполняется MarketingTargetListDeltaRepository при чтении изменений
+     */
+    @Transient
+    private String smid;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "OPERATION", length = 10, nullable = false)
+    private DeltaOperation operation;
+    
+    // Getters and setters
+    
+    public Long getMarketingTargetId() {
+        return marketingTargetId;
+    }
+    
+    public void setMarketingTargetId(Long marketingTargetId) {
+        this.marketingTargetId = marketingTargetId;
+    }
+    
+    public Long getListVersion() {
+        return listVersion;
+    }
+    
+    public void setListVersion(Long listVersion) {
+        this.listVersion = listVersion;
+    }
+    
+    public Long getSmidId() {
+        return smidId;
+    }
+    
+    public void setSmidId(Long smidId) {
+        this.smidId = smidId;
+    }
+    
+    public String getSmid() {
+        return smid;
+    }
+    
+    public void setSmid(String smid) {
+        this.smid = smid;
+    }
+    
+    public DeltaOperation getOperation() {
+        return operation;
+    }
+    
+    public void setOperation(DeltaOperation operation) {
+        this.operation = operation;
+    }
+}
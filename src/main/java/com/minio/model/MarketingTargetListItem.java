@@ -1,18 +1,34 @@
 package com.minio.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
+/**
+ * Строка списка SMID таргета. SMID хранится как ссылка на словарь SMID_DICTIONARY (см. SmidDictionary).
+ * Таблица секционирована по MARKETING_TARGET_ID (см. ListStorageService),
+ * уникальный ключ служит единственным индексом для поиска по списку.
+ */
 @Entity
 @Table(name = "MARKETING_TARGET_LIST_ITEM",
-       uniqueConstraints = @UniqueConstraint(columnNames = {"MARKETING_TARGET_ID", "SMID"}),
-       indexes = @Index(name = "IDX_TARGET_LIST_ITEM_SMID_TARGET_ID", columnList = "SMID,MARKETING_TARGET_ID"))
+       uniqueConstraints = @UniqueConstraint(name = "UK_TARGET_LIST_ITEM_TARGET_ID_GENERATION_SMID_ID",
+                                             columnNames = {"MARKETING_TARGET_ID", "LIST_GENERATION", "SMID_ID"}))
 public class MarketingTargetListItem extends ABase {
     
     @Column(name = "MARKETING_TARGET_ID", nullable = false)
     private Long marketingTargetId;
     
-    @Column(name = "SMID", nullable = false)
-    private String smid;
+    /**
+     * Поколение списка таргета, к которому относится строка (см. MarketingTarget.listGeneration)
+     */
+    @ColumnDefault("0")
+    @Column(name = "LIST_GENERATION", nullable = false)
+    private Long listGeneration = 0L;
+    
+    /**
+     * Идентификатор SMID в словаре SMID_DICTIONARY
+     */
+    @Column(name = "SMID_ID", nullable = false)
+    private Long smidId;
     
     // Getters and setters
     
@@ -24,11 +40,19 @@ public class MarketingTargetListItem extends ABase {
         this.marketingTargetId = marketingTargetId;
     }
     
-    public String getSmid() {
-        return smid;
+    public Long getListGeneration() {
+        return listGeneration;
+    }
+    
+    public void setListGeneration(Long listGeneration) {
+        this.listGeneration = listGeneration;
+    }
+    
+    public Long getSmidId() {
+        return smidId;
     }
     
-    public void setSmid(String smid) {
-        this.smid = smid;
+    public void setSmidId(Long smidId) {
+        this.smidId = smidId;
     }
 }
@@ -0,0 +1,27 @@
+package com.minio.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Глобальный словарь SMID: каждому SMID соответствует один числовой идентификатор (id),
+ * на который ссылаются строки списков таргетов (MarketingTargetListItem.smidId).
+ * Строки добавляются при загрузке списков и не удаляются.
+ */
+@Entity
+@Table(name = "SMID_DICTIONARY",
+       uniqueConstraints = @UniqueConstraint(name = "UK_SMID_DICTIONARY_SMID", columnNames = "SMID"))
+public class SmidDictionary extends ABase {
+    
+    @Column(name = "SMID", nullable = false)
+    private String smid;
+    
+    // Getters and setters
+    
+    public String getSmid() {
+        return smid;
+    }
+    
+    public void setSmid(String smid) {
+        this.smid = smid;
+    }
+}
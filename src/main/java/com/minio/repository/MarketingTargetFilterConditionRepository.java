@@ -5,6 +5,7 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import java.util.Collection;
 
 @ApplicationScoped
 public class MarketingTargetFilterConditionRepository {
@@ -28,4 +29,11 @@ public class MarketingTargetFilterConditionRepository {
             "MarketingTargetFilterCondition.deleteByFilterId"
         ).setParameter("filterId", filterId).executeUpdate();
     }
+    
+    @Transactional
+    public void deleteAll(Collection<MarketingTargetFilterCondition> conditions) {
+        for (MarketingTargetFilterCondition condition : conditions) {
+            entityManager.remove(condition);
+        }
+    }
 }
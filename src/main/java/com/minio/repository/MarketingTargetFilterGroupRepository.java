@@ -5,6 +5,7 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
+import java.util.Collection;
 
 @ApplicationScoped
 public class MarketingTargetFilterGroupRepository {
@@ -28,4 +29,11 @@ public class MarketingTargetFilterGroupRepository {
             "MarketingTargetFilterGroup.deleteByFilterId"
         ).setParameter("filterId", filterId).executeUpdate();
     }
+    
+    @Transactional
+    public void deleteAll(Collection<MarketingTargetFilterGroup> groups) {
+        for (MarketingTargetFilterGroup group : groups) {
+            entityManager.remove(group);
+        }
+    }
 }
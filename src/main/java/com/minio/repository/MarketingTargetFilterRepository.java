@@ -1,62 +1,225 @@
 package com.minio.repository;
 
+import com.minio.dto.MarketingTargetFilterDto;
 import com.minio.model.MarketingTargetFilter;
+import com.minio.model.MarketingTargetFilterCondition;
+import com.minio.model.MarketingTargetFilterGroup;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class MarketingTargetFilterRepository {
     
+    private static final String READ_ONLY = "org.hibernate.readOnly";
+    private static final String FETCH_SIZE = "org.hibernate.fetchSize";
+    
+    // Строк за одно обращение к курсору при потоковом чтении списка фильтров
+    private static final int STREAM_FETCH_SIZE = 500;
+    
+    // Значений в одном IN-списке при загрузке пачки фильтров
+    private static final int TREE_BATCH_SIZE = 500;
+    
     @PersistenceContext
     EntityManager entityManager;
     
-    public List<MarketingTargetFilter> findAll() {
-        return entityManager.createNamedQuery(
-            "MarketingTargetFilter.findAll", 
-            MarketingTargetFilter.class
-        ).getResultList();
-    }
-    
     public Optional<MarketingTargetFilter> findById(Long id) {
         MarketingTargetFilter filter = entityManager.find(MarketingTargetFilter.class, id);
         return Optional.ofNullable(filter);
     }
     
-    public List<MarketingTargetFilter> findByMarketingTargetId(Long marketingTargetId) {
-        TypedQuery<MarketingTargetFilter> query = entityManager.createNamedQuery(
-            "MarketingTargetFilter.findByMarketingTargetId",
-            MarketingTargetFilter.class
-        );
-        query.setParameter("marketingTargetId", marketingTargetId);
-        return query.getResultList();
+    /**
+     * Фильтры без дерева (проекция через конструктор DTO, сущности в контекст персистентности не попадают) с id
+     * больше afterId, в порядке id, не больше limit (null - без ограничения); marketingTargetId null - все таргеты.
+     * Строки читаются курсором порциями по STREAM_FETCH_SIZE (нужна транзакция), поток нужно закрыть.
+     */
+    public Stream<MarketingTargetFilterDto> streamSummaries(Long marketingTargetId, long afterId, Integer limit) {
+        TypedQuery<MarketingTargetFilterDto> query;
+        if (marketingTargetId == null) {
+            query = entityManager.createNamedQuery(
+                "MarketingTargetFilter.findSummariesAfterId",
+                MarketingTargetFilterDto.class
+            );
+        } else {
+            query = entityManager.createNamedQuery(
+                "MarketingTargetFilter.findSummariesByMarketingTargetIdAfterId",
+                MarketingTargetFilterDto.class
+            );
+            query.setParameter("marketingTargetId", marketingTargetId);
+        }
+        query.setParameter("afterId", afterId);
+        if (limit != null) {
+            query.setMaxResults(limit);
+        }
+        return query.setHint(FETCH_SIZE, STREAM_FETCH_SIZE).getResultStream();
+    }
+    
+    public List<Long> findActiveIds() {
+        return entityManager.createNamedQuery(
+            "MarketingTargetFilter.findActiveIds",
+            Long.class
+        ).getResultList();
     }
     
+    /**
+     * Фильтр с группами и условиями (см. findByIdsWithConditions)
+     */
     public Optional<MarketingTargetFilter> findByIdWithConditions(Long id) {
-        MarketingTargetFilter filter = entityManager.find(MarketingTargetFilter.class, id);
-        if (filter != null) {
-            // Явно инициализируем lazy коллекции через Hibernate.initialize()
-            org.hibernate.Hibernate.initialize(filter.getConditions());
-            org.hibernate.Hibernate.initialize(filter.getGroups());
-            
-            System.out.println("DEBUG: filter.getConditions() size = " + (filter.getConditions() != null ? filter.getConditions().size() : "null"));
-            System.out.println("DEBUG: filter.getGroups() size = " + (filter.getGroups() != null ? filter.getGroups().size() : "null"));
-            
-            // Инициализируем conditions внутри групп (только после того как groups уже инициализированы)
-            if (filter.getGroups() != null && !filter.getGroups().isEmpty()) {
-                System.out.println("DEBUG: Инициализируем conditions в группах");
-                filter.getGroups().forEach(group -> 
-                    org.hibernate.Hibernate.initialize(group.getConditions())
-                );
+        List<MarketingTargetFilter> filters = findByIdsWithConditions(Collections.singletonList(id));
+        return filters.isEmpty() ? Optional.empty() : Optional.of(filters.get(0));
+    }
+    
+    /**
+     * Фильтры с группами и условиями, в порядке id. Дерево загружается двумя запросами на пачку фильтров
+     * (фильтры с группами, затем все их условия) и собирается в памяти: в filter.conditions попадают только
+     * условия без группы, условия групп - в group.conditions. Загруженные сущности только для чтения
+     * (без снимков для dirty checking), коллекции mappedBy в БД не записываются.
+     */
+    public List<MarketingTargetFilter> findByIdsWithConditions(Collection<Long> ids) {
+        return findTrees(ids, true);
+    }
+    
+    /**
+     * Фильтр с группами и условиями для изменения: сущности загружаются со снимками для dirty checking,
+     * изменённые поля записываются при flush (UPDATE только изменённых строк)
+     */
+    public Optional<MarketingTargetFilter> findByIdWithConditionsForUpdate(Long id) {
+        List<MarketingTargetFilter> filters = findByIdsWithConditionsForUpdate(Collections.singletonList(id));
+        return filters.isEmpty() ? Optional.empty() : Optional.of(filters.get(0));
+    }
+    
+    public List<MarketingTargetFilter> findByIdsWithConditionsForUpdate(Collection<Long> ids) {
+        return findTrees(ids, false);
+    }
+    
+    /**
+     * Фильтры без групп и условий (дерево - в DEFINITION), только для чтения, в порядке id
+     */
+    public List<MarketingTargetFilter> findByIds(Collection<Long> ids) {
+        return inBatches(ids, this::findBatch);
+    }
+    
+    private List<MarketingTargetFilter> findBatch(List<Long> ids) {
+        return entityManager.createNamedQuery(
+                "MarketingTargetFilter.findByIds",
+                MarketingTargetFilter.class
+            )
+            .setParameter("ids", ids)
+            .setHint(READ_ONLY, true)
+            .getResultList();
+    }
+    
+    /**
+     * Идентификаторы фильтров, у которых ещё нет DEFINITION
+     */
+    public List<Long> findIdsWithoutDefinition(int limit) {
+        return entityManager.createNamedQuery(
+                "MarketingTargetFilter.findIdsWithoutDefinition",
+                Long.class
+            )
+            .setMaxResults(limit)
+            .getResultList();
+    }
+    
+    /**
+     * Фильтры, в DEFINITION которых есть условие, заданное JSON-образцами для корня и для группы (оператор @>,
+     * поиск по GIN-индексу)
+     */
+    public List<MarketingTargetFilter> findByDefinitionContaining(String rootCondition, String groupCondition) {
+        return entityManager.createNamedQuery(
+                "MarketingTargetFilter.findByDefinitionContaining",
+                MarketingTargetFilter.class
+            )
+            .setParameter("rootCondition", rootCondition)
+            .setParameter("groupCondition", groupCondition)
+            .setHint(READ_ONLY, true)
+            .getResultList();
+    }
+    
+    private List<MarketingTargetFilter> findTrees(Collection<Long> ids, boolean readOnly) {
+        return inBatches(ids, batch -> loadTrees(batch, readOnly));
+    }
+    
+    /**
+     * Результаты загрузки по пачкам не больше TREE_BATCH_SIZE идентификаторов
+     */
+    private List<MarketingTargetFilter> inBatches(Collection<Long> ids,
+                                                  Function<List<Long>, List<MarketingTargetFilter>> loader) {
+        List<MarketingTargetFilter> filters = new ArrayList<>();
+        List<Long> batch = new ArrayList<>(Math.min(ids.size(), TREE_BATCH_SIZE));
+        for (Long id : ids) {
+            batch.add(id);
+            if (batch.size() == TREE_BATCH_SIZE) {
+                filters.addAll(loader.apply(batch));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            filters.addAll(loader.apply(batch));
+        }
+        return filters;
+    }
+    
+    private List<MarketingTargetFilter> loadTrees(List<Long> ids, boolean readOnly) {
+        List<Object[]> rows = entityManager.createNamedQuery(
+                "MarketingTargetFilter.findByIdsWithGroups",
+                Object[].class
+            )
+            .setParameter("ids", ids)
+            .setHint(READ_ONLY, readOnly)
+            .getResultList();
+        
+        Map<Long, MarketingTargetFilter> filters = new LinkedHashMap<>();
+        Map<Long, MarketingTargetFilterGroup> groups = new HashMap<>();
+        for (Object[] row : rows) {
+            MarketingTargetFilter filter = (MarketingTargetFilter) row[0];
+            if (!filters.containsKey(filter.getId())) {
+                filter.setGroups(new ArrayList<>());
+                filter.setConditions(new ArrayList<>());
+                filters.put(filter.getId(), filter);
+            }
+            MarketingTargetFilterGroup group = (MarketingTargetFilterGroup) row[1];
+            if (group != null) {
+                group.setConditions(new ArrayList<>());
+                filter.getGroups().add(group);
+                groups.put(group.getId(), group);
+            }
+        }
+        if (filters.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        List<MarketingTargetFilterCondition> conditions = entityManager.createNamedQuery(
+                "MarketingTargetFilterCondition.findByFilterIds",
+                MarketingTargetFilterCondition.class
+            )
+            .setParameter("filterIds", filters.keySet())
+            .setHint(READ_ONLY, readOnly)
+            .getResultList();
+        for (MarketingTargetFilterCondition condition : conditions) {
+            if (condition.getGroupId() == null) {
+                filters.get(condition.getMarketingTargetFilterId()).getConditions().add(condition);
             } else {
-                System.out.println("DEBUG: Groups пустые или null - пропускаем инициализацию");
+                MarketingTargetFilterGroup group = groups.get(condition.getGroupId());
+                // Условие удалённой группы не показывается, как и раньше
+                if (group != null) {
+                    group.getConditions().add(condition);
+                }
             }
         }
-        return Optional.ofNullable(filter);
+        return new ArrayList<>(filters.values());
     }
     
     @Transactional
@@ -77,6 +240,43 @@ public class MarketingTargetFilterRepository {
         }
     }
     
+    /**
+     * Имена из переданного набора, которые уже заняты фильтрами (проверка пачки фильтров перед созданием)
+     */
+    public List<String> findExistingFilterNames(Collection<String> filterNames) {
+        List<String> existing = new ArrayList<>();
+        List<String> batch = new ArrayList<>(Math.min(filterNames.size(), TREE_BATCH_SIZE));
+        for (String filterName : filterNames) {
+            batch.add(filterName);
+            if (batch.size() == TREE_BATCH_SIZE) {
+                existing.addAll(findExistingFilterNamesBatch(batch));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            existing.addAll(findExistingFilterNamesBatch(batch));
+        }
+        return existing;
+    }
+    
+    private List<String> findExistingFilterNamesBatch(List<String> filterNames) {
+        return entityManager.createNamedQuery(
+                "MarketingTargetFilter.findFilterNamesIn",
+                String.class
+            )
+            .setParameter("filterNames", filterNames)
+            .getResultList();
+    }
+    
+    /**
+     * Записать накопленные изменения пачками и освободить контекст персистентности (массовое создание фильтров)
+     */
+    @Transactional
+    public void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+    
     public boolean existsByFilterName(String filterName) {
         TypedQuery<Long> query = entityManager.createNamedQuery(
             "MarketingTargetFilter.existsByFilterName",
@@ -0,0 +1,40 @@
+package com.minio.repository;
+
+import com.minio.model.MarketingTargetListDelta;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+@ApplicationScoped
+public class MarketingTargetListDeltaRepository {
+    
+    @PersistenceContext
+    EntityManager entityManager;
+    
+    /**
+     * Изменения списка маркетингового таргета в версиях (fromVersion, toVersion], в порядке применения.
+     * Возвращает не больше maxResults записей, SMID заполнены из словаря.
+     */
+    public List<MarketingTargetListDelta> findByMarketingTargetIdBetweenVersions(Long marketingTargetId, Long fromVersion,
+                                                                                Long toVersion, int maxResults) {
+        List<Object[]> rows = entityManager.createNamedQuery(
+                "MarketingTargetListDelta.findByMarketingTargetIdBetweenVersions",
+                Object[].class
+            )
+            .setParameter("marketingTargetId", marketingTargetId)
+            .setParameter("fromVersion", fromVersion)
+            .setParameter("toVersion", toVersion)
+            .setHint("org.hibernate.readOnly", true)
+            .setMaxResults(maxResults)
+            .getResultList();
+        List<MarketingTargetListDelta> deltas = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            MarketingTargetListDelta delta = (MarketingTargetListDelta) row[0];
+            delta.setSmid((String) row[1]);
+            deltas.add(delta);
+        }
+        return deltas;
+    }
+}
@@ -4,6 +4,11 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class MarketingTargetListItemRepository {
@@ -24,6 +29,18 @@ public class MarketingTargetListItemRepository {
         return query.getSingleResult() > 0;
     }
     
+    /**
+     * Количество элементов списка маркетингового таргета
+     */
+    public long countByMarketingTargetId(Long marketingTargetId) {
+        TypedQuery<Long> query = entityManager.createNamedQuery(
+            "MarketingTargetListItem.countByMarketingTargetId",
+            Long.class
+        );
+        query.setParameter("marketingTargetId", marketingTargetId);
+        return query.getSingleResult();
+    }
+    
     /**
      * Проверить существование SMID в файле выборки (для фильтров)
      */
@@ -39,4 +56,40 @@ public class MarketingTargetListItemRepository {
             return false;
         }
     }
+    
+    /**
+     * Найти SMID из переданного набора, которые есть в файле выборки (одним запросом для пачки пользователей)
+     */
+    public Set<String> findSmidsInFile(String fileId, Collection<String> smids) {
+        if (smids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        try {
+            Long marketingTargetId = Long.parseLong(fileId);
+            TypedQuery<String> query = entityManager.createNamedQuery(
+                "MarketingTargetListItem.findSmidsByMarketingTargetIdAndSmids",
+                String.class
+            );
+            query.setParameter("marketingTargetId", marketingTargetId);
+            query.setParameter("smids", smids);
+            return new HashSet<>(query.getResultList());
+        } catch (NumberFormatException e) {
+            // Как и в existsBySmidAndFileId: UUID файлов пока не поддерживаются
+            return Collections.emptySet();
+        }
+    }
+    
+    /**
+     * Все SMID списка маркетингового таргета (читаются порциями, поток нужно закрыть)
+     */
+    public Stream<String> streamSmidsByMarketingTargetId(Long marketingTargetId) {
+        return entityManager.createNamedQuery(
+                "MarketingTargetListItem.findSmidsByMarketingTargetId",
+                String.class
+            )
+            .setParameter("marketingTargetId", marketingTargetId)
+            .setHint("org.hibernate.fetchSize", 10000)
+            .setHint("org.hibernate.readOnly", true)
+            .getResultStream();
+    }
 }
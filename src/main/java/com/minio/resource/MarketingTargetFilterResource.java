@@ -3,15 +3,21 @@ package com.minio.resource;
 import com.minio.dto.MarketingTargetFilterDto;
 import com.minio.dto.UserRequestDto;
 import com.minio.dto.EvaluationRequestDto;
+import com.minio.dto.EvaluationTraceDto;
 import com.minio.model.FilterFieldType;
 import com.minio.model.FilterOperator;
 import com.minio.model.LogicalOperator;
 import com.minio.service.MarketingTargetFilterService;
 import com.minio.service.FilterEvaluationService;
+import com.minio.service.FilterBatchEvaluationService;
+import com.minio.service.ListMembershipService;
+import com.minio.executor.EvaluateFilterBatchExecutor;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -27,16 +33,21 @@ public class MarketingTargetFilterResource {
     @Inject
     FilterEvaluationService evaluationService;
     
+    @Inject
+    FilterBatchEvaluationService batchEvaluationService;
+    
+    @Inject
+    ListMembershipService membershipService;
+    
+    /**
+     * Filters without groups and conditions, streamed in the order of id. Pages: ?limit=100, then
+     * ?afterId=<id of the last filter>&limit=100; ?fields=id,filterName writes only these fields.
+     */
     @GET
-    public Response getAllFilters() {
-        try {
-            List<MarketingTargetFilterDto> filters = filterService.getAllFilters();
-            return Response.ok(filters).build();
-        } catch (Exception e) {
-            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                .entity("Error retrieving filters: " + e.getMessage())
-                .build();
-        }
+    public Response getAllFilters(@QueryParam("afterId") Long afterId,
+                                  @QueryParam("limit") Integer limit,
+                                  @QueryParam("fields") String fields) {
+        return streamFilters(null, afterId, limit, fields);
     }
     
     @GET
@@ -60,10 +71,48 @@ public class MarketingTargetFilterResource {
     
     @GET
     @Path("/by-target/{marketingTargetId}")
-    public Response getFiltersByMarketingTargetId(@PathParam("marketingTargetId") Long marketingTargetId) {
+    public Response getFiltersByMarketingTargetId(@PathParam("marketingTargetId") Long marketingTargetId,
+                                                  @QueryParam("afterId") Long afterId,
+                                                  @QueryParam("limit") Integer limit,
+                                                  @QueryParam("fields") String fields) {
+        return streamFilters(marketingTargetId, afterId, limit, fields);
+    }
+    
+    private Response streamFilters(Long marketingTargetId, Long afterId, Integer limit, String fields) {
         try {
-            List<MarketingTargetFilterDto> filters = filterService.getFiltersByMarketingTargetId(marketingTargetId);
+            if (limit != null && limit <= 0) {
+                throw new IllegalArgumentException("Limit must be positive");
+            }
+            List<String> summaryFields = filterService.summaryFields(fields);
+            StreamingOutput filters = output ->
+                filterService.writeFilters(marketingTargetId, afterId, limit, summaryFields, output);
             return Response.ok(filters).build();
+        } catch (RuntimeException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Error retrieving filters: " + e.getMessage())
+                .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity("Error retrieving filters: " + e.getMessage())
+                .build();
+        }
+    }
+    
+    /**
+     * Filters with a condition of the field type and value, e.g. ?fieldType=COUNTRY&fieldValue=UA.
+     * Case-insensitive; matches IN/NOT_IN conditions that list the value (e.g. "UA,PL").
+     */
+    @GET
+    @Path("/by-condition")
+    public Response getFiltersByCondition(@QueryParam("fieldType") FilterFieldType fieldType,
+                                          @QueryParam("fieldValue") String fieldValue) {
+        try {
+            List<MarketingTargetFilterDto> filters = filterService.getFiltersByCondition(fieldType, fieldValue);
+            return Response.ok(filters).build();
+        } catch (RuntimeException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Error retrieving filters: " + e.getMessage())
+                .build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                 .entity("Error retrieving filters: " + e.getMessage())
@@ -99,6 +148,23 @@ public class MarketingTargetFilterResource {
         }
     }
     
+    @POST
+    @Path("/bulk")
+    public Response createFilters(List<MarketingTargetFilterDto> filterDtos) {
+        try {
+            List<MarketingTargetFilterDto> createdFilters = filterService.createFilters(filterDtos);
+            return Response.status(Response.Status.CREATED).entity(createdFilters).build();
+        } catch (RuntimeException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Error creating filters: " + e.getMessage())
+                .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity("Error creating filters: " + e.getMessage())
+                .build();
+        }
+    }
+    
     @PUT
     @Path("/{id}")
     public Response updateFilter(@PathParam("id") Long id, MarketingTargetFilterDto filterDto) {
@@ -198,6 +264,102 @@ public class MarketingTargetFilterResource {
         }
     }
     
+    /**
+     * Проверить соответствие пользователя фильтру с трассировкой каждого условия и группы
+     */
+    @POST
+    @Path("/evaluate/{filterId}/explain")
+    public Response explainFilter(@PathParam("filterId") Long filterId, UserRequestDto userRequest) {
+        try {
+            Optional<EvaluationTraceDto> trace = evaluationService.explainFilter(filterId, userRequest);
+            if (trace.isPresent()) {
+                return Response.ok(trace.get()).build();
+            } else {
+                return Response.status(Response.Status.NOT_FOUND)
+                    .entity("{\"error\": \"Filter not found with id: " + filterId + "\"}")
+                    .build();
+            }
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity("{\"error\": \"Error explaining filter: " + e.getMessage() + "\"}")
+                .build();
+        }
+    }
+    
+    /**
+     * Проверить поток пользователей (NDJSON или JSON массив) по одному фильтру, результат - NDJSON построчно
+     */
+    @POST
+    @Path("/evaluate/{filterId}/batch")
+    @Consumes({FilterBatchEvaluationService.APPLICATION_NDJSON, MediaType.APPLICATION_JSON})
+    @Produces(FilterBatchEvaluationService.APPLICATION_NDJSON)
+    public Response evaluateFilterBatch(@PathParam("filterId") Long filterId, InputStream body) {
+        try {
+            Optional<StreamingOutput> results =
+                new EvaluateFilterBatchExecutor(evaluationService, batchEvaluationService, filterId, body).execute();
+            if (results.isEmpty()) {
+                return Response.status(Response.Status.NOT_FOUND)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity("{\"error\": \"Filter not found with id: " + filterId + "\"}")
+                    .build();
+            }
+            return Response.ok(results.get()).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .type(MediaType.APPLICATION_JSON)
+                .entity("{\"error\": \"Error evaluating batch: " + e.getMessage() + "\"}")
+                .build();
+        }
+    }
+    
+    /**
+     * Найти все активные фильтры, которым соответствует пользователь
+     */
+    @POST
+    @Path("/match")
+    public Response matchFilters(UserRequestDto userRequest) {
+        try {
+            List<Long> filterIds = evaluationService.matchFilters(userRequest);
+            return Response.ok()
+                .entity("{\"filterIds\": " + filterIds + "}")
+                .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity("{\"error\": \"Error matching filters: " + e.getMessage() + "\"}")
+                .build();
+        }
+    }
+    
+    /**
+     * Получить счетчики выполненных и пропущенных проверок по спискам
+     */
+    @GET
+    @Path("/evaluate/statistics")
+    public Response getEvaluationStatistics() {
+        try {
+            return Response.ok(evaluationService.getStatistics()).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity("{\"error\": \"Error getting evaluation statistics: " + e.getMessage() + "\"}")
+                .build();
+        }
+    }
+    
+    /**
+     * Получить состояние списков в памяти и счетчики Bloom фильтров
+     */
+    @GET
+    @Path("/lists/statistics")
+    public Response getListMembershipStatistics() {
+        try {
+            return Response.ok(membershipService.getStatistics()).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity("{\"error\": \"Error getting list statistics: " + e.getMessage() + "\"}")
+                .build();
+        }
+    }
+
     /**
      * Проверить соответствие пользователя фильтру (с передачей фильтра в теле запроса)
      */
@@ -7,13 +7,18 @@ import com.minio.model.FilterFieldType;
 import com.minio.model.FilterOperator;
 import com.minio.model.LogicalOperator;
 import com.minio.service.MarketingTargetFilterService;
+import com.minio.service.FilterBatchEvaluationService;
 import com.minio.service.FilterEvaluationService;
+import com.minio.service.ListDeltaService;
+import com.minio.service.ListIngestionService;
 import com.minio.util.UserRequestHeraclesMapper;
 import com.minio.util.Heracles;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Arrays;
 import java.util.Optional;
@@ -29,6 +34,15 @@ public class SalesToolsRestController {
     
     @Inject
     FilterEvaluationService evaluationService;
+    
+    @Inject
+    FilterBatchEvaluationService batchEvaluationService;
+    
+    @Inject
+    ListIngestionService ingestionService;
+    
+    @Inject
+    ListDeltaService deltaService;
 
     @GET
     @Path(UrlAgreements.PATH_SALES_TOOLS_NOTIFICATION_STATUS)
@@ -82,8 +96,18 @@ public class SalesToolsRestController {
     @Path(UrlAgreements.PATH_SALES_TOOLS_TARGET + UrlAgreements.OPERATION_LIST)
     public Response uploadListMarketingTarget(MarketingTargetDto dto) {
         try {
-            // TODO: Реализовать через экзекютор когда будет готов сервис целей
-            return Response.status(Response.Status.CREATED).entity(1L).build();
+            if (dto.getFileName() == null || dto.getFileName().trim().isEmpty()) {
+                return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("File name is required")
+                    .build();
+            }
+            
+            Long id = new UploadListMarketingTargetExecutor(ingestionService, dto).execute();
+            return Response.status(Response.Status.CREATED).entity(id).build();
+        } catch (RuntimeException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Error uploading target list: " + e.getMessage())
+                .build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                 .entity("Error uploading target list: " + e.getMessage())
@@ -91,15 +115,61 @@ public class SalesToolsRestController {
         }
     }
 
+    @POST
+    @Path(UrlAgreements.PATH_SALES_TOOLS_TARGET + UrlAgreements.OPERATION_ID_PARAM + UrlAgreements.OPERATION_LIST + UrlAgreements.OPERATION_DELTA)
+    public Response applyListDelta(@PathParam("id") Long id, ListDeltaDto delta) {
+        try {
+            ListDeltaResultDto result = new ApplyListDeltaExecutor(deltaService, id, delta).execute();
+            return Response.ok(result).build();
+        } catch (IllegalStateException e) {
+            return Response.status(Response.Status.CONFLICT)
+                .entity("Error applying list delta: " + e.getMessage())
+                .build();
+        } catch (RuntimeException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Error applying list delta: " + e.getMessage())
+                .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity("Error applying list delta: " + e.getMessage())
+                .build();
+        }
+    }
+
+    @GET
+    @Path(UrlAgreements.PATH_SALES_TOOLS_TARGET + UrlAgreements.OPERATION_ID_PARAM + UrlAgreements.OPERATION_PROGRESS)
+    public Response getListIngestionProgress(@PathParam("id") Long id) {
+        try {
+            Optional<ListIngestionProgressDto> progress = new GetListIngestionProgressExecutor(ingestionService, id).execute();
+            if (progress.isPresent()) {
+                return Response.ok(progress.get()).build();
+            } else {
+                return Response.status(Response.Status.NOT_FOUND)
+                    .entity("No list loading found for target with id: " + id)
+                    .build();
+            }
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity("Error retrieving list loading progress: " + e.getMessage())
+                .build();
+        }
+    }
+
 
     // ================ CRUD операции для фильтров через экзекюторы ================
     
     @GET
     @Path(UrlAgreements.PATH_SALES_TOOLS_FILTERS)
-    public Response getAllFilters() {
+    public Response getAllFilters(@QueryParam("afterId") Long afterId,
+                                  @QueryParam("limit") Integer limit,
+                                  @QueryParam("fields") String fields) {
         try {
-            List<MarketingTargetFilterDto> filters = new GetAllFiltersExecutor(filterService).execute();
+            StreamingOutput filters = new GetAllFiltersExecutor(filterService, afterId, limit, fields).execute();
             return Response.ok(filters).build();
+        } catch (RuntimeException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Error retrieving filters: " + e.getMessage())
+                .build();
         } catch (Exception e) {
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                 .entity("Error retrieving filters: " + e.getMessage())
@@ -155,6 +225,23 @@ public class SalesToolsRestController {
         }
     }
     
+    @POST
+    @Path(UrlAgreements.PATH_SALES_TOOLS_FILTERS + UrlAgreements.OPERATION_BULK)
+    public Response createFilters(List<MarketingTargetFilterDto> filterDtos) {
+        try {
+            List<MarketingTargetFilterDto> createdFilters = new CreateFiltersExecutor(filterService, filterDtos).execute();
+            return Response.status(Response.Status.CREATED).entity(createdFilters).build();
+        } catch (RuntimeException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                .entity("Error creating filters: " + e.getMessage())
+                .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity("Error creating filters: " + e.getMessage())
+                .build();
+        }
+    }
+    
     @PUT
     @Path(UrlAgreements.PATH_SALES_TOOLS_FILTERS + UrlAgreements.OPERATION_ID_PARAM)
     public Response updateFilter(@PathParam("id") Long id, MarketingTargetFilterDto filterDto) {
@@ -253,6 +340,65 @@ public class SalesToolsRestController {
         }
     }
     
+    @POST
+    @Path(UrlAgreements.PATH_SALES_TOOLS_FILTERS_EVALUATE + UrlAgreements.OPERATION_ID_PARAM + UrlAgreements.OPERATION_EXPLAIN)
+    public Response explainFilter(@PathParam("id") Long filterId, UserRequestDto userRequest) {
+        try {
+            Heracles heraclesData = UserRequestHeraclesMapper.toHeracles(userRequest);
+            Optional<EvaluationTraceDto> trace = new ExplainFilterExecutor(evaluationService, filterId, heraclesData).execute();
+            if (trace.isPresent()) {
+                return Response.ok(trace.get()).build();
+            } else {
+                return Response.status(Response.Status.NOT_FOUND)
+                    .entity("{\"error\": \"Filter not found with id: " + filterId + "\"}")
+                    .build();
+            }
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity("{\"error\": \"Error explaining filter: " + e.getMessage() + "\"}")
+                .build();
+        }
+    }
+    
+    @POST
+    @Path(UrlAgreements.PATH_SALES_TOOLS_FILTERS_EVALUATE + UrlAgreements.OPERATION_ID_PARAM + UrlAgreements.OPERATION_BATCH)
+    @Consumes({FilterBatchEvaluationService.APPLICATION_NDJSON, MediaType.APPLICATION_JSON})
+    @Produces(FilterBatchEvaluationService.APPLICATION_NDJSON)
+    public Response evaluateFilterBatch(@PathParam("id") Long filterId, InputStream body) {
+        try {
+            Optional<StreamingOutput> results =
+                new EvaluateFilterBatchExecutor(evaluationService, batchEvaluationService, filterId, body).execute();
+            if (results.isEmpty()) {
+                return Response.status(Response.Status.NOT_FOUND)
+                    .type(MediaType.APPLICATION_JSON)
+                    .entity("{\"error\": \"Filter not found with id: " + filterId + "\"}")
+                    .build();
+            }
+            return Response.ok(results.get()).build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .type(MediaType.APPLICATION_JSON)
+                .entity("{\"error\": \"Error evaluating batch: " + e.getMessage() + "\"}")
+                .build();
+        }
+    }
+    
+    @POST
+    @Path(UrlAgreements.PATH_SALES_TOOLS_FILTERS_MATCH)
+    public Response matchFilters(UserRequestDto userRequest) {
+        try {
+            Heracles heraclesData = UserRequestHeraclesMapper.toHeracles(userRequest);
+            List<Long> filterIds = new MatchFiltersExecutor(evaluationService, heraclesData).execute();
+            return Response.ok()
+                .entity("{\"filterIds\": " + filterIds + "}")
+                .build();
+        } catch (Exception e) {
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                .entity("{\"error\": \"Error matching filters: " + e.getMessage() + "\"}")
+                .build();
+        }
+    }
+    
     @POST
     @Path(UrlAgreements.PATH_SALES_TOOLS_FILTERS_EVALUATE)
     public Response evaluateFilterDirect(EvaluationRequestDto request) {
@@ -0,0 +1,33 @@
+package com.minio.service;
+
+import com.minio.dto.EvaluationStatisticsDto;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of work done and avoided by short-circuit filter evaluation
+ */
+public class EvaluationStatistics {
+
+    private final LongAdder lookupsPerformed = new LongAdder();
+    private final LongAdder lookupsSkipped = new LongAdder();
+    private final LongAdder conditionsSkipped = new LongAdder();
+
+    void recordLookup() {
+        lookupsPerformed.increment();
+    }
+
+    void recordSkipped(int conditions, int lookups) {
+        conditionsSkipped.add(conditions);
+        if (lookups > 0) {
+            lookupsSkipped.add(lookups);
+        }
+    }
+
+    public EvaluationStatisticsDto toDto() {
+        EvaluationStatisticsDto dto = new EvaluationStatisticsDto();
+        dto.setLookupsPerformed(lookupsPerformed.sum());
+        dto.setLookupsSkipped(lookupsSkipped.sum());
+        dto.setConditionsSkipped(conditionsSkipped.sum());
+        return dto;
+    }
+}
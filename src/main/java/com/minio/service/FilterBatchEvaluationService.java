@@ -0,0 +1,190 @@
+package com.minio.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minio.dto.UserRequestDto;
+import com.minio.evaluation.CompiledCondition;
+import com.minio.evaluation.CompiledFilter;
+import com.minio.evaluation.CompiledGroup;
+import com.minio.evaluation.MembershipLookup;
+import com.minio.evaluation.UserAttributes;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Evaluates one filter for a stream of users (NDJSON or a JSON array) and streams back
+ * one {"smid": ..., "matches": ...} line per user, in input order.
+ *
+ * Users are read incrementally in chunks. List memberships of a chunk are resolved per
+ * DISTRIBUTION_GROUPS_FILE condition on the request thread through {@link ListMembershipService},
+ * with at most one query per list for SMIDs the loaded list cannot answer, then the chunk is
+ * evaluated on a bounded pool while the next one is read.
+ */
+@ApplicationScoped
+public class FilterBatchEvaluationService {
+
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    @Inject
+    FilterEvaluationService evaluationService;
+
+    @Inject
+    ListMembershipService membershipService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @ConfigProperty(name = "filter.batch.chunk-size", defaultValue = "1000")
+    int chunkSize;
+
+    @ConfigProperty(name = "filter.batch.threads", defaultValue = "4")
+    int threads;
+
+    private volatile ExecutorService executor;
+
+    /**
+     * Evaluate the compiled filter for every user read from the input and write the results to the output
+     */
+    public void evaluateBatch(CompiledFilter plan, InputStream input, OutputStream output) throws IOException {
+        Set<String> fileIds = lookupFileIds(plan);
+        // Bound the number of evaluated chunks waiting to be written
+        int maxInFlight = threads * 2;
+        Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+
+        try (MappingIterator<UserRequestDto> users = objectMapper.readerFor(UserRequestDto.class).readValues(input)) {
+            while (users.hasNextValue()) {
+                List<UserRequestDto> chunk = new ArrayList<>(chunkSize);
+                while (chunk.size() < chunkSize && users.hasNextValue()) {
+                    chunk.add(users.nextValue());
+                }
+
+                MembershipLookup lookup = prefetchMemberships(fileIds, chunk);
+                inFlight.add(executor().submit(() -> evaluateChunk(plan, chunk, lookup)));
+                while (inFlight.size() >= maxInFlight) {
+                    output.write(await(inFlight.poll()));
+                }
+            }
+
+            while (!inFlight.isEmpty()) {
+                output.write(await(inFlight.poll()));
+            }
+            output.flush();
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private byte[] evaluateChunk(CompiledFilter plan, List<UserRequestDto> chunk, MembershipLookup lookup) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(chunk.size() * 48);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(buffer)) {
+            generator.setPrettyPrinter(new MinimalPrettyPrinter(""));
+            for (UserRequestDto user : chunk) {
+                boolean matches = evaluationService.evaluatePlan(plan, UserAttributes.of(user), lookup);
+                generator.writeStartObject();
+                generator.writeStringField("smid", user.getSmid());
+                generator.writeBooleanField("matches", matches);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Resolve memberships of all SMIDs of the chunk, at most one query per list
+     */
+    private MembershipLookup prefetchMemberships(Set<String> fileIds, List<UserRequestDto> chunk) {
+        if (fileIds.isEmpty()) {
+            return (fileId, smid) -> false;
+        }
+
+        Set<String> smids = new HashSet<>();
+        for (UserRequestDto user : chunk) {
+            if (user.getSmid() != null) {
+                smids.add(user.getSmid());
+            }
+        }
+
+        Map<String, Set<String>> members = new HashMap<>();
+        for (String fileId : fileIds) {
+            members.put(fileId, membershipService.findSmidsInFile(fileId, smids));
+        }
+        return (fileId, smid) -> members.getOrDefault(fileId, Collections.emptySet()).contains(smid);
+    }
+
+    private static Set<String> lookupFileIds(CompiledFilter plan) {
+        Set<String> fileIds = new LinkedHashSet<>();
+        addLookupFileIds(plan.getConditions(), fileIds);
+        for (CompiledGroup group : plan.getGroups()) {
+            addLookupFileIds(group.getConditions(), fileIds);
+        }
+        return fileIds;
+    }
+
+    private static void addLookupFileIds(List<CompiledCondition> conditions, Set<String> fileIds) {
+        for (CompiledCondition condition : conditions) {
+            if (condition.isLookup() && condition.getValue() != null) {
+                fileIds.add(condition.getValue());
+            }
+        }
+    }
+
+    private static byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch evaluation interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new RuntimeException("Error evaluating batch: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private ExecutorService executor() {
+        if (executor == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    executor = Executors.newFixedThreadPool(threads, runnable -> {
+                        Thread thread = new Thread(runnable, "filter-batch");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return executor;
+    }
+}
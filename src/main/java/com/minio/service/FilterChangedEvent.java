@@ -0,0 +1,17 @@
+package com.minio.service;
+
+/**
+ * CDI event fired when a filter is created, updated or deleted
+ */
+public class FilterChangedEvent {
+
+    private final Long filterId;
+
+    public FilterChangedEvent(Long filterId) {
+        this.filterId = filterId;
+    }
+
+    public Long getFilterId() {
+        return filterId;
+    }
+}
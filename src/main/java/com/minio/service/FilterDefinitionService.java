@@ -0,0 +1,67 @@
+package com.minio.service;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Storage of filter definitions: the tree of every filter is kept in the JSONB column DEFINITION of
+ * MARKETING_TARGET_FILTER next to the group and condition tables, so reads and evaluation load one row per filter.
+ *
+ * Hibernate creates the column; on startup the GIN index (jsonb_path_ops) used by containment lookups such as
+ * "filters with COUNTRY = UA" is created and the definitions of filters stored before the column are written from
+ * their trees, in batches of one transaction each.
+ */
+@ApplicationScoped
+public class FilterDefinitionService {
+    private static final Logger logger = Logger.getLogger(FilterDefinitionService.class);
+
+    static final String FILTER_TABLE = "MARKETING_TARGET_FILTER";
+    private static final String DEFINITION_INDEX = "IDX_MARKETING_TARGET_FILTER_DEFINITION";
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    MarketingTargetFilterService filterService;
+
+    // Filters whose definitions are written per transaction on startup
+    @ConfigProperty(name = "filter-definition.backfill-batch-size", defaultValue = "500")
+    int backfillBatchSize;
+
+    void onStart(@Observes StartupEvent event) {
+        try {
+            createIndex();
+        } catch (SQLException e) {
+            logger.error("Error creating " + DEFINITION_INDEX + ", filter definition lookups scan " + FILTER_TABLE, e);
+        }
+        try {
+            int written = 0;
+            int batch;
+            do {
+                batch = filterService.writeMissingDefinitions(backfillBatchSize);
+                written += batch;
+            } while (batch == backfillBatchSize);
+            if (written > 0) {
+                logger.infof("Wrote definitions of %d filters stored without them", written);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error writing filter definitions, filters without them are read from their trees", e);
+        }
+    }
+
+    void createIndex() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX IF NOT EXISTS " + DEFINITION_INDEX + " ON " + FILTER_TABLE
+                + " USING GIN (DEFINITION jsonb_path_ops)");
+        }
+    }
+}
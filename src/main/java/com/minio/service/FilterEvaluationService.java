@@ -1,18 +1,27 @@
 package com.minio.service;
 
+import com.minio.dto.ConditionTraceDto;
+import com.minio.dto.EvaluationStatisticsDto;
+import com.minio.dto.EvaluationTraceDto;
+import com.minio.dto.GroupTraceDto;
 import com.minio.dto.UserRequestDto;
 import com.minio.dto.MarketingTargetFilterDto;
-import com.minio.dto.FilterConditionDto;
-import com.minio.dto.FilterGroupDto;
+import com.minio.evaluation.CompiledCondition;
+import com.minio.evaluation.CompiledFilter;
+import com.minio.evaluation.CompiledGroup;
+import com.minio.evaluation.ConditionRun;
+import com.minio.evaluation.EvaluationContext;
+import com.minio.evaluation.FilterCompiler;
+import com.minio.evaluation.MembershipLookup;
+import com.minio.evaluation.UserAttributes;
 import com.minio.model.FilterOperator;
-import com.minio.model.FilterFieldType;
 import com.minio.model.LogicalOperator;
-import com.minio.repository.MarketingTargetListItemRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
-import java.util.regex.Pattern;
 
 /**
  * Service for evaluating user compliance with targeting filters
@@ -24,15 +33,29 @@ public class FilterEvaluationService {
     MarketingTargetFilterService filterService;
     
     @Inject
-    MarketingTargetListItemRepository listItemRepository;
+    ListMembershipService membershipService;
+    
+    @Inject
+    FilterPlanCache planCache;
+    
+    @Inject
+    FilterMatchIndex matchIndex;
+    
+    private final EvaluationStatistics statistics = new EvaluationStatistics();
+    
+    // In-memory set lookup per DISTRIBUTION_GROUPS_FILE condition (database query for lists not loaded)
+    private final MembershipLookup repositoryLookup = (fileId, smid) -> {
+        statistics.recordLookup();
+        return membershipService.existsBySmidAndFileId(smid, fileId);
+    };
     
     /**
      * Check if user matches the filter by filter ID
      */
     public boolean evaluateFilter(Long filterId, UserRequestDto userRequest) {
         try {
-            Optional<MarketingTargetFilterDto> filterOpt = filterService.getFilterById(filterId);
-            return filterOpt.filter(filterDto -> evaluateFilter(filterDto, userRequest)).isPresent();
+            CompiledFilter plan = planCache.get(filterId, this::loadPlan);
+            return plan != null && evaluatePlan(plan, userRequest);
         } catch (Exception e) {
             return false;
         }
@@ -46,264 +69,286 @@ public class FilterEvaluationService {
             return false;
         }
         
-        // Evaluate root-level conditions with proper logical operators
-        if (filter.getConditions() != null && !filter.getConditions().isEmpty()) {
-            if (!evaluateConditionsWithLogicalOperators(filter.getConditions(), userRequest)) {
-                return false;
-            }
-        }
-        
-        // Check groups with their logical operators
-        if (filter.getGroups() != null && !filter.getGroups().isEmpty()) {
-            if (!evaluateGroupsWithLogicalOperators(filter.getGroups(), userRequest)) {
-                return false;
+        return evaluatePlan(FilterCompiler.compile(filter), userRequest);
+    }
+    
+    /**
+     * Check if user matches the compiled filter plan
+     */
+    public boolean evaluatePlan(CompiledFilter plan, UserRequestDto userRequest) {
+        return evaluatePlan(plan, UserAttributes.of(userRequest));
+    }
+    
+    /**
+     * Check if user matches the compiled filter plan.
+     * The same attributes can be reused to evaluate several filters for one request;
+     * use {@link #createContext} to share list lookups as well.
+     */
+    public boolean evaluatePlan(CompiledFilter plan, UserAttributes attributes) {
+        return evaluatePlan(plan, attributes, repositoryLookup);
+    }
+    
+    /**
+     * Check if user matches the compiled filter plan, resolving list membership with the given lookup
+     * (e.g. memberships prefetched for a batch of users)
+     */
+    public boolean evaluatePlan(CompiledFilter plan, UserAttributes attributes, MembershipLookup lookup) {
+        return evaluatePlan(plan, new EvaluationContext(attributes, lookup));
+    }
+    
+    /**
+     * Check if user matches the compiled filter plan within a request context.
+     * Evaluating several filters with one context looks up every referenced list only once.
+     */
+    public boolean evaluatePlan(CompiledFilter plan, EvaluationContext context) {
+        return plan.isActive() && evaluateRoot(plan, context);
+    }
+    
+    /**
+     * New evaluation context for one request, resolving list membership with the membership service
+     */
+    public EvaluationContext createContext(UserRequestDto userRequest) {
+        return new EvaluationContext(UserAttributes.of(userRequest), repositoryLookup);
+    }
+    
+    /**
+     * Find all active filters the user matches. Candidates are pruned with the match index
+     * and one request context is shared by every candidate.
+     */
+    public List<Long> matchFilters(UserRequestDto userRequest) {
+        EvaluationContext context = createContext(userRequest);
+        List<Long> matched = new ArrayList<>();
+        for (CompiledFilter plan : matchIndex.candidates(context.getAttributes())) {
+            if (evaluateCandidate(plan, context)) {
+                matched.add(plan.getId());
             }
         }
-        
-        return true;
+        Collections.sort(matched);
+        return matched;
     }
     
     /**
-     * Evaluate conditions with their individual logical operators
+     * Evaluate the filter by ID and record a per-condition and per-group trace (explain mode).
+     * Returns empty if the filter does not exist.
      */
-    private boolean evaluateConditionsWithLogicalOperators(List<FilterConditionDto> conditions, UserRequestDto userRequest) {
-        if (conditions == null || conditions.isEmpty()) {
-            return true;
+    public Optional<EvaluationTraceDto> explainFilter(Long filterId, UserRequestDto userRequest) {
+        CompiledFilter plan = planCache.get(filterId, this::loadPlan);
+        if (plan == null) {
+            return Optional.empty();
         }
         
-        System.out.println("DEBUG: evaluateConditionsWithLogicalOperators - processing " + conditions.size() + " conditions");
-        
-        // Start with the first condition result
-        boolean result = evaluateCondition(conditions.get(0), userRequest);
-        System.out.println("DEBUG: First condition result: " + result);
+        EvaluationTraceDto trace = new EvaluationTraceDto();
+        trace.setFilterId(filterId);
+        trace.setActive(plan.isActive());
         
-        // Keep track of the last non-null operator to handle null operators correctly
-        // Initialize with the first condition's operator (this will be used for the second condition)
-        LogicalOperator lastOperator = conditions.get(0).getLogicalOperator();
-        if (lastOperator == null) {
-            lastOperator = LogicalOperator.AND; // Default if first condition has no operator
+        EvaluationContext context = createContext(userRequest);
+        long start = System.nanoTime();
+        trace.setMatches(plan.isActive() && tracePlan(plan, context, trace));
+        trace.setTimeNanos(System.nanoTime() - start);
+        trace.setLookups(context.getLookupCount());
+        trace.setMemoizedLookups(context.getMemoizedLookupCount());
+        return Optional.of(trace);
+    }
+    
+    /**
+     * Compiled plan of the filter, or empty if it does not exist
+     */
+    public Optional<CompiledFilter> getPlan(Long filterId) {
+        return Optional.ofNullable(planCache.get(filterId, this::loadPlan));
+    }
+    
+    /**
+     * Counters of list lookups performed and skipped by short-circuit evaluation
+     */
+    public EvaluationStatisticsDto getStatistics() {
+        return statistics.toDto();
+    }
+    
+    private boolean evaluateCandidate(CompiledFilter plan, EvaluationContext context) {
+        try {
+            return evaluatePlan(plan, context);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+    
+    private CompiledFilter loadPlan(Long filterId) {
+        return filterService.getFilterById(filterId)
+            .map(FilterCompiler::compile)
+            .orElse(null);
+    }
+    
+    /**
+     * Evaluate root-level conditions and groups, skipping everything that can no longer change the result
+     */
+    private boolean evaluateRoot(CompiledFilter plan, EvaluationContext context) {
+        if (!evaluateRuns(plan.getConditionRuns(), context)) {
+            statistics.recordSkipped(plan.getGroupConditionCount(), plan.getGroupLookupCount());
+            return false;
         }
-        System.out.println("DEBUG: Initial lastOperator from first condition: " + lastOperator);
         
-        // Process remaining conditions with their logical operators
-        for (int i = 1; i < conditions.size(); i++) {
-            FilterConditionDto condition = conditions.get(i);
-            boolean conditionResult = evaluateCondition(condition, userRequest);
-            System.out.println("DEBUG: Condition " + i + " result: " + conditionResult + " (operator: " + condition.getLogicalOperator() + ")");
-            
-            // The logical operator of the current condition determines how it combines with the previous result
-            LogicalOperator operator = condition.getLogicalOperator();
-            if (operator == null) {
-                // If current operator is null, use the last non-null operator we've seen
-                operator = lastOperator;
-                System.out.println("DEBUG: Using last seen operator: " + operator);
-            } else {
-                // Update last operator for future null operators
-                lastOperator = operator;
-                System.out.println("DEBUG: Updated lastOperator to: " + operator);
-            }
-            
-            if (operator == LogicalOperator.OR) {
-                result = result || conditionResult;
-                System.out.println("DEBUG: Applied OR: " + result);
-            } else {
-                result = result && conditionResult;
-                System.out.println("DEBUG: Applied AND: " + result);
+        return plan.getGroups().isEmpty() || evaluateGroups(plan.getGroups(), context);
+    }
+    
+    /**
+     * Left-to-right fold of groups with their logical operators, skipping groups whose result
+     * would not matter (true OR ..., false AND ...)
+     */
+    private boolean evaluateGroups(List<CompiledGroup> groups, EvaluationContext context) {
+        boolean result = evaluateRuns(groups.get(0).getRuns(), context);
+        
+        for (int i = 1; i < groups.size(); i++) {
+            CompiledGroup group = groups.get(i);
+            if (result == (group.getCombineOperator() == LogicalOperator.OR)) {
+                statistics.recordSkipped(group.getConditions().size(), group.getLookupCount());
+                continue;
             }
+            result = evaluateRuns(group.getRuns(), context);
         }
         
-        System.out.println("DEBUG: Final evaluateConditionsWithLogicalOperators result: " + result);
         return result;
     }
     
     /**
-     * Evaluate groups with their individual logical operators
+     * Left-to-right fold of condition runs. An empty list matches.
      */
-    private boolean evaluateGroupsWithLogicalOperators(List<FilterGroupDto> groups, UserRequestDto userRequest) {
-        if (groups == null || groups.isEmpty()) {
+    private boolean evaluateRuns(List<ConditionRun> runs, EvaluationContext context) {
+        if (runs.isEmpty()) {
             return true;
         }
         
-        // Start with the first group result
-        boolean result = evaluateGroupConditions(groups.get(0).getConditions(), userRequest);
+        boolean result = evaluateRun(runs.get(0), context);
         
-        // Process remaining groups with their logical operators
-        for (int i = 1; i < groups.size(); i++) {
-            FilterGroupDto group = groups.get(i);
-            boolean groupResult = evaluateGroupConditions(group.getConditions(), userRequest);
-            
-            // Use the logical operator of the current group to combine with previous result
-            LogicalOperator operator = group.getLogicalOperator();
-            if (operator == LogicalOperator.OR) {
-                result = result || groupResult;
-            } else {
-                // Default to AND if operator is null or AND
-                result = result && groupResult;
+        for (int i = 1; i < runs.size(); i++) {
+            ConditionRun run = runs.get(i);
+            if (result == (run.getOperator() == LogicalOperator.OR)) {
+                statistics.recordSkipped(run.size(), run.getLookupCount());
+                continue;
             }
+            result = evaluateRun(run, context);
         }
         
         return result;
     }
     
     /**
-     * Evaluate conditions within a group using their individual logical operators
+     * AND of the run stops on the first false condition, OR on the first true one
      */
-    private boolean evaluateGroupConditions(List<FilterConditionDto> conditions, UserRequestDto userRequest) {
-        if (conditions == null || conditions.isEmpty()) {
-            return true;
+    private boolean evaluateRun(ConditionRun run, EvaluationContext context) {
+        boolean decisive = run.getOperator() == LogicalOperator.OR;
+        for (int i = 0; i < run.size(); i++) {
+            if (evaluateCondition(run.get(i), context) == decisive) {
+                if (i + 1 < run.size()) {
+                    statistics.recordSkipped(run.size() - i - 1, run.getLookupCount(i + 1));
+                }
+                return decisive;
+            }
         }
+        return !decisive;
+    }
+    
+    /**
+     * Evaluate every root-level condition and group in definition order, recording the trace (explain mode)
+     */
+    private boolean tracePlan(CompiledFilter plan, EvaluationContext context, EvaluationTraceDto trace) {
+        boolean result = traceConditions(plan.getConditions(), context, trace.getConditions());
         
-        System.out.println("DEBUG: evaluateGroupConditions - conditions count: " + conditions.size());
-        for (int i = 0; i < conditions.size(); i++) {
-            FilterConditionDto condition = conditions.get(i);
-            System.out.println("DEBUG: Condition " + i + ": " + condition.getFieldType() + " " + condition.getOperator() + " '" + condition.getFieldValue() + "' logicalOp=" + condition.getLogicalOperator());
+        if (!plan.getGroups().isEmpty()) {
+            result = traceGroups(plan.getGroups(), context, trace) && result;
         }
         
-        // Evaluate conditions within the group using their individual logical operators
-        boolean result = evaluateConditionsWithLogicalOperators(conditions, userRequest);
-        System.out.println("DEBUG: evaluateGroupConditions result: " + result);
         return result;
     }
     
-    /**
-     * Evaluate individual condition
-     */
-    private boolean evaluateCondition(FilterConditionDto condition, UserRequestDto userRequest) {
-        String fieldValue = userRequest.getFieldValue(condition.getFieldType().name());
-        String conditionValue = condition.getFieldValue();
-        FilterOperator operator = condition.getOperator();
-        
-        System.out.println("DEBUG: evaluateCondition - " + condition.getFieldType() + " " + operator + " '" + conditionValue + "'");
-        System.out.println("DEBUG: User field value: '" + fieldValue + "'");
+    private boolean traceGroups(List<CompiledGroup> groups, EvaluationContext context, EvaluationTraceDto trace) {
+        boolean result = traceGroup(groups.get(0), context, trace);
         
-        // Special handling for distribution group files
-        if (condition.getFieldType() == FilterFieldType.DISTRIBUTION_GROUPS_FILE) {
-            return evaluateDistributionGroupsFile(condition, userRequest);
+        for (int i = 1; i < groups.size(); i++) {
+            CompiledGroup group = groups.get(i);
+            result = combine(result, group.getCombineOperator(), traceGroup(group, context, trace));
         }
         
-        // If field value is empty, condition is not met (except IS_NULL/IS_NOT_NULL)
-        if (fieldValue == null) {
-            return operator == FilterOperator.IS_NULL;
+        return result;
+    }
+    
+    private boolean traceGroup(CompiledGroup group, EvaluationContext context, EvaluationTraceDto trace) {
+        GroupTraceDto groupTrace = new GroupTraceDto();
+        groupTrace.setGroupName(group.getGroupName());
+        groupTrace.setCombineOperator(group.getCombineOperator());
+        long start = System.nanoTime();
+        boolean result = traceConditions(group.getConditions(), context, groupTrace.getConditions());
+        groupTrace.setTimeNanos(System.nanoTime() - start);
+        groupTrace.setResult(result);
+        trace.getGroups().add(groupTrace);
+        return result;
+    }
+    
+    private boolean traceConditions(List<CompiledCondition> conditions, EvaluationContext context,
+                                    List<ConditionTraceDto> conditionTraces) {
+        if (conditions.isEmpty()) {
+            return true;
         }
         
-        if (conditionValue == null) {
-            return operator == FilterOperator.IS_NOT_NULL;
-        }
+        boolean result = traceCondition(conditions.get(0), context, conditionTraces);
         
-        switch (operator) {
-            case EQUAL:
-                return fieldValue.equals(conditionValue);
-                
-            case NOT_EQUAL:
-                return !fieldValue.equals(conditionValue);
-                
-            case CONTAINS:
-                return fieldValue.toLowerCase().contains(conditionValue.toLowerCase());
-                
-            case NOT_CONTAINS:
-                return !fieldValue.toLowerCase().contains(conditionValue.toLowerCase());
-                
-            case STARTS_WITH:
-                return fieldValue.toLowerCase().startsWith(conditionValue.toLowerCase());
-                
-            case ENDS_WITH:
-                return fieldValue.toLowerCase().endsWith(conditionValue.toLowerCase());
-                
-            case GREATER_THAN:
-                return compareNumeric(fieldValue, conditionValue) > 0;
-                
-            case GREATER_THAN_OR_EQUAL:
-                return compareNumeric(fieldValue, conditionValue) >= 0;
-                
-            case LESS_THAN:
-                return compareNumeric(fieldValue, conditionValue) < 0;
-                
-            case LESS_THAN_OR_EQUAL:
-                return compareNumeric(fieldValue, conditionValue) <= 0;
-                
-            case IN:
-                return evaluateInOperator(fieldValue, conditionValue, true);
-                
-            case NOT_IN:
-                return evaluateInOperator(fieldValue, conditionValue, false);
-                
-            case REGEX:
-                try {
-                    Pattern pattern = Pattern.compile(conditionValue);
-                    return pattern.matcher(fieldValue).matches();
-                } catch (Exception e) {
-                    return false;
-                }
-                
-            case IS_NULL:
-                return false; // fieldValue already checked above
-                
-            case IS_NOT_NULL:
-                return true; // fieldValue already checked above
-                
-            default:
-                return false;
+        for (int i = 1; i < conditions.size(); i++) {
+            CompiledCondition condition = conditions.get(i);
+            result = combine(result, condition.getCombineOperator(), traceCondition(condition, context, conditionTraces));
         }
+        
+        return result;
+    }
+    
+    private static boolean combine(boolean result, LogicalOperator operator, boolean next) {
+        return operator == LogicalOperator.OR ? result || next : result && next;
+    }
+    
+    private boolean traceCondition(CompiledCondition condition, EvaluationContext context,
+                                   List<ConditionTraceDto> conditionTraces) {
+        long start = System.nanoTime();
+        boolean result = evaluateCondition(condition, context);
+        long elapsed = System.nanoTime() - start;
+        
+        ConditionTraceDto conditionTrace = new ConditionTraceDto();
+        conditionTrace.setFieldType(condition.getFieldType());
+        conditionTrace.setOperator(condition.getOperator());
+        conditionTrace.setConditionValue(condition.getValue());
+        conditionTrace.setValueSeen(condition.isLookup()
+            ? context.getAttributes().getSmid()
+            : context.getAttributes().get(condition.getFieldType()));
+        conditionTrace.setCombineOperator(condition.getCombineOperator());
+        conditionTrace.setResult(result);
+        conditionTrace.setTimeNanos(elapsed);
+        conditionTraces.add(conditionTrace);
+        return result;
     }
     
     /**
-     * Evaluate IN/NOT_IN operators with support for JSON arrays and comma-separated values
+     * Evaluate individual condition
      */
-    private boolean evaluateInOperator(String fieldValue, String conditionValue, boolean isInOperator) {
-        System.out.println("DEBUG: evaluateInOperator - fieldValue: '" + fieldValue + "', conditionValue: '" + conditionValue + "', isInOperator: " + isInOperator);
-        
-        String[] values;
-        
-        // Check if conditionValue is a JSON array
-        if (conditionValue.trim().startsWith("[") && conditionValue.trim().endsWith("]")) {
-            // Parse JSON array
-            String arrayContent = conditionValue.trim().substring(1, conditionValue.trim().length() - 1);
-            System.out.println("DEBUG: Detected JSON array, content: '" + arrayContent + "'");
-            
-            // Split by comma and clean up quotes
-            values = arrayContent.split(",");
-            for (int i = 0; i < values.length; i++) {
-                values[i] = values[i].trim();
-                // Remove surrounding quotes if present
-                if (values[i].startsWith("\"") && values[i].endsWith("\"")) {
-                    values[i] = values[i].substring(1, values[i].length() - 1);
-                }
-                System.out.println("DEBUG: Parsed value " + i + ": '" + values[i] + "'");
-            }
-        } else {
-            // Regular comma-separated values
-            values = conditionValue.split(",");
-            for (int i = 0; i < values.length; i++) {
-                values[i] = values[i].trim();
-                System.out.println("DEBUG: Regular value " + i + ": '" + values[i] + "'");
-            }
-        }
-        
-        // Check if fieldValue matches any of the values
-        for (String value : values) {
-            if (fieldValue.equals(value)) {
-                System.out.println("DEBUG: Match found: '" + fieldValue + "' equals '" + value + "'");
-                return isInOperator; // true for IN, false for NOT_IN when match found
-            }
+    private boolean evaluateCondition(CompiledCondition condition, EvaluationContext context) {
+        // Special handling for distribution group files
+        if (condition.isLookup()) {
+            return evaluateDistributionGroupsFile(condition, context);
         }
         
-        System.out.println("DEBUG: No match found for '" + fieldValue + "'");
-        return !isInOperator; // false for IN, true for NOT_IN when no match found
+        return condition.matches(context.getAttributes());
     }
     
     /**
      * Check distribution group files (DISTRIBUTION_GROUPS_FILE)
      */
-    private boolean evaluateDistributionGroupsFile(FilterConditionDto condition, UserRequestDto userRequest) {
-        String smid = userRequest.getSmid();
+    private boolean evaluateDistributionGroupsFile(CompiledCondition condition, EvaluationContext context) {
+        String smid = context.getAttributes().getSmid();
         if (smid == null) {
             return false;
         }
         
-        String fileId = condition.getFieldValue();
+        String fileId = condition.getValue();
         FilterOperator operator = condition.getOperator();
 
-        boolean existsInFile = listItemRepository.existsBySmidAndFileId(smid, fileId);
+        // Memoized per request: a list referenced several times is looked up once
+        boolean existsInFile = context.contains(fileId, smid);
 
         return switch (operator) {
             case IN -> existsInFile;
@@ -311,18 +356,4 @@ public class FilterEvaluationService {
             default -> false;
         };
     }
-    
-    /**
-     * Compare numeric values
-     */
-    private int compareNumeric(String value1, String value2) {
-        try {
-            Double num1 = Double.parseDouble(value1);
-            Double num2 = Double.parseDouble(value2);
-            return num1.compareTo(num2);
-        } catch (NumberFormatException e) {
-            // If not numbers, compare as strings
-            return value1.compareTo(value2);
-        }
-    }
 }
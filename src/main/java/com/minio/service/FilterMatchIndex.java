@@ -0,0 +1,181 @@
+package com.minio.service;
+
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.evaluation.CompiledFilter;
+import com.minio.evaluation.FilterCompiler;
+import com.minio.evaluation.IndexKey;
+import com.minio.evaluation.UserAttributes;
+import com.minio.model.FilterFieldType;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory inverted index of active filters by required EQUAL/IN condition values.
+ * Used to find the few filters that can match a user without evaluating every filter.
+ * Filters without such a condition are always returned as candidates.
+ *
+ * The index is loaded on first use; changed filters are marked after their transaction completes
+ * and reloaded on the next lookup.
+ */
+@ApplicationScoped
+public class FilterMatchIndex {
+
+    @Inject
+    MarketingTargetFilterService filterService;
+
+    volatile boolean loaded;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<FilterFieldType, ConcurrentHashMap<String, Set<Long>>> postings = new EnumMap<>(FilterFieldType.class);
+    private final Set<Long> unindexed = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    public FilterMatchIndex() {
+        for (FilterFieldType fieldType : FilterFieldType.values()) {
+            postings.put(fieldType, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Active filters that may match the user. Every filter not returned is guaranteed not to match.
+     */
+    public List<CompiledFilter> candidates(UserAttributes attributes) {
+        ensureLoaded();
+        refreshPending();
+
+        List<CompiledFilter> candidates = new ArrayList<>();
+        for (Map.Entry<FilterFieldType, ConcurrentHashMap<String, Set<Long>>> fieldPostings : postings.entrySet()) {
+            if (fieldPostings.getValue().isEmpty()) {
+                continue;
+            }
+            String value = attributes.get(fieldPostings.getKey());
+            Set<Long> filterIds = value != null ? fieldPostings.getValue().get(value) : null;
+            if (filterIds != null) {
+                addCandidates(filterIds, candidates);
+            }
+        }
+        addCandidates(unindexed, candidates);
+        return candidates;
+    }
+
+    /**
+     * Add or replace the filter. Inactive filters are removed from the index.
+     */
+    public synchronized void put(CompiledFilter filter) {
+        remove(filter.getId());
+        if (!filter.isActive()) {
+            return;
+        }
+
+        IndexKey key = IndexKey.of(filter);
+        entries.put(filter.getId(), new Entry(filter, key));
+        if (key == null) {
+            unindexed.add(filter.getId());
+            return;
+        }
+        ConcurrentHashMap<String, Set<Long>> fieldPostings = postings.get(key.getFieldType());
+        for (String value : key.getValues()) {
+            fieldPostings.computeIfAbsent(value, v -> ConcurrentHashMap.newKeySet()).add(filter.getId());
+        }
+    }
+
+    public synchronized void remove(Long filterId) {
+        Entry entry = entries.remove(filterId);
+        if (entry == null) {
+            return;
+        }
+        if (entry.key == null) {
+            unindexed.remove(filterId);
+            return;
+        }
+        ConcurrentHashMap<String, Set<Long>> fieldPostings = postings.get(entry.key.getFieldType());
+        for (String value : entry.key.getValues()) {
+            fieldPostings.computeIfPresent(value, (v, ids) -> {
+                ids.remove(filterId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * Number of indexed (active) filters
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    void onFilterChanged(@Observes(during = TransactionPhase.AFTER_COMPLETION) FilterChangedEvent event) {
+        pending.add(event.getFilterId());
+    }
+
+    private void addCandidates(Set<Long> filterIds, List<CompiledFilter> candidates) {
+        for (Long filterId : filterIds) {
+            Entry entry = entries.get(filterId);
+            if (entry != null) {
+                candidates.add(entry.filter);
+            }
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                List<Long> activeIds = filterService.getActiveFilterIds();
+                for (MarketingTargetFilterDto filter : filterService.getFiltersWithDetails(activeIds)) {
+                    put(FilterCompiler.compile(filter));
+                }
+                loaded = true;
+            }
+        }
+    }
+
+    /**
+     * Reload filters changed since the last lookup. Serialized so that a slow reload cannot overwrite a newer one.
+     */
+    private void refreshPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            Iterator<Long> filterIds = pending.iterator();
+            while (filterIds.hasNext()) {
+                Long filterId = filterIds.next();
+                filterIds.remove();
+                reload(filterId);
+            }
+        }
+    }
+
+    private void reload(Long filterId) {
+        Optional<MarketingTargetFilterDto> filter = filterService.getFilterById(filterId);
+        if (filter.isPresent()) {
+            put(FilterCompiler.compile(filter.get()));
+        } else {
+            remove(filterId);
+        }
+    }
+
+    private static final class Entry {
+
+        private final CompiledFilter filter;
+        private final IndexKey key;
+
+        Entry(CompiledFilter filter, IndexKey key) {
+            this.filter = filter;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.minio.service;
+
+import com.minio.evaluation.CompiledFilter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Bounded in-memory cache of compiled filter plans keyed by filter ID.
+ * Entries are invalidated after the transaction that changed the filter completes.
+ * When the cache is full, the least recently used tenth of the plans is evicted at once, so that the scan for
+ * them is paid once per that many loads rather than on every miss.
+ */
+@ApplicationScoped
+public class FilterPlanCache {
+
+    @ConfigProperty(name = "filter.plan-cache.max-size", defaultValue = "10000")
+    int maxSize;
+
+    // Share of maxSize evicted when the cache is full
+    private static final int EVICTED_FRACTION = 10;
+
+    private final ConcurrentHashMap<Long, Entry> plans = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation so that a load racing with an update is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Get the compiled plan for the filter, loading it on a cache miss.
+     * The loader may return null if the filter does not exist; such results are not cached.
+     */
+    public CompiledFilter get(Long filterId, Function<Long, CompiledFilter> loader) {
+        Entry entry = plans.get(filterId);
+        if (entry != null) {
+            entry.lastAccess = System.nanoTime();
+            return entry.plan;
+        }
+
+        long loadGeneration = generation.get();
+        CompiledFilter plan = loader.apply(filterId);
+        if (plan == null) {
+            return null;
+        }
+
+        if (generation.get() == loadGeneration) {
+            evictIfFull();
+            entry = new Entry(plan);
+            plans.put(filterId, entry);
+            // An invalidation may have slipped in between the check and the put
+            if (generation.get() != loadGeneration) {
+                plans.remove(filterId, entry);
+            }
+        }
+        return plan;
+    }
+
+    public void invalidate(Long filterId) {
+        generation.incrementAndGet();
+        plans.remove(filterId);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        plans.clear();
+    }
+
+    public int size() {
+        return plans.size();
+    }
+
+    void onFilterChanged(@Observes(during = TransactionPhase.AFTER_COMPLETION) FilterChangedEvent event) {
+        invalidate(event.getFilterId());
+    }
+
+    private void evictIfFull() {
+        if (plans.size() < maxSize) {
+            return;
+        }
+        // One thread scans at a time; the others find room made when they get the lock
+        synchronized (this) {
+            if (plans.size() < maxSize) {
+                return;
+            }
+            long[] accesses = plans.values().stream().mapToLong(entry -> entry.lastAccess).sorted().toArray();
+            if (accesses.length == 0) {
+                return;
+            }
+            int evicted = Math.max(1, maxSize / EVICTED_FRACTION) + accesses.length - maxSize;
+            long threshold = accesses[Math.min(evicted, accesses.length) - 1];
+            plans.values().removeIf(entry -> entry.lastAccess <= threshold);
+        }
+    }
+
+    private static final class Entry {
+        private final CompiledFilter plan;
+        private volatile long lastAccess;
+
+        Entry(CompiledFilter plan) {
+            this.plan = plan;
+            this.lastAccess = System.nanoTime();
+        }
+    }
+}
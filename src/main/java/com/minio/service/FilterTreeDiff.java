@@ -0,0 +1,307 @@
+package com.minio.service;
+
+import com.minio.dto.FilterConditionDto;
+import com.minio.dto.FilterGroupDto;
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.model.MarketingTargetFilter;
+import com.minio.model.MarketingTargetFilterCondition;
+import com.minio.model.MarketingTargetFilterGroup;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Structural diff between the stored tree of a filter and an incoming filter DTO.
+ *
+ * Incoming groups and conditions are matched to stored rows of the same scope (root or group) by id first; the
+ * remaining ones reuse the remaining stored rows in order. Matched rows are updated in place, only the fields that
+ * differ are set, so unchanged rows stay clean for dirty checking. Unmatched incoming rows are inserted and
+ * unmatched stored rows are deleted. Conditions of a deleted group are deleted with it. The collections of the
+ * stored filter and groups end up holding the updated tree.
+ *
+ * The evaluation semantics change with any inserted, deleted or updated group or condition and with the active
+ * and high-traffic flags; the filter name and description do not affect evaluation.
+ */
+final class FilterTreeDiff {
+
+    private static final Comparator<MarketingTargetFilterGroup> GROUP_ORDER = Comparator
+        .comparing(MarketingTargetFilterGroup::getOrderIndex, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(MarketingTargetFilterGroup::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private static final Comparator<MarketingTargetFilterCondition> CONDITION_ORDER = Comparator
+        .comparing(MarketingTargetFilterCondition::getOrderIndex, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(MarketingTargetFilterCondition::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final List<MarketingTargetFilterGroup> insertedGroups = new ArrayList<>();
+    private final List<MarketingTargetFilterCondition> insertedConditions = new ArrayList<>();
+    // Inserted conditions of inserted groups: the group id is known once the group is persisted
+    private final Map<MarketingTargetFilterCondition, MarketingTargetFilterGroup> newGroupOf = new IdentityHashMap<>();
+    private final List<MarketingTargetFilterGroup> deletedGroups = new ArrayList<>();
+    private final List<MarketingTargetFilterCondition> deletedConditions = new ArrayList<>();
+    private int updated;
+    private boolean semanticsChanged;
+
+    private FilterTreeDiff() {
+    }
+
+    /**
+     * Apply the DTO to the stored filter and its tree in memory and collect the rows to insert and delete
+     */
+    static FilterTreeDiff compute(MarketingTargetFilter stored, MarketingTargetFilterDto incoming) {
+        FilterTreeDiff diff = new FilterTreeDiff();
+        if (stored.getConditions() == null) {
+            stored.setConditions(new ArrayList<>());
+        }
+        if (stored.getGroups() == null) {
+            stored.setGroups(new ArrayList<>());
+        }
+        diff.diffFilter(stored, incoming);
+        diff.diffConditions(stored, null, stored.getConditions(), nonNull(incoming.getConditions()));
+        diff.diffGroups(stored, stored.getGroups(), nonNull(incoming.getGroups()));
+        return diff;
+    }
+
+    List<MarketingTargetFilterGroup> getInsertedGroups() {
+        return insertedGroups;
+    }
+
+    List<MarketingTargetFilterCondition> getInsertedConditions() {
+        return insertedConditions;
+    }
+
+    /**
+     * Inserted group the inserted condition belongs to, null for conditions of stored groups and root conditions
+     */
+    MarketingTargetFilterGroup getNewGroup(MarketingTargetFilterCondition condition) {
+        return newGroupOf.get(condition);
+    }
+
+    List<MarketingTargetFilterGroup> getDeletedGroups() {
+        return deletedGroups;
+    }
+
+    List<MarketingTargetFilterCondition> getDeletedConditions() {
+        return deletedConditions;
+    }
+
+    /**
+     * Stored groups and conditions updated in place
+     */
+    int getUpdated() {
+        return updated;
+    }
+
+    boolean isSemanticsChanged() {
+        return semanticsChanged;
+    }
+
+    boolean isTreeChanged() {
+        return updated > 0 || !insertedGroups.isEmpty() || !insertedConditions.isEmpty()
+            || !deletedGroups.isEmpty() || !deletedConditions.isEmpty();
+    }
+
+    private void diffFilter(MarketingTargetFilter stored, MarketingTargetFilterDto incoming) {
+        if (!Objects.equals(stored.getFilterName(), incoming.getFilterName())) {
+            stored.setFilterName(incoming.getFilterName());
+        }
+        if (!Objects.equals(stored.getDescription(), incoming.getDescription())) {
+            stored.setDescription(incoming.getDescription());
+        }
+        if (!Objects.equals(stored.getIsActive(), incoming.getIsActive())) {
+            stored.setIsActive(incoming.getIsActive());
+            semanticsChanged = true;
+        }
+        Boolean highTraffic = incoming.getHighTraffic() != null ? incoming.getHighTraffic() : false;
+        if (!Objects.equals(stored.getHighTraffic(), highTraffic)) {
+            stored.setHighTraffic(highTraffic);
+            semanticsChanged = true;
+        }
+    }
+
+    private void diffGroups(MarketingTargetFilter filter, List<MarketingTargetFilterGroup> storedGroups,
+                            List<FilterGroupDto> incomingGroups) {
+        List<MarketingTargetFilterGroup> stored = new ArrayList<>(storedGroups);
+        stored.sort(GROUP_ORDER);
+        List<MarketingTargetFilterGroup> matches = match(stored, incomingGroups, FilterGroupDto::getId,
+            MarketingTargetFilterGroup::getId);
+
+        for (int i = 0; i < incomingGroups.size(); i++) {
+            FilterGroupDto groupDto = incomingGroups.get(i);
+            MarketingTargetFilterGroup group = matches.get(i);
+            if (group == null) {
+                group = new MarketingTargetFilterGroup();
+                group.setMarketingTargetFilterId(filter.getId());
+                group.setGroupName(groupDto.getGroupName());
+                group.setLogicalOperator(groupDto.getLogicalOperator());
+                group.setOrderIndex(orderIndex(groupDto.getOrderIndex()));
+                group.setConditions(new ArrayList<>());
+                insertedGroups.add(group);
+                storedGroups.add(group);
+                semanticsChanged = true;
+                for (FilterConditionDto conditionDto : nonNull(groupDto.getConditions())) {
+                    MarketingTargetFilterCondition condition = newCondition(filter, null, conditionDto);
+                    group.getConditions().add(condition);
+                    newGroupOf.put(condition, group);
+                }
+                continue;
+            }
+
+            boolean changed = false;
+            if (!Objects.equals(group.getGroupName(), groupDto.getGroupName())) {
+                group.setGroupName(groupDto.getGroupName());
+                changed = true;
+            }
+            if (group.getLogicalOperator() != groupDto.getLogicalOperator()) {
+                group.setLogicalOperator(groupDto.getLogicalOperator());
+                changed = true;
+            }
+            if (!Objects.equals(group.getOrderIndex(), orderIndex(groupDto.getOrderIndex()))) {
+                group.setOrderIndex(orderIndex(groupDto.getOrderIndex()));
+                changed = true;
+            }
+            if (changed) {
+                updated++;
+                semanticsChanged = true;
+            }
+            if (group.getConditions() == null) {
+                group.setConditions(new ArrayList<>());
+            }
+            diffConditions(filter, group.getId(), group.getConditions(), nonNull(groupDto.getConditions()));
+        }
+
+        List<MarketingTargetFilterGroup> deleted = new ArrayList<>();
+        for (MarketingTargetFilterGroup group : stored) {
+            if (!matches.contains(group)) {
+                deleted.add(group);
+                deletedConditions.addAll(nonNull(group.getConditions()));
+                semanticsChanged = true;
+            }
+        }
+        if (!deleted.isEmpty()) {
+            // Deleted rows must not stay reachable through the cascaded collections
+            storedGroups.removeAll(deleted);
+            deletedGroups.addAll(deleted);
+        }
+    }
+
+    private void diffConditions(MarketingTargetFilter filter, Long groupId,
+                                List<MarketingTargetFilterCondition> storedConditions,
+                                List<FilterConditionDto> incomingConditions) {
+        List<MarketingTargetFilterCondition> stored = new ArrayList<>(storedConditions);
+        stored.sort(CONDITION_ORDER);
+        List<MarketingTargetFilterCondition> matches = match(stored, incomingConditions, FilterConditionDto::getId,
+            MarketingTargetFilterCondition::getId);
+
+        for (int i = 0; i < incomingConditions.size(); i++) {
+            FilterConditionDto conditionDto = incomingConditions.get(i);
+            MarketingTargetFilterCondition condition = matches.get(i);
+            if (condition == null) {
+                storedConditions.add(newCondition(filter, groupId, conditionDto));
+                continue;
+            }
+
+            boolean changed = false;
+            if (condition.getFieldType() != conditionDto.getFieldType()) {
+                condition.setFieldType(conditionDto.getFieldType());
+                changed = true;
+            }
+            if (condition.getOperator() != conditionDto.getOperator()) {
+                condition.setOperator(conditionDto.getOperator());
+                changed = true;
+            }
+            if (!Objects.equals(condition.getFieldValue(), conditionDto.getFieldValue())) {
+                condition.setFieldValue(conditionDto.getFieldValue());
+                changed = true;
+            }
+            if (condition.getLogicalOperator() != conditionDto.getLogicalOperator()) {
+                condition.setLogicalOperator(conditionDto.getLogicalOperator());
+                changed = true;
+            }
+            if (!Objects.equals(condition.getOrderIndex(), orderIndex(conditionDto.getOrderIndex()))) {
+                condition.setOrderIndex(orderIndex(conditionDto.getOrderIndex()));
+                changed = true;
+            }
+            if (changed) {
+                updated++;
+                semanticsChanged = true;
+            }
+        }
+
+        List<MarketingTargetFilterCondition> deleted = new ArrayList<>();
+        for (MarketingTargetFilterCondition condition : stored) {
+            if (!matches.contains(condition)) {
+                deleted.add(condition);
+                semanticsChanged = true;
+            }
+        }
+        if (!deleted.isEmpty()) {
+            storedConditions.removeAll(deleted);
+            deletedConditions.addAll(deleted);
+        }
+    }
+
+    private MarketingTargetFilterCondition newCondition(MarketingTargetFilter filter, Long groupId,
+                                                        FilterConditionDto conditionDto) {
+        MarketingTargetFilterCondition condition = new MarketingTargetFilterCondition();
+        condition.setMarketingTargetFilterId(filter.getId());
+        condition.setGroupId(groupId);
+        condition.setFieldType(conditionDto.getFieldType());
+        condition.setOperator(conditionDto.getOperator());
+        condition.setFieldValue(conditionDto.getFieldValue());
+        condition.setLogicalOperator(conditionDto.getLogicalOperator());
+        condition.setOrderIndex(orderIndex(conditionDto.getOrderIndex()));
+        insertedConditions.add(condition);
+        semanticsChanged = true;
+        return condition;
+    }
+
+    /**
+     * Stored row for every incoming row (null if it is to be inserted): by id, then the next unmatched row in order
+     */
+    private static <S, D> List<S> match(List<S> stored, List<D> incoming, Function<D, Long> incomingId,
+                                        Function<S, Long> storedId) {
+        Map<Long, S> byId = new HashMap<>();
+        for (S row : stored) {
+            byId.put(storedId.apply(row), row);
+        }
+        List<S> matches = new ArrayList<>(Collections.nCopies(incoming.size(), null));
+        Map<S, Boolean> used = new IdentityHashMap<>();
+        for (int i = 0; i < incoming.size(); i++) {
+            Long id = incomingId.apply(incoming.get(i));
+            S row = id != null ? byId.get(id) : null;
+            if (row != null && used.put(row, true) == null) {
+                matches.set(i, row);
+            }
+        }
+        int next = 0;
+        for (int i = 0; i < incoming.size(); i++) {
+            if (matches.get(i) != null) {
+                continue;
+            }
+            while (next < stored.size() && used.containsKey(stored.get(next))) {
+                next++;
+            }
+            if (next == stored.size()) {
+                break;
+            }
+            S row = stored.get(next++);
+            used.put(row, true);
+            matches.set(i, row);
+        }
+        return matches;
+    }
+
+    private static Integer orderIndex(Integer orderIndex) {
+        return orderIndex != null ? orderIndex : 0;
+    }
+
+    private static <T> List<T> nonNull(List<T> list) {
+        return list != null ? list : Collections.emptyList();
+    }
+}
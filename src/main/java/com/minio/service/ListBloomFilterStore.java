@@ -0,0 +1,75 @@
+package com.minio.service;
+
+import com.minio.util.BloomFilter;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import io.minio.PutObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Optional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Stores Bloom filters of marketing target lists in MinIO, next to the list files.
+ * The object name contains the list version, so a filter of an outdated list is never read.
+ */
+@ApplicationScoped
+public class ListBloomFilterStore {
+    private static final Logger logger = Logger.getLogger(ListBloomFilterStore.class);
+
+    @Inject
+    MinioClient minioClient;
+
+    @ConfigProperty(name = "minio.bucket")
+    String bucketName;
+
+    /**
+     * Load the filter of the list version, empty if it was not built yet or cannot be read
+     */
+    public Optional<BloomFilter> load(Long marketingTargetId, Long listVersion) {
+        String objectName = objectName(marketingTargetId, listVersion);
+        try (GetObjectResponse object = minioClient.getObject(GetObjectArgs.builder()
+                .bucket(bucketName)
+                .object(objectName)
+                .build())) {
+            return Optional.of(BloomFilter.readFrom(new BufferedInputStream(object)));
+        } catch (ErrorResponseException e) {
+            if (!"NoSuchKey".equals(e.errorResponse().code())) {
+                logger.warn("Error reading Bloom filter " + objectName, e);
+            }
+            return Optional.empty();
+        } catch (Exception e) {
+            logger.warn("Error reading Bloom filter " + objectName, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Save the filter of the list version. Failures are logged: the filter is rebuilt by the next node that needs it.
+     */
+    public void save(Long marketingTargetId, Long listVersion, BloomFilter filter) {
+        String objectName = objectName(marketingTargetId, listVersion);
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE - 8, filter.serializedSize()));
+            filter.writeTo(buffer);
+            minioClient.putObject(PutObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .stream(new ByteArrayInputStream(buffer.toByteArray()), buffer.size(), -1)
+                    .contentType("application/octet-stream")
+                    .build());
+        } catch (Exception e) {
+            logger.warn("Error saving Bloom filter " + objectName, e);
+        }
+    }
+
+    static String objectName(Long marketingTargetId, Long listVersion) {
+        return "marketing-targets/" + marketingTargetId + "/smids-v" + (listVersion != null ? listVersion : 0) + ".bloom";
+    }
+}
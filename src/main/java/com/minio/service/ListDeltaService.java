@@ -0,0 +1,279 @@
+package com.minio.service;
+
+import com.minio.dto.ListDeltaDto;
+import com.minio.dto.ListDeltaResultDto;
+import com.minio.model.MarketingTarget.MarketingTargetStatus;
+import com.minio.model.MarketingTargetListDelta.DeltaOperation;
+import com.minio.util.SmidListParser;
+import io.minio.GetObjectArgs;
+import io.minio.MinioClient;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.sql.DataSource;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Applies add/remove deltas to the current list generation of a READY marketing target without a full reload.
+ *
+ * Removals and additions are written to MARKETING_TARGET_LIST_ITEM in batches (array DELETE, INSERT ... ON CONFLICT
+ * DO NOTHING) in one transaction that also records the delta in MARKETING_TARGET_LIST_DELTA under the next list
+ * version; added SMIDs are resolved through the SMID dictionary first. The delta records SMID identifiers: the ones
+ * actually inserted and removed, as returned by the INSERT and the DELETE. A delta that changes nothing keeps the
+ * list version. Membership caches that hold the previous version apply the
+ * recorded delta instead of reloading. A full list load clears the recorded deltas of the target.
+ */
+@ApplicationScoped
+public class ListDeltaService {
+    private static final Logger logger = Logger.getLogger(ListDeltaService.class);
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    MinioClient minioClient;
+
+    @Inject
+    SmidDictionaryService dictionaryService;
+
+    @ConfigProperty(name = "minio.bucket")
+    String bucketName;
+
+    @ConfigProperty(name = "list-delta.batch-size", defaultValue = "5000")
+    int batchSize;
+
+    // Larger changes should be uploaded as a full list
+    @ConfigProperty(name = "list-delta.max-size", defaultValue = "1000000")
+    int maxSize;
+
+    // Versions of recorded deltas kept for membership caches that are behind
+    @ConfigProperty(name = "list-delta.retained-versions", defaultValue = "100")
+    int retainedVersions;
+
+    @ConfigProperty(name = "list-ingestion.id-sequence", defaultValue = "MarketingTargetListItem_SEQ")
+    String itemIdSequence;
+
+    @ConfigProperty(name = "list-delta.id-sequence", defaultValue = "MarketingTargetListDelta_SEQ")
+    String deltaIdSequence;
+
+    /**
+     * Apply the delta to the list of the target. An SMID may not be both added and removed.
+     */
+    public ListDeltaResultDto applyDelta(Long marketingTargetId, ListDeltaDto delta) throws Exception {
+        Set<String> remove = collect(delta.getRemove(), delta.getRemoveFileName());
+        Set<String> add = collect(delta.getAdd(), delta.getAddFileName());
+        if (add.isEmpty() && remove.isEmpty()) {
+            throw new IllegalArgumentException("Delta has no SMIDs to add or remove");
+        }
+        if (add.size() + remove.size() > maxSize) {
+            throw new IllegalArgumentException("Delta has more than " + maxSize + " SMIDs, upload the full list instead");
+        }
+        for (String smid : remove) {
+            if (add.contains(smid)) {
+                throw new IllegalArgumentException("SMID is both added and removed: " + smid);
+            }
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                ListDeltaResultDto result = apply(connection, marketingTargetId, add, remove);
+                connection.commit();
+                logger.infof("Applied delta to marketing target %d: +%d -%d, list version %d",
+                    marketingTargetId, result.getAdded(), result.getRemoved(), result.getListVersion());
+                return result;
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private ListDeltaResultDto apply(Connection connection, Long targetId, Set<String> add, Set<String> remove)
+            throws SQLException {
+        Long listVersion;
+        Long listSize;
+        long generation;
+        // Row lock: deltas of one target are applied one after another
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT STATUS, LIST_VERSION, LIST_SIZE, LIST_GENERATION FROM MARKETING_TARGET WHERE id = ? FOR UPDATE")) {
+            statement.setLong(1, targetId);
+            try (ResultSet rows = statement.executeQuery()) {
+                if (!rows.next()) {
+                    throw new IllegalArgumentException("Marketing target not found with id: " + targetId);
+                }
+                String status = rows.getString(1);
+                if (!MarketingTargetStatus.READY.name().equals(status)) {
+                    throw new IllegalStateException("List of marketing target " + targetId + " is " + status
+                        + ", deltas can be applied to READY lists only");
+                }
+                listVersion = rows.getObject(2) != null ? rows.getLong(2) : 0L;
+                listSize = rows.getObject(3) != null ? rows.getLong(3) : null;
+                generation = rows.getLong(4);
+            }
+        }
+
+        // SMIDs not in the list (or not in the dictionary) are not removed and not recorded
+        List<Long> removedIds = new ArrayList<>();
+        for (List<String> batch : batches(remove)) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "DELETE FROM MARKETING_TARGET_LIST_ITEM WHERE MARKETING_TARGET_ID = ? AND LIST_GENERATION = ?"
+                    + " AND SMID_ID IN (SELECT d.id FROM " + SmidDictionaryService.DICTIONARY_TABLE + " d"
+                    + " WHERE d.SMID = ANY (?)) RETURNING SMID_ID")) {
+                statement.setLong(1, targetId);
+                statement.setLong(2, generation);
+                statement.setArray(3, varchars(connection, batch));
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        removedIds.add(rows.getLong(1));
+                    }
+                }
+            }
+        }
+        long removed = removedIds.size();
+
+        // SMIDs already in the list are skipped by the conflict and not recorded either
+        List<Long> addedIds = new ArrayList<>();
+        for (List<String> batch : batches(add)) {
+            Map<String, Long> ids = dictionaryService.resolve(batch);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO MARKETING_TARGET_LIST_ITEM"
+                    + " (id, MARKETING_TARGET_ID, LIST_GENERATION, SMID_ID, date_create, last_update)"
+                    + " SELECT nextval(?), ?, ?, s.SMID_ID, now(), now() FROM unnest(?) AS s (SMID_ID)"
+                    + " ON CONFLICT (MARKETING_TARGET_ID, LIST_GENERATION, SMID_ID) DO NOTHING RETURNING SMID_ID")) {
+                statement.setString(1, itemIdSequence);
+                statement.setLong(2, targetId);
+                statement.setLong(3, generation);
+                statement.setArray(4, connection.createArrayOf("int8", ids.values().toArray()));
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        addedIds.add(rows.getLong(1));
+                    }
+                }
+            }
+        }
+        long added = addedIds.size();
+
+        if (added == 0 && removed == 0) {
+            // The list is unchanged: no new version for membership caches to catch up with
+            return result(targetId, listVersion, 0, 0, listSize);
+        }
+
+        long newVersion = listVersion + 1;
+        record(connection, targetId, newVersion, DeltaOperation.REMOVE, removedIds);
+        record(connection, targetId, newVersion, DeltaOperation.ADD, addedIds);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "DELETE FROM MARKETING_TARGET_LIST_DELTA WHERE MARKETING_TARGET_ID = ? AND LIST_VERSION <= ?")) {
+            statement.setLong(1, targetId);
+            statement.setLong(2, newVersion - retainedVersions);
+            statement.executeUpdate();
+        }
+
+        Long newSize = listSize != null ? listSize + added - removed : null;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "UPDATE MARKETING_TARGET SET LIST_VERSION = ?, LIST_SIZE = ?, last_update = now() WHERE id = ?")) {
+            statement.setLong(1, newVersion);
+            if (newSize != null) {
+                statement.setLong(2, newSize);
+            } else {
+                statement.setNull(2, Types.BIGINT);
+            }
+            statement.setLong(3, targetId);
+            statement.executeUpdate();
+        }
+
+        return result(targetId, newVersion, added, removed, newSize);
+    }
+
+    private static ListDeltaResultDto result(Long targetId, long listVersion, long added, long removed, Long listSize) {
+        ListDeltaResultDto result = new ListDeltaResultDto();
+        result.setMarketingTargetId(targetId);
+        result.setListVersion(listVersion);
+        result.setAdded(added);
+        result.setRemoved(removed);
+        result.setListSize(listSize);
+        return result;
+    }
+
+    private void record(Connection connection, Long targetId, long listVersion, DeltaOperation operation,
+            List<Long> smidIds) throws SQLException {
+        for (List<Long> batch : batches(smidIds)) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO MARKETING_TARGET_LIST_DELTA"
+                    + " (id, MARKETING_TARGET_ID, LIST_VERSION, SMID_ID, OPERATION, date_create, last_update)"
+                    + " SELECT nextval(?), ?, ?, s.SMID_ID, ?, now(), now() FROM unnest(?) AS s (SMID_ID)")) {
+                statement.setString(1, deltaIdSequence);
+                statement.setLong(2, targetId);
+                statement.setLong(3, listVersion);
+                statement.setString(4, operation.name());
+                statement.setArray(5, connection.createArrayOf("int8", batch.toArray()));
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * SMIDs of the array and of the list file, validated like a list upload
+     */
+    private Set<String> collect(List<String> values, String fileName) throws Exception {
+        Set<String> smids = new LinkedHashSet<>();
+        if (values != null) {
+            for (String value : values) {
+                String smid = value != null ? value.trim() : null;
+                if (!SmidListParser.isValid(smid)) {
+                    throw new IllegalArgumentException("Invalid SMID: " + value);
+                }
+                smids.add(smid);
+            }
+        }
+        if (fileName != null && !fileName.trim().isEmpty()) {
+            try (InputStream input = minioClient.getObject(GetObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(fileName.trim())
+                    .build())) {
+                new SmidListParser().parse(input, (buffer, offset, length) -> {
+                    if (smids.size() > maxSize) {
+                        throw new IllegalArgumentException("Delta has more than " + maxSize
+                            + " SMIDs, upload the full list instead");
+                    }
+                    smids.add(new String(buffer, offset, length, StandardCharsets.UTF_8));
+                });
+            }
+        }
+        return smids;
+    }
+
+    private <T> List<List<T>> batches(Collection<T> values) {
+        List<List<T>> batches = new ArrayList<>();
+        List<T> batch = new ArrayList<>(Math.min(batchSize, values.size()));
+        for (T value : values) {
+            batch.add(value);
+            if (batch.size() == batchSize) {
+                batches.add(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    private static Array varchars(Connection connection, List<String> values) throws SQLException {
+        return connection.createArrayOf("varchar", values.toArray());
+    }
+}
@@ -0,0 +1,107 @@
+package com.minio.service;
+
+import io.minio.DownloadObjectArgs;
+import io.minio.MinioClient;
+import io.minio.UploadObjectArgs;
+import io.minio.errors.ErrorResponseException;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Stores SMID index files of marketing target lists in MinIO and keeps a local copy of each in the index directory.
+ * File names contain the list version, so a local copy is reused after a restart until the list changes.
+ */
+@ApplicationScoped
+public class ListIndexFileStore {
+    private static final Logger logger = Logger.getLogger(ListIndexFileStore.class);
+
+    @Inject
+    MinioClient minioClient;
+
+    @ConfigProperty(name = "minio.bucket")
+    String bucketName;
+
+    @ConfigProperty(name = "filter.list-membership.index.dir", defaultValue = "${java.io.tmpdir}/smid-index")
+    String directory;
+
+    /**
+     * Local path of the index file of the list version; the directory is created if needed
+     */
+    public Path localPath(Long marketingTargetId, Long listVersion) throws IOException {
+        Path dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        return dir.resolve(marketingTargetId + "-v" + version(listVersion) + ".idx");
+    }
+
+    /**
+     * Make the index file available at its local path, downloading it if needed.
+     * Returns false if it was not built yet or cannot be downloaded.
+     */
+    public boolean fetch(Long marketingTargetId, Long listVersion, Path local) {
+        if (Files.exists(local)) {
+            return true;
+        }
+        String objectName = objectName(marketingTargetId, listVersion);
+        Path temp = local.resolveSibling(local.getFileName() + ".download");
+        try {
+            minioClient.downloadObject(DownloadObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .filename(temp.toString())
+                    .overwrite(true)
+                    .build());
+            Files.move(temp, local, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (ErrorResponseException e) {
+            if (!"NoSuchKey".equals(e.errorResponse().code())) {
+                logger.warn("Error downloading SMID index " + objectName, e);
+            }
+            return false;
+        } catch (Exception e) {
+            logger.warn("Error downloading SMID index " + objectName, e);
+            return false;
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Upload a built index file. Failures are logged: other nodes build their own copy.
+     */
+    public void upload(Long marketingTargetId, Long listVersion, Path local) {
+        String objectName = objectName(marketingTargetId, listVersion);
+        try {
+            minioClient.uploadObject(UploadObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(objectName)
+                    .filename(local.toString())
+                    .contentType("application/octet-stream")
+                    .build());
+        } catch (Exception e) {
+            logger.warn("Error uploading SMID index " + objectName, e);
+        }
+    }
+
+    public void deleteQuietly(Path local) {
+        try {
+            Files.deleteIfExists(local);
+        } catch (IOException e) {
+            logger.warn("Error deleting " + local, e);
+        }
+    }
+
+    static String objectName(Long marketingTargetId, Long listVersion) {
+        return "marketing-targets/" + marketingTargetId + "/smids-v" + version(listVersion) + ".idx";
+    }
+
+    private static long version(Long listVersion) {
+        return listVersion != null ? listVersion : 0;
+    }
+}
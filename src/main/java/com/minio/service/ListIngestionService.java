@@ -0,0 +1,785 @@
+package com.minio.service;
+
+import com.minio.dto.ListIngestionProgressDto;
+import com.minio.dto.MarketingTargetDto;
+import com.minio.model.MarketingTarget;
+import com.minio.model.MarketingTarget.MarketingTargetStatus;
+import com.minio.model.TargetType;
+import com.minio.repository.MarketingTargetRepository;
+import com.minio.util.LineRangeInputStream;
+import com.minio.util.SmidListParser;
+import io.minio.GetObjectArgs;
+import io.minio.MinioClient;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.sql.DataSource;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Loads SMID lists of marketing targets from MinIO objects (CSV/TXT) into MARKETING_TARGET_LIST_ITEM.
+ *
+ * The object is split into byte ranges aligned to line boundaries ({@link LineRangeInputStream}). Ranges are read
+ * with ranged GETs and parsed in parallel on a fork-join pool. Parsed SMIDs are resolved in batches to their
+ * identifiers in the SMID dictionary ({@link SmidDictionaryService}) and each range sends the identifiers with its own
+ * PostgreSQL COPY stream into the unlogged MARKETING_TARGET_LIST_STAGING table. A range is committed together with its row in
+ * MARKETING_TARGET_LIST_CHECKPOINT, so a failed load resumes from the ranges that were not committed yet,
+ * as long as the object and the range size did not change. The checkpoint table is unlogged like the staging table:
+ * a database crash truncates both, and the load starts over instead of trusting checkpoints of lost rows.
+ *
+ * A load claims its target in the database before it starts (LOAD_ID of MARKETING_TARGET), so only one load of a
+ * target runs at a time over all nodes. Staged rows and checkpoints carry the load id, and every transaction of the
+ * load renews the claim before it commits: a load whose claim was taken over commits nothing more.
+ *
+ * When all ranges are staged, the distinct staged SMID identifiers are inserted as a new generation of list items into the
+ * partition of the target ({@link ListStorageService}) while the current generation keeps serving. The target then
+ * switches to the new generation in one short update (READY, incremented list version) and earlier generations are
+ * deleted in the background in small batches. Readers never see a partially loaded list, and no large delete runs
+ * inside the load. On failure the target is marked FAILED; the current generation stays in place.
+ */
+@ApplicationScoped
+public class ListIngestionService {
+    private static final Logger logger = Logger.getLogger(ListIngestionService.class);
+
+    static final String STAGING_TABLE = "MARKETING_TARGET_LIST_STAGING";
+    static final String CHECKPOINT_TABLE = "MARKETING_TARGET_LIST_CHECKPOINT";
+    static final String GENERATION_SEQUENCE = "MARKETING_TARGET_LIST_GENERATION_SEQ";
+    static final String LOAD_SEQUENCE = "MARKETING_TARGET_LIST_LOAD_SEQ";
+
+    @Inject
+    MarketingTargetRepository targetRepository;
+
+    @Inject
+    ListStorageService storageService;
+
+    @Inject
+    SmidDictionaryService dictionaryService;
+
+    @Inject
+    DataSource dataSource;
+
+    @Inject
+    MinioClient minioClient;
+
+    @ConfigProperty(name = "minio.bucket")
+    String bucketName;
+
+    @ConfigProperty(name = "list-ingestion.threads", defaultValue = "2")
+    int threads;
+
+    // Concurrent ranges (COPY streams and database connections) over all loads
+    @ConfigProperty(name = "list-ingestion.parallelism", defaultValue = "4")
+    int parallelism;
+
+    @ConfigProperty(name = "list-ingestion.range-size", defaultValue = "67108864")
+    long rangeSize;
+
+    @ConfigProperty(name = "list-ingestion.copy-buffer-size", defaultValue = "1048576")
+    int copyBufferSize;
+
+    // Parsed SMIDs resolved to dictionary identifiers at a time
+    @ConfigProperty(name = "list-ingestion.resolve-batch-size", defaultValue = "10000")
+    int resolveBatchSize;
+
+    // Rows of a replaced list generation deleted per transaction
+    @ConfigProperty(name = "list-ingestion.cleanup-batch-size", defaultValue = "10000")
+    int cleanupBatchSize;
+
+    // Sequence of the MarketingTargetListItem identifiers (Hibernate default: <entity name>_SEQ)
+    @ConfigProperty(name = "list-ingestion.id-sequence", defaultValue = "MarketingTargetListItem_SEQ")
+    String idSequence;
+
+    // A claim not renewed for this long belongs to a node that stopped during the load and is taken over
+    @ConfigProperty(name = "list-ingestion.claim-timeout", defaultValue = "10m")
+    Duration claimTimeout;
+
+    private final ConcurrentHashMap<Long, Progress> progress = new ConcurrentHashMap<>();
+
+    private volatile ExecutorService executor;
+
+    private volatile ForkJoinPool rangePool;
+
+    /**
+     * Create the target (or take the existing one), claim its list load and start loading the list in the background
+     */
+    public Long startIngestion(MarketingTargetDto dto) throws SQLException {
+        if (dto.getFileName() == null || dto.getFileName().trim().isEmpty()) {
+            throw new IllegalArgumentException("File name is required");
+        }
+
+        MarketingTarget target;
+        if (dto.getId() != null) {
+            target = targetRepository.findById(dto.getId())
+                .orElseThrow(() -> new IllegalArgumentException("Marketing target not found with id: " + dto.getId()));
+        } else {
+            target = new MarketingTarget();
+            target.setName(dto.getName() != null ? dto.getName() : dto.getFileName());
+            target.setTargetType(dto.getTargetType() != null ? TargetType.valueOf(dto.getTargetType()) : TargetType.LIST);
+            target.setStatus(MarketingTargetStatus.CREATED);
+            target = targetRepository.save(target);
+        }
+
+        Long targetId = target.getId();
+        String fileName = dto.getFileName().trim();
+        long loadId = claim(targetId, fileName);
+        Progress loading = new Progress(targetId, fileName);
+        progress.put(targetId, loading);
+        executor().submit(() -> ingest(targetId, loadId, fileName, loading));
+        return targetId;
+    }
+
+    /**
+     * Mark the target LOADING with a new load id in one conditional update; fails if another load of the target
+     * holds a claim renewed within the claim timeout. Returns the load id.
+     */
+    long claim(Long targetId, String fileName) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                "UPDATE MARKETING_TARGET SET STATUS = ?, FILE_NAME = ?, LOAD_ID = nextval('" + LOAD_SEQUENCE + "'),"
+                + " last_update = clock_timestamp() WHERE id = ?"
+                + " AND (STATUS <> ? OR last_update < clock_timestamp() - ? * INTERVAL '1 second') RETURNING LOAD_ID")) {
+            statement.setString(1, MarketingTargetStatus.LOADING.name());
+            statement.setString(2, fileName);
+            statement.setLong(3, targetId);
+            statement.setString(4, MarketingTargetStatus.LOADING.name());
+            statement.setLong(5, claimTimeout.getSeconds());
+            try (ResultSet rows = statement.executeQuery()) {
+                if (!rows.next()) {
+                    throw new IllegalStateException("List of marketing target " + targetId + " is already loading");
+                }
+                return rows.getLong(1);
+            }
+        }
+    }
+
+    /**
+     * Renew the claim of the load in the transaction about to commit its work. The target row stays locked until the
+     * commit, so the claim cannot be taken over meanwhile; fails if it already was.
+     */
+    private void renewClaim(Connection connection, Long targetId, long loadId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "UPDATE MARKETING_TARGET SET last_update = clock_timestamp() WHERE id = ? AND LOAD_ID = ?")) {
+            statement.setLong(1, targetId);
+            statement.setLong(2, loadId);
+            if (statement.executeUpdate() == 0) {
+                throw new IllegalStateException("List load " + loadId + " of marketing target " + targetId
+                    + " was taken over by another load");
+            }
+        }
+    }
+
+    /**
+     * Progress of the last list load of the target started on this node
+     */
+    public Optional<ListIngestionProgressDto> getProgress(Long marketingTargetId) {
+        return Optional.ofNullable(progress.get(marketingTargetId)).map(Progress::toDto);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (rangePool != null) {
+            rangePool.shutdownNow();
+        }
+    }
+
+    void ingest(Long targetId, long loadId, String fileName, Progress loading) {
+        try {
+            StatObjectResponse object = minioClient.statObject(StatObjectArgs.builder()
+                .bucket(bucketName)
+                .object(fileName)
+                .build());
+            Checkpoint checkpoint = new Checkpoint(targetId, loadId, fileName, object.etag(), rangeSize);
+            List<Range> ranges = split(object.size());
+            loading.rangesTotal = ranges.size();
+
+            Set<Long> committed = prepareStaging(checkpoint, loading);
+            List<Range> pending = new ArrayList<>();
+            for (Range range : ranges) {
+                if (!committed.contains(range.start)) {
+                    pending.add(range);
+                }
+            }
+            if (!committed.isEmpty()) {
+                logger.infof("Resuming list load of marketing target %d: %d of %d ranges already staged",
+                    targetId, ranges.size() - pending.size(), ranges.size());
+            }
+
+            loading.phase = "COPYING";
+            copyRanges(checkpoint, pending, loading);
+
+            loading.phase = "MERGING";
+            storageService.ensurePartition(targetId);
+            long generation = inTransaction(connection -> nextGeneration(connection));
+            loading.rowsLoaded = inTransaction(connection -> fillGeneration(connection, targetId, loadId, generation));
+            boolean activated = inTransaction(connection ->
+                activateGeneration(connection, targetId, loadId, generation, loading.rowsLoaded));
+            if (!activated) {
+                throw new IllegalStateException("List load " + loadId + " of marketing target " + targetId
+                    + " was taken over by another load");
+            }
+            loading.finish("READY", null);
+            logger.infof("Loaded %d SMIDs into marketing target %d from %s (generation %d)",
+                loading.rowsLoaded, targetId, fileName, generation);
+        } catch (Exception e) {
+            markFailed(targetId, loadId);
+            loading.finish("FAILED", e.getMessage());
+            logger.errorf(e, "Error loading list of marketing target %d from %s", targetId, fileName);
+        }
+        dropReplacedGenerations(targetId);
+    }
+
+    /**
+     * Return the starts of ranges staged by an earlier attempt of the same load. Staged rows of a different object or
+     * range size are discarded. The staging tables are created on startup ({@link ListStorageService}).
+     */
+    private Set<Long> prepareStaging(Checkpoint checkpoint, Progress loading) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            Set<Long> committed = new HashSet<>();
+            boolean matches = true;
+            long accepted = 0;
+            long rejected = 0;
+            long bytes = 0;
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT RANGE_START, FILE_NAME, ETAG, RANGE_SIZE, ROWS_ACCEPTED, ROWS_REJECTED, BYTES_READ"
+                    + " FROM " + CHECKPOINT_TABLE + " WHERE MARKETING_TARGET_ID = ?")) {
+                statement.setLong(1, checkpoint.targetId);
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        matches &= checkpoint.fileName.equals(rows.getString(2))
+                            && Objects.equals(checkpoint.etag, rows.getString(3))
+                            && checkpoint.rangeSize == rows.getLong(4);
+                        committed.add(rows.getLong(1));
+                        accepted += rows.getLong(5);
+                        rejected += rows.getLong(6);
+                        bytes += rows.getLong(7);
+                    }
+                }
+            }
+            if (matches && !committed.isEmpty()) {
+                loading.rowsAccepted.add(accepted);
+                loading.rowsRejected.add(rejected);
+                loading.bytesRead.add(bytes);
+                loading.rangesCompleted.set(committed.size());
+                return committed;
+            }
+
+            // Nothing to resume: leftovers of another object or of a load without checkpoints
+            connection.setAutoCommit(false);
+            try {
+                clearStaging(connection, checkpoint.targetId);
+                renewClaim(connection, checkpoint.targetId, checkpoint.loadId);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+            return new HashSet<>();
+        }
+    }
+
+    /**
+     * Stage the ranges in parallel; ranges already started keep running when another one fails, so their
+     * checkpoints are committed for the next attempt
+     */
+    private void copyRanges(Checkpoint checkpoint, List<Range> ranges, Progress loading) throws Exception {
+        if (ranges.isEmpty()) {
+            return;
+        }
+        List<ForkJoinTask<Void>> tasks = new ArrayList<>(ranges.size());
+        for (Range range : ranges) {
+            tasks.add(ForkJoinTask.adapt(() -> {
+                copyRange(checkpoint, range, loading);
+                return null;
+            }));
+        }
+        try {
+            rangePool().submit(() -> ForkJoinTask.invokeAll(tasks)).get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            while (cause instanceof RuntimeException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    private void copyRange(Checkpoint checkpoint, Range range, Progress loading) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (InputStream input = minioClient.getObject(GetObjectArgs.builder()
+                    .bucket(bucketName)
+                    .object(checkpoint.fileName)
+                    // Open-ended: the last line of the range may continue past its end
+                    .offset(LineRangeInputStream.openOffset(range.start))
+                    .build())) {
+                CountingInput counted = new CountingInput(input);
+                SmidListParser parser = copyToStaging(connection, checkpoint,
+                    new LineRangeInputStream(counted, range.start, range.end));
+                saveCheckpoint(connection, checkpoint, range, parser, counted.count);
+                renewClaim(connection, checkpoint.targetId, checkpoint.loadId);
+                connection.commit();
+                // Counted once committed, as the checkpoint rows of resumed ranges: a failed range is read again
+                loading.rowsAccepted.add(parser.getAccepted());
+                loading.rowsRejected.add(parser.getRejected());
+                loading.bytesRead.add(counted.count);
+                loading.rangesCompleted.incrementAndGet();
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private SmidListParser copyToStaging(Connection connection, Checkpoint checkpoint, InputStream input)
+            throws SQLException, IOException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+            .copyIn("COPY " + STAGING_TABLE + " (MARKETING_TARGET_ID, LOAD_ID, SMID_ID) FROM STDIN");
+        try {
+            CopyRowWriter writer = new CopyRowWriter(checkpoint.targetId, checkpoint.loadId, copyBufferSize,
+                copyIn::writeToCopy);
+            List<String> smids = new ArrayList<>(resolveBatchSize);
+            SmidListParser parser = new SmidListParser();
+            parser.parse(input, (buffer, offset, length) -> {
+                smids.add(new String(buffer, offset, length, StandardCharsets.UTF_8));
+                if (smids.size() == resolveBatchSize) {
+                    writeResolved(smids, writer);
+                }
+            });
+            writeResolved(smids, writer);
+            writer.flush();
+            copyIn.endCopy();
+            return parser;
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void writeResolved(List<String> smids, CopyRowWriter writer) throws IOException {
+        if (smids.isEmpty()) {
+            return;
+        }
+        Map<String, Long> ids;
+        try {
+            ids = dictionaryService.resolve(smids);
+        } catch (SQLException e) {
+            throw new IOException("Error resolving SMIDs: " + e.getMessage(), e);
+        }
+        for (String smid : smids) {
+            writer.write(ids.get(smid));
+        }
+        smids.clear();
+    }
+
+    private void saveCheckpoint(Connection connection, Checkpoint checkpoint, Range range, SmidListParser parser,
+            long bytesRead) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO " + CHECKPOINT_TABLE + " (MARKETING_TARGET_ID, RANGE_START, RANGE_END, FILE_NAME, ETAG,"
+                + " RANGE_SIZE, ROWS_ACCEPTED, ROWS_REJECTED, BYTES_READ, LOAD_ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            statement.setLong(1, checkpoint.targetId);
+            statement.setLong(2, range.start);
+            statement.setLong(3, range.end);
+            statement.setString(4, checkpoint.fileName);
+            statement.setString(5, checkpoint.etag);
+            statement.setLong(6, checkpoint.rangeSize);
+            statement.setLong(7, parser.getAccepted());
+            statement.setLong(8, parser.getRejected());
+            statement.setLong(9, bytesRead);
+            statement.setLong(10, checkpoint.loadId);
+            statement.executeUpdate();
+        }
+    }
+
+    private void clearStaging(Connection connection, Long targetId) throws SQLException {
+        for (String table : new String[] {STAGING_TABLE, CHECKPOINT_TABLE}) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "DELETE FROM " + table + " WHERE MARKETING_TARGET_ID = ?")) {
+                statement.setLong(1, targetId);
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    List<Range> split(long size) {
+        List<Range> ranges = new ArrayList<>();
+        for (long start = 0; start < size; start += rangeSize) {
+            ranges.add(new Range(start, Math.min(start + rangeSize, size)));
+        }
+        return ranges;
+    }
+
+    private long nextGeneration(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT nextval('" + GENERATION_SEQUENCE + "')")) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+
+    /**
+     * Insert the distinct staged SMID identifiers as a new list generation, not visible to readers until activated.
+     * Staged rows are taken from the loads with checkpoints of the target: this load and the attempts it resumed.
+     */
+    long fillGeneration(Connection connection, Long targetId, long loadId, long generation) throws SQLException {
+        renewClaim(connection, targetId, loadId);
+        long loaded;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO MARKETING_TARGET_LIST_ITEM"
+                + " (id, MARKETING_TARGET_ID, LIST_GENERATION, SMID_ID, date_create, last_update)"
+                + " SELECT nextval(?), ?, ?, s.SMID_ID, now(), now()"
+                + " FROM (SELECT DISTINCT SMID_ID FROM " + STAGING_TABLE + " WHERE MARKETING_TARGET_ID = ?"
+                + " AND LOAD_ID IN (SELECT LOAD_ID FROM " + CHECKPOINT_TABLE + " WHERE MARKETING_TARGET_ID = ?)) s")) {
+            statement.setString(1, idSequence);
+            statement.setLong(2, targetId);
+            statement.setLong(3, generation);
+            statement.setLong(4, targetId);
+            statement.setLong(5, targetId);
+            loaded = statement.executeUpdate();
+        }
+        clearStaging(connection, targetId);
+        return loaded;
+    }
+
+    /**
+     * Switch the target to the generation in one row update and release the claim of the load. Returns false if the
+     * claim was taken over or a later generation is already current.
+     */
+    boolean activateGeneration(Connection connection, Long targetId, long loadId, long generation, long size)
+            throws SQLException {
+        int updated;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "UPDATE MARKETING_TARGET SET STATUS = ?, LIST_GENERATION = ?, LIST_VERSION = COALESCE(LIST_VERSION, 0) + 1,"
+                + " LIST_SIZE = ?, LOAD_ID = NULL, last_update = now() WHERE id = ? AND LOAD_ID = ? AND LIST_GENERATION < ?")) {
+            statement.setString(1, MarketingTargetStatus.READY.name());
+            statement.setLong(2, generation);
+            statement.setLong(3, size);
+            statement.setLong(4, targetId);
+            statement.setLong(5, loadId);
+            statement.setLong(6, generation);
+            updated = statement.executeUpdate();
+        }
+        if (updated == 0) {
+            return false;
+        }
+
+        // Recorded deltas end at the replaced list: caches of earlier versions reload it
+        try (PreparedStatement statement = connection.prepareStatement(
+                "DELETE FROM MARKETING_TARGET_LIST_DELTA WHERE MARKETING_TARGET_ID = ?")) {
+            statement.setLong(1, targetId);
+            statement.executeUpdate();
+        }
+        return true;
+    }
+
+    /**
+     * Delete list items of generations before the current one in short transactions, so that no large delete
+     * holds locks or a snapshot. Generations newer than the current one belong to loads in progress.
+     */
+    void dropReplacedGenerations(Long targetId) {
+        long deleted = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            String table = storageService.itemTable(connection, targetId);
+            if (table != null) {
+                deleted = deleteReplaced(connection, table, targetId);
+            }
+        } catch (SQLException e) {
+            logger.errorf(e, "Error deleting replaced list items of marketing target %d", targetId);
+        }
+        if (deleted > 0) {
+            logger.infof("Deleted %d replaced list items of marketing target %d", deleted, targetId);
+        }
+    }
+
+    /**
+     * Rows are addressed by ctid inside the one table holding the list (the partition of the target), so every batch
+     * is a TID scan of that table; ctid is not unique over the partitions of the parent table
+     */
+    private long deleteReplaced(Connection connection, String table, Long targetId) throws SQLException {
+        long deleted = 0;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "DELETE FROM " + table + " WHERE ctid = ANY (ARRAY (SELECT i.ctid FROM " + table + " i"
+                + " JOIN MARKETING_TARGET t ON t.id = i.MARKETING_TARGET_ID"
+                + " WHERE i.MARKETING_TARGET_ID = ? AND i.LIST_GENERATION < t.LIST_GENERATION LIMIT ?))")) {
+            statement.setLong(1, targetId);
+            statement.setInt(2, cleanupBatchSize);
+            int batch;
+            do {
+                batch = statement.executeUpdate();
+                deleted += batch;
+            } while (batch > 0);
+        }
+        return deleted;
+    }
+
+    private <T> T inTransaction(SqlWork<T> work) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                T result = work.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Mark the target FAILED and release the claim, unless another load took it over
+     */
+    private void markFailed(Long targetId, long loadId) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                "UPDATE MARKETING_TARGET SET STATUS = ?, LOAD_ID = NULL, last_update = now() WHERE id = ? AND LOAD_ID = ?")) {
+            statement.setString(1, MarketingTargetStatus.FAILED.name());
+            statement.setLong(2, targetId);
+            statement.setLong(3, loadId);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            logger.errorf(e, "Error marking marketing target %d as FAILED", targetId);
+        }
+    }
+
+    private ExecutorService executor() {
+        if (executor == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    executor = Executors.newFixedThreadPool(threads, runnable -> {
+                        Thread thread = new Thread(runnable, "list-ingestion");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return executor;
+    }
+
+    private ForkJoinPool rangePool() {
+        if (rangePool == null) {
+            synchronized (this) {
+                if (rangePool == null) {
+                    rangePool = new ForkJoinPool(parallelism, pool -> {
+                        ForkJoinWorkerThread thread =
+                            ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                        thread.setName("list-ingestion-range-" + thread.getPoolIndex());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, null, false);
+                }
+            }
+        }
+        return rangePool;
+    }
+
+    /**
+     * Identity of a load: checkpoints are reused only for the same object and range size
+     */
+    private static final class Checkpoint {
+
+        private final Long targetId;
+        private final long loadId;
+        private final String fileName;
+        private final String etag;
+        private final long rangeSize;
+
+        Checkpoint(Long targetId, long loadId, String fileName, String etag, long rangeSize) {
+            this.targetId = targetId;
+            this.loadId = loadId;
+            this.fileName = fileName;
+            this.etag = etag;
+            this.rangeSize = rangeSize;
+        }
+    }
+
+    /**
+     * Bytes [start, end) of the object; owns the lines that begin inside it
+     */
+    static final class Range {
+
+        final long start;
+        final long end;
+
+        Range(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlWork<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Sink of encoded COPY data
+     */
+    @FunctionalInterface
+    interface CopySink {
+        void write(byte[] buffer, int offset, int length) throws SQLException;
+    }
+
+    /**
+     * Encodes rows in the COPY text format ("targetId\tloadId\tsmidId\n") into a large buffer sent to the sink when full
+     */
+    static final class CopyRowWriter {
+
+        private static final int MAX_ID_DIGITS = 19;
+
+        private final byte[] prefix;
+        private final byte[] buffer;
+        private final CopySink sink;
+        private int size;
+
+        CopyRowWriter(Long targetId, long loadId, int bufferSize, CopySink sink) {
+            this.prefix = (targetId + "\t" + loadId + "\t").getBytes(StandardCharsets.US_ASCII);
+            this.buffer = new byte[Math.max(bufferSize, prefix.length + MAX_ID_DIGITS + 1)];
+            this.sink = sink;
+        }
+
+        void write(long smidId) throws IOException {
+            if (size + prefix.length + MAX_ID_DIGITS + 1 > buffer.length) {
+                flush();
+            }
+            System.arraycopy(prefix, 0, buffer, size, prefix.length);
+            size += prefix.length;
+            // Dictionary identifiers are positive: digits are written backwards from the end of the number
+            int end = size + digits(smidId);
+            int position = end;
+            do {
+                buffer[--position] = (byte) ('0' + smidId % 10);
+                smidId /= 10;
+            } while (smidId > 0);
+            size = end;
+            buffer[size++] = '\n';
+        }
+
+        private static int digits(long value) {
+            int digits = 1;
+            while (value >= 10) {
+                value /= 10;
+                digits++;
+            }
+            return digits;
+        }
+
+        void flush() throws IOException {
+            if (size == 0) {
+                return;
+            }
+            try {
+                sink.write(buffer, 0, size);
+            } catch (SQLException e) {
+                throw new IOException("Error writing to COPY stream: " + e.getMessage(), e);
+            }
+            size = 0;
+        }
+    }
+
+    /**
+     * Counts bytes read from the object for the range checkpoint and the progress
+     */
+    private static final class CountingInput extends FilterInputStream {
+
+        private long count;
+
+        CountingInput(InputStream input) {
+            super(input);
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Progress of one list load; byte and row counts cover committed ranges only
+     */
+    static final class Progress {
+
+        private final Long targetId;
+        private final String fileName;
+        private final long startedAt = System.currentTimeMillis();
+        private final LongAdder bytesRead = new LongAdder();
+        private final LongAdder rowsAccepted = new LongAdder();
+        private final LongAdder rowsRejected = new LongAdder();
+        private final AtomicInteger rangesCompleted = new AtomicInteger();
+        private volatile String phase = "QUEUED";
+        private volatile int rangesTotal;
+        private volatile long rowsLoaded;
+        private volatile long finishedAt;
+        private volatile String error;
+
+        Progress(Long targetId, String fileName) {
+            this.targetId = targetId;
+            this.fileName = fileName;
+        }
+
+        boolean isFinished() {
+            return finishedAt != 0;
+        }
+
+        void finish(String phase, String error) {
+            this.error = error;
+            this.phase = phase;
+            this.finishedAt = System.currentTimeMillis();
+        }
+
+        ListIngestionProgressDto toDto() {
+            ListIngestionProgressDto dto = new ListIngestionProgressDto();
+            dto.setMarketingTargetId(targetId);
+            dto.setFileName(fileName);
+            dto.setPhase(phase);
+            dto.setBytesRead(bytesRead.sum());
+            dto.setRowsAccepted(rowsAccepted.sum());
+            dto.setRowsRejected(rowsRejected.sum());
+            dto.setRowsLoaded(rowsLoaded);
+            dto.setRangesTotal(rangesTotal);
+            dto.setRangesCompleted(rangesCompleted.get());
+            dto.setElapsedMillis((isFinished() ? finishedAt : System.currentTimeMillis()) - startedAt);
+            dto.setError(error);
+            return dto;
+        }
+    }
+}
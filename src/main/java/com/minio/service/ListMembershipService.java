@@ -0,0 +1,559 @@
+package com.minio.service;
+
+import com.minio.dto.ListMembershipStatisticsDto;
+import com.minio.model.MarketingTarget;
+import com.minio.model.MarketingTarget.MarketingTargetStatus;
+import com.minio.model.MarketingTargetListDelta;
+import com.minio.model.MarketingTargetListDelta.DeltaOperation;
+import com.minio.repository.MarketingTargetListDeltaRepository;
+import com.minio.repository.MarketingTargetListItemRepository;
+import com.minio.repository.MarketingTargetRepository;
+import com.minio.util.BloomFilter;
+import com.minio.util.SmidIndexFile;
+import com.minio.util.SmidSet;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Membership checks for DISTRIBUTION_GROUPS_FILE conditions served from in-memory SMID sets.
+ *
+ * The list of a READY marketing target is loaded on first use. Every entry is revalidated against the
+ * target's status and list version at most once per revalidate interval and reloaded when either changed.
+ * Lists are loaded in the background: until the new entry is ready, checks are served by the previous entry
+ * or, for a list not loaded yet, in the database. The status check itself takes no lock.
+ * A loaded list keeps serving while the target is LOADING or FAILED with the same list version: the list
+ * items of that version are not changed by a reload (see {@link ListIngestionService}).
+ * When the loaded sets exceed the memory budget, the least recently used ones are evicted.
+ *
+ * A READY list too large for the budget is served from a sorted SMID index file, memory-mapped off the heap.
+ * If the index file is disabled or cannot be built, the list is fronted by a Bloom filter and only SMIDs
+ * the filter may contain are checked in the database. Both are stored in MinIO under the list version,
+ * built by the first node that needs them and rebuilt when this node sees the target become READY again.
+ * Lists of targets that are not READY are checked in the database. Batches of SMIDs ({@link #findSmidsInFile})
+ * are checked the same way, with one query for the SMIDs the loaded list cannot answer.
+ *
+ * When the list version advanced only by recorded deltas (see {@link ListDeltaService}), the loaded list is kept
+ * and the added and removed SMIDs are applied as an overlay checked before it, up to a configured overlay size.
+ */
+@ApplicationScoped
+public class ListMembershipService {
+    private static final Logger logger = Logger.getLogger(ListMembershipService.class);
+
+    @Inject
+    MarketingTargetRepository targetRepository;
+
+    @Inject
+    MarketingTargetListItemRepository listItemRepository;
+
+    @Inject
+    MarketingTargetListDeltaRepository deltaRepository;
+
+    @Inject
+    ListBloomFilterStore bloomFilterStore;
+
+    @Inject
+    ListIndexFileStore indexFileStore;
+
+    @ConfigProperty(name = "filter.list-membership.max-bytes", defaultValue = "268435456")
+    long maxBytes;
+
+    @ConfigProperty(name = "filter.list-membership.revalidate-interval", defaultValue = "30s")
+    Duration revalidateInterval;
+
+    @ConfigProperty(name = "filter.list-membership.bloom.false-positive-rate", defaultValue = "0.01")
+    double bloomFalsePositiveRate;
+
+    @ConfigProperty(name = "filter.list-membership.index.enabled", defaultValue = "true")
+    boolean indexEnabled;
+
+    // Larger overlays of delta SMIDs are replaced by a reload of the list
+    @ConfigProperty(name = "filter.list-membership.delta.max-smids", defaultValue = "100000")
+    int maxDeltaSmids;
+
+    @ConfigProperty(name = "filter.list-membership.load-threads", defaultValue = "2")
+    int loadThreads;
+
+    // Created on the first load; replaced in tests to load on the calling thread
+    volatile Executor executor;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<Long> loading = ConcurrentHashMap.newKeySet();
+    private final AtomicLong loadedBytes = new AtomicLong();
+    private final LongAdder bloomChecks = new LongAdder();
+    private final LongAdder bloomNegatives = new LongAdder();
+    private final LongAdder bloomFalsePositives = new LongAdder();
+    private final LongAdder deltaUpdates = new LongAdder();
+
+    /**
+     * Check if the SMID is in the list of the file (marketing target ID)
+     */
+    public boolean existsBySmidAndFileId(String smid, String fileId) {
+        try {
+            return contains(Long.parseLong(fileId), smid);
+        } catch (NumberFormatException e) {
+            // As in the repository: file UUIDs are not supported yet
+            return false;
+        }
+    }
+
+    public boolean contains(Long marketingTargetId, String smid) {
+        Entry entry = getEntry(marketingTargetId);
+        switch (check(entry, smid)) {
+            case MEMBER:
+                return true;
+            case NOT_MEMBER:
+                return false;
+            default:
+                boolean exists = listItemRepository.existsByMarketingTargetIdAndSmid(marketingTargetId, smid);
+                if (!exists && entry.bloom != null) {
+                    bloomFalsePositives.increment();
+                }
+                return exists;
+        }
+    }
+
+    /**
+     * SMIDs of the given ones that are in the list of the file (marketing target ID). SMIDs the loaded list
+     * cannot answer (Bloom filter hits, lists that are not loaded) are checked with one query.
+     */
+    public Set<String> findSmidsInFile(String fileId, Collection<String> smids) {
+        Long marketingTargetId;
+        try {
+            marketingTargetId = Long.parseLong(fileId);
+        } catch (NumberFormatException e) {
+            return Collections.emptySet();
+        }
+        if (smids.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Entry entry = getEntry(marketingTargetId);
+        Set<String> members = new HashSet<>();
+        List<String> unresolved = new ArrayList<>();
+        for (String smid : smids) {
+            Membership membership = check(entry, smid);
+            if (membership == Membership.MEMBER) {
+                members.add(smid);
+            } else if (membership == Membership.UNKNOWN) {
+                unresolved.add(smid);
+            }
+        }
+        if (!unresolved.isEmpty()) {
+            Set<String> found = listItemRepository.findSmidsInFile(fileId, unresolved);
+            members.addAll(found);
+            if (entry.bloom != null) {
+                bloomFalsePositives.add(unresolved.size() - found.size());
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Answer from the delta overlay and the loaded list; UNKNOWN when the database has to be checked
+     */
+    private Membership check(Entry entry, String smid) {
+        if (entry.hasOverlay()) {
+            if (entry.removed.contains(smid)) {
+                return Membership.NOT_MEMBER;
+            }
+            if (entry.added.contains(smid)) {
+                return Membership.MEMBER;
+            }
+        }
+        if (entry.set != null) {
+            return entry.set.contains(smid) ? Membership.MEMBER : Membership.NOT_MEMBER;
+        }
+        if (entry.index != null) {
+            return entry.index.contains(smid) ? Membership.MEMBER : Membership.NOT_MEMBER;
+        }
+        if (entry.bloom == null) {
+            return Membership.UNKNOWN;
+        }
+
+        bloomChecks.increment();
+        if (!entry.bloom.mightContain(smid)) {
+            bloomNegatives.increment();
+            return Membership.NOT_MEMBER;
+        }
+        return Membership.UNKNOWN;
+    }
+
+    /**
+     * Drop the loaded list so that it is revalidated on the next check
+     */
+    public void invalidate(Long marketingTargetId) {
+        Entry entry = entries.remove(marketingTargetId);
+        if (entry != null) {
+            loadedBytes.addAndGet(-entry.weight());
+        }
+    }
+
+    /**
+     * Approximate heap footprint of all loaded lists in bytes
+     */
+    public long getLoadedBytes() {
+        return loadedBytes.get();
+    }
+
+    public ListMembershipStatisticsDto getStatistics() {
+        ListMembershipStatisticsDto dto = new ListMembershipStatisticsDto();
+        dto.setLoadedBytes(loadedBytes.get());
+        dto.setBloomChecks(bloomChecks.sum());
+        dto.setBloomNegatives(bloomNegatives.sum());
+        dto.setBloomFalsePositives(bloomFalsePositives.sum());
+        dto.setDeltaUpdates(deltaUpdates.sum());
+        for (Entry entry : entries.values()) {
+            if (entry.set != null) {
+                dto.setLoadedLists(dto.getLoadedLists() + 1);
+            } else if (entry.index != null) {
+                dto.setIndexFiles(dto.getIndexFiles() + 1);
+                dto.setMappedBytes(dto.getMappedBytes() + entry.index.getMappedBytes());
+            } else if (entry.bloom != null) {
+                dto.setBloomFilters(dto.getBloomFilters() + 1);
+            }
+        }
+        return dto;
+    }
+
+    private Entry getEntry(Long marketingTargetId) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(marketingTargetId);
+        if (entry != null && now - entry.checkedAt < revalidateInterval.toNanos()) {
+            entry.lastAccess = now;
+            return entry;
+        }
+        if (loading.contains(marketingTargetId)) {
+            // Served as is until the load in progress installs the new entry
+            return entry != null ? entry : Entry.UNLOADED;
+        }
+        return revalidate(marketingTargetId, entry, now);
+    }
+
+    private Entry revalidate(Long marketingTargetId, Entry entry, long now) {
+        Optional<MarketingTarget> target = targetRepository.findById(marketingTargetId);
+        MarketingTargetStatus status = target.map(MarketingTarget::getStatus).orElse(null);
+        Long listVersion = target.map(MarketingTarget::getListVersion).orElse(null);
+        if (entry != null && Objects.equals(entry.listVersion, listVersion)
+            && (entry.status == status || servesDuringReload(entry, status))) {
+            entry.checkedAt = now;
+            entry.lastAccess = now;
+            return entry;
+        }
+
+        if (status != MarketingTargetStatus.READY) {
+            // Nothing to load: checked in the database until the target is READY
+            Entry unloaded = new Entry(null, null, null, Collections.emptySet(), Collections.emptySet(),
+                status, listVersion, now);
+            replace(marketingTargetId, unloaded);
+            return unloaded;
+        }
+
+        if (entry != null) {
+            entry.checkedAt = now;
+            entry.lastAccess = now;
+        }
+        scheduleLoad(marketingTargetId, entry, listVersion);
+        Entry current = entries.get(marketingTargetId);
+        return current != null ? current : Entry.UNLOADED;
+    }
+
+    /**
+     * Load the list in the background, at most one load per target at a time
+     */
+    private void scheduleLoad(Long marketingTargetId, Entry previous, Long listVersion) {
+        if (!loading.add(marketingTargetId)) {
+            return;
+        }
+        try {
+            executor().execute(() -> {
+                try {
+                    install(marketingTargetId, previous, load(marketingTargetId, previous, listVersion));
+                } catch (RuntimeException e) {
+                    logger.warn("Error loading the list of marketing target " + marketingTargetId, e);
+                } finally {
+                    loading.remove(marketingTargetId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(marketingTargetId);
+            logger.warn("Error scheduling the load of the list of marketing target " + marketingTargetId, e);
+        }
+    }
+
+    private Entry load(Long marketingTargetId, Entry previous, Long listVersion) {
+        Entry updated = previous != null
+            ? applyDeltas(marketingTargetId, previous, MarketingTargetStatus.READY, listVersion) : null;
+        if (updated != null) {
+            return updated;
+        }
+
+        SmidSet set = null;
+        SmidIndexFile index = null;
+        BloomFilter bloom = null;
+        long count = listItemRepository.countByMarketingTargetId(marketingTargetId);
+        if (SmidSet.estimateSizeInBytes(count) <= maxBytes) {
+            set = loadSet(marketingTargetId);
+        }
+        if (set == null || set.sizeInBytes() > maxBytes) {
+            // Rebuild stored files only when the target became READY since this node last saw it
+            boolean rebuild = previous != null && previous.status != MarketingTargetStatus.READY;
+            set = null;
+            index = indexEnabled ? getIndexFile(marketingTargetId, listVersion, rebuild) : null;
+            if (index == null) {
+                bloom = getBloomFilter(marketingTargetId, listVersion, count, rebuild);
+            }
+        }
+        return new Entry(set, index, bloom, Collections.emptySet(), Collections.emptySet(),
+            MarketingTargetStatus.READY, listVersion, System.nanoTime());
+    }
+
+    /**
+     * A reload writes a new list generation and switches to it with a new list version; until then, and after a
+     * failed reload, the loaded list of the current version stays valid
+     */
+    private static boolean servesDuringReload(Entry entry, MarketingTargetStatus status) {
+        return entry.status == MarketingTargetStatus.READY
+            && (status == MarketingTargetStatus.LOADING || status == MarketingTargetStatus.FAILED);
+    }
+
+    /**
+     * Bring the entry to the list version with the deltas recorded since its version.
+     * Returns null when the list has to be reloaded: not READY, replaced by a full load, or too many changes.
+     */
+    private Entry applyDeltas(Long marketingTargetId, Entry entry, MarketingTargetStatus status, Long listVersion) {
+        if (status != MarketingTargetStatus.READY || entry.status != MarketingTargetStatus.READY
+            || entry.listVersion == null || listVersion == null || listVersion <= entry.listVersion) {
+            return null;
+        }
+        int budget = maxDeltaSmids - entry.added.size() - entry.removed.size();
+        if (budget <= 0) {
+            return null;
+        }
+        List<MarketingTargetListDelta> deltas = deltaRepository.findByMarketingTargetIdBetweenVersions(
+            marketingTargetId, entry.listVersion, listVersion, budget + 1);
+        if (deltas.size() > budget) {
+            return null;
+        }
+
+        Set<String> added = new HashSet<>(entry.added);
+        Set<String> removed = new HashSet<>(entry.removed);
+        Set<Long> versions = new HashSet<>();
+        for (MarketingTargetListDelta delta : deltas) {
+            versions.add(delta.getListVersion());
+            if (delta.getOperation() == DeltaOperation.ADD) {
+                added.add(delta.getSmid());
+                removed.remove(delta.getSmid());
+            } else {
+                removed.add(delta.getSmid());
+                added.remove(delta.getSmid());
+            }
+        }
+        if (versions.size() != listVersion - entry.listVersion) {
+            // A version without recorded deltas is a full load
+            return null;
+        }
+        deltaUpdates.increment();
+        return new Entry(entry.set, entry.index, entry.bloom, added, removed, status, listVersion, System.nanoTime());
+    }
+
+    /**
+     * Read the whole list in one transaction so that the result stream can use a server-side cursor
+     */
+    @Transactional
+    SmidSet loadSet(Long marketingTargetId) {
+        try (Stream<String> smids = listItemRepository.streamSmidsByMarketingTargetId(marketingTargetId)) {
+            return SmidSet.of(smids.iterator());
+        }
+    }
+
+    /**
+     * Build the Bloom filter of the list in one transaction, see {@link #loadSet}
+     */
+    @Transactional
+    BloomFilter buildBloomFilter(Long marketingTargetId, long count) {
+        BloomFilter bloom = BloomFilter.create(count, bloomFalsePositiveRate);
+        try (Stream<String> smids = listItemRepository.streamSmidsByMarketingTargetId(marketingTargetId)) {
+            smids.forEach(bloom::put);
+        }
+        return bloom;
+    }
+
+    /**
+     * Write the index file of the list in one transaction, see {@link #loadSet}
+     */
+    @Transactional
+    void writeIndexFile(Long marketingTargetId, Path path) throws IOException {
+        try (Stream<String> smids = listItemRepository.streamSmidsByMarketingTargetId(marketingTargetId)) {
+            SmidIndexFile.write(smids.iterator(), path);
+        }
+    }
+
+    /**
+     * Map the index file of the list version, downloading or building it if needed. Returns null on failure.
+     */
+    private SmidIndexFile getIndexFile(Long marketingTargetId, Long listVersion, boolean rebuild) {
+        try {
+            Path local = indexFileStore.localPath(marketingTargetId, listVersion);
+            if (rebuild || !indexFileStore.fetch(marketingTargetId, listVersion, local)) {
+                writeIndexFile(marketingTargetId, local);
+                indexFileStore.upload(marketingTargetId, listVersion, local);
+            }
+            return SmidIndexFile.open(local);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Error preparing SMID index of marketing target " + marketingTargetId, e);
+            return null;
+        }
+    }
+
+    private BloomFilter getBloomFilter(Long marketingTargetId, Long listVersion, long count, boolean rebuild) {
+        Optional<BloomFilter> stored = rebuild ? Optional.empty() : bloomFilterStore.load(marketingTargetId, listVersion);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+        BloomFilter bloom = buildBloomFilter(marketingTargetId, count);
+        bloomFilterStore.save(marketingTargetId, listVersion, bloom);
+        return bloom;
+    }
+
+    private void replace(Long marketingTargetId, Entry entry) {
+        Entry previous = entries.put(marketingTargetId, entry);
+        replaced(previous, entry);
+    }
+
+    /**
+     * Install a loaded entry unless the entry it was loaded from was replaced in the meantime
+     */
+    private void install(Long marketingTargetId, Entry previous, Entry loaded) {
+        if (previous != null && entries.replace(marketingTargetId, previous, loaded)) {
+            replaced(previous, loaded);
+        } else if (entries.putIfAbsent(marketingTargetId, loaded) == null) {
+            // Not loaded before, or evicted while loading
+            replaced(null, loaded);
+        } else {
+            return;
+        }
+        evictToFit(marketingTargetId);
+    }
+
+    private void replaced(Entry previous, Entry entry) {
+        loadedBytes.addAndGet(entry.weight() - (previous != null ? previous.weight() : 0));
+        if (previous != null && previous.index != null
+            && (entry.index == null || !entry.index.getPath().equals(previous.index.getPath()))) {
+            // The mapping stays valid for lookups still using the previous entry
+            indexFileStore.deleteQuietly(previous.index.getPath());
+        }
+    }
+
+    private Executor executor() {
+        if (executor == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    executor = Executors.newFixedThreadPool(loadThreads, runnable -> {
+                        Thread thread = new Thread(runnable, "list-membership");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return executor;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor instanceof ExecutorService) {
+            ((ExecutorService) executor).shutdownNow();
+        }
+    }
+
+    private void evictToFit(Long keepId) {
+        while (loadedBytes.get() > maxBytes) {
+            Map.Entry<Long, Entry> victim = null;
+            for (Map.Entry<Long, Entry> candidate : entries.entrySet()) {
+                if (candidate.getValue().weight() > 0 && !candidate.getKey().equals(keepId)
+                    && (victim == null || candidate.getValue().lastAccess < victim.getValue().lastAccess)) {
+                    victim = candidate;
+                }
+            }
+            if (victim == null) {
+                return;
+            }
+            if (entries.remove(victim.getKey(), victim.getValue())) {
+                loadedBytes.addAndGet(-victim.getValue().weight());
+            }
+        }
+    }
+
+    private enum Membership {
+        MEMBER, NOT_MEMBER, UNKNOWN
+    }
+
+    private static final class Entry {
+
+        // Rough heap cost of one overlay SMID: String, its bytes and the hash set node
+        private static final long OVERLAY_BYTES_PER_SMID = 96;
+
+        // Served while the first load of a list is in progress: every check goes to the database
+        static final Entry UNLOADED = new Entry(null, null, null, Collections.emptySet(), Collections.emptySet(),
+            null, null, 0);
+
+        private final SmidSet set;
+        private final SmidIndexFile index;
+        private final BloomFilter bloom;
+        private final Set<String> added;
+        private final Set<String> removed;
+        private final MarketingTargetStatus status;
+        private final Long listVersion;
+        private volatile long checkedAt;
+        private volatile long lastAccess;
+
+        Entry(SmidSet set, SmidIndexFile index, BloomFilter bloom, Set<String> added, Set<String> removed,
+              MarketingTargetStatus status, Long listVersion, long now) {
+            this.set = set;
+            this.index = index;
+            this.bloom = bloom;
+            this.added = added;
+            this.removed = removed;
+            this.status = status;
+            this.listVersion = listVersion;
+            this.checkedAt = now;
+            this.lastAccess = now;
+        }
+
+        /**
+         * Heap footprint; index files are mapped off the heap and are not evicted
+         */
+        long weight() {
+            return (set != null ? set.sizeInBytes() : 0) + (bloom != null ? bloom.sizeInBytes() : 0)
+                + (added.size() + removed.size()) * OVERLAY_BYTES_PER_SMID;
+        }
+
+        boolean hasOverlay() {
+            return !added.isEmpty() || !removed.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package com.minio.service;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.sql.DataSource;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+/**
+ * Storage of marketing target lists: MARKETING_TARGET_LIST_ITEM is a PostgreSQL table partitioned by LIST on
+ * MARKETING_TARGET_ID with one partition per target, so that the list of a deleted target is removed by detaching
+ * and dropping its partition instead of deleting its rows.
+ *
+ * Hibernate creates the table unpartitioned; on startup it is replaced by a partitioned table and the current list
+ * generation of every existing target is moved into the target partition. Rows of replaced generations and of
+ * deleted targets are not moved. The only index besides the primary key is the unique key
+ * (MARKETING_TARGET_ID, LIST_GENERATION, SMID_ID), which serves all list lookups.
+ *
+ * List items and recorded deltas reference SMIDs by their identifier in the SMID dictionary
+ * ({@link SmidDictionaryService}). Rows stored with the SMID string are converted on startup as well, before the
+ * item table is partitioned. The staging tables of list loads ({@link ListIngestionService}) are created on startup
+ * too, so the load path runs no DDL.
+ */
+@ApplicationScoped
+public class ListStorageService {
+    private static final Logger logger = Logger.getLogger(ListStorageService.class);
+
+    static final String ITEM_TABLE = "MARKETING_TARGET_LIST_ITEM";
+    static final String DELTA_TABLE = "MARKETING_TARGET_LIST_DELTA";
+    static final String UNIQUE_KEY = "UK_TARGET_LIST_ITEM_TARGET_ID_GENERATION_SMID_ID";
+    private static final String LEGACY_TABLE = "MARKETING_TARGET_LIST_ITEM_LEGACY";
+    private static final String LEGACY_INDEX = "IDX_TARGET_LIST_ITEM_SMID_TARGET_ID";
+
+    // Unique key on (MARKETING_TARGET_ID, SMID) from before list generations: it would reject a second generation
+    private static final String DROP_LEGACY_UNIQUE_KEY = "DO $$ DECLARE c record; BEGIN"
+        + " FOR c IN SELECT conname FROM pg_constraint WHERE conrelid = 'marketing_target_list_item'::regclass"
+        + " AND contype = 'u' AND array_length(conkey, 1) = 2 LOOP"
+        + " EXECUTE 'ALTER TABLE marketing_target_list_item DROP CONSTRAINT ' || quote_ident(c.conname);"
+        + " END LOOP; END $$";
+
+    @Inject
+    DataSource dataSource;
+
+    @ConfigProperty(name = "list-storage.partitioned", defaultValue = "true")
+    boolean partitioningEnabled;
+
+    @ConfigProperty(name = "smid-dictionary.id-sequence", defaultValue = "SmidDictionary_SEQ")
+    String dictionaryIdSequence;
+
+    // Rows deleted per transaction when the item table is not partitioned
+    @ConfigProperty(name = "list-ingestion.cleanup-batch-size", defaultValue = "10000")
+    int cleanupBatchSize;
+
+    private volatile Boolean partitioned;
+
+    private volatile ExecutorService executor;
+
+    void onStart(@Observes StartupEvent event) {
+        try {
+            encodeSmids();
+        } catch (SQLException e) {
+            logger.error("Error moving SMIDs of " + ITEM_TABLE + " and " + DELTA_TABLE + " into " + SmidDictionaryService.DICTIONARY_TABLE, e);
+            return;
+        }
+        try {
+            prepareLoadTables();
+        } catch (SQLException e) {
+            logger.error("Error creating the staging tables of list loads", e);
+        }
+        if (!partitioningEnabled) {
+            return;
+        }
+        try {
+            partitionItemTable();
+        } catch (SQLException e) {
+            logger.error("Error partitioning " + ITEM_TABLE + ", lists of deleted targets are deleted row by row", e);
+        }
+    }
+
+    /**
+     * Delete the list of the target in the background once the deletion of the target is committed
+     */
+    void onTargetDeleted(@Observes(during = TransactionPhase.AFTER_SUCCESS) MarketingTargetDeletedEvent event) {
+        Long targetId = event.getMarketingTargetId();
+        executor().submit(() -> dropList(targetId));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Make sure the target has its partition before list items of the target are inserted
+     */
+    public void ensurePartition(Long targetId) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!isPartitioned(connection)) {
+                return;
+            }
+            connection.setAutoCommit(false);
+            try {
+                createPartition(connection, targetId);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Table holding the list items of the target: its partition when the item table is partitioned, the item table
+     * otherwise. Null if the target has no partition.
+     */
+    String itemTable(Connection connection, Long targetId) throws SQLException {
+        if (!isPartitioned(connection)) {
+            return ITEM_TABLE;
+        }
+        String partition = partitionName(targetId);
+        return relationKind(connection, partition) != null ? partition : null;
+    }
+
+    /**
+     * Replace the SMID strings of list items and recorded deltas stored before the SMID dictionary by dictionary
+     * identifiers
+     */
+    void encodeSmids() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            for (String table : new String[] {ITEM_TABLE, DELTA_TABLE}) {
+                if (!hasColumn(connection, table, "SMID")) {
+                    continue;
+                }
+                connection.setAutoCommit(false);
+                try {
+                    encode(connection, table);
+                } catch (SQLException | RuntimeException e) {
+                    connection.rollback();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void encode(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LOCK TABLE " + table + " IN ACCESS EXCLUSIVE MODE");
+            if (!hasColumn(connection, table, "SMID")) {
+                connection.commit();
+                return;
+            }
+            logger.info("Moving SMIDs of " + table + " into " + SmidDictionaryService.DICTIONARY_TABLE);
+
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO " + SmidDictionaryService.DICTIONARY_TABLE + " (id, SMID, date_create, last_update)"
+                    + " SELECT nextval(?), s.SMID, now(), now() FROM (SELECT DISTINCT SMID FROM " + table + ") s"
+                    + " ON CONFLICT (SMID) DO NOTHING")) {
+                insert.setString(1, dictionaryIdSequence);
+                insert.executeUpdate();
+            }
+            // Hibernate cannot add the NOT NULL column to a table with rows
+            statement.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS SMID_ID BIGINT");
+            statement.executeUpdate("UPDATE " + table + " i SET SMID_ID = d.id FROM "
+                + SmidDictionaryService.DICTIONARY_TABLE + " d WHERE d.SMID = i.SMID");
+            statement.execute("ALTER TABLE " + table + " ALTER COLUMN SMID_ID SET NOT NULL");
+            // Drops the unique key and the index on the SMID string as well
+            statement.execute("ALTER TABLE " + table + " DROP COLUMN SMID");
+
+            if (ITEM_TABLE.equals(table)) {
+                if (relationKind(connection, UNIQUE_KEY) == null) {
+                    statement.execute("ALTER TABLE " + ITEM_TABLE + " ADD CONSTRAINT " + UNIQUE_KEY
+                        + " UNIQUE (MARKETING_TARGET_ID, LIST_GENERATION, SMID_ID)");
+                }
+                // Rows staged with SMID strings cannot be resumed
+                statement.execute("DROP TABLE IF EXISTS " + ListIngestionService.STAGING_TABLE);
+                deleteAll(connection, ListIngestionService.CHECKPOINT_TABLE);
+            }
+        }
+        connection.commit();
+    }
+
+    /**
+     * Create the staging tables and the generation and load id sequences of list loads and drop the legacy unique key
+     * of the item table, so that loads run no DDL
+     */
+    void prepareLoadTables() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE UNLOGGED TABLE IF NOT EXISTS " + ListIngestionService.STAGING_TABLE
+                + " (MARKETING_TARGET_ID BIGINT NOT NULL, LOAD_ID BIGINT NOT NULL, SMID_ID BIGINT NOT NULL)");
+            // Unlogged as the staged rows: a crash truncates both, checkpoints never outlive their rows
+            statement.execute("CREATE UNLOGGED TABLE IF NOT EXISTS " + ListIngestionService.CHECKPOINT_TABLE
+                + " (MARKETING_TARGET_ID BIGINT NOT NULL, RANGE_START BIGINT NOT NULL, RANGE_END BIGINT NOT NULL,"
+                + " FILE_NAME VARCHAR(1024) NOT NULL, ETAG VARCHAR(255), RANGE_SIZE BIGINT NOT NULL,"
+                + " ROWS_ACCEPTED BIGINT NOT NULL, ROWS_REJECTED BIGINT NOT NULL, BYTES_READ BIGINT NOT NULL,"
+                + " LOAD_ID BIGINT NOT NULL, PRIMARY KEY (MARKETING_TARGET_ID, RANGE_START))");
+            if (!isUnlogged(connection, ListIngestionService.CHECKPOINT_TABLE)) {
+                statement.execute("ALTER TABLE " + ListIngestionService.CHECKPOINT_TABLE + " SET UNLOGGED");
+            }
+            statement.execute("CREATE SEQUENCE IF NOT EXISTS " + ListIngestionService.GENERATION_SEQUENCE);
+            statement.execute("CREATE SEQUENCE IF NOT EXISTS " + ListIngestionService.LOAD_SEQUENCE);
+            if (!hasColumn(connection, ListIngestionService.CHECKPOINT_TABLE, "LOAD_ID")) {
+                // Rows staged before load ids cannot be told apart: their loads start over
+                for (String table : new String[] {ListIngestionService.STAGING_TABLE, ListIngestionService.CHECKPOINT_TABLE}) {
+                    statement.executeUpdate("DELETE FROM " + table);
+                    statement.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS LOAD_ID BIGINT NOT NULL");
+                }
+            }
+            if (relationKind(connection, ITEM_TABLE) != null) {
+                statement.execute(DROP_LEGACY_UNIQUE_KEY);
+            }
+        }
+    }
+
+    /**
+     * Replace the unpartitioned item table created by Hibernate with a partitioned one
+     */
+    void partitionItemTable() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            if (relationKind(connection, ITEM_TABLE) == null) {
+                return;
+            }
+            connection.setAutoCommit(false);
+            try {
+                convert(connection);
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private void convert(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            // Another node may be converting the table at the same time
+            statement.execute("LOCK TABLE " + ITEM_TABLE + " IN ACCESS EXCLUSIVE MODE");
+            if ("p".equals(relationKind(connection, ITEM_TABLE))) {
+                connection.commit();
+                partitioned = true;
+                return;
+            }
+            logger.info("Converting " + ITEM_TABLE + " into a table partitioned by MARKETING_TARGET_ID");
+
+            statement.execute("ALTER TABLE " + ITEM_TABLE + " RENAME TO " + LEGACY_TABLE);
+            // Index names are unique per schema: the partitioned table takes over the key names
+            statement.execute("ALTER TABLE " + LEGACY_TABLE + " DROP CONSTRAINT IF EXISTS " + UNIQUE_KEY);
+            statement.execute("ALTER TABLE " + LEGACY_TABLE + " DROP CONSTRAINT IF EXISTS "
+                + ITEM_TABLE.toLowerCase() + "_pkey");
+            statement.execute("DROP INDEX IF EXISTS " + LEGACY_INDEX);
+            statement.execute("CREATE TABLE " + ITEM_TABLE + " (LIKE " + LEGACY_TABLE + " INCLUDING DEFAULTS)"
+                + " PARTITION BY LIST (MARKETING_TARGET_ID)");
+            // Keys of a partitioned table must contain the partition key
+            statement.execute("ALTER TABLE " + ITEM_TABLE + " ADD PRIMARY KEY (MARKETING_TARGET_ID, id)");
+            statement.execute("ALTER TABLE " + ITEM_TABLE + " ADD CONSTRAINT " + UNIQUE_KEY
+                + " UNIQUE (MARKETING_TARGET_ID, LIST_GENERATION, SMID_ID)");
+        }
+
+        List<Long> targetIds = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT t.id FROM MARKETING_TARGET t WHERE EXISTS"
+                + " (SELECT 1 FROM " + LEGACY_TABLE + " i WHERE i.MARKETING_TARGET_ID = t.id)")) {
+            while (rows.next()) {
+                targetIds.add(rows.getLong(1));
+            }
+        }
+        for (Long targetId : targetIds) {
+            createPartition(connection, targetId);
+        }
+
+        long moved;
+        try (Statement statement = connection.createStatement()) {
+            moved = statement.executeUpdate("INSERT INTO " + ITEM_TABLE + " SELECT i.* FROM " + LEGACY_TABLE + " i"
+                + " JOIN MARKETING_TARGET t ON t.id = i.MARKETING_TARGET_ID AND t.LIST_GENERATION = i.LIST_GENERATION");
+            statement.execute("DROP TABLE " + LEGACY_TABLE);
+        }
+        connection.commit();
+        partitioned = true;
+        logger.infof("Partitioned %s: %d list items of %d marketing targets", ITEM_TABLE, moved, targetIds.size());
+    }
+
+    /**
+     * Delete the list of a deleted target: its partition is detached without blocking readers of other targets and
+     * dropped. Recorded deltas and staged rows of the target are deleted as well.
+     */
+    void dropList(Long targetId) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (isPartitioned(connection)) {
+                dropPartition(connection, targetId);
+            } else {
+                deleteItems(connection, targetId);
+            }
+            deleteByTarget(connection, DELTA_TABLE, targetId);
+            deleteByTarget(connection, ListIngestionService.STAGING_TABLE, targetId);
+            deleteByTarget(connection, ListIngestionService.CHECKPOINT_TABLE, targetId);
+            logger.infof("Deleted list of marketing target %d", targetId);
+        } catch (SQLException e) {
+            logger.errorf(e, "Error deleting list of marketing target %d", targetId);
+        }
+    }
+
+    private void createPartition(Connection connection, Long targetId) throws SQLException {
+        String partition = partitionName(targetId);
+        try (Statement statement = connection.createStatement()) {
+            // Attaching a separately created table locks the parent table in SHARE UPDATE EXCLUSIVE mode only,
+            // CREATE TABLE ... PARTITION OF would block the readers of all lists
+            statement.execute("CREATE TABLE IF NOT EXISTS " + partition + " (LIKE " + ITEM_TABLE + " INCLUDING DEFAULTS)");
+            if (!isAttached(connection, partition)) {
+                statement.execute("ALTER TABLE " + ITEM_TABLE + " ATTACH PARTITION " + partition
+                    + " FOR VALUES IN (" + targetId + ")");
+            }
+        }
+    }
+
+    private void dropPartition(Connection connection, Long targetId) throws SQLException {
+        String partition = partitionName(targetId);
+        if (relationKind(connection, partition) == null) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            if (isAttached(connection, partition)) {
+                // Cannot run inside a transaction block: the connection is in autocommit mode
+                statement.execute("ALTER TABLE " + ITEM_TABLE + " DETACH PARTITION " + partition + " CONCURRENTLY");
+            }
+            statement.execute("DROP TABLE IF EXISTS " + partition);
+        }
+    }
+
+    private void deleteItems(Connection connection, Long targetId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "DELETE FROM " + ITEM_TABLE + " WHERE id IN (SELECT id FROM " + ITEM_TABLE
+                + " WHERE MARKETING_TARGET_ID = ? LIMIT ?)")) {
+            statement.setLong(1, targetId);
+            statement.setInt(2, cleanupBatchSize);
+            int batch;
+            do {
+                batch = statement.executeUpdate();
+            } while (batch > 0);
+        }
+    }
+
+    private void deleteByTarget(Connection connection, String table, Long targetId) throws SQLException {
+        if (relationKind(connection, table) == null) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "DELETE FROM " + table + " WHERE MARKETING_TARGET_ID = ?")) {
+            statement.setLong(1, targetId);
+            statement.executeUpdate();
+        }
+    }
+
+    private void deleteAll(Connection connection, String table) throws SQLException {
+        if (relationKind(connection, table) != null) {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("DELETE FROM " + table);
+            }
+        }
+    }
+
+    private boolean isPartitioned(Connection connection) throws SQLException {
+        if (partitioned == null) {
+            partitioned = "p".equals(relationKind(connection, ITEM_TABLE));
+        }
+        return partitioned;
+    }
+
+    static String partitionName(Long targetId) {
+        return ITEM_TABLE + "_" + targetId;
+    }
+
+    /**
+     * pg_class.relkind of the relation ('r' table, 'p' partitioned table, 'i' index), null if it does not exist
+     */
+    private static String relationKind(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT relkind FROM pg_class WHERE oid = to_regclass(?)")) {
+            statement.setString(1, table.toLowerCase());
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() ? rows.getString(1) : null;
+            }
+        }
+    }
+
+    private static boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT 1 FROM information_schema.columns WHERE table_schema = current_schema()"
+                + " AND table_name = ? AND column_name = ?")) {
+            statement.setString(1, table.toLowerCase());
+            statement.setString(2, column.toLowerCase());
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next();
+            }
+        }
+    }
+
+    private static boolean isUnlogged(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT relpersistence FROM pg_class WHERE oid = to_regclass(?)")) {
+            statement.setString(1, table.toLowerCase());
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() && "u".equals(rows.getString(1));
+            }
+        }
+    }
+
+    private static boolean isAttached(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT relispartition FROM pg_class WHERE oid = to_regclass(?)")) {
+            statement.setString(1, table.toLowerCase());
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() && rows.getBoolean(1);
+            }
+        }
+    }
+
+    private ExecutorService executor() {
+        if (executor == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    executor = Executors.newSingleThreadExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "list-storage");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                }
+            }
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,17 @@
+package com.minio.service;
+
+/**
+ * CDI event fired when a marketing target is deleted together with its filter
+ */
+public class MarketingTargetDeletedEvent {
+
+    private final Long marketingTargetId;
+
+    public MarketingTargetDeletedEvent(Long marketingTargetId) {
+        this.marketingTargetId = marketingTargetId;
+    }
+
+    public Long getMarketingTargetId() {
+        return marketingTargetId;
+    }
+}
@@ -1,22 +1,60 @@
 package com.minio.service;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.minio.dto.FilterConditionDto;
+import com.minio.dto.FilterDefinitionDto;
 import com.minio.dto.FilterGroupDto;
 import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.evaluation.FilterCompiler;
+import com.minio.evaluation.RegexCache;
+import com.minio.evaluation.RegexEngine;
+import com.minio.evaluation.Version;
 import com.minio.model.*;
 import com.minio.repository.MarketingTargetFilterRepository;
 import com.minio.repository.MarketingTargetFilterConditionRepository;
 import com.minio.repository.MarketingTargetFilterGroupRepository;
 import com.minio.repository.MarketingTargetRepository;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
 
 @ApplicationScoped
 public class MarketingTargetFilterService {
+    private static final Logger logger = Logger.getLogger(MarketingTargetFilterService.class);
+    
+    // Fields of a listed filter, by JSON name
+    private static final Map<String, Function<MarketingTargetFilterDto, Object>> SUMMARY_FIELDS = new LinkedHashMap<>();
+    static {
+        SUMMARY_FIELDS.put("id", MarketingTargetFilterDto::getId);
+        SUMMARY_FIELDS.put("marketingTargetId", MarketingTargetFilterDto::getMarketingTargetId);
+        SUMMARY_FIELDS.put("filterName", MarketingTargetFilterDto::getFilterName);
+        SUMMARY_FIELDS.put("description", MarketingTargetFilterDto::getDescription);
+        SUMMARY_FIELDS.put("isActive", MarketingTargetFilterDto::getIsActive);
+        SUMMARY_FIELDS.put("highTraffic", MarketingTargetFilterDto::getHighTraffic);
+    }
     
     @Inject
     MarketingTargetFilterRepository filterRepository;
@@ -30,21 +68,187 @@ public class MarketingTargetFilterService {
     @Inject
     MarketingTargetRepository marketingTargetRepository;
     
-    public List<MarketingTargetFilterDto> getAllFilters() {
-        return filterRepository.findAll().stream()
-            .map(this::convertToDto)
-            .collect(Collectors.toList());
+    @Inject
+    ObjectMapper objectMapper;
+    
+    @Inject
+    Event<FilterChangedEvent> filterChangedEvent;
+    
+    @Inject
+    Event<MarketingTargetDeletedEvent> targetDeletedEvent;
+    
+    // Filters written before the persistence context is flushed and cleared in a bulk create
+    @ConfigProperty(name = "filter.bulk.flush-size", defaultValue = "200")
+    int bulkFlushSize;
+    
+    // Writes the DEFINITION column: null fields are left out
+    private ObjectMapper definitionMapper;
+    
+    @PostConstruct
+    void init() {
+        definitionMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
     }
     
-    public List<MarketingTargetFilterDto> getFiltersByMarketingTargetId(Long marketingTargetId) {
-        return filterRepository.findByMarketingTargetId(marketingTargetId).stream()
+    /**
+     * Write the filters, without groups and conditions, to the output as a JSON array, in the order of id. Only
+     * filters with an id greater than afterId are written, at most limit of them (null for all); the id of the last
+     * filter is the cursor of the next page. The rows are read through a cursor and written as they are read.
+     *
+     * @param marketingTargetId filters of this marketing target only, null for all filters
+     * @param fields            names of the written fields (see {@link #summaryFields}), null for all
+     */
+    @Transactional
+    public void writeFilters(Long marketingTargetId, Long afterId, Integer limit, List<String> fields,
+                             OutputStream output) throws IOException {
+        try (Stream<MarketingTargetFilterDto> filters = filterRepository.streamSummaries(
+                marketingTargetId, afterId != null ? afterId : 0L, limit);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            Iterator<MarketingTargetFilterDto> iterator = filters.iterator();
+            while (iterator.hasNext()) {
+                MarketingTargetFilterDto filter = iterator.next();
+                if (fields == null) {
+                    objectMapper.writeValue(generator, filter);
+                    continue;
+                }
+                generator.writeStartObject();
+                for (String field : fields) {
+                    generator.writeObjectField(field, SUMMARY_FIELDS.get(field).apply(filter));
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
+    }
+    
+    /**
+     * Validated names of the listed fields, comma-separated; null or blank for all fields
+     */
+    public List<String> summaryFields(String fields) {
+        if (fields == null || fields.trim().isEmpty()) {
+            return null;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!SUMMARY_FIELDS.containsKey(name)) {
+                throw new RuntimeException("Unknown field '" + name + "', expected one of " + SUMMARY_FIELDS.keySet());
+            }
+            names.add(name);
+        }
+        return new ArrayList<>(names);
+    }
+    
+    /**
+     * Identifiers of the active filters
+     */
+    public List<Long> getActiveFilterIds() {
+        return filterRepository.findActiveIds();
+    }
+    
+    /**
+     * Filter with groups and conditions, read from the DEFINITION column
+     */
+    public Optional<MarketingTargetFilterDto> getFilterById(Long id) {
+        Optional<MarketingTargetFilter> filter = filterRepository.findById(id);
+        if (filter.isPresent() && filter.get().getDefinition() == null) {
+            return filterRepository.findByIdWithConditions(id)
+                .map(this::convertToDtoWithDetails);
+        }
+        return filter.map(this::convertToDtoWithDefinition);
+    }
+    
+    /**
+     * Filters with groups and conditions, read from the DEFINITION column in one query per batch of filters.
+     * Filters without a definition yet have their trees loaded from the group and condition tables.
+     */
+    public List<MarketingTargetFilterDto> getFiltersWithDetails(Collection<Long> ids) {
+        Map<Long, MarketingTargetFilterDto> filters = new LinkedHashMap<>();
+        List<Long> withoutDefinition = new ArrayList<>();
+        for (MarketingTargetFilter filter : filterRepository.findByIds(ids)) {
+            if (filter.getDefinition() != null) {
+                filters.put(filter.getId(), convertToDtoWithDefinition(filter));
+            } else {
+                filters.put(filter.getId(), null);
+                withoutDefinition.add(filter.getId());
+            }
+        }
+        if (!withoutDefinition.isEmpty()) {
+            for (MarketingTargetFilter filter : filterRepository.findByIdsWithConditions(withoutDefinition)) {
+                filters.put(filter.getId(), convertToDtoWithDetails(filter));
+            }
+            filters.values().removeIf(filter -> filter == null);
+        }
+        return new ArrayList<>(filters.values());
+    }
+    
+    /**
+     * Filters with a condition of the field type and value, at the root or in a group. Values are compared ignoring
+     * case and surrounding whitespace; an IN/NOT_IN condition matches when the value is one of its values.
+     * Filters with a condition of the field type are found by the GIN index, their values are compared here.
+     */
+    public List<MarketingTargetFilterDto> getFiltersByCondition(FilterFieldType fieldType, String fieldValue) {
+        if (fieldType == null || fieldValue == null) {
+            throw new RuntimeException("Field type and field value are required");
+        }
+        FilterConditionDto condition = new FilterConditionDto(fieldType, null, null);
+        FilterGroupDto group = new FilterGroupDto();
+        group.setConditions(Collections.singletonList(condition));
+        String rootCondition = writeJson(new FilterDefinitionDto(Collections.singletonList(condition), null));
+        String groupCondition = writeJson(new FilterDefinitionDto(null, Collections.singletonList(group)));
+        String value = fieldValue.trim();
+        return filterRepository.findByDefinitionContaining(rootCondition, groupCondition).stream()
+            .filter(filter -> hasCondition(readDefinition(filter.getDefinition()), fieldType, value))
             .map(this::convertToDto)
             .collect(Collectors.toList());
     }
+
+    private static boolean hasCondition(FilterDefinitionDto definition, FilterFieldType fieldType, String value) {
+        if (hasCondition(definition.getConditions(), fieldType, value)) {
+            return true;
+        }
+        if (definition.getGroups() != null) {
+            for (FilterGroupDto group : definition.getGroups()) {
+                if (hasCondition(group.getConditions(), fieldType, value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasCondition(List<FilterConditionDto> conditions, FilterFieldType fieldType, String value) {
+        if (conditions == null) {
+            return false;
+        }
+        for (FilterConditionDto condition : conditions) {
+            if (condition.getFieldType() != fieldType || condition.getFieldValue() == null) {
+                continue;
+            }
+            if (condition.getOperator() == FilterOperator.IN || condition.getOperator() == FilterOperator.NOT_IN) {
+                for (String inValue : FilterCompiler.parseInValues(condition.getFieldValue())) {
+                    if (inValue.equalsIgnoreCase(value)) {
+                        return true;
+                    }
+                }
+            } else if (condition.getFieldValue().trim().equalsIgnoreCase(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
     
-    public Optional<MarketingTargetFilterDto> getFilterById(Long id) {
-        return filterRepository.findByIdWithConditions(id)
-            .map(this::convertToDtoWithDetails);
+    /**
+     * Write the DEFINITION column of up to limit filters stored without it; returns the number of filters written
+     */
+    @Transactional
+    public int writeMissingDefinitions(int limit) {
+        List<Long> ids = filterRepository.findIdsWithoutDefinition(limit);
+        for (MarketingTargetFilter filter : filterRepository.findByIdsWithConditionsForUpdate(ids)) {
+            filter.setDefinition(writeDefinition(filter));
+        }
+        return ids.size();
     }
     
     @Transactional
@@ -54,47 +258,70 @@ public class MarketingTargetFilterService {
         
         MarketingTargetFilter filter = convertToEntity(filterDto);
         filter = filterRepository.save(filter);
+        saveTree(filter, filterDto);
         
-        // Save conditions
-        if (filterDto.getConditions() != null) {
-            for (FilterConditionDto conditionDto : filterDto.getConditions()) {
-                MarketingTargetFilterCondition condition = convertConditionToEntity(conditionDto);
-                condition.setMarketingTargetFilterId(filter.getId());
-                // Use orderIndex from DTO, not loop index
-                condition.setOrderIndex(conditionDto.getOrderIndex() != null ? conditionDto.getOrderIndex() : 0);
-                conditionRepository.save(condition);
-            }
+        filterChangedEvent.fire(new FilterChangedEvent(filter.getId()));
+        return getFilterById(filter.getId()).orElse(null);
+    }
+    
+    /**
+     * Create many filters in one transaction. Every filter is validated before anything is written; the trees are
+     * inserted in JDBC batches and the persistence context is flushed every filter.bulk.flush-size filters.
+     */
+    @Transactional
+    public List<MarketingTargetFilterDto> createFilters(List<MarketingTargetFilterDto> filterDtos) {
+        if (filterDtos == null || filterDtos.isEmpty()) {
+            throw new RuntimeException("At least one filter is required");
         }
         
-        // Save groups
-        if (filterDto.getGroups() != null) {
-            for (FilterGroupDto groupDto : filterDto.getGroups()) {
-                MarketingTargetFilterGroup group = convertGroupToEntity(groupDto);
-                group.setMarketingTargetFilterId(filter.getId());
-                // Use orderIndex from DTO, not loop index
-                group.setOrderIndex(groupDto.getOrderIndex() != null ? groupDto.getOrderIndex() : 0);
-                group = groupRepository.save(group);
-                
-                // Save group conditions
-                if (groupDto.getConditions() != null) {
-                    for (FilterConditionDto conditionDto : groupDto.getConditions()) {
-                        MarketingTargetFilterCondition condition = convertConditionToEntity(conditionDto);
-                        condition.setMarketingTargetFilterId(filter.getId());
-                        condition.setGroupId(group.getId());
-                        // Use orderIndex from DTO, not loop index
-                        condition.setOrderIndex(conditionDto.getOrderIndex() != null ? conditionDto.getOrderIndex() : 0);
-                        conditionRepository.save(condition);
-                    }
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < filterDtos.size(); i++) {
+            MarketingTargetFilterDto filterDto = filterDtos.get(i);
+            try {
+                if (filterDto == null || filterDto.getFilterName() == null || filterDto.getFilterName().trim().isEmpty()) {
+                    throw new RuntimeException("Filter name is required");
+                }
+                if (filterDto.getMarketingTargetId() == null) {
+                    throw new RuntimeException("Marketing target ID is required");
+                }
+                if (!names.add(filterDto.getFilterName())) {
+                    throw new RuntimeException("Filter with name '" + filterDto.getFilterName() + "' is given twice");
                 }
+                validateFilterStructure(filterDto);
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Filter #" + i + ": " + e.getMessage(), e);
             }
         }
+        List<String> existing = filterRepository.findExistingFilterNames(names);
+        if (!existing.isEmpty()) {
+            throw new RuntimeException("Filter with name '" + existing.get(0) + "' already exists");
+        }
         
-        return getFilterById(filter.getId()).orElse(null);
+        List<Long> ids = new ArrayList<>(filterDtos.size());
+        for (MarketingTargetFilterDto filterDto : filterDtos) {
+            MarketingTargetFilter filter = filterRepository.save(convertToEntity(filterDto));
+            saveTree(filter, filterDto);
+            ids.add(filter.getId());
+            if (ids.size() % bulkFlushSize == 0) {
+                filterRepository.flushAndClear();
+            }
+        }
+        filterRepository.flushAndClear();
+        
+        for (Long id : ids) {
+            filterChangedEvent.fire(new FilterChangedEvent(id));
+        }
+        return getFiltersWithDetails(ids);
     }
     
+    /**
+     * Update the filter in place: only the groups and conditions that differ from the stored tree are updated,
+     * inserted or deleted, so their identifiers stay stable. Incoming groups and conditions are matched by id, then
+     * in order. Caches are invalidated only if the evaluation semantics changed, not for a new name or description.
+     */
     @Transactional
     public MarketingTargetFilterDto updateFilter(Long id, MarketingTargetFilterDto filterDto) {
-        Optional<MarketingTargetFilter> existingFilter = filterRepository.findById(id);
+        Optional<MarketingTargetFilter> existingFilter = filterRepository.findByIdWithConditionsForUpdate(id);
         if (existingFilter.isEmpty()) {
             throw new RuntimeException("Filter not found with id: " + id);
         }
@@ -102,29 +329,58 @@ public class MarketingTargetFilterService {
         validateFilterStructure(filterDto);
         validateFilterName(filterDto.getFilterName(), id);
         
-        // Update main filter
         MarketingTargetFilter filter = existingFilter.get();
-        filter.setFilterName(filterDto.getFilterName());
-        filter.setDescription(filterDto.getDescription());
-        filter.setIsActive(filterDto.getIsActive());
-        filter = filterRepository.save(filter);
+        FilterTreeDiff diff = FilterTreeDiff.compute(filter, filterDto);
         
-        // Delete existing conditions and groups
-        conditionRepository.deleteByFilterId(id);
-        groupRepository.deleteByFilterId(id);
+        // Conditions first: a deleted group is referenced by its conditions
+        conditionRepository.deleteAll(diff.getDeletedConditions());
+        groupRepository.deleteAll(diff.getDeletedGroups());
+        for (MarketingTargetFilterGroup group : diff.getInsertedGroups()) {
+            groupRepository.save(group);
+        }
+        for (MarketingTargetFilterCondition condition : diff.getInsertedConditions()) {
+            MarketingTargetFilterGroup group = diff.getNewGroup(condition);
+            if (group != null) {
+                condition.setGroupId(group.getId());
+            }
+            conditionRepository.save(condition);
+        }
+        String definition = writeDefinition(filter);
+        if (!definition.equals(filter.getDefinition())) {
+            filter.setDefinition(definition);
+        }
+        
+        logger.debugf("Updated filter %d: %d groups and conditions inserted, %d updated, %d deleted%s",
+            id, diff.getInsertedGroups().size() + diff.getInsertedConditions().size(), diff.getUpdated(),
+            diff.getDeletedGroups().size() + diff.getDeletedConditions().size(),
+            diff.isSemanticsChanged() ? "" : ", evaluation unchanged");
+        if (diff.isSemanticsChanged()) {
+            filterChangedEvent.fire(new FilterChangedEvent(filter.getId()));
+        }
+        return getFilterById(filter.getId()).orElse(null);
+    }
+    
+    /**
+     * Persist the groups and conditions of the filter and write its DEFINITION. Identifiers come from pooled
+     * sequences without a round-trip per entity and nothing is flushed here: the rows are inserted at flush in JDBC
+     * batches ordered by entity.
+     */
+    private void saveTree(MarketingTargetFilter filter, MarketingTargetFilterDto filterDto) {
+        filter.setConditions(new ArrayList<>());
+        filter.setGroups(new ArrayList<>());
         
-        // Save new conditions
+        // Save conditions
         if (filterDto.getConditions() != null) {
             for (FilterConditionDto conditionDto : filterDto.getConditions()) {
                 MarketingTargetFilterCondition condition = convertConditionToEntity(conditionDto);
                 condition.setMarketingTargetFilterId(filter.getId());
                 // Use orderIndex from DTO, not loop index
                 condition.setOrderIndex(conditionDto.getOrderIndex() != null ? conditionDto.getOrderIndex() : 0);
-                conditionRepository.save(condition);
+                filter.getConditions().add(conditionRepository.save(condition));
             }
         }
         
-        // Save new groups
+        // Save groups
         if (filterDto.getGroups() != null) {
             for (FilterGroupDto groupDto : filterDto.getGroups()) {
                 MarketingTargetFilterGroup group = convertGroupToEntity(groupDto);
@@ -132,6 +388,8 @@ public class MarketingTargetFilterService {
                 // Use orderIndex from DTO, not loop index
                 group.setOrderIndex(groupDto.getOrderIndex() != null ? groupDto.getOrderIndex() : 0);
                 group = groupRepository.save(group);
+                group.setConditions(new ArrayList<>());
+                filter.getGroups().add(group);
                 
                 // Save group conditions
                 if (groupDto.getConditions() != null) {
@@ -141,13 +399,13 @@ public class MarketingTargetFilterService {
                         condition.setGroupId(group.getId());
                         // Use orderIndex from DTO, not loop index
                         condition.setOrderIndex(conditionDto.getOrderIndex() != null ? conditionDto.getOrderIndex() : 0);
-                        conditionRepository.save(condition);
+                        group.getConditions().add(conditionRepository.save(condition));
                     }
                 }
             }
         }
         
-        return getFilterById(filter.getId()).orElse(null);
+        filter.setDefinition(writeDefinition(filter));
     }
     
     @Transactional
@@ -165,10 +423,13 @@ public class MarketingTargetFilterService {
             // Delete the filter itself
             filterRepository.deleteById(id);
             
-            // Delete associated MarketingTarget
+            // Delete associated MarketingTarget, its list is dropped in the background after commit
             if (marketingTargetId != null) {
                 marketingTargetRepository.deleteById(marketingTargetId);
+                targetDeletedEvent.fire(new MarketingTargetDeletedEvent(marketingTargetId));
             }
+            
+            filterChangedEvent.fire(new FilterChangedEvent(id));
         }
     }
     
@@ -207,18 +468,20 @@ public class MarketingTargetFilterService {
             throw new RuntimeException("Filter must have at least one condition or group");
         }
         
+        RegexEngine regexEngine = FilterCompiler.regexEngine(filterDto);
+        
         // Validate root level conditions
         if (hasConditions) {
-            validateConditions(filterDto.getConditions(), "root level");
+            validateConditions(filterDto.getConditions(), "root level", regexEngine);
         }
         
         // Validate groups
         if (hasGroups) {
-            validateGroups(filterDto.getGroups());
+            validateGroups(filterDto.getGroups(), regexEngine);
         }
     }
     
-    private void validateConditions(List<FilterConditionDto> conditions, String context) {
+    private void validateConditions(List<FilterConditionDto> conditions, String context, RegexEngine regexEngine) {
         if (conditions == null || conditions.isEmpty()) {
             return;
         }
@@ -262,10 +525,19 @@ public class MarketingTargetFilterService {
                     throw new RuntimeException("Invalid version format for condition " + i + " at " + context + ": " + condition.getFieldValue());
                 }
             }
+            
+            // Compile regex once on save; the compiled pattern is cached for evaluation
+            if (condition.getOperator() == FilterOperator.REGEX) {
+                try {
+                    RegexCache.get(condition.getFieldValue(), regexEngine);
+                } catch (IllegalArgumentException e) {
+                    throw new RuntimeException("Invalid regex for condition " + i + " at " + context + " (" + regexEngine + "): " + e.getMessage());
+                }
+            }
         }
     }
     
-    private void validateGroups(List<FilterGroupDto> groups) {
+    private void validateGroups(List<FilterGroupDto> groups, RegexEngine regexEngine) {
         if (groups == null || groups.isEmpty()) {
             return;
         }
@@ -286,7 +558,7 @@ public class MarketingTargetFilterService {
             }
             
             // Validate conditions in group
-            validateConditions(group.getConditions(), "group '" + group.getGroupName() + "'");
+            validateConditions(group.getConditions(), "group '" + group.getGroupName() + "'", regexEngine);
         }
     }
     
@@ -295,8 +567,8 @@ public class MarketingTargetFilterService {
             return false;
         }
         
-        // Simple version format check (e.g.: 1.0.0, 2.1.5, 10.15.7)
-        return version.matches("^\\d+(\\.\\d+)*$");
+        // Version format check (e.g.: 1.0.0, 2.1.5, 10.15.7), same parser as evaluation uses
+        return Version.parse(version) != null;
     }
     
     private MarketingTargetFilterDto convertToDto(MarketingTargetFilter filter) {
@@ -306,16 +578,16 @@ public class MarketingTargetFilterService {
         dto.setFilterName(filter.getFilterName());
         dto.setDescription(filter.getDescription());
         dto.setIsActive(filter.getIsActive());
+        dto.setHighTraffic(filter.getHighTraffic());
         return dto;
     }
     
     private MarketingTargetFilterDto convertToDtoWithDetails(MarketingTargetFilter filter) {
         MarketingTargetFilterDto dto = convertToDto(filter);
         
-        // Convert only root-level conditions (conditions that don't belong to any group)
+        // Root-level conditions only, group conditions are loaded into their groups
         if (filter.getConditions() != null) {
             dto.setConditions(filter.getConditions().stream()
-                .filter(condition -> condition.getGroupId() == null) // Only root-level conditions
                 .sorted((c1, c2) -> Integer.compare(c1.getOrderIndex(), c2.getOrderIndex())) // Sort by orderIndex
                 .map(this::convertConditionToDto)
                 .collect(Collectors.toList()));
@@ -332,12 +604,45 @@ public class MarketingTargetFilterService {
         return dto;
     }
     
+    private MarketingTargetFilterDto convertToDtoWithDefinition(MarketingTargetFilter filter) {
+        MarketingTargetFilterDto dto = convertToDto(filter);
+        FilterDefinitionDto definition = readDefinition(filter.getDefinition());
+        dto.setConditions(definition.getConditions() != null ? definition.getConditions() : new ArrayList<>());
+        dto.setGroups(definition.getGroups() != null ? definition.getGroups() : new ArrayList<>());
+        return dto;
+    }
+    
+    /**
+     * DEFINITION of the filter from its loaded tree: root conditions and groups with their conditions, by orderIndex
+     */
+    String writeDefinition(MarketingTargetFilter filter) {
+        MarketingTargetFilterDto dto = convertToDtoWithDetails(filter);
+        return writeJson(new FilterDefinitionDto(dto.getConditions(), dto.getGroups()));
+    }
+    
+    FilterDefinitionDto readDefinition(String definition) {
+        try {
+            return definitionMapper.readValue(definition, FilterDefinitionDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid filter definition: " + e.getMessage(), e);
+        }
+    }
+    
+    private String writeJson(FilterDefinitionDto definition) {
+        try {
+            return definitionMapper.writeValueAsString(definition);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Filter definition cannot be written: " + e.getMessage(), e);
+        }
+    }
+    
     private MarketingTargetFilter convertToEntity(MarketingTargetFilterDto dto) {
         MarketingTargetFilter filter = new MarketingTargetFilter();
         filter.setMarketingTargetId(dto.getMarketingTargetId());
         filter.setFilterName(dto.getFilterName());
         filter.setDescription(dto.getDescription());
         filter.setIsActive(dto.getIsActive() != null ? dto.getIsActive() : true);
+        filter.setHighTraffic(dto.getHighTraffic() != null ? dto.getHighTraffic() : false);
         return filter;
     }
     
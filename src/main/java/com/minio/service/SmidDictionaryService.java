@@ -0,0 +1,115 @@
+package com.minio.service;
+
+import com.minio.util.SmidDictionaryCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import javax.sql.DataSource;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Global SMID dictionary (SMID_DICTIONARY): list items reference SMIDs by their dictionary identifier.
+ *
+ * SMIDs are resolved in bulk through a concurrent in-memory cache shared by all list loads. Missing SMIDs are looked
+ * up with one array query and the ones still missing are inserted with one more; the statements run on a separate
+ * connection and commit at once, so cached identifiers always refer to committed rows, whatever happens to the
+ * transaction of the caller.
+ */
+@ApplicationScoped
+public class SmidDictionaryService {
+
+    static final String DICTIONARY_TABLE = "SMID_DICTIONARY";
+
+    @Inject
+    DataSource dataSource;
+
+    @ConfigProperty(name = "smid-dictionary.cache-size", defaultValue = "1000000")
+    int cacheSize;
+
+    // Sequence of the SmidDictionary identifiers (Hibernate default: <entity name>_SEQ)
+    @ConfigProperty(name = "smid-dictionary.id-sequence", defaultValue = "SmidDictionary_SEQ")
+    String idSequence;
+
+    private SmidDictionaryCache cache;
+
+    @PostConstruct
+    void init() {
+        cache = new SmidDictionaryCache(cacheSize);
+    }
+
+    /**
+     * Dictionary identifiers of the SMIDs; SMIDs not in the dictionary yet are added
+     */
+    public Map<String, Long> resolve(Collection<String> smids) throws SQLException {
+        Map<String, Long> ids = new HashMap<>(smids.size() * 2);
+        // Sorted: concurrent loads insert shared SMIDs in the same order and cannot deadlock on the unique key
+        TreeSet<String> missing = new TreeSet<>();
+        for (String smid : smids) {
+            Long id = cache.get(smid);
+            if (id != null) {
+                ids.put(smid, id);
+            } else {
+                missing.add(smid);
+            }
+        }
+        if (missing.isEmpty()) {
+            return ids;
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            find(connection, missing, ids);
+            if (!missing.isEmpty()) {
+                insert(connection, missing, ids);
+            }
+            if (!missing.isEmpty()) {
+                // Inserted meanwhile by another load
+                find(connection, missing, ids);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new SQLException("SMIDs could not be added to " + DICTIONARY_TABLE + ": " + missing.size());
+        }
+        return ids;
+    }
+
+    private void find(Connection connection, TreeSet<String> missing, Map<String, Long> ids) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT id, SMID FROM " + DICTIONARY_TABLE + " WHERE SMID = ANY (?)")) {
+            statement.setArray(1, connection.createArrayOf("varchar", missing.toArray()));
+            collect(statement, missing, ids);
+        }
+    }
+
+    private void insert(Connection connection, TreeSet<String> missing, Map<String, Long> ids) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO " + DICTIONARY_TABLE + " (id, SMID, date_create, last_update)"
+                + " SELECT nextval(?), s.SMID, now(), now() FROM unnest(?) AS s (SMID)"
+                + " ON CONFLICT (SMID) DO NOTHING RETURNING id, SMID")) {
+            statement.setString(1, idSequence);
+            statement.setArray(2, connection.createArrayOf("varchar", missing.toArray()));
+            collect(statement, missing, ids);
+        }
+    }
+
+    private void collect(PreparedStatement statement, TreeSet<String> missing, Map<String, Long> ids)
+            throws SQLException {
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                long id = rows.getLong(1);
+                String smid = rows.getString(2);
+                ids.put(smid, id);
+                cache.put(smid, id);
+                missing.remove(smid);
+            }
+        }
+    }
+}
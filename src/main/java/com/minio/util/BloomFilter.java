@@ -0,0 +1,140 @@
+package com.minio.util;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Bloom filter of strings (SMIDs) sized by the expected number of values and the false-positive rate.
+ * "Not present" answers are exact, "present" answers are wrong with about the configured probability.
+ * The serialized form is stable across JVMs: the hash only depends on the string characters.
+ */
+public final class BloomFilter {
+
+    private static final int MAGIC = 0x424C4F4D; // "BLOM"
+    private static final int MAX_HASHES = 16;
+
+    private final long[] words;
+    private final long numBits;
+    private final int numHashes;
+
+    private BloomFilter(long[] words, int numHashes) {
+        this.words = words;
+        this.numBits = 64L * words.length;
+        this.numHashes = numHashes;
+    }
+
+    /**
+     * Create an empty filter: m = -n ln(p) / ln(2)^2 bits and k = m/n ln(2) hash functions
+     */
+    public static BloomFilter create(long expectedValues, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        long n = Math.max(1, expectedValues);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int words = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+        int hashes = (int) Math.round((double) bits / n * Math.log(2));
+        return new BloomFilter(new long[words], Math.max(1, Math.min(MAX_HASHES, hashes)));
+    }
+
+    public void put(String value) {
+        if (value == null) {
+            return;
+        }
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % numBits;
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(String value) {
+        if (value == null) {
+            return false;
+        }
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % numBits;
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    public long getNumBits() {
+        return numBits;
+    }
+
+    /**
+     * Approximate heap footprint in bytes
+     */
+    public long sizeInBytes() {
+        return 32L + 8L * words.length;
+    }
+
+    public void writeTo(OutputStream output) throws IOException {
+        DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(MAGIC);
+        data.writeInt(numHashes);
+        data.writeInt(words.length);
+        for (long word : words) {
+            data.writeLong(word);
+        }
+        data.flush();
+    }
+
+    public static BloomFilter readFrom(InputStream input) throws IOException {
+        DataInputStream data = new DataInputStream(input);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a serialized Bloom filter");
+        }
+        int numHashes = data.readInt();
+        int length = data.readInt();
+        if (numHashes < 1 || numHashes > MAX_HASHES || length < 1) {
+            throw new IOException("Corrupted Bloom filter header");
+        }
+        long[] words = new long[length];
+        for (int i = 0; i < length; i++) {
+            words[i] = data.readLong();
+        }
+        return new BloomFilter(words, numHashes);
+    }
+
+    /**
+     * Size of the serialized form in bytes
+     */
+    public long serializedSize() {
+        return 12L + 8L * words.length;
+    }
+
+    private static long hash(String value) {
+        // FNV-1a over UTF-16 chars, finalized with the MurmurHash3 mixer
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
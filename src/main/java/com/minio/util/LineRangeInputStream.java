@@ -0,0 +1,118 @@
+package com.minio.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Restricts a stream over part of a line-based file to the lines that begin inside the byte range [start, end).
+ * Splitting a file into adjacent ranges this way gives every line to exactly one range, whatever the range
+ * boundaries are, so the ranges can be parsed independently.
+ *
+ * The underlying stream must begin at {@link #openOffset(long)} and may continue past the end of the range:
+ * the last line is read to its line break. The byte before the range tells whether the range begins
+ * with a new line or in the middle of a line owned by the previous range, which is then skipped.
+ */
+public final class LineRangeInputStream extends FilterInputStream {
+
+    private final long end;
+    private long position;
+    private boolean skipping;
+    private boolean done;
+
+    public LineRangeInputStream(InputStream in, long start, long end) {
+        super(in);
+        this.end = end;
+        this.position = openOffset(start);
+        this.skipping = start > 0;
+        this.done = start >= end;
+    }
+
+    /**
+     * Offset where the underlying stream for a range starting at the given offset must begin
+     */
+    public static long openOffset(long start) {
+        return start > 0 ? start - 1 : 0;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        while (!done) {
+            int read = in.read(buffer, offset, length);
+            if (read < 0) {
+                done = true;
+                break;
+            }
+
+            int from = offset;
+            if (skipping) {
+                int lineBreak = indexOfLineBreak(buffer, offset, offset + read);
+                if (lineBreak < 0) {
+                    position += read;
+                    continue;
+                }
+                skipping = false;
+                position += lineBreak + 1 - offset;
+                from = lineBreak + 1;
+                if (position >= end) {
+                    // The range lies inside a line that began before it
+                    done = true;
+                    break;
+                }
+            }
+
+            int count = offset + read - from;
+            if (count == 0) {
+                continue;
+            }
+            // Stop after the line break that ends the line containing the last byte of the range
+            long lastByte = end - 1;
+            int searchFrom = position >= lastByte ? from : (int) Math.min(from + (lastByte - position), from + count);
+            int lineBreak = indexOfLineBreak(buffer, searchFrom, from + count);
+            if (lineBreak >= 0) {
+                count = lineBreak + 1 - from;
+                done = true;
+            }
+            if (from != offset) {
+                System.arraycopy(buffer, from, buffer, offset, count);
+            }
+            position += count;
+            return count;
+        }
+        return -1;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        throw new IOException("skip is not supported");
+    }
+
+    @Override
+    public int available() {
+        return 0;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private static int indexOfLineBreak(byte[] buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,96 @@
+package com.minio.util;
+
+import java.util.Arrays;
+
+/**
+ * Immutable open-addressing hash set of non-negative longs.
+ * Lookups do not allocate; -1 marks an empty slot.
+ */
+public final class LongHashSet {
+
+    private static final long EMPTY = -1L;
+
+    private final long[] slots;
+    private final int mask;
+    private final int size;
+
+    private LongHashSet(long[] slots, int size) {
+        this.slots = slots;
+        this.mask = slots.length - 1;
+        this.size = size;
+    }
+
+    /**
+     * Build a set from non-negative values; duplicates are ignored
+     */
+    public static LongHashSet of(long[] values) {
+        int capacity = capacity(values.length);
+        long[] slots = new long[capacity];
+        Arrays.fill(slots, EMPTY);
+
+        int mask = capacity - 1;
+        int size = 0;
+        for (long value : values) {
+            if (value < 0) {
+                throw new IllegalArgumentException("Negative values are not supported: " + value);
+            }
+            int index = hash(value) & mask;
+            while (slots[index] != EMPTY && slots[index] != value) {
+                index = (index + 1) & mask;
+            }
+            if (slots[index] == EMPTY) {
+                slots[index] = value;
+                size++;
+            }
+        }
+        return new LongHashSet(slots, size);
+    }
+
+    public boolean contains(long value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = hash(value) & mask;
+        while (true) {
+            long slot = slots[index];
+            if (slot == value) {
+                return true;
+            }
+            if (slot == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Approximate heap footprint in bytes
+     */
+    public long sizeInBytes() {
+        return 16L + 8L * slots.length;
+    }
+
+    /**
+     * Heap footprint of a set built from the given number of distinct values
+     */
+    public static long estimateSizeInBytes(long count) {
+        if (count > Integer.MAX_VALUE / 4) {
+            return Long.MAX_VALUE;
+        }
+        return 16L + 8L * capacity((int) count);
+    }
+
+    private static int capacity(int count) {
+        // Keep the load factor at or below 0.5 for short probe sequences
+        return Integer.highestOneBit(Math.max(2, count) * 4 - 1);
+    }
+
+    private static int hash(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,41 @@
+package com.minio.util;
+
+/**
+ * Allocation-free helpers for numeric identifiers (e.g. SMID) stored as strings
+ */
+public final class Longs {
+
+    /**
+     * Longest decimal string that always fits into a long without overflow checks
+     */
+    private static final int MAX_DIGITS = 18;
+
+    private Longs() {
+    }
+
+    /**
+     * Parse a canonical non-negative decimal number (digits only, no sign, no leading zeros).
+     * Returns -1 if the value is not in canonical form, so that two canonical strings are equal
+     * exactly when their parsed values are equal. Never throws.
+     */
+    public static long parseCanonical(CharSequence value) {
+        if (value == null) {
+            return -1;
+        }
+
+        int length = value.length();
+        if (length == 0 || length > MAX_DIGITS || (length > 1 && value.charAt(0) == '0')) {
+            return -1;
+        }
+
+        long result = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+package com.minio.util;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded concurrent cache of SMID dictionary identifiers shared by concurrent list loads.
+ *
+ * Entries are kept in two generations. A hit in the previous generation copies the entry into the current one;
+ * when the current generation is full it becomes the previous one and the former previous generation is dropped.
+ * SMIDs that are not used for a while leave the cache without per-entry bookkeeping, and at most
+ * {@code maxSize} entries are held.
+ */
+public final class SmidDictionaryCache {
+
+    private final int generationSize;
+    private volatile ConcurrentHashMap<String, Long> current = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<String, Long> previous = new ConcurrentHashMap<>();
+
+    public SmidDictionaryCache(int maxSize) {
+        this.generationSize = Math.max(1, maxSize / 2);
+    }
+
+    /**
+     * Identifier of the SMID, null if it is not cached
+     */
+    public Long get(String smid) {
+        Long id = current.get(smid);
+        if (id == null) {
+            id = previous.get(smid);
+            if (id != null) {
+                put(smid, id);
+            }
+        }
+        return id;
+    }
+
+    public void put(String smid, Long id) {
+        ConcurrentHashMap<String, Long> generation = current;
+        generation.put(smid, id);
+        if (generation.size() >= generationSize) {
+            rotate(generation);
+        }
+    }
+
+    /**
+     * Approximate number of cached entries
+     */
+    public int size() {
+        return current.size() + previous.size();
+    }
+
+    private synchronized void rotate(ConcurrentHashMap<String, Long> full) {
+        // Another thread may have rotated the generation already
+        if (current == full) {
+            previous = full;
+            current = new ConcurrentHashMap<>();
+        }
+    }
+}
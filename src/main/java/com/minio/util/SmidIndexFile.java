@@ -0,0 +1,241 @@
+package com.minio.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Immutable sorted SMID index file, memory-mapped for lookups.
+ * Canonical numeric SMIDs are stored as a sorted array of longs, other SMIDs as sorted UTF-8 strings
+ * with an offset table. Lookups are binary searches over the mapped file: no heap is used for the values
+ * and a restarted process reuses the pages still in the OS page cache.
+ *
+ * Layout (big-endian): magic, format, numeric count, string count, string bytes,
+ * long[numeric count], int[string count + 1] offsets, string bytes.
+ */
+public final class SmidIndexFile {
+
+    private static final int MAGIC = 0x534D4958; // "SMIX"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 32;
+
+    // Longs per mapped segment of the numeric section (1 GB), a single mapping is limited to 2 GB
+    private static final int SEGMENT_SHIFT = 27;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final Path path;
+    private final long numericCount;
+    private final int stringCount;
+    private final MappedByteBuffer[] numericSegments;
+    private final MappedByteBuffer strings;
+    private final long mappedBytes;
+
+    private SmidIndexFile(Path path, long numericCount, int stringCount, MappedByteBuffer[] numericSegments,
+                          MappedByteBuffer strings, long mappedBytes) {
+        this.path = path;
+        this.numericCount = numericCount;
+        this.stringCount = stringCount;
+        this.numericSegments = numericSegments;
+        this.strings = strings;
+        this.mappedBytes = mappedBytes;
+    }
+
+    /**
+     * Write an index of the SMIDs to the path, replacing it atomically. Duplicates are removed.
+     */
+    public static void write(Iterator<String> smids, Path path) throws IOException {
+        long[] numeric = new long[1024];
+        int numericCount = 0;
+        List<byte[]> other = new ArrayList<>();
+
+        while (smids.hasNext()) {
+            String smid = smids.next();
+            long value = Longs.parseCanonical(smid);
+            if (value >= 0) {
+                if (numericCount == numeric.length) {
+                    numeric = Arrays.copyOf(numeric, numericCount * 2);
+                }
+                numeric[numericCount++] = value;
+            } else if (smid != null) {
+                other.add(smid.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        Arrays.sort(numeric, 0, numericCount);
+        other.sort(Arrays::compareUnsigned);
+
+        Path temp = Files.createTempFile(path.getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                int distinctNumeric = distinct(numeric, numericCount);
+                List<byte[]> distinctOther = distinct(other);
+                long stringBytes = 0;
+                for (byte[] value : distinctOther) {
+                    stringBytes += value.length;
+                }
+                if (4L * (distinctOther.size() + 1) + stringBytes > Integer.MAX_VALUE) {
+                    throw new IOException("Too many non-numeric SMIDs for an index file");
+                }
+
+                output.writeInt(MAGIC);
+                output.writeInt(FORMAT);
+                output.writeLong(distinctNumeric);
+                output.writeInt(distinctOther.size());
+                output.writeInt(0);
+                output.writeLong(stringBytes);
+                for (int i = 0; i < distinctNumeric; i++) {
+                    output.writeLong(numeric[i]);
+                }
+                int offset = 0;
+                output.writeInt(offset);
+                for (byte[] value : distinctOther) {
+                    offset += value.length;
+                    output.writeInt(offset);
+                }
+                for (byte[] value : distinctOther) {
+                    output.write(value);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Map an index file written by {@link #write}
+     */
+    public static SmidIndexFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT) {
+                throw new IOException("Not a SMID index file: " + path);
+            }
+            long numericCount = header.getLong(8);
+            int stringCount = header.getInt(16);
+            long stringBytes = header.getLong(24);
+
+            long numericBytes = 8L * numericCount;
+            long stringsBytes = 4L * (stringCount + 1) + stringBytes;
+            if (numericCount < 0 || stringCount < 0 || HEADER_BYTES + numericBytes + stringsBytes != channel.size()) {
+                throw new IOException("Corrupted SMID index file: " + path);
+            }
+
+            int segments = (int) ((numericCount + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            MappedByteBuffer[] numericSegments = new MappedByteBuffer[segments];
+            for (int i = 0; i < segments; i++) {
+                long first = (long) i << SEGMENT_SHIFT;
+                long length = Math.min(numericCount - first, 1L << SEGMENT_SHIFT);
+                numericSegments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + 8 * first, 8 * length);
+            }
+            MappedByteBuffer strings = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + numericBytes, stringsBytes);
+            return new SmidIndexFile(path, numericCount, stringCount, numericSegments, strings, channel.size());
+        }
+    }
+
+    public boolean contains(String smid) {
+        long value = Longs.parseCanonical(smid);
+        if (value >= 0) {
+            return containsNumeric(value);
+        }
+        return smid != null && stringCount > 0 && containsString(smid.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public long size() {
+        return numericCount + stringCount;
+    }
+
+    /**
+     * Size of the mapped file; lives in the page cache, not on the heap
+     */
+    public long getMappedBytes() {
+        return mappedBytes;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    private boolean containsNumeric(long value) {
+        long low = 0;
+        long high = numericCount - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            long current = numericSegments[(int) (middle >>> SEGMENT_SHIFT)].getLong((int) (middle & SEGMENT_MASK) << 3);
+            if (current < value) {
+                low = middle + 1;
+            } else if (current > value) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean containsString(byte[] value) {
+        int dataStart = 4 * (stringCount + 1);
+        int low = 0;
+        int high = stringCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int start = strings.getInt(4 * middle);
+            int end = strings.getInt(4 * (middle + 1));
+            int comparison = compare(dataStart + start, end - start, value);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compare the stored string with the value as unsigned bytes, the order used by {@link #write}
+     */
+    private int compare(int position, int length, byte[] value) {
+        int common = Math.min(length, value.length);
+        for (int i = 0; i < common; i++) {
+            int difference = Byte.toUnsignedInt(strings.get(position + i)) - Byte.toUnsignedInt(value[i]);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return Integer.compare(length, value.length);
+    }
+
+    private static int distinct(long[] sorted, int count) {
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || sorted[distinct - 1] != sorted[i]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return distinct;
+    }
+
+    private static List<byte[]> distinct(List<byte[]> sorted) {
+        List<byte[]> distinct = new ArrayList<>(sorted.size());
+        for (byte[] value : sorted) {
+            if (distinct.isEmpty() || !Arrays.equals(distinct.get(distinct.size() - 1), value)) {
+                distinct.add(value);
+            }
+        }
+        return distinct;
+    }
+}
@@ -0,0 +1,187 @@
+package com.minio.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Incremental parser of SMID list files (TXT with one SMID per line, or CSV with the SMID in the first column).
+ * Works on raw bytes with a fixed buffer: the file is never held in memory and no String is created per line.
+ *
+ * The first field of a line ends at ',', ';' or tab; surrounding spaces and double quotes are removed.
+ * Empty lines, a UTF-8 BOM and a "smid" header line are skipped. Values longer than {@link #MAX_SMID_BYTES},
+ * or containing control characters or a backslash, are rejected.
+ */
+public final class SmidListParser {
+
+    /**
+     * Length of the SMID column of SMID_DICTIONARY
+     */
+    public static final int MAX_SMID_BYTES = 255;
+
+    private static final byte[] HEADER = {'s', 'm', 'i', 'd'};
+
+    /**
+     * Receives every accepted SMID as a slice of the parser buffer, valid only during the call
+     */
+    @FunctionalInterface
+    public interface SmidConsumer {
+        void accept(byte[] buffer, int offset, int length) throws IOException;
+    }
+
+    private final int bufferSize;
+    private long accepted;
+    private long rejected;
+    private long bytesRead;
+
+    public SmidListParser() {
+        this(1 << 16);
+    }
+
+    public SmidListParser(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Parse the input to the end, passing every accepted SMID to the consumer
+     */
+    public void parse(InputStream input, SmidConsumer consumer) throws IOException {
+        byte[] buffer = new byte[bufferSize];
+        int start = 0;
+        int end = 0;
+        boolean firstLine = true;
+        boolean skipping = false;
+
+        while (true) {
+            int read = input.read(buffer, end, buffer.length - end);
+            boolean eof = read < 0;
+            if (!eof) {
+                bytesRead += read;
+                end += read;
+            }
+
+            // The buffer always begins with the current line, only the bytes read now are scanned for line breaks
+            int lineStart = 0;
+            for (int i = start; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    if (skipping) {
+                        skipping = false;
+                    } else {
+                        parseLine(buffer, lineStart, i, firstLine, consumer);
+                    }
+                    firstLine = false;
+                    lineStart = i + 1;
+                }
+            }
+
+            if (eof) {
+                if (lineStart < end && !skipping) {
+                    parseLine(buffer, lineStart, end, firstLine, consumer);
+                }
+                return;
+            }
+
+            if (lineStart == 0 && end == buffer.length) {
+                // A line longer than the buffer cannot be a valid SMID: drop it up to the next line break
+                if (!skipping) {
+                    rejected++;
+                    skipping = true;
+                }
+                firstLine = false;
+                start = 0;
+                end = 0;
+                continue;
+            }
+            // Move the incomplete last line to the beginning of the buffer
+            System.arraycopy(buffer, lineStart, buffer, 0, end - lineStart);
+            end -= lineStart;
+            start = end;
+        }
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    private void parseLine(byte[] buffer, int from, int to, boolean firstLine, SmidConsumer consumer) throws IOException {
+        if (firstLine && to - from >= 3
+            && buffer[from] == (byte) 0xEF && buffer[from + 1] == (byte) 0xBB && buffer[from + 2] == (byte) 0xBF) {
+            from += 3;
+        }
+
+        int fieldEnd = from;
+        while (fieldEnd < to && buffer[fieldEnd] != ',' && buffer[fieldEnd] != ';' && buffer[fieldEnd] != '\t') {
+            fieldEnd++;
+        }
+
+        int start = from;
+        int end = fieldEnd;
+        while (start < end && (buffer[start] == ' ' || buffer[start] == '\r')) {
+            start++;
+        }
+        while (end > start && (buffer[end - 1] == ' ' || buffer[end - 1] == '\r')) {
+            end--;
+        }
+        if (end - start >= 2 && buffer[start] == '"' && buffer[end - 1] == '"') {
+            start++;
+            end--;
+        }
+
+        int length = end - start;
+        if (length == 0) {
+            return;
+        }
+        if (firstLine && isHeader(buffer, start, length)) {
+            return;
+        }
+        if (length > MAX_SMID_BYTES || !isValid(buffer, start, end)) {
+            rejected++;
+            return;
+        }
+
+        accepted++;
+        consumer.accept(buffer, start, length);
+    }
+
+    /**
+     * Check a SMID given outside of a list file with the same rules
+     */
+    public static boolean isValid(String smid) {
+        if (smid == null || smid.isEmpty()) {
+            return false;
+        }
+        byte[] bytes = smid.getBytes(StandardCharsets.UTF_8);
+        return bytes.length <= MAX_SMID_BYTES && isValid(bytes, 0, bytes.length);
+    }
+
+    private static boolean isValid(byte[] buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            byte b = buffer[i];
+            // Negative bytes are parts of multi-byte UTF-8 characters
+            if ((b >= 0 && b < 0x20) || b == 0x7F || b == '\\' || b == '"') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isHeader(byte[] buffer, int start, int length) {
+        if (length != HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if ((buffer[start + i] | 0x20) != HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
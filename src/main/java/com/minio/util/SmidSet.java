@@ -0,0 +1,71 @@
+package com.minio.util;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Immutable set of SMIDs. Canonical numeric SMIDs are stored as primitive longs,
+ * all other values in a regular string set.
+ */
+public final class SmidSet {
+
+    // Object header + array header + reference + chars of an average short string in a HashMap node
+    private static final long STRING_ENTRY_BYTES = 96L;
+
+    private final LongHashSet numeric;
+    private final Set<String> other;
+
+    private SmidSet(LongHashSet numeric, Set<String> other) {
+        this.numeric = numeric;
+        this.other = other;
+    }
+
+    public static SmidSet of(Iterator<String> smids) {
+        long[] values = new long[1024];
+        int count = 0;
+        Set<String> other = new HashSet<>();
+
+        while (smids.hasNext()) {
+            String smid = smids.next();
+            long value = Longs.parseCanonical(smid);
+            if (value >= 0) {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count * 2);
+                }
+                values[count++] = value;
+            } else if (smid != null) {
+                other.add(smid);
+            }
+        }
+        return new SmidSet(LongHashSet.of(Arrays.copyOf(values, count)), other);
+    }
+
+    /**
+     * Expected heap footprint of a set of numeric SMIDs, to decide whether a list is worth loading
+     */
+    public static long estimateSizeInBytes(long count) {
+        return LongHashSet.estimateSizeInBytes(count);
+    }
+
+    public boolean contains(String smid) {
+        long value = Longs.parseCanonical(smid);
+        if (value >= 0) {
+            // A canonical number can only have been stored in the numeric set
+            return numeric.contains(value);
+        }
+        return smid != null && other.contains(smid);
+    }
+
+    public int size() {
+        return numeric.size() + other.size();
+    }
+
+    /**
+     * Approximate heap footprint in bytes
+     */
+    public long sizeInBytes() {
+        return numeric.sizeInBytes() + STRING_ENTRY_BYTES * other.size();
+    }
+}
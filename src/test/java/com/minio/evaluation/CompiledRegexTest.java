@@ -0,0 +1,71 @@
+package com.minio.evaluation;
+
+import com.minio.dto.FilterConditionDto;
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.service.MarketingTargetFilterService;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for precompiled REGEX conditions
+ */
+public class CompiledRegexTest {
+
+    private static final String ANDROID_UA =
+        "Mozilla/5.0 (Linux; Android 14; SM-S918B) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/124.0.6367.82 Mobile Safari/537.36";
+
+    @Test
+    public void testBothEnginesAgree() {
+        String pattern = ".*Android (1[0-9]|[89]).*Chrome/1[0-2][0-9]\\..*";
+        for (RegexEngine engine : RegexEngine.values()) {
+            CompiledRegex regex = CompiledRegex.compile(pattern, engine);
+            assertTrue(engine.name(), regex.matches(ANDROID_UA));
+            assertFalse(engine.name(), regex.matches("okhttp/4.12.0"));
+        }
+    }
+
+    @Test
+    public void testPathologicalPatternStopsAtBudget() {
+        CompiledRegex regex = CompiledRegex.compile("(a+)+b", RegexEngine.JDK);
+
+        long start = System.nanoTime();
+        assertFalse(regex.matches("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa"));
+        assertTrue("Match should be cut off by the step budget", System.nanoTime() - start < 5_000_000_000L);
+        assertTrue(regex.matches("aaab"));
+    }
+
+    @Test
+    public void testPatternsAreCached() {
+        assertSame(RegexCache.get("^UA|PL$", RegexEngine.JDK), RegexCache.get("^UA|PL$", RegexEngine.JDK));
+        assertNotSame(RegexCache.get("^UA|PL$", RegexEngine.JDK), RegexCache.get("^UA|PL$", RegexEngine.RE2J));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPattern() {
+        CompiledRegex.compile("([a-z", RegexEngine.JDK);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testInvalidPatternIsRejectedOnSave() {
+        MarketingTargetFilterDto filter = new MarketingTargetFilterDto("Broken regex", 1L);
+        filter.setConditions(Collections.singletonList(
+            new FilterConditionDto(FilterFieldType.BROWSER, FilterOperator.REGEX, "([a-z")));
+
+        new MarketingTargetFilterService().validateFilterStructure(filter);
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testBackreferenceIsRejectedForHighTrafficFilter() {
+        MarketingTargetFilterDto filter = new MarketingTargetFilterDto("Backreference", 1L);
+        filter.setHighTraffic(true);
+        filter.setConditions(Collections.singletonList(
+            new FilterConditionDto(FilterFieldType.BROWSER, FilterOperator.REGEX, "(a)\\1")));
+
+        new MarketingTargetFilterService().validateFilterStructure(filter);
+    }
+}
@@ -0,0 +1,68 @@
+package com.minio.evaluation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for pre-parsed IN/NOT_IN value sets
+ */
+public class InValueSetTest {
+
+    @Test
+    public void testSmallListFromJsonArray() {
+        InValueSet set = InValueSet.of(FilterCompiler.parseInValues("[\"UA\", \"PL\", \"DE\"]"));
+
+        assertEquals(3, set.size());
+        assertTrue(set.contains("PL"));
+        assertFalse(set.contains("pl"));
+        assertFalse(set.contains("\"PL\""));
+    }
+
+    @Test
+    public void testCommaSeparatedValuesAreTrimmed() {
+        InValueSet set = InValueSet.of(FilterCompiler.parseInValues("UA , PL,DE "));
+
+        assertTrue(set.contains("UA"));
+        assertTrue(set.contains("DE"));
+        assertFalse(set.contains(" UA"));
+    }
+
+    @Test
+    public void testLargeNumericSmidList() {
+        StringBuilder value = new StringBuilder("[");
+        for (int i = 0; i < 500; i++) {
+            value.append(i > 0 ? "," : "").append('"').append(3586067540L + i * 7L).append('"');
+        }
+        InValueSet set = InValueSet.of(FilterCompiler.parseInValues(value.append("]").toString()));
+
+        assertEquals(500, set.size());
+        assertTrue(set.contains("3586067540"));
+        assertTrue(set.contains(String.valueOf(3586067540L + 499 * 7L)));
+        assertFalse(set.contains("3586067541"));
+        // Only exact string matches count, as with the original linear scan
+        assertFalse(set.contains("03586067540"));
+        assertFalse(set.contains("+3586067540"));
+        assertFalse(set.contains(""));
+    }
+
+    @Test
+    public void testLargeMixedList() {
+        String[] values = new String[20];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i == 10 ? "abc" : String.valueOf(i + 100);
+        }
+        InValueSet set = InValueSet.of(values);
+
+        assertTrue(set.contains("abc"));
+        assertTrue(set.contains("100"));
+        assertFalse(set.contains("99"));
+    }
+
+    @Test
+    public void testDuplicatesAreIgnored() {
+        InValueSet set = InValueSet.of(new String[] {"1", "1", "2"});
+
+        assertEquals(2, set.size());
+    }
+}
@@ -0,0 +1,87 @@
+package com.minio.evaluation;
+
+import com.minio.dto.UserRequestDto;
+import com.minio.model.FilterFieldType;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the per-request attribute vector
+ */
+public class UserAttributesTest {
+
+    @Test
+    public void testStandardAndCustomFieldsResolvedBySlot() {
+        UserRequestDto request = new UserRequestDto();
+        request.setSmid("12345");
+        request.setCountry("UA");
+        request.setCustomFields(Map.of("INTERNET_TYPE", "wifi", "OTHER", "x"));
+
+        UserAttributes attributes = UserAttributes.of(request);
+
+        assertEquals("12345", attributes.getSmid());
+        assertEquals("UA", attributes.get(FilterFieldType.COUNTRY));
+        assertEquals("wifi", attributes.get(FilterFieldType.INTERNET_TYPE));
+        assertNull(attributes.get(FilterFieldType.BROWSER));
+        assertNull(attributes.get(FilterFieldType.CLE_CAMPAIGN));
+    }
+
+    @Test
+    public void testLowerCaseComputedOnce() {
+        UserRequestDto request = new UserRequestDto();
+        request.setBrowser("Chrome");
+
+        UserAttributes attributes = UserAttributes.of(request);
+
+        assertEquals("chrome", attributes.getLowerCase(FilterFieldType.BROWSER));
+        assertSame(attributes.getLowerCase(FilterFieldType.BROWSER), attributes.getLowerCase(FilterFieldType.BROWSER));
+        assertNull(attributes.getLowerCase(FilterFieldType.COUNTRY));
+    }
+
+    @Test
+    public void testTrimmedValueIsTheValueWhenNothingToTrim() {
+        UserRequestDto request = new UserRequestDto();
+        request.setBrowser("Chrome");
+        request.setCountry(" UA ");
+
+        UserAttributes attributes = UserAttributes.of(request);
+
+        assertSame(attributes.get(FilterFieldType.BROWSER), attributes.getTrimmed(FilterFieldType.BROWSER));
+        assertEquals("UA", attributes.getTrimmed(FilterFieldType.COUNTRY));
+        assertSame(attributes.getTrimmed(FilterFieldType.COUNTRY), attributes.getTrimmed(FilterFieldType.COUNTRY));
+        assertNull(attributes.getTrimmed(FilterFieldType.SMID));
+    }
+
+    @Test
+    public void testNumbersParsedLikeParseDouble() {
+        for (String value : new String[] {"0", "-12", "+3.5", "1.", ".5", "1e3", "2.5E-2", "7f", "1d",
+                "0x1p3", "NaN", "-Infinity"}) {
+            assertEquals(value, Double.valueOf(Double.parseDouble(value)), UserAttributes.parseNumber(value));
+        }
+        for (String value : new String[] {"", "UA", "2.10.1", ".", "-", "1e", "1e+", "e5", "1.5x", "Nope", "0x"}) {
+            assertNull(value, UserAttributes.parseNumber(value));
+        }
+
+        UserRequestDto request = new UserRequestDto();
+        request.setCountry(" 42 ");
+        assertEquals(Double.valueOf(42), UserAttributes.of(request).getNumber(FilterFieldType.COUNTRY));
+    }
+
+    @Test
+    public void testParsedForms() {
+        UserRequestDto request = new UserRequestDto();
+        request.setClientVersion("2.10.1");
+        request.setCountry("UA");
+        request.setBrowser("120");
+
+        UserAttributes attributes = UserAttributes.of(request);
+
+        assertEquals(Double.valueOf(120), attributes.getNumber(FilterFieldType.BROWSER));
+        assertSame(attributes.getNumber(FilterFieldType.BROWSER), attributes.getNumber(FilterFieldType.BROWSER));
+        assertNull(attributes.getNumber(FilterFieldType.CLIENT_VERSION));
+        assertNull(attributes.getNumber(FilterFieldType.COUNTRY));
+        assertNull(attributes.getNumber(FilterFieldType.CLE_CAMPAIGN));
+    }
+}
@@ -0,0 +1,47 @@
+package com.minio.evaluation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for semantic version parsing and comparison
+ */
+public class VersionTest {
+
+    @Test
+    public void testComponentsAreComparedNumerically() {
+        assertTrue(Version.compare("2.10", Version.parse("2.9")) > 0);
+        assertTrue(Version.compare("2.9.9", Version.parse("2.10.0")) < 0);
+        assertTrue(Version.compare("10.0.0", Version.parse("9.99.99")) > 0);
+    }
+
+    @Test
+    public void testMissingComponentsAreZero() {
+        assertEquals(0, Version.compare("2.1", Version.parse("2.1.0")));
+        assertEquals(0, Version.compare("2.1.0.0.0", Version.parse("2.1")));
+        assertEquals(Version.parse("2.1"), Version.parse("2.1.0"));
+        assertEquals(Version.parse("2.1").hashCode(), Version.parse("2.1.0").hashCode());
+    }
+
+    @Test
+    public void testVersionsThatDoNotFitPackedForm() {
+        Version large = Version.parse("1.2.3.4.5");
+        assertNotNull(large);
+        assertTrue(Version.compare("1.2.3.4", large) < 0);
+        assertTrue(Version.compare("1.2.3.4.6", large) > 0);
+        assertTrue(Version.compare("2024.100000", Version.parse("2024.99999")) > 0);
+        assertEquals("1.2.3.4.5", large.toString());
+    }
+
+    @Test
+    public void testInvalidVersions() {
+        assertNull(Version.parse(""));
+        assertNull(Version.parse("2..1"));
+        assertNull(Version.parse("2.1."));
+        assertNull(Version.parse(".2"));
+        assertNull(Version.parse("2.1-beta"));
+        assertNull(Version.parse(null));
+        assertEquals(Integer.MIN_VALUE, Version.compare("beta", Version.parse("2.0")));
+    }
+}
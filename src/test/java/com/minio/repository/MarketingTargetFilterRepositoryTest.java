@@ -0,0 +1,174 @@
+package com.minio.repository;
+
+import com.minio.model.MarketingTargetFilter;
+import com.minio.model.MarketingTargetFilterCondition;
+import com.minio.model.MarketingTargetFilterGroup;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the in-memory assembly of filter trees from the filters-with-groups rows and the conditions of the batch
+ */
+public class MarketingTargetFilterRepositoryTest {
+
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private final List<Collection<?>> conditionFilterIds = new ArrayList<>();
+
+    private TypedQuery<Object[]> groupQuery;
+    private TypedQuery<MarketingTargetFilterCondition> conditionQuery;
+    private MarketingTargetFilterRepository filterRepository;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        groupQuery = mock(TypedQuery.class);
+        when(groupQuery.setParameter(eq("ids"), any())).thenAnswer(invocation -> {
+            // The batch list is reused for the next batch: record its size now
+            batchSizes.add(((Collection<?>) invocation.getArgument(1)).size());
+            return groupQuery;
+        });
+        when(groupQuery.setHint(anyString(), any())).thenReturn(groupQuery);
+
+        conditionQuery = mock(TypedQuery.class);
+        when(conditionQuery.setParameter(eq("filterIds"), any())).thenAnswer(invocation -> {
+            conditionFilterIds.add(new ArrayList<>((Collection<?>) invocation.getArgument(1)));
+            return conditionQuery;
+        });
+        when(conditionQuery.setHint(anyString(), any())).thenReturn(conditionQuery);
+
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.createNamedQuery("MarketingTargetFilter.findByIdsWithGroups", Object[].class))
+            .thenReturn(groupQuery);
+        when(entityManager.createNamedQuery("MarketingTargetFilterCondition.findByFilterIds",
+            MarketingTargetFilterCondition.class)).thenReturn(conditionQuery);
+
+        filterRepository = new MarketingTargetFilterRepository();
+        filterRepository.entityManager = entityManager;
+    }
+
+    @Test
+    public void testConditionsAreAssignedToFiltersAndGroups() {
+        MarketingTargetFilter first = filter(1L);
+        MarketingTargetFilter second = filter(2L);
+        MarketingTargetFilterGroup firstGroup = group(10L, 1L);
+        MarketingTargetFilterGroup secondGroup = group(11L, 1L);
+        // One row per group, a filter without groups comes with a null group
+        when(groupQuery.getResultList()).thenReturn(Arrays.asList(
+            new Object[] {first, firstGroup},
+            new Object[] {first, secondGroup},
+            new Object[] {second, null}));
+
+        MarketingTargetFilterCondition rootCondition = condition(100L, 1L, null);
+        MarketingTargetFilterCondition firstGroupCondition = condition(101L, 1L, 10L);
+        MarketingTargetFilterCondition secondGroupCondition = condition(102L, 1L, 11L);
+        MarketingTargetFilterCondition otherRootCondition = condition(103L, 2L, null);
+        // Condition of a deleted group
+        MarketingTargetFilterCondition orphanCondition = condition(104L, 2L, 99L);
+        when(conditionQuery.getResultList()).thenReturn(Arrays.asList(
+            rootCondition, firstGroupCondition, secondGroupCondition, otherRootCondition, orphanCondition));
+
+        List<MarketingTargetFilter> filters = filterRepository.findByIdsWithConditions(Arrays.asList(1L, 2L));
+
+        assertEquals(Arrays.asList(first, second), filters);
+        assertEquals(Arrays.asList(rootCondition), first.getConditions());
+        assertEquals(Arrays.asList(firstGroup, secondGroup), first.getGroups());
+        assertEquals(Arrays.asList(firstGroupCondition), firstGroup.getConditions());
+        assertEquals(Arrays.asList(secondGroupCondition), secondGroup.getConditions());
+        assertEquals(Arrays.asList(otherRootCondition), second.getConditions());
+        assertTrue(second.getGroups().isEmpty());
+
+        // One batch: both queries run read-only
+        assertEquals(Arrays.asList(2), batchSizes);
+        assertEquals(Arrays.asList(Arrays.asList(1L, 2L)), conditionFilterIds);
+        verify(groupQuery).setHint("org.hibernate.readOnly", true);
+        verify(conditionQuery).setHint("org.hibernate.readOnly", true);
+    }
+
+    @Test
+    public void testLoadedCollectionsReplaceStaleOnes() {
+        MarketingTargetFilter filter = filter(1L);
+        filter.setConditions(new ArrayList<>(Arrays.asList(condition(1L, 1L, null))));
+        when(groupQuery.getResultList()).thenReturn(Collections.singletonList(new Object[] {filter, null}));
+        when(conditionQuery.getResultList()).thenReturn(Collections.emptyList());
+
+        MarketingTargetFilter loaded = filterRepository.findByIdWithConditions(1L).orElseThrow();
+
+        assertTrue(loaded.getConditions().isEmpty());
+        assertTrue(loaded.getGroups().isEmpty());
+    }
+
+    @Test
+    public void testMissingFiltersSkipConditionQuery() {
+        when(groupQuery.getResultList()).thenReturn(Collections.emptyList());
+
+        assertFalse(filterRepository.findByIdWithConditions(1L).isPresent());
+        verify(conditionQuery, never()).getResultList();
+    }
+
+    @Test
+    public void testTreesForUpdateAreNotReadOnly() {
+        MarketingTargetFilter filter = filter(1L);
+        when(groupQuery.getResultList()).thenReturn(Collections.singletonList(new Object[] {filter, null}));
+        when(conditionQuery.getResultList()).thenReturn(Collections.emptyList());
+
+        assertTrue(filterRepository.findByIdWithConditionsForUpdate(1L).isPresent());
+        verify(groupQuery).setHint("org.hibernate.readOnly", false);
+        verify(conditionQuery).setHint("org.hibernate.readOnly", false);
+    }
+
+    @Test
+    public void testIdsAreLoadedInBatches() {
+        when(groupQuery.getResultList()).thenReturn(
+            Collections.singletonList(new Object[] {filter(1L), null}),
+            Collections.singletonList(new Object[] {filter(501L), null}));
+        when(conditionQuery.getResultList()).thenReturn(Collections.emptyList());
+        List<Long> ids = LongStream.rangeClosed(1, 501).boxed().collect(Collectors.toList());
+
+        List<MarketingTargetFilter> filters = filterRepository.findByIdsWithConditions(ids);
+
+        assertEquals(Arrays.asList(500, 1), batchSizes);
+        assertEquals(2, conditionFilterIds.size());
+        assertEquals(Arrays.asList(1L, 501L), filters.stream().map(MarketingTargetFilter::getId).collect(Collectors.toList()));
+    }
+
+    private static MarketingTargetFilter filter(Long id) {
+        MarketingTargetFilter filter = new MarketingTargetFilter();
+        filter.setId(id);
+        filter.setFilterName("Filter " + id);
+        return filter;
+    }
+
+    private static MarketingTargetFilterGroup group(Long id, Long filterId) {
+        MarketingTargetFilterGroup group = new MarketingTargetFilterGroup();
+        group.setId(id);
+        group.setMarketingTargetFilterId(filterId);
+        return group;
+    }
+
+    private static MarketingTargetFilterCondition condition(Long id, Long filterId, Long groupId) {
+        MarketingTargetFilterCondition condition = new MarketingTargetFilterCondition();
+        condition.setId(id);
+        condition.setMarketingTargetFilterId(filterId);
+        condition.setGroupId(groupId);
+        return condition;
+    }
+}
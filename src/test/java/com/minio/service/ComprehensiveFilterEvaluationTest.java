@@ -7,7 +7,6 @@ import com.minio.dto.FilterGroupDto;
 import com.minio.model.FilterFieldType;
 import com.minio.model.FilterOperator;
 import com.minio.model.LogicalOperator;
-import com.minio.repository.MarketingTargetListItemRepository;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -30,7 +29,7 @@ import static org.mockito.Mockito.when;
 public class ComprehensiveFilterEvaluationTest {
 
     @Mock
-    private MarketingTargetListItemRepository listItemRepository;
+    private ListMembershipService membershipService;
 
     @Mock
     private MarketingTargetFilterService filterService;
@@ -41,7 +40,7 @@ public class ComprehensiveFilterEvaluationTest {
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
-        when(listItemRepository.existsBySmidAndFileId(anyString(), anyString())).thenReturn(false);
+        when(membershipService.existsBySmidAndFileId(anyString(), anyString())).thenReturn(false);
     }
 
     @Test
@@ -264,6 +263,24 @@ public class ComprehensiveFilterEvaluationTest {
         assertFalse(filterEvaluationService.evaluateFilter(filter, user199));
     }
 
+    @Test
+    public void testMultiDigitVersionComponents() {
+        /*
+         * CLIENT_VERSION GREATER_THAN "2.9" - versions are compared component by component
+         */
+        MarketingTargetFilterDto filter = new MarketingTargetFilterDto("Version above 2.9", 1L);
+        filter.setConditions(Collections.singletonList(
+            new FilterConditionDto(FilterFieldType.CLIENT_VERSION, FilterOperator.GREATER_THAN, "2.9")));
+        
+        // POSITIVE TESTS
+        assertTrue(filterEvaluationService.evaluateFilter(filter, createUser("12345", "UA", "2.10", "Android", "Chrome")));
+        assertTrue(filterEvaluationService.evaluateFilter(filter, createUser("12345", "UA", "2.10.3", "Android", "Chrome")));
+        
+        // NEGATIVE TESTS
+        assertFalse(filterEvaluationService.evaluateFilter(filter, createUser("12345", "UA", "2.9.0", "Android", "Chrome")));
+        assertFalse(filterEvaluationService.evaluateFilter(filter, createUser("12345", "UA", "2.8.15", "Android", "Chrome")));
+    }
+
     @Test
     public void testInactiveFilter() {
         MarketingTargetFilterDto filter = createInactiveFilter();
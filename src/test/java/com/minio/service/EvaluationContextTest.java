@@ -0,0 +1,112 @@
+package com.minio.service;
+
+import com.minio.dto.EvaluationTraceDto;
+import com.minio.dto.FilterConditionDto;
+import com.minio.dto.FilterGroupDto;
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.dto.UserRequestDto;
+import com.minio.evaluation.CompiledFilter;
+import com.minio.evaluation.EvaluationContext;
+import com.minio.evaluation.FilterCompiler;
+import com.minio.evaluation.UserAttributes;
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.model.LogicalOperator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for per-request memoization of list lookups:
+ * (list 7 IN AND list 8 NOT_IN) AND group (list 7 IN)
+ */
+public class EvaluationContextTest {
+
+    private final List<String> lookups = new ArrayList<>();
+
+    private FilterEvaluationService filterEvaluationService;
+    private CompiledFilter plan;
+
+    @Before
+    public void setUp() {
+        filterEvaluationService = new FilterEvaluationService();
+        filterEvaluationService.planCache = new FilterPlanCache();
+        filterEvaluationService.planCache.maxSize = 10;
+        filterEvaluationService.membershipService = new ListMembershipService() {
+            @Override
+            public boolean existsBySmidAndFileId(String smid, String fileId) {
+                lookups.add(fileId);
+                return "7".equals(fileId);
+            }
+        };
+
+        plan = FilterCompiler.compile(createFilter());
+        filterEvaluationService.planCache.get(1L, id -> plan);
+    }
+
+    @Test
+    public void testRepeatedListIsLookedUpOnce() {
+        EvaluationContext context = filterEvaluationService.createContext(createUser());
+
+        assertTrue(filterEvaluationService.evaluatePlan(plan, context));
+        assertEquals(Arrays.asList("7", "8"), lookups);
+        assertEquals(2, context.getLookupCount());
+        assertEquals(1, context.getMemoizedLookupCount());
+
+        // Another filter of the same request reuses the results
+        assertTrue(filterEvaluationService.evaluatePlan(plan, context));
+        assertEquals(2, lookups.size());
+        assertEquals(4, context.getMemoizedLookupCount());
+    }
+
+    @Test
+    public void testOtherSmidIsNotMemoized() {
+        EvaluationContext context = new EvaluationContext(UserAttributes.of(createUser()),
+            (fileId, smid) -> lookups.add(fileId));
+
+        assertTrue(context.contains("7", "999"));
+        assertTrue(context.contains("7", "999"));
+        assertEquals(2, context.getLookupCount());
+        assertEquals(0, context.getMemoizedLookupCount());
+    }
+
+    @Test
+    public void testExplainReportsLookupCount() {
+        EvaluationTraceDto trace = filterEvaluationService.explainFilter(1L, createUser()).get();
+
+        assertTrue(trace.isMatches());
+        assertEquals(2, trace.getLookups());
+        assertEquals(1, trace.getMemoizedLookups());
+    }
+
+    private MarketingTargetFilterDto createFilter() {
+        MarketingTargetFilterDto filter = new MarketingTargetFilterDto("Lists", 1L);
+        filter.setConditions(Arrays.asList(
+            condition(FilterOperator.IN, "7", null),
+            condition(FilterOperator.NOT_IN, "8", LogicalOperator.AND)));
+
+        FilterGroupDto group = new FilterGroupDto("Again", LogicalOperator.AND);
+        group.setConditions(Collections.singletonList(condition(FilterOperator.IN, "7", null)));
+        filter.setGroups(Collections.singletonList(group));
+        return filter;
+    }
+
+    private FilterConditionDto condition(FilterOperator operator, String fileId, LogicalOperator logicalOperator) {
+        FilterConditionDto condition = new FilterConditionDto(FilterFieldType.DISTRIBUTION_GROUPS_FILE, operator, fileId);
+        condition.setLogicalOperator(logicalOperator);
+        return condition;
+    }
+
+    private UserRequestDto createUser() {
+        UserRequestDto user = new UserRequestDto();
+        user.setSmid("12345");
+        user.setCountry("UA");
+        return user;
+    }
+}
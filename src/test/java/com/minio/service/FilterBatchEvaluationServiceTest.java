@@ -0,0 +1,105 @@
+package com.minio.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minio.dto.FilterConditionDto;
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.evaluation.CompiledFilter;
+import com.minio.evaluation.FilterCompiler;
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.model.LogicalOperator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for streaming batch evaluation: COUNTRY = UA AND SMID in list 7
+ */
+public class FilterBatchEvaluationServiceTest {
+
+    private FilterBatchEvaluationService batchEvaluationService;
+    private final AtomicInteger listQueries = new AtomicInteger();
+
+    @Before
+    public void setUp() {
+        batchEvaluationService = new FilterBatchEvaluationService();
+        batchEvaluationService.evaluationService = new FilterEvaluationService();
+        batchEvaluationService.objectMapper = new ObjectMapper();
+        batchEvaluationService.chunkSize = 2;
+        batchEvaluationService.threads = 2;
+        batchEvaluationService.membershipService = new ListMembershipService() {
+            @Override
+            public Set<String> findSmidsInFile(String fileId, Collection<String> smids) {
+                listQueries.incrementAndGet();
+                Set<String> members = new HashSet<>(smids);
+                members.retainAll(Arrays.asList("1", "3", "5"));
+                return members;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        batchEvaluationService.shutdown();
+    }
+
+    @Test
+    public void testNdjsonResultsInInputOrder() throws Exception {
+        String input = "{\"smid\": \"1\", \"country\": \"UA\"}\n"
+            + "{\"smid\": \"2\", \"country\": \"UA\"}\n"
+            + "{\"smid\": \"3\", \"country\": \"PL\"}\n"
+            + "\n"
+            + "{\"smid\": \"4\", \"country\": \"UA\"}\n"
+            + "{\"smid\": \"5\", \"country\": \"UA\"}\n";
+
+        String[] lines = evaluate(input);
+
+        assertEquals(5, lines.length);
+        assertEquals("{\"smid\":\"1\",\"matches\":true}", lines[0]);
+        assertEquals("{\"smid\":\"2\",\"matches\":false}", lines[1]);
+        assertEquals("{\"smid\":\"3\",\"matches\":false}", lines[2]);
+        assertEquals("{\"smid\":\"4\",\"matches\":false}", lines[3]);
+        assertEquals("{\"smid\":\"5\",\"matches\":true}", lines[4]);
+
+        // One list lookup per chunk of two users
+        assertEquals(3, listQueries.get());
+    }
+
+    @Test
+    public void testJsonArrayInput() throws Exception {
+        String[] lines = evaluate("[{\"smid\": \"1\", \"country\": \"UA\"}, {\"smid\": \"3\", \"country\": \"UA\"}]");
+
+        assertEquals(2, lines.length);
+        assertEquals("{\"smid\":\"1\",\"matches\":true}", lines[0]);
+        assertEquals("{\"smid\":\"3\",\"matches\":true}", lines[1]);
+    }
+
+    private String[] evaluate(String input) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        batchEvaluationService.evaluateBatch(createPlan(),
+            new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), output);
+        return output.toString(StandardCharsets.UTF_8).split("\n");
+    }
+
+    private CompiledFilter createPlan() {
+        FilterConditionDto list = new FilterConditionDto(FilterFieldType.DISTRIBUTION_GROUPS_FILE, FilterOperator.IN, "7");
+        list.setLogicalOperator(LogicalOperator.AND);
+
+        MarketingTargetFilterDto filter = new MarketingTargetFilterDto("Batch filter", 1L);
+        filter.setId(1L);
+        filter.setConditions(Arrays.asList(
+            new FilterConditionDto(FilterFieldType.COUNTRY, FilterOperator.EQUAL, "UA"), list));
+        return FilterCompiler.compile(filter);
+    }
+}
@@ -0,0 +1,95 @@
+package com.minio.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minio.dto.FilterDefinitionDto;
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.model.LogicalOperator;
+import com.minio.model.MarketingTargetFilter;
+import com.minio.model.MarketingTargetFilterCondition;
+import com.minio.model.MarketingTargetFilterGroup;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the filter tree stored in the DEFINITION column
+ */
+public class FilterDefinitionTest {
+
+    private MarketingTargetFilterService filterService;
+    private MarketingTargetFilter filter;
+
+    @Before
+    public void setUp() {
+        filterService = new MarketingTargetFilterService();
+        filterService.objectMapper = new ObjectMapper();
+        filterService.init();
+
+        filter = new MarketingTargetFilter();
+        filter.setId(1L);
+        filter.setConditions(new ArrayList<>(Arrays.asList(
+            condition(11L, null, FilterFieldType.BROWSER, "Chrome", 1),
+            condition(10L, null, FilterFieldType.COUNTRY, "UA", 0))));
+
+        MarketingTargetFilterGroup group = new MarketingTargetFilterGroup();
+        group.setId(20L);
+        group.setGroupName("group");
+        group.setLogicalOperator(LogicalOperator.OR);
+        group.setOrderIndex(0);
+        group.setConditions(new ArrayList<>(Collections.singletonList(
+            condition(12L, 20L, FilterFieldType.CLIENT_VERSION, "2.2.2", 0))));
+        filter.setGroups(new ArrayList<>(Collections.singletonList(group)));
+    }
+
+    @Test
+    public void testDefinitionRoundTrip() {
+        FilterDefinitionDto definition = filterService.readDefinition(filterService.writeDefinition(filter));
+
+        assertEquals(2, definition.getConditions().size());
+        assertEquals(Long.valueOf(10L), definition.getConditions().get(0).getId());
+        assertEquals("UA", definition.getConditions().get(0).getFieldValue());
+        assertEquals(FilterOperator.EQUAL, definition.getConditions().get(0).getOperator());
+        assertEquals(Long.valueOf(11L), definition.getConditions().get(1).getId());
+
+        assertEquals(1, definition.getGroups().size());
+        assertEquals("group", definition.getGroups().get(0).getGroupName());
+        assertEquals(LogicalOperator.OR, definition.getGroups().get(0).getLogicalOperator());
+        assertEquals(1, definition.getGroups().get(0).getConditions().size());
+        assertEquals(Long.valueOf(20L), definition.getGroups().get(0).getConditions().get(0).getGroupId());
+    }
+
+    @Test
+    public void testNullFieldsAreLeftOut() {
+        String definition = filterService.writeDefinition(filter);
+
+        assertFalse(definition.contains("null"));
+        assertTrue(definition.contains("\"fieldType\":\"COUNTRY\",\"operator\":\"EQUAL\",\"fieldValue\":\"UA\""));
+    }
+
+    @Test
+    public void testSameTreeWritesSameDefinition() {
+        String first = filterService.writeDefinition(filter);
+        Collections.reverse(filter.getConditions());
+
+        assertEquals(first, filterService.writeDefinition(filter));
+    }
+
+    private static MarketingTargetFilterCondition condition(Long id, Long groupId, FilterFieldType fieldType,
+                                                            String value, int orderIndex) {
+        MarketingTargetFilterCondition condition = new MarketingTargetFilterCondition();
+        condition.setId(id);
+        condition.setMarketingTargetFilterId(1L);
+        condition.setGroupId(groupId);
+        condition.setFieldType(fieldType);
+        condition.setOperator(FilterOperator.EQUAL);
+        condition.setFieldValue(value);
+        condition.setOrderIndex(orderIndex);
+        return condition;
+    }
+}
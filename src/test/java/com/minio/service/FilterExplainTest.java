@@ -0,0 +1,84 @@
+package com.minio.service;
+
+import com.minio.dto.EvaluationTraceDto;
+import com.minio.dto.FilterConditionDto;
+import com.minio.dto.FilterGroupDto;
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.dto.UserRequestDto;
+import com.minio.evaluation.FilterCompiler;
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.model.LogicalOperator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for explain mode: COUNTRY = UA AND (OS CONTAINS Android OR OS CONTAINS iOS)
+ */
+public class FilterExplainTest {
+
+    private FilterEvaluationService filterEvaluationService;
+
+    @Before
+    public void setUp() {
+        filterEvaluationService = new FilterEvaluationService();
+        filterEvaluationService.planCache = new FilterPlanCache();
+        filterEvaluationService.planCache.maxSize = 10;
+        filterEvaluationService.planCache.get(1L, id -> FilterCompiler.compile(createFilter()));
+    }
+
+    @Test
+    public void testExplainMatchingUser() {
+        Optional<EvaluationTraceDto> trace = filterEvaluationService.explainFilter(1L, createUser("UA", "Android 14"));
+
+        assertTrue(trace.isPresent());
+        assertTrue(trace.get().isMatches());
+        assertEquals(1, trace.get().getConditions().size());
+        assertEquals("UA", trace.get().getConditions().get(0).getValueSeen());
+        assertTrue(trace.get().getConditions().get(0).isResult());
+
+        assertEquals(1, trace.get().getGroups().size());
+        assertTrue(trace.get().getGroups().get(0).isResult());
+        assertEquals(2, trace.get().getGroups().get(0).getConditions().size());
+        assertTrue(trace.get().getGroups().get(0).getConditions().get(0).isResult());
+        assertFalse(trace.get().getGroups().get(0).getConditions().get(1).isResult());
+    }
+
+    @Test
+    public void testExplainAgreesWithEvaluate() {
+        UserRequestDto user = createUser("DE", "iOS 17");
+
+        assertEquals(filterEvaluationService.evaluateFilter(1L, user),
+            filterEvaluationService.explainFilter(1L, user).get().isMatches());
+        assertFalse(filterEvaluationService.explainFilter(1L, user).get().getConditions().get(0).isResult());
+    }
+
+    private MarketingTargetFilterDto createFilter() {
+        MarketingTargetFilterDto filter = new MarketingTargetFilterDto("Explain filter", 1L);
+        filter.setId(1L);
+        filter.setConditions(Collections.singletonList(
+            new FilterConditionDto(FilterFieldType.COUNTRY, FilterOperator.EQUAL, "UA")));
+
+        FilterGroupDto group = new FilterGroupDto("Mobile", LogicalOperator.AND);
+        FilterConditionDto android = new FilterConditionDto(FilterFieldType.OPERATING_SYSTEM, FilterOperator.CONTAINS, "Android");
+        FilterConditionDto ios = new FilterConditionDto(FilterFieldType.OPERATING_SYSTEM, FilterOperator.CONTAINS, "iOS");
+        ios.setLogicalOperator(LogicalOperator.OR);
+        group.setConditions(Arrays.asList(android, ios));
+        filter.setGroups(Collections.singletonList(group));
+        return filter;
+    }
+
+    private UserRequestDto createUser(String country, String operatingSystem) {
+        UserRequestDto user = new UserRequestDto();
+        user.setSmid("12345");
+        user.setCountry(country);
+        user.setOperatingSystem(operatingSystem);
+        return user;
+    }
+}
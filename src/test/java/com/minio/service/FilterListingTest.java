@@ -0,0 +1,76 @@
+package com.minio.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.repository.MarketingTargetFilterRepository;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the streamed, keyset-paginated filter listing
+ */
+public class FilterListingTest {
+
+    private MarketingTargetFilterService filterService;
+    private final List<Object[]> pages = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        filterService = new MarketingTargetFilterService();
+        filterService.objectMapper = new ObjectMapper();
+        filterService.filterRepository = new MarketingTargetFilterRepository() {
+            @Override
+            public Stream<MarketingTargetFilterDto> streamSummaries(Long marketingTargetId, long afterId, Integer limit) {
+                pages.add(new Object[] {marketingTargetId, afterId, limit});
+                return Stream.of(
+                    new MarketingTargetFilterDto(4L, 7L, "first", null, true, false),
+                    new MarketingTargetFilterDto(9L, 7L, "second", "description", false, true));
+            }
+        };
+        filterService.init();
+    }
+
+    @Test
+    public void testFiltersAreWrittenAsArray() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        filterService.writeFilters(null, null, null, null, output);
+
+        MarketingTargetFilterDto[] filters = new ObjectMapper()
+            .readValue(output.toByteArray(), MarketingTargetFilterDto[].class);
+        assertEquals(2, filters.length);
+        assertEquals(Long.valueOf(9L), filters[1].getId());
+        assertEquals("description", filters[1].getDescription());
+        assertEquals(Boolean.TRUE, filters[1].getHighTraffic());
+        assertArrayEquals(new Object[] {null, 0L, null}, pages.get(0));
+    }
+
+    @Test
+    public void testProjectionWritesOnlyRequestedFields() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        filterService.writeFilters(7L, 3L, 2, filterService.summaryFields("filterName, id,id"), output);
+
+        assertEquals("[{\"filterName\":\"first\",\"id\":4},{\"filterName\":\"second\",\"id\":9}]",
+            new String(output.toByteArray(), StandardCharsets.UTF_8));
+        assertArrayEquals(new Object[] {7L, 3L, 2}, pages.get(0));
+    }
+
+    @Test
+    public void testBlankFieldsMeanAllFields() {
+        assertNull(filterService.summaryFields(" "));
+        assertEquals(Arrays.asList("id", "isActive"), filterService.summaryFields("id,isActive"));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testUnknownFieldIsRejected() {
+        filterService.summaryFields("id,conditions");
+    }
+}
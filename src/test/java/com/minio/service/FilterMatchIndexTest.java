@@ -0,0 +1,108 @@
+package com.minio.service;
+
+import com.minio.dto.FilterConditionDto;
+import com.minio.dto.FilterGroupDto;
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.dto.UserRequestDto;
+import com.minio.evaluation.FilterCompiler;
+import com.minio.evaluation.UserAttributes;
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.model.LogicalOperator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for matching a user against all filters through the inverted index
+ */
+public class FilterMatchIndexTest {
+
+    private FilterMatchIndex matchIndex;
+    private FilterEvaluationService filterEvaluationService;
+
+    @Before
+    public void setUp() {
+        matchIndex = new FilterMatchIndex();
+        matchIndex.loaded = true;
+
+        filterEvaluationService = new FilterEvaluationService();
+        filterEvaluationService.matchIndex = matchIndex;
+
+        // 1: COUNTRY = UA
+        matchIndex.put(FilterCompiler.compile(createFilter(1L,
+            condition(FilterFieldType.COUNTRY, FilterOperator.EQUAL, "UA", null))));
+        // 2: COUNTRY IN [UA, PL] AND BROWSER = Chrome
+        matchIndex.put(FilterCompiler.compile(createFilter(2L,
+            condition(FilterFieldType.COUNTRY, FilterOperator.IN, "[\"UA\", \"PL\"]", null),
+            condition(FilterFieldType.BROWSER, FilterOperator.EQUAL, "Chrome", LogicalOperator.AND))));
+        // 3: COUNTRY = DE OR OS CONTAINS Android - not indexable
+        matchIndex.put(FilterCompiler.compile(createFilter(3L,
+            condition(FilterFieldType.COUNTRY, FilterOperator.EQUAL, "DE", null),
+            condition(FilterFieldType.OPERATING_SYSTEM, FilterOperator.CONTAINS, "Android", LogicalOperator.OR))));
+        // 4: group (OS = iOS) required
+        MarketingTargetFilterDto withGroup = createFilter(4L);
+        FilterGroupDto group = new FilterGroupDto("iOS", LogicalOperator.AND);
+        group.setConditions(Collections.singletonList(
+            condition(FilterFieldType.OPERATING_SYSTEM, FilterOperator.EQUAL, "iOS", null)));
+        withGroup.setGroups(Collections.singletonList(group));
+        matchIndex.put(FilterCompiler.compile(withGroup));
+    }
+
+    @Test
+    public void testCandidatesArePruned() {
+        assertEquals(1, matchIndex.candidates(UserAttributes.of(createUser("DE", "Windows", "Edge"))).size());
+        // Filter 2 is indexed by BROWSER, its most selective required condition
+        assertEquals(2, matchIndex.candidates(UserAttributes.of(createUser("PL", "Windows", "Chrome"))).size());
+        assertEquals(3, matchIndex.candidates(UserAttributes.of(createUser("UA", "iOS", "Safari"))).size());
+    }
+
+    @Test
+    public void testMatchFilters() {
+        assertEquals(Arrays.asList(1L, 2L), filterEvaluationService.matchFilters(createUser("UA", "Windows", "Chrome")));
+        assertEquals(Arrays.asList(3L), filterEvaluationService.matchFilters(createUser("PL", "Android 14", "Edge")));
+        assertEquals(Arrays.asList(1L, 4L), filterEvaluationService.matchFilters(createUser("UA", "iOS", "Safari")));
+        assertTrue(filterEvaluationService.matchFilters(createUser("US", "Windows", "Edge")).isEmpty());
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        MarketingTargetFilterDto inactive = createFilter(1L,
+            condition(FilterFieldType.COUNTRY, FilterOperator.EQUAL, "UA", null));
+        inactive.setIsActive(false);
+        matchIndex.put(FilterCompiler.compile(inactive));
+        matchIndex.remove(2L);
+
+        assertEquals(2, matchIndex.size());
+        List<Long> matched = filterEvaluationService.matchFilters(createUser("UA", "Windows", "Chrome"));
+        assertTrue(matched.isEmpty());
+    }
+
+    private FilterConditionDto condition(FilterFieldType fieldType, FilterOperator operator, String value,
+                                         LogicalOperator logicalOperator) {
+        FilterConditionDto condition = new FilterConditionDto(fieldType, operator, value);
+        condition.setLogicalOperator(logicalOperator);
+        return condition;
+    }
+
+    private MarketingTargetFilterDto createFilter(Long id, FilterConditionDto... conditions) {
+        MarketingTargetFilterDto filter = new MarketingTargetFilterDto("Filter " + id, 1L);
+        filter.setId(id);
+        filter.setConditions(Arrays.asList(conditions));
+        return filter;
+    }
+
+    private UserRequestDto createUser(String country, String operatingSystem, String browser) {
+        UserRequestDto user = new UserRequestDto();
+        user.setSmid("12345");
+        user.setCountry(country);
+        user.setOperatingSystem(operatingSystem);
+        user.setBrowser(browser);
+        return user;
+    }
+}
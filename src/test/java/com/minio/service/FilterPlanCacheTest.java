@@ -0,0 +1,113 @@
+package com.minio.service;
+
+import com.minio.dto.FilterConditionDto;
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.evaluation.CompiledFilter;
+import com.minio.evaluation.FilterCompiler;
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the compiled filter plan cache
+ */
+public class FilterPlanCacheTest {
+
+    private FilterPlanCache planCache;
+    private AtomicInteger loads;
+
+    @Before
+    public void setUp() {
+        planCache = new FilterPlanCache();
+        planCache.maxSize = 2;
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void testPlanIsLoadedOnce() {
+        CompiledFilter first = planCache.get(1L, this::load);
+        CompiledFilter second = planCache.get(1L, this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testInvalidateForcesReload() {
+        CompiledFilter first = planCache.get(1L, this::load);
+        planCache.onFilterChanged(new FilterChangedEvent(1L));
+        CompiledFilter second = planCache.get(1L, this::load);
+
+        assertNotSame(first, second);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testMissingFilterIsNotCached() {
+        assertNull(planCache.get(1L, id -> null));
+        assertEquals(0, planCache.size());
+    }
+
+    @Test
+    public void testLoadRacingWithInvalidationIsNotCached() {
+        planCache.get(1L, id -> {
+            planCache.invalidate(id);
+            return load(id);
+        });
+
+        assertEquals(0, planCache.size());
+    }
+
+    @Test
+    public void testCacheIsBounded() {
+        planCache.get(1L, this::load);
+        planCache.get(2L, this::load);
+        planCache.get(3L, this::load);
+
+        assertEquals(2, planCache.size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedPlanIsEvicted() {
+        planCache.get(1L, this::load);
+        planCache.get(2L, this::load);
+        planCache.get(1L, this::load);
+        planCache.get(3L, this::load);
+
+        // Plan 2 was evicted, plan 1 is still cached
+        planCache.get(1L, this::load);
+        assertEquals(3, loads.get());
+        planCache.get(2L, this::load);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void testTenthOfFullCacheIsEvictedAtOnce() {
+        planCache.maxSize = 20;
+        for (long id = 1; id <= 20; id++) {
+            planCache.get(id, this::load);
+        }
+        planCache.get(21L, this::load);
+
+        assertEquals(19, planCache.size());
+        planCache.get(3L, this::load);
+        assertEquals(21, loads.get());
+        planCache.get(1L, this::load);
+        assertEquals(22, loads.get());
+    }
+
+    private CompiledFilter load(Long id) {
+        loads.incrementAndGet();
+        MarketingTargetFilterDto filter = new MarketingTargetFilterDto("Filter " + id, 1L);
+        filter.setId(id);
+        filter.setConditions(Collections.singletonList(
+            new FilterConditionDto(FilterFieldType.COUNTRY, FilterOperator.EQUAL, "UA")));
+        return FilterCompiler.compile(filter);
+    }
+}
@@ -0,0 +1,216 @@
+package com.minio.service;
+
+import com.minio.dto.FilterConditionDto;
+import com.minio.dto.FilterGroupDto;
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.model.LogicalOperator;
+import com.minio.model.MarketingTargetFilter;
+import com.minio.model.MarketingTargetFilterCondition;
+import com.minio.model.MarketingTargetFilterGroup;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the structural diff applied by a filter update
+ */
+public class FilterTreeDiffTest {
+
+    private MarketingTargetFilter stored;
+    private MarketingTargetFilterCondition country;
+    private MarketingTargetFilterGroup group;
+    private MarketingTargetFilterCondition browser;
+
+    @Before
+    public void setUp() {
+        stored = new MarketingTargetFilter();
+        stored.setId(1L);
+        stored.setFilterName("filter");
+        stored.setIsActive(true);
+        stored.setHighTraffic(false);
+
+        country = condition(10L, null, FilterFieldType.COUNTRY, "UA", 0);
+        group = new MarketingTargetFilterGroup();
+        group.setId(20L);
+        group.setMarketingTargetFilterId(1L);
+        group.setGroupName("group");
+        group.setLogicalOperator(LogicalOperator.AND);
+        group.setOrderIndex(0);
+        browser = condition(11L, 20L, FilterFieldType.BROWSER, "Chrome", 0);
+        group.setConditions(new ArrayList<>(Collections.singletonList(browser)));
+
+        stored.setConditions(new ArrayList<>(Collections.singletonList(country)));
+        stored.setGroups(new ArrayList<>(Collections.singletonList(group)));
+    }
+
+    @Test
+    public void testSameTreeChangesNothing() {
+        FilterTreeDiff diff = FilterTreeDiff.compute(stored, dto(countryDto(10L, "UA"), groupDto(20L, browserDto(11L))));
+
+        assertFalse(diff.isTreeChanged());
+        assertFalse(diff.isSemanticsChanged());
+    }
+
+    @Test
+    public void testNameChangeKeepsSemantics() {
+        MarketingTargetFilterDto dto = dto(countryDto(10L, "UA"), groupDto(20L, browserDto(11L)));
+        dto.setFilterName("renamed");
+        dto.setDescription("description");
+
+        FilterTreeDiff diff = FilterTreeDiff.compute(stored, dto);
+
+        assertEquals("renamed", stored.getFilterName());
+        assertFalse(diff.isSemanticsChanged());
+    }
+
+    @Test
+    public void testActiveFlagChangesSemantics() {
+        MarketingTargetFilterDto dto = dto(countryDto(10L, "UA"), groupDto(20L, browserDto(11L)));
+        dto.setIsActive(false);
+
+        FilterTreeDiff diff = FilterTreeDiff.compute(stored, dto);
+
+        assertFalse(diff.isTreeChanged());
+        assertTrue(diff.isSemanticsChanged());
+    }
+
+    @Test
+    public void testValueChangeUpdatesInPlace() {
+        FilterTreeDiff diff = FilterTreeDiff.compute(stored, dto(countryDto(10L, "PL"), groupDto(20L, browserDto(11L))));
+
+        assertEquals(1, diff.getUpdated());
+        assertTrue(diff.getInsertedConditions().isEmpty());
+        assertTrue(diff.getDeletedConditions().isEmpty());
+        assertEquals("PL", country.getFieldValue());
+        assertEquals(Long.valueOf(10L), country.getId());
+        assertTrue(diff.isSemanticsChanged());
+    }
+
+    @Test
+    public void testConditionsWithoutIdReuseStoredRowsInOrder() {
+        FilterTreeDiff diff = FilterTreeDiff.compute(stored, dto(countryDto(null, "UA"), groupDto(null, browserDto(null))));
+
+        assertFalse(diff.isTreeChanged());
+    }
+
+    @Test
+    public void testReplacedConditionReusesStoredRow() {
+        FilterTreeDiff diff = FilterTreeDiff.compute(stored, dto(countryDto(10L, "UA"), groupDto(20L, countryDto(null, "PL"))));
+
+        assertEquals(1, diff.getUpdated());
+        assertTrue(diff.getInsertedConditions().isEmpty());
+        assertTrue(diff.getDeletedConditions().isEmpty());
+        assertEquals(FilterFieldType.COUNTRY, browser.getFieldType());
+        assertEquals(Long.valueOf(11L), browser.getId());
+    }
+
+    @Test
+    public void testAddedConditionIsInserted() {
+        FilterConditionDto added = countryDto(null, "PL");
+        added.setOrderIndex(1);
+
+        FilterTreeDiff diff = FilterTreeDiff.compute(stored, dto(countryDto(10L, "UA"), groupDto(20L, browserDto(11L), added)));
+
+        assertEquals(0, diff.getUpdated());
+        assertEquals(1, diff.getInsertedConditions().size());
+        MarketingTargetFilterCondition inserted = diff.getInsertedConditions().get(0);
+        assertEquals(Long.valueOf(20L), inserted.getGroupId());
+        assertNull(diff.getNewGroup(inserted));
+        assertEquals(Arrays.asList(browser, inserted), group.getConditions());
+        assertTrue(diff.isSemanticsChanged());
+    }
+
+    @Test
+    public void testRemovedConditionIsDeleted() {
+        MarketingTargetFilterDto dto = dto(countryDto(10L, "UA"), groupDto(20L, browserDto(11L)));
+        dto.setConditions(Collections.emptyList());
+
+        FilterTreeDiff diff = FilterTreeDiff.compute(stored, dto);
+
+        assertEquals(Collections.singletonList(country), diff.getDeletedConditions());
+        assertTrue(stored.getConditions().isEmpty());
+        assertTrue(diff.isSemanticsChanged());
+    }
+
+    @Test
+    public void testRemovedGroupDeletesItsConditions() {
+        MarketingTargetFilterDto dto = dto(countryDto(10L, "UA"), groupDto(20L, browserDto(11L)));
+        dto.setGroups(Collections.emptyList());
+
+        FilterTreeDiff diff = FilterTreeDiff.compute(stored, dto);
+
+        assertEquals(Collections.singletonList(group), diff.getDeletedGroups());
+        assertEquals(Collections.singletonList(browser), diff.getDeletedConditions());
+        assertTrue(stored.getGroups().isEmpty());
+        assertTrue(diff.isSemanticsChanged());
+    }
+
+    @Test
+    public void testConditionsOfNewGroupWaitForTheGroup() {
+        MarketingTargetFilterDto dto = dto(countryDto(10L, "UA"), groupDto(20L, browserDto(11L)));
+        FilterGroupDto newGroup = groupDto(null, countryDto(null, "PL"));
+        newGroup.setOrderIndex(1);
+        dto.setGroups(Arrays.asList(dto.getGroups().get(0), newGroup));
+
+        FilterTreeDiff diff = FilterTreeDiff.compute(stored, dto);
+
+        assertEquals(1, diff.getInsertedGroups().size());
+        assertEquals(1, diff.getInsertedConditions().size());
+        MarketingTargetFilterCondition inserted = diff.getInsertedConditions().get(0);
+        assertSame(diff.getInsertedGroups().get(0), diff.getNewGroup(inserted));
+        assertNull(inserted.getGroupId());
+        assertEquals(2, stored.getGroups().size());
+        assertEquals(Collections.singletonList(inserted), stored.getGroups().get(1).getConditions());
+    }
+
+    private static MarketingTargetFilterCondition condition(Long id, Long groupId, FilterFieldType fieldType,
+                                                            String value, int orderIndex) {
+        MarketingTargetFilterCondition condition = new MarketingTargetFilterCondition();
+        condition.setId(id);
+        condition.setMarketingTargetFilterId(1L);
+        condition.setGroupId(groupId);
+        condition.setFieldType(fieldType);
+        condition.setOperator(FilterOperator.EQUAL);
+        condition.setFieldValue(value);
+        condition.setOrderIndex(orderIndex);
+        return condition;
+    }
+
+    private static MarketingTargetFilterDto dto(FilterConditionDto condition, FilterGroupDto group) {
+        MarketingTargetFilterDto dto = new MarketingTargetFilterDto();
+        dto.setFilterName("filter");
+        dto.setIsActive(true);
+        dto.setConditions(new ArrayList<>(Collections.singletonList(condition)));
+        dto.setGroups(new ArrayList<>(Collections.singletonList(group)));
+        return dto;
+    }
+
+    private static FilterGroupDto groupDto(Long id, FilterConditionDto... conditions) {
+        FilterGroupDto group = new FilterGroupDto("group", LogicalOperator.AND);
+        group.setId(id);
+        group.setOrderIndex(0);
+        group.setConditions(Arrays.asList(conditions));
+        return group;
+    }
+
+    private static FilterConditionDto countryDto(Long id, String value) {
+        FilterConditionDto condition = new FilterConditionDto(FilterFieldType.COUNTRY, FilterOperator.EQUAL, value);
+        condition.setId(id);
+        condition.setOrderIndex(0);
+        return condition;
+    }
+
+    private static FilterConditionDto browserDto(Long id) {
+        FilterConditionDto condition = new FilterConditionDto(FilterFieldType.BROWSER, FilterOperator.EQUAL, "Chrome");
+        condition.setId(id);
+        condition.setOrderIndex(0);
+        return condition;
+    }
+}
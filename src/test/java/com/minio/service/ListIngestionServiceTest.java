@@ -0,0 +1,223 @@
+package com.minio.service;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the list generation switch of list loads: the statements are run against a mocked connection,
+ * every executed statement is recorded with its parameters
+ */
+public class ListIngestionServiceTest {
+
+    private final List<Executed> executed = new ArrayList<>();
+    // Update counts returned for statements starting with the key, in order; 0 when none is left
+    private final Map<String, Deque<Integer>> updateCounts = new HashMap<>();
+    // Load id returned by the claim, null when the target is claimed by another load
+    private Long claimedLoadId;
+
+    private Connection connection;
+    private ListStorageService storageService;
+    private ListIngestionService ingestionService;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> statement(invocation.getArgument(0)));
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        storageService = mock(ListStorageService.class);
+
+        ingestionService = new ListIngestionService();
+        ingestionService.dataSource = dataSource;
+        ingestionService.storageService = storageService;
+        ingestionService.idSequence = "MarketingTargetListItem_SEQ";
+        ingestionService.cleanupBatchSize = 2;
+        ingestionService.claimTimeout = Duration.ofMinutes(10);
+    }
+
+    @Test
+    public void testClaimMarksTargetLoadingWithNewLoadId() throws SQLException {
+        claimedLoadId = 7L;
+
+        assertEquals(7L, ingestionService.claim(5L, "list.csv"));
+
+        Executed claim = executed.get(0);
+        assertTrue(claim.sql.contains("LOAD_ID = nextval('" + ListIngestionService.LOAD_SEQUENCE + "')"));
+        assertTrue(claim.sql.endsWith("WHERE id = ? AND (STATUS <> ? OR last_update < clock_timestamp() - ? * INTERVAL '1 second')"
+            + " RETURNING LOAD_ID"));
+        assertEquals(Arrays.asList("LOADING", "list.csv", 5L, "LOADING", 600L), claim.parameters());
+    }
+
+    @Test
+    public void testClaimOfLoadingTargetFails() throws SQLException {
+        try {
+            ingestionService.claim(5L, "list.csv");
+            fail("Expected the claim to fail");
+        } catch (IllegalStateException e) {
+            assertEquals("List of marketing target 5 is already loading", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testFillGenerationInsertsStagedSmidsAndClearsStaging() throws SQLException {
+        updateCounts("UPDATE MARKETING_TARGET SET last_update", 1);
+        updateCounts("INSERT INTO MARKETING_TARGET_LIST_ITEM", 3);
+
+        assertEquals(3, ingestionService.fillGeneration(connection, 5L, 7L, 42L));
+
+        // The claim is renewed first: the target row stays locked until the commit
+        Executed renew = executed.get(0);
+        assertTrue(renew.sql.endsWith("WHERE id = ? AND LOAD_ID = ?"));
+        assertEquals(Arrays.asList(5L, 7L), renew.parameters());
+        Executed insert = executed.get(1);
+        assertTrue(insert.sql.contains("SELECT DISTINCT SMID_ID FROM " + ListIngestionService.STAGING_TABLE));
+        // Rows of this load and of the attempts it resumed, which have checkpoints
+        assertTrue(insert.sql.contains("AND LOAD_ID IN (SELECT LOAD_ID FROM " + ListIngestionService.CHECKPOINT_TABLE));
+        assertEquals(Arrays.asList("MarketingTargetListItem_SEQ", 5L, 42L, 5L, 5L), insert.parameters());
+        assertTrue(executed.get(2).sql.startsWith("DELETE FROM " + ListIngestionService.STAGING_TABLE));
+        assertTrue(executed.get(3).sql.startsWith("DELETE FROM " + ListIngestionService.CHECKPOINT_TABLE));
+        assertEquals(Arrays.asList(5L), executed.get(2).parameters());
+        assertEquals(Arrays.asList(5L), executed.get(3).parameters());
+        assertEquals(4, executed.size());
+    }
+
+    @Test
+    public void testFillGenerationOfTakenOverLoadFails() throws SQLException {
+        // Another load claimed the target: the renewal matches no row
+        try {
+            ingestionService.fillGeneration(connection, 5L, 7L, 42L);
+            fail("Expected the taken over load to fail");
+        } catch (IllegalStateException e) {
+            assertEquals("List load 7 of marketing target 5 was taken over by another load", e.getMessage());
+        }
+        assertEquals(1, executed.size());
+    }
+
+    @Test
+    public void testActivateGenerationSwitchesTargetAndClearsDeltas() throws SQLException {
+        updateCounts("UPDATE MARKETING_TARGET", 1);
+
+        assertTrue(ingestionService.activateGeneration(connection, 5L, 7L, 42L, 1000L));
+
+        Executed update = executed.get(0);
+        assertTrue(update.sql.contains("LIST_VERSION = COALESCE(LIST_VERSION, 0) + 1"));
+        // Releases the claim of the load
+        assertTrue(update.sql.contains("LOAD_ID = NULL"));
+        assertTrue(update.sql.endsWith("WHERE id = ? AND LOAD_ID = ? AND LIST_GENERATION < ?"));
+        assertEquals(Arrays.asList("READY", 42L, 1000L, 5L, 7L, 42L), update.parameters());
+        assertTrue(executed.get(1).sql.startsWith("DELETE FROM MARKETING_TARGET_LIST_DELTA"));
+        assertEquals(Arrays.asList(5L), executed.get(1).parameters());
+    }
+
+    @Test
+    public void testActivateGenerationKeepsNewerGeneration() throws SQLException {
+        // A later load took the target over and switched it first: the guard matches no row
+        updateCounts("UPDATE MARKETING_TARGET", 0);
+
+        assertFalse(ingestionService.activateGeneration(connection, 5L, 7L, 42L, 1000L));
+
+        assertEquals(1, executed.size());
+        assertTrue(executed.get(0).sql.startsWith("UPDATE MARKETING_TARGET"));
+    }
+
+    @Test
+    public void testReplacedGenerationsAreDeletedFromPartitionInBatches() throws SQLException {
+        when(storageService.itemTable(any(), any())).thenReturn(ListStorageService.partitionName(5L));
+        updateCounts("DELETE FROM MARKETING_TARGET_LIST_ITEM_5", 2, 1);
+
+        ingestionService.dropReplacedGenerations(5L);
+
+        assertEquals(3, executed.size());
+        for (Executed delete : executed) {
+            assertTrue(delete.sql.startsWith("DELETE FROM MARKETING_TARGET_LIST_ITEM_5 WHERE ctid = ANY"));
+            assertTrue(delete.sql.contains("FROM MARKETING_TARGET_LIST_ITEM_5 i"));
+            assertTrue(delete.sql.contains("i.LIST_GENERATION < t.LIST_GENERATION"));
+            assertEquals(Arrays.asList(5L, 2), delete.parameters());
+        }
+    }
+
+    @Test
+    public void testReplacedGenerationsOfTargetWithoutPartition() throws SQLException {
+        when(storageService.itemTable(any(), any())).thenReturn(null);
+
+        ingestionService.dropReplacedGenerations(5L);
+
+        assertTrue(executed.isEmpty());
+    }
+
+    private void updateCounts(String sqlPrefix, Integer... counts) {
+        updateCounts.put(sqlPrefix, new ArrayDeque<>(Arrays.asList(counts)));
+    }
+
+    private PreparedStatement statement(String sql) throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Map<Integer, Object> parameters = new HashMap<>();
+        doAnswer(invocation -> parameters.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(statement).setString(anyInt(), any());
+        doAnswer(invocation -> parameters.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(statement).setLong(anyInt(), anyLong());
+        doAnswer(invocation -> parameters.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(statement).setInt(anyInt(), anyInt());
+        when(statement.executeQuery()).thenAnswer(invocation -> {
+            // The claim, UPDATE ... RETURNING LOAD_ID
+            executed.add(new Executed(sql, new HashMap<>(parameters)));
+            ResultSet rows = mock(ResultSet.class);
+            when(rows.next()).thenReturn(claimedLoadId != null);
+            when(rows.getLong(1)).thenAnswer(row -> claimedLoadId);
+            return rows;
+        });
+        when(statement.executeUpdate()).thenAnswer(invocation -> {
+            executed.add(new Executed(sql, new HashMap<>(parameters)));
+            for (Map.Entry<String, Deque<Integer>> counts : updateCounts.entrySet()) {
+                if (sql.startsWith(counts.getKey())) {
+                    Integer count = counts.getValue().poll();
+                    return count != null ? count : 0;
+                }
+            }
+            return 0;
+        });
+        return statement;
+    }
+
+    private static final class Executed {
+
+        private final String sql;
+        private final Map<Integer, Object> parameters;
+
+        Executed(String sql, Map<Integer, Object> parameters) {
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+
+        List<Object> parameters() {
+            List<Object> values = new ArrayList<>();
+            for (int index = 1; index <= parameters.size(); index++) {
+                values.add(parameters.get(index));
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package com.minio.service;
+
+import com.minio.dto.ListMembershipStatisticsDto;
+import com.minio.model.MarketingTarget;
+import com.minio.model.MarketingTarget.MarketingTargetStatus;
+import com.minio.model.MarketingTargetListDelta;
+import com.minio.model.MarketingTargetListDelta.DeltaOperation;
+import com.minio.repository.MarketingTargetListDeltaRepository;
+import com.minio.repository.MarketingTargetListItemRepository;
+import com.minio.repository.MarketingTargetRepository;
+import com.minio.util.BloomFilter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for in-memory list membership checks
+ */
+public class ListMembershipServiceTest {
+
+    private final Map<Long, MarketingTarget> targets = new HashMap<>();
+    private final Map<Long, List<String>> lists = new HashMap<>();
+    private final Map<String, BloomFilter> storedFilters = new HashMap<>();
+    private final List<MarketingTargetListDelta> deltas = new ArrayList<>();
+    private Path indexDir;
+    private Path remoteDir;
+    private int loads;
+    private int queries;
+    private final List<String> queriedSmids = new ArrayList<>();
+
+    private ListMembershipService membershipService;
+
+    @Before
+    public void setUp() throws IOException {
+        membershipService = new ListMembershipService();
+        membershipService.maxBytes = 1L << 20;
+        membershipService.revalidateInterval = Duration.ZERO;
+        membershipService.bloomFalsePositiveRate = 0.01;
+        membershipService.maxDeltaSmids = 1000;
+        // Loads run on the checking thread unless a test queues them
+        membershipService.executor = Runnable::run;
+        membershipService.targetRepository = new MarketingTargetRepository() {
+            @Override
+            public Optional<MarketingTarget> findById(Long id) {
+                return Optional.ofNullable(targets.get(id));
+            }
+        };
+        membershipService.listItemRepository = new MarketingTargetListItemRepository() {
+            @Override
+            public Stream<String> streamSmidsByMarketingTargetId(Long marketingTargetId) {
+                loads++;
+                return lists.get(marketingTargetId).stream();
+            }
+
+            @Override
+            public long countByMarketingTargetId(Long marketingTargetId) {
+                return lists.get(marketingTargetId).size();
+            }
+
+            @Override
+            public boolean existsByMarketingTargetIdAndSmid(Long marketingTargetId, String smid) {
+                queries++;
+                return lists.get(marketingTargetId).contains(smid);
+            }
+
+            @Override
+            public Set<String> findSmidsInFile(String fileId, Collection<String> smids) {
+                queries++;
+                queriedSmids.addAll(smids);
+                Set<String> members = new HashSet<>(smids);
+                members.retainAll(lists.get(Long.parseLong(fileId)));
+                return members;
+            }
+        };
+        membershipService.deltaRepository = new MarketingTargetListDeltaRepository() {
+            @Override
+            public List<MarketingTargetListDelta> findByMarketingTargetIdBetweenVersions(Long marketingTargetId,
+                    Long fromVersion, Long toVersion, int maxResults) {
+                return deltas.stream()
+                    .filter(d -> d.getMarketingTargetId().equals(marketingTargetId)
+                        && d.getListVersion() > fromVersion && d.getListVersion() <= toVersion)
+                    .limit(maxResults)
+                    .collect(Collectors.toList());
+            }
+        };
+        membershipService.bloomFilterStore = new ListBloomFilterStore() {
+            @Override
+            public Optional<BloomFilter> load(Long marketingTargetId, Long listVersion) {
+                return Optional.ofNullable(storedFilters.get(objectName(marketingTargetId, listVersion)));
+            }
+
+            @Override
+            public void save(Long marketingTargetId, Long listVersion, BloomFilter filter) {
+                storedFilters.put(objectName(marketingTargetId, listVersion), filter);
+            }
+        };
+
+        indexDir = Files.createTempDirectory("smid-index");
+        remoteDir = Files.createTempDirectory("smid-index-remote");
+        membershipService.indexFileStore = new ListIndexFileStore() {
+            @Override
+            public boolean fetch(Long marketingTargetId, Long listVersion, Path local) {
+                Path remote = remoteDir.resolve(local.getFileName());
+                try {
+                    if (!Files.exists(local) && Files.exists(remote)) {
+                        Files.copy(remote, local);
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                return Files.exists(local);
+            }
+
+            @Override
+            public void upload(Long marketingTargetId, Long listVersion, Path local) {
+                try {
+                    Files.copy(local, remoteDir.resolve(local.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        membershipService.indexFileStore.directory = indexDir.toString();
+
+        target(1L, MarketingTargetStatus.READY, 1L, "100", "200", "abc-1", "007");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        for (Path dir : Arrays.asList(indexDir, remoteDir)) {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+
+    @Test
+    public void testReadyListIsServedFromMemory() {
+        assertTrue(membershipService.existsBySmidAndFileId("100", "1"));
+        assertTrue(membershipService.existsBySmidAndFileId("abc-1", "1"));
+        assertTrue(membershipService.existsBySmidAndFileId("007", "1"));
+        assertFalse(membershipService.existsBySmidAndFileId("7", "1"));
+        assertFalse(membershipService.existsBySmidAndFileId("300", "1"));
+        assertFalse(membershipService.existsBySmidAndFileId(null, "1"));
+
+        assertEquals(1, loads);
+        assertEquals(0, queries);
+        assertTrue(membershipService.getLoadedBytes() > 0);
+    }
+
+    @Test
+    public void testListIsReloadedWhenVersionChanges() {
+        assertFalse(membershipService.existsBySmidAndFileId("300", "1"));
+
+        target(1L, MarketingTargetStatus.READY, 2L, "300");
+        assertTrue(membershipService.existsBySmidAndFileId("300", "1"));
+        assertFalse(membershipService.existsBySmidAndFileId("100", "1"));
+        assertEquals(2, loads);
+    }
+
+    @Test
+    public void testDeltasAreAppliedWithoutReload() {
+        assertTrue(membershipService.existsBySmidAndFileId("100", "1"));
+
+        delta(1L, 2L, DeltaOperation.ADD, "300");
+        delta(1L, 2L, DeltaOperation.REMOVE, "100");
+        delta(1L, 3L, DeltaOperation.ADD, "100");
+        delta(1L, 3L, DeltaOperation.REMOVE, "abc-1");
+        target(1L, MarketingTargetStatus.READY, 3L, "100", "200", "007", "300");
+
+        assertTrue(membershipService.existsBySmidAndFileId("300", "1"));
+        assertTrue(membershipService.existsBySmidAndFileId("100", "1"));
+        assertFalse(membershipService.existsBySmidAndFileId("abc-1", "1"));
+        assertTrue(membershipService.existsBySmidAndFileId("200", "1"));
+        assertEquals(1, loads);
+        assertEquals(1, membershipService.getStatistics().getDeltaUpdates());
+    }
+
+    @Test
+    public void testListIsReloadedWhenDeltasDoNotCoverVersions() {
+        assertTrue(membershipService.existsBySmidAndFileId("100", "1"));
+
+        // Version 2 was a full load, only version 3 is a delta
+        delta(1L, 3L, DeltaOperation.ADD, "300");
+        target(1L, MarketingTargetStatus.READY, 3L, "400", "300");
+        assertFalse(membershipService.existsBySmidAndFileId("100", "1"));
+        assertTrue(membershipService.existsBySmidAndFileId("400", "1"));
+        assertEquals(2, loads);
+
+        // Too many changes for the overlay
+        membershipService.maxDeltaSmids = 1;
+        delta(1L, 4L, DeltaOperation.ADD, "500", "600");
+        target(1L, MarketingTargetStatus.READY, 4L, "400", "300", "500", "600");
+        assertTrue(membershipService.existsBySmidAndFileId("600", "1"));
+        assertEquals(3, loads);
+        assertEquals(0, membershipService.getStatistics().getDeltaUpdates());
+    }
+
+    @Test
+    public void testListNotReadyIsCheckedInDatabase() {
+        target(2L, MarketingTargetStatus.LOADING, 1L, "100");
+
+        assertTrue(membershipService.existsBySmidAndFileId("100", "2"));
+        assertEquals(0, loads);
+        assertEquals(1, queries);
+
+        // Ready now: loaded on the next check
+        target(2L, MarketingTargetStatus.READY, 1L, "100");
+        assertTrue(membershipService.existsBySmidAndFileId("100", "2"));
+        assertEquals(1, loads);
+        assertEquals(1, queries);
+    }
+
+    @Test
+    public void testLeastRecentlyUsedListIsEvicted() {
+        target(2L, MarketingTargetStatus.READY, 1L, "100", "200", "abc-2", "008");
+        membershipService.existsBySmidAndFileId("100", "1");
+        long oneList = membershipService.getLoadedBytes();
+        membershipService.maxBytes = oneList;
+
+        membershipService.existsBySmidAndFileId("100", "2");
+        assertEquals(oneList, membershipService.getLoadedBytes());
+
+        // List 1 was evicted and has to be loaded again
+        membershipService.existsBySmidAndFileId("100", "1");
+        assertEquals(3, loads);
+    }
+
+    @Test
+    public void testLargeListIsFrontedByBloomFilter() {
+        target(3L, MarketingTargetStatus.READY, 5L, IntStream.range(0, 1000)
+            .mapToObj(i -> Integer.toString(i * 2)).toArray(String[]::new));
+        membershipService.maxBytes = 1024;
+
+        assertTrue(membershipService.existsBySmidAndFileId("10", "3"));
+        assertEquals(1, queries);
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(membershipService.existsBySmidAndFileId(Integer.toString(i * 2 + 1), "3"));
+        }
+
+        ListMembershipStatisticsDto statistics = membershipService.getStatistics();
+        assertEquals(1, statistics.getBloomFilters());
+        assertEquals(1001, statistics.getBloomChecks());
+        assertEquals(queries - 1, statistics.getBloomFalsePositives());
+        assertTrue(statistics.getBloomHitRate() > 0.95);
+        assertTrue(storedFilters.containsKey(ListBloomFilterStore.objectName(3L, 5L)));
+        assertEquals(1, loads);
+    }
+
+    @Test
+    public void testStoredBloomFilterIsReusedAndRebuiltWhenReady() {
+        target(3L, MarketingTargetStatus.READY, 5L, "100", "200", "300");
+        membershipService.maxBytes = 64;
+        BloomFilter stored = BloomFilter.create(10, 0.01);
+        storedFilters.put(ListBloomFilterStore.objectName(3L, 5L), stored);
+
+        // Stored filter of this version is used as is
+        assertFalse(membershipService.existsBySmidAndFileId("100", "3"));
+        assertEquals(0, loads);
+
+        // Target seen before it became READY: rebuilt from the list and stored
+        target(4L, MarketingTargetStatus.LOADING, 5L, "100", "200", "300");
+        assertTrue(membershipService.existsBySmidAndFileId("100", "4"));
+        storedFilters.put(ListBloomFilterStore.objectName(4L, 5L), stored);
+        target(4L, MarketingTargetStatus.READY, 5L, "100", "200", "300");
+        assertTrue(membershipService.existsBySmidAndFileId("100", "4"));
+        assertEquals(1, loads);
+        assertNotSame(stored, storedFilters.get(ListBloomFilterStore.objectName(4L, 5L)));
+    }
+
+    @Test
+    public void testLoadedListServesWhileReloading() {
+        assertTrue(membershipService.existsBySmidAndFileId("100", "1"));
+
+        // The new list is written to another generation: the current version stays valid
+        target(1L, MarketingTargetStatus.LOADING, 1L, "300");
+        assertTrue(membershipService.existsBySmidAndFileId("100", "1"));
+        target(1L, MarketingTargetStatus.FAILED, 1L, "300");
+        assertTrue(membershipService.existsBySmidAndFileId("100", "1"));
+        assertEquals(1, loads);
+        assertEquals(0, queries);
+
+        // Switched to the new generation with the next version
+        target(1L, MarketingTargetStatus.READY, 2L, "300");
+        assertFalse(membershipService.existsBySmidAndFileId("100", "1"));
+        assertTrue(membershipService.existsBySmidAndFileId("300", "1"));
+        assertEquals(2, loads);
+    }
+
+    @Test
+    public void testChecksAreServedWhileListLoadsInBackground() {
+        List<Runnable> pending = new ArrayList<>();
+        membershipService.executor = pending::add;
+
+        // Not loaded yet: checked in the database, one load scheduled
+        assertTrue(membershipService.existsBySmidAndFileId("100", "1"));
+        assertFalse(membershipService.existsBySmidAndFileId("300", "1"));
+        assertEquals(2, queries);
+        assertEquals(1, pending.size());
+        pending.remove(0).run();
+        assertTrue(membershipService.existsBySmidAndFileId("100", "1"));
+        assertEquals(2, queries);
+
+        // The previous version keeps serving until the new one is loaded
+        target(1L, MarketingTargetStatus.READY, 2L, "300");
+        assertTrue(membershipService.existsBySmidAndFileId("100", "1"));
+        assertFalse(membershipService.existsBySmidAndFileId("300", "1"));
+        assertEquals(1, pending.size());
+        pending.remove(0).run();
+        assertFalse(membershipService.existsBySmidAndFileId("100", "1"));
+        assertTrue(membershipService.existsBySmidAndFileId("300", "1"));
+        assertEquals(2, loads);
+        assertEquals(2, queries);
+        assertTrue(pending.isEmpty());
+    }
+
+    @Test
+    public void testLargeListIsServedFromIndexFile() throws IOException {
+        target(3L, MarketingTargetStatus.READY, 5L, IntStream.range(0, 1000)
+            .mapToObj(i -> Integer.toString(i * 2)).toArray(String[]::new));
+        membershipService.maxBytes = 1024;
+        membershipService.indexEnabled = true;
+
+        assertTrue(membershipService.existsBySmidAndFileId("10", "3"));
+        assertFalse(membershipService.existsBySmidAndFileId("11", "3"));
+        assertEquals(1, loads);
+        assertEquals(0, queries);
+        assertTrue(Files.exists(remoteDir.resolve("3-v5.idx")));
+
+        ListMembershipStatisticsDto statistics = membershipService.getStatistics();
+        assertEquals(1, statistics.getIndexFiles());
+        assertEquals(0, statistics.getBloomFilters());
+        assertEquals(0, statistics.getLoadedBytes());
+
+        // Another node downloads the stored file instead of reading the list
+        Files.delete(indexDir.resolve("3-v5.idx"));
+        membershipService.invalidate(3L);
+        assertTrue(membershipService.existsBySmidAndFileId("1998", "3"));
+        assertEquals(1, loads);
+
+        // A new list version replaces the local file of the previous one
+        target(3L, MarketingTargetStatus.READY, 6L, IntStream.range(0, 1000)
+            .mapToObj(i -> Integer.toString(i * 2 + 1)).toArray(String[]::new));
+        assertTrue(membershipService.existsBySmidAndFileId("11", "3"));
+        assertEquals(2, loads);
+        assertFalse(Files.exists(indexDir.resolve("3-v5.idx")));
+    }
+
+    @Test
+    public void testBatchIsResolvedFromLoadedList() {
+        delta(1L, 2L, DeltaOperation.ADD, "300");
+        delta(1L, 2L, DeltaOperation.REMOVE, "100");
+        assertTrue(membershipService.existsBySmidAndFileId("100", "1"));
+        target(1L, MarketingTargetStatus.READY, 2L, "200", "abc-1", "007", "300");
+
+        assertEquals(new HashSet<>(Arrays.asList("200", "300")),
+            membershipService.findSmidsInFile("1", Arrays.asList("100", "200", "300", "400")));
+        assertEquals(0, queries);
+        assertEquals(1, loads);
+        assertTrue(membershipService.findSmidsInFile("uuid", Arrays.asList("100")).isEmpty());
+    }
+
+    @Test
+    public void testBatchQueriesOnlyBloomFilterCandidates() {
+        target(3L, MarketingTargetStatus.READY, 5L, IntStream.range(0, 1000)
+            .mapToObj(i -> Integer.toString(i * 2)).toArray(String[]::new));
+        membershipService.maxBytes = 1024;
+        List<String> smids = IntStream.range(0, 200).mapToObj(Integer::toString).collect(Collectors.toList());
+
+        Set<String> members = membershipService.findSmidsInFile("3", smids);
+
+        assertEquals(100, members.size());
+        assertTrue(members.contains("10"));
+        assertFalse(members.contains("11"));
+        assertEquals(1, queries);
+        assertTrue(queriedSmids.size() < 200);
+        ListMembershipStatisticsDto statistics = membershipService.getStatistics();
+        assertEquals(200, statistics.getBloomChecks());
+        assertEquals(queriedSmids.size() - 100, statistics.getBloomFalsePositives());
+    }
+
+    @Test
+    public void testBatchOfListNotReadyIsCheckedWithOneQuery() {
+        target(2L, MarketingTargetStatus.LOADING, 1L, "100", "200");
+
+        assertEquals(new HashSet<>(Arrays.asList("100")),
+            membershipService.findSmidsInFile("2", Arrays.asList("100", "300")));
+        assertEquals(1, queries);
+        assertEquals(0, loads);
+    }
+
+    private void delta(Long id, Long listVersion, DeltaOperation operation, String... smids) {
+        for (String smid : smids) {
+            MarketingTargetListDelta delta = new MarketingTargetListDelta();
+            delta.setMarketingTargetId(id);
+            delta.setListVersion(listVersion);
+            delta.setOperation(operation);
+            delta.setSmid(smid);
+            deltas.add(delta);
+        }
+    }
+
+    private void target(Long id, MarketingTargetStatus status, Long listVersion, String... smids) {
+        MarketingTarget target = new MarketingTarget();
+        target.setId(id);
+        target.setStatus(status);
+        target.setListVersion(listVersion);
+        targets.put(id, target);
+        lists.put(id, Arrays.asList(smids));
+    }
+}
@@ -0,0 +1,410 @@
+package com.minio.service;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for partitioned list storage against a mocked connection that keeps the catalog state the service
+ * reads (pg_class.relkind and relispartition) and records every executed statement
+ */
+public class ListStorageServiceTest {
+
+    private static final String ITEM_TABLE = ListStorageService.ITEM_TABLE;
+    private static final String PARTITION_5 = ListStorageService.partitionName(5L);
+
+    private static final Pattern CREATE_TABLE = Pattern.compile("CREATE TABLE (?:IF NOT EXISTS )?(\\w+)");
+    private static final Pattern CREATE_UNLOGGED_TABLE = Pattern.compile("CREATE UNLOGGED TABLE IF NOT EXISTS (\\w+)");
+    private static final Pattern ADD_COLUMN = Pattern.compile("ALTER TABLE (\\w+) ADD COLUMN IF NOT EXISTS (\\w+)");
+    private static final Pattern ATTACH = Pattern.compile("ATTACH PARTITION (\\w+)");
+    private static final Pattern DETACH = Pattern.compile("DETACH PARTITION (\\w+)");
+    private static final Pattern DROP_TABLE = Pattern.compile("DROP TABLE (?:IF EXISTS )?(\\w+)");
+    private static final Pattern RENAME = Pattern.compile("ALTER TABLE (\\w+) RENAME TO (\\w+)");
+
+    // Lower-case relation name -> relkind
+    private final Map<String, String> relations = new HashMap<>();
+    private final Set<String> attached = new HashSet<>();
+    private final Set<String> unlogged = new HashSet<>();
+    // Lower-case table.column
+    private final Set<String> columns = new HashSet<>();
+    private final List<Long> legacyTargets = new ArrayList<>();
+    private final List<String> executed = Collections.synchronizedList(new ArrayList<>());
+    private final List<List<Object>> executedParameters = Collections.synchronizedList(new ArrayList<>());
+    private int itemRows;
+
+    private Connection connection;
+    private ListStorageService storageService;
+
+    @Before
+    public void setUp() throws SQLException {
+        connection = mock(Connection.class);
+        when(connection.createStatement()).thenAnswer(invocation -> statement());
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> preparedStatement(invocation.getArgument(0)));
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+
+        storageService = new ListStorageService();
+        storageService.dataSource = dataSource;
+        storageService.cleanupBatchSize = 2;
+
+        relation(ListStorageService.DELTA_TABLE, "r");
+        relation(ListIngestionService.STAGING_TABLE, "r");
+        relation(ListIngestionService.CHECKPOINT_TABLE, "r");
+    }
+
+    @After
+    public void tearDown() {
+        storageService.shutdown();
+    }
+
+    @Test
+    public void testEnsurePartitionCreatesAndAttachesPartitionOnce() throws SQLException {
+        relation(ITEM_TABLE, "p");
+
+        storageService.ensurePartition(5L);
+        storageService.ensurePartition(5L);
+
+        assertEquals(2, count("CREATE TABLE IF NOT EXISTS " + PARTITION_5 + " (LIKE " + ITEM_TABLE));
+        assertEquals(Arrays.asList("ALTER TABLE " + ITEM_TABLE + " ATTACH PARTITION " + PARTITION_5 + " FOR VALUES IN (5)"),
+            matching("ATTACH PARTITION"));
+        assertEquals(PARTITION_5, storageService.itemTable(connection, 5L));
+    }
+
+    @Test
+    public void testEnsurePartitionWithoutPartitioning() throws SQLException {
+        relation(ITEM_TABLE, "r");
+
+        storageService.ensurePartition(5L);
+
+        assertEquals(0, count("CREATE TABLE"));
+        verify(connection, never()).commit();
+        assertEquals(ITEM_TABLE, storageService.itemTable(connection, 5L));
+    }
+
+    @Test
+    public void testItemTableOfTargetWithoutPartition() throws SQLException {
+        relation(ITEM_TABLE, "p");
+        relation(PARTITION_5, "r");
+
+        assertEquals(PARTITION_5, storageService.itemTable(connection, 5L));
+        assertNull(storageService.itemTable(connection, 6L));
+    }
+
+    @Test
+    public void testPartitionItemTableMovesCurrentGenerations() throws SQLException {
+        relation(ITEM_TABLE, "r");
+        legacyTargets.addAll(Arrays.asList(5L, 7L));
+
+        storageService.partitionItemTable();
+
+        String legacy = "MARKETING_TARGET_LIST_ITEM_LEGACY";
+        assertEquals("LOCK TABLE " + ITEM_TABLE + " IN ACCESS EXCLUSIVE MODE", executed.get(0));
+        assertTrue(executed.indexOf("ALTER TABLE " + ITEM_TABLE + " RENAME TO " + legacy)
+            < executed.indexOf("CREATE TABLE " + ITEM_TABLE + " (LIKE " + legacy
+                + " INCLUDING DEFAULTS) PARTITION BY LIST (MARKETING_TARGET_ID)"));
+        assertTrue(executed.contains("ALTER TABLE " + ITEM_TABLE + " ADD PRIMARY KEY (MARKETING_TARGET_ID, id)"));
+        assertEquals(2, matching("ATTACH PARTITION").size());
+        assertTrue(attached.contains(PARTITION_5.toLowerCase()));
+        assertTrue(attached.contains(ListStorageService.partitionName(7L).toLowerCase()));
+
+        // Only the current generation of existing targets is moved
+        List<String> moves = matching("INSERT INTO " + ITEM_TABLE);
+        assertEquals(1, moves.size());
+        assertTrue(moves.get(0).contains("JOIN MARKETING_TARGET t ON t.id = i.MARKETING_TARGET_ID"
+            + " AND t.LIST_GENERATION = i.LIST_GENERATION"));
+        assertEquals("DROP TABLE " + legacy, executed.get(executed.size() - 1));
+        verify(connection).commit();
+        assertEquals(PARTITION_5, storageService.itemTable(connection, 5L));
+    }
+
+    @Test
+    public void testPartitionItemTableSkipsPartitionedTable() throws SQLException {
+        relation(ITEM_TABLE, "p");
+
+        storageService.partitionItemTable();
+
+        assertEquals(Arrays.asList("LOCK TABLE " + ITEM_TABLE + " IN ACCESS EXCLUSIVE MODE"), executed);
+        verify(connection).commit();
+    }
+
+    @Test
+    public void testPartitionItemTableWithoutTable() throws SQLException {
+        storageService.partitionItemTable();
+
+        assertTrue(executed.isEmpty());
+        verify(connection, never()).commit();
+    }
+
+    @Test
+    public void testPrepareLoadTablesCreatesStagingTablesAndDropsLegacyKey() throws SQLException {
+        relation(ITEM_TABLE, "r");
+        relations.remove(ListIngestionService.STAGING_TABLE.toLowerCase());
+        relations.remove(ListIngestionService.CHECKPOINT_TABLE.toLowerCase());
+
+        storageService.prepareLoadTables();
+
+        assertEquals(1, count("CREATE UNLOGGED TABLE IF NOT EXISTS " + ListIngestionService.STAGING_TABLE));
+        assertEquals(1, count("CREATE UNLOGGED TABLE IF NOT EXISTS " + ListIngestionService.CHECKPOINT_TABLE));
+        assertEquals(1, count("CREATE SEQUENCE IF NOT EXISTS " + ListIngestionService.GENERATION_SEQUENCE));
+        assertEquals(1, count("DROP CONSTRAINT"));
+        // Created unlogged with load ids: nothing to convert
+        assertEquals(0, count("SET UNLOGGED"));
+        assertEquals(0, count("ADD COLUMN"));
+        assertEquals(0, count("DELETE FROM"));
+    }
+
+    @Test
+    public void testPrepareLoadTablesAddsLoadIdsAndDiscardsStagedRows() throws SQLException {
+        storageService.prepareLoadTables();
+
+        assertEquals(1, count("CREATE SEQUENCE IF NOT EXISTS " + ListIngestionService.LOAD_SEQUENCE));
+        for (String table : new String[] {ListIngestionService.STAGING_TABLE, ListIngestionService.CHECKPOINT_TABLE}) {
+            assertTrue(executed.indexOf("DELETE FROM " + table)
+                < executed.indexOf("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS LOAD_ID BIGINT NOT NULL"));
+        }
+
+        executed.clear();
+        storageService.prepareLoadTables();
+        assertEquals(0, count("ADD COLUMN"));
+    }
+
+    @Test
+    public void testPrepareLoadTablesMakesLoggedCheckpointTableUnlogged() throws SQLException {
+        // Checkpoints of a staging table truncated by a crash would skip ranges whose rows are lost
+        storageService.prepareLoadTables();
+
+        assertEquals(Arrays.asList("ALTER TABLE " + ListIngestionService.CHECKPOINT_TABLE + " SET UNLOGGED"),
+            matching("SET UNLOGGED"));
+    }
+
+    @Test
+    public void testPrepareLoadTablesWithoutItemTable() throws SQLException {
+        storageService.prepareLoadTables();
+
+        assertEquals(1, count("CREATE SEQUENCE IF NOT EXISTS " + ListIngestionService.GENERATION_SEQUENCE));
+        assertEquals(0, count("DROP CONSTRAINT"));
+    }
+
+    @Test
+    public void testDropListDetachesAndDropsPartition() throws SQLException {
+        relation(ITEM_TABLE, "p");
+        relation(PARTITION_5, "r");
+        attached.add(PARTITION_5.toLowerCase());
+
+        storageService.dropList(5L);
+
+        assertTrue(executed.contains("ALTER TABLE " + ITEM_TABLE + " DETACH PARTITION " + PARTITION_5 + " CONCURRENTLY"));
+        assertTrue(executed.contains("DROP TABLE IF EXISTS " + PARTITION_5));
+        assertEquals(0, count("DELETE FROM " + ITEM_TABLE));
+        assertDeletedByTarget(ListStorageService.DELTA_TABLE, ListIngestionService.STAGING_TABLE,
+            ListIngestionService.CHECKPOINT_TABLE);
+    }
+
+    @Test
+    public void testDropListDeletesRowsInBatchesWithoutPartitioning() throws SQLException {
+        relation(ITEM_TABLE, "r");
+        relations.remove(ListIngestionService.STAGING_TABLE.toLowerCase());
+        itemRows = 5;
+
+        storageService.dropList(5L);
+
+        // 2 + 2 + 1 rows, then an empty batch
+        List<String> deletes = matching("DELETE FROM " + ITEM_TABLE + " WHERE id IN");
+        assertEquals(4, deletes.size());
+        assertEquals(0, itemRows);
+        assertEquals(0, count("DETACH PARTITION"));
+        assertDeletedByTarget(ListStorageService.DELTA_TABLE, ListIngestionService.CHECKPOINT_TABLE);
+        assertEquals(0, count("DELETE FROM " + ListIngestionService.STAGING_TABLE));
+    }
+
+    @Test
+    public void testTargetDeletionDropsListInBackground() throws Exception {
+        relation(ITEM_TABLE, "p");
+        relation(PARTITION_5, "r");
+        attached.add(PARTITION_5.toLowerCase());
+
+        storageService.onTargetDeleted(new MarketingTargetDeletedEvent(5L));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (count("DELETE FROM " + ListIngestionService.CHECKPOINT_TABLE) == 0
+            && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, count("DETACH PARTITION " + PARTITION_5));
+        assertDeletedByTarget(ListStorageService.DELTA_TABLE, ListIngestionService.STAGING_TABLE,
+            ListIngestionService.CHECKPOINT_TABLE);
+    }
+
+    private void assertDeletedByTarget(String... tables) {
+        for (String table : tables) {
+            String sql = "DELETE FROM " + table + " WHERE MARKETING_TARGET_ID = ?";
+            int index = executed.indexOf(sql);
+            assertTrue(sql, index >= 0);
+            assertEquals(Arrays.asList(5L), executedParameters.get(index));
+        }
+    }
+
+    private void relation(String name, String kind) {
+        relations.put(name.toLowerCase(), kind);
+    }
+
+    private int count(String fragment) {
+        return matching(fragment).size();
+    }
+
+    private List<String> matching(String fragment) {
+        List<String> statements = new ArrayList<>();
+        synchronized (executed) {
+            for (String sql : executed) {
+                if (sql.contains(fragment)) {
+                    statements.add(sql);
+                }
+            }
+        }
+        return statements;
+    }
+
+    private void record(String sql, List<Object> parameters) {
+        synchronized (executed) {
+            executed.add(sql);
+            executedParameters.add(parameters);
+        }
+    }
+
+    /**
+     * Applies DDL to the catalog state, as far as the service reads it back
+     */
+    private void apply(String sql) {
+        Matcher matcher = RENAME.matcher(sql);
+        if (matcher.find()) {
+            relations.put(matcher.group(2).toLowerCase(), relations.remove(matcher.group(1).toLowerCase()));
+            return;
+        }
+        matcher = CREATE_TABLE.matcher(sql);
+        if (matcher.find()) {
+            relations.putIfAbsent(matcher.group(1).toLowerCase(), sql.contains("PARTITION BY") ? "p" : "r");
+        }
+        matcher = CREATE_UNLOGGED_TABLE.matcher(sql);
+        if (matcher.find() && relations.putIfAbsent(matcher.group(1).toLowerCase(), "r") == null) {
+            unlogged.add(matcher.group(1).toLowerCase());
+            if (sql.contains("LOAD_ID")) {
+                columns.add(matcher.group(1).toLowerCase() + ".load_id");
+            }
+        }
+        matcher = ADD_COLUMN.matcher(sql);
+        if (matcher.find()) {
+            columns.add(matcher.group(1).toLowerCase() + "." + matcher.group(2).toLowerCase());
+        }
+        matcher = ATTACH.matcher(sql);
+        if (matcher.find()) {
+            attached.add(matcher.group(1).toLowerCase());
+        }
+        matcher = DETACH.matcher(sql);
+        if (matcher.find()) {
+            attached.remove(matcher.group(1).toLowerCase());
+        }
+        matcher = DROP_TABLE.matcher(sql);
+        if (matcher.find()) {
+            relations.remove(matcher.group(1).toLowerCase());
+        }
+    }
+
+    private Statement statement() throws SQLException {
+        Statement statement = mock(Statement.class);
+        when(statement.execute(anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            record(sql, Collections.emptyList());
+            apply(sql);
+            return false;
+        });
+        when(statement.executeUpdate(anyString())).thenAnswer(invocation -> {
+            record(invocation.getArgument(0), Collections.emptyList());
+            return 0;
+        });
+        when(statement.executeQuery(anyString())).thenAnswer(invocation -> {
+            // Targets with rows in the legacy table
+            record(invocation.getArgument(0), Collections.emptyList());
+            return rows(legacyTargets.toArray());
+        });
+        return statement;
+    }
+
+    private PreparedStatement preparedStatement(String sql) throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Map<Integer, Object> parameters = new HashMap<>();
+        doAnswer(invocation -> parameters.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(statement).setString(anyInt(), any());
+        doAnswer(invocation -> parameters.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(statement).setLong(anyInt(), anyLong());
+        doAnswer(invocation -> parameters.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(statement).setInt(anyInt(), anyInt());
+
+        when(statement.executeQuery()).thenAnswer(invocation -> {
+            String relation = (String) parameters.get(1);
+            if (sql.startsWith("SELECT relkind")) {
+                String kind = relations.get(relation);
+                return kind != null ? rows(kind) : rows();
+            }
+            if (sql.startsWith("SELECT 1 FROM information_schema.columns")) {
+                return columns.contains(relation + "." + parameters.get(2)) ? rows(1) : rows();
+            }
+            if (sql.startsWith("SELECT relpersistence")) {
+                return relations.containsKey(relation) ? rows(unlogged.contains(relation) ? "u" : "p") : rows();
+            }
+            if (sql.startsWith("SELECT relispartition")) {
+                return relations.containsKey(relation) ? rows(attached.contains(relation)) : rows();
+            }
+            throw new AssertionError("Unexpected query: " + sql);
+        });
+        when(statement.executeUpdate()).thenAnswer(invocation -> {
+            record(sql, new ArrayList<>(new TreeMap<>(parameters).values()));
+            if (sql.startsWith("DELETE FROM " + ITEM_TABLE + " WHERE id IN")) {
+                int deleted = Math.min(itemRows, (Integer) parameters.get(2));
+                itemRows -= deleted;
+                return deleted;
+            }
+            return 0;
+        });
+        return statement;
+    }
+
+    private static ResultSet rows(Object... values) throws SQLException {
+        ResultSet rows = mock(ResultSet.class);
+        AtomicInteger row = new AtomicInteger(-1);
+        when(rows.next()).thenAnswer(invocation -> row.incrementAndGet() < values.length);
+        when(rows.getString(1)).thenAnswer(invocation -> (String) values[row.get()]);
+        when(rows.getLong(1)).thenAnswer(invocation -> (Long) values[row.get()]);
+        when(rows.getBoolean(1)).thenAnswer(invocation -> (Boolean) values[row.get()]);
+        return rows;
+    }
+}
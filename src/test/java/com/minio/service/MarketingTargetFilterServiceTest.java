@@ -0,0 +1,249 @@
+package com.minio.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minio.dto.FilterConditionDto;
+import com.minio.dto.FilterGroupDto;
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.model.LogicalOperator;
+import com.minio.model.MarketingTargetFilter;
+import com.minio.model.MarketingTargetFilterCondition;
+import com.minio.model.MarketingTargetFilterGroup;
+import com.minio.repository.MarketingTargetFilterConditionRepository;
+import com.minio.repository.MarketingTargetFilterGroupRepository;
+import com.minio.repository.MarketingTargetFilterRepository;
+import jakarta.enterprise.event.Event;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the bulk creation of filters: validation of the whole request before anything is written and the
+ * periodic flush of the persistence context
+ */
+public class MarketingTargetFilterServiceTest {
+
+    @Mock
+    private MarketingTargetFilterRepository filterRepository;
+
+    @Mock
+    private MarketingTargetFilterConditionRepository conditionRepository;
+
+    @Mock
+    private MarketingTargetFilterGroupRepository groupRepository;
+
+    @Mock
+    private Event<FilterChangedEvent> filterChangedEvent;
+
+    @InjectMocks
+    private MarketingTargetFilterService filterService;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        filterService.objectMapper = new ObjectMapper();
+        filterService.init();
+        filterService.bulkFlushSize = 2;
+
+        when(filterRepository.findExistingFilterNames(any())).thenReturn(Collections.emptyList());
+        when(filterRepository.save(any())).thenAnswer(invocation -> {
+            MarketingTargetFilter filter = invocation.getArgument(0);
+            filter.setId(sequence.incrementAndGet());
+            return filter;
+        });
+        when(groupRepository.save(any())).thenAnswer(invocation -> {
+            MarketingTargetFilterGroup group = invocation.getArgument(0);
+            group.setId(sequence.incrementAndGet());
+            return group;
+        });
+        when(conditionRepository.save(any())).thenAnswer(invocation -> {
+            MarketingTargetFilterCondition condition = invocation.getArgument(0);
+            condition.setId(sequence.incrementAndGet());
+            return condition;
+        });
+    }
+
+    @Test
+    public void testEmptyRequestIsRejected() {
+        assertError("At least one filter is required", Collections.emptyList());
+        assertError("At least one filter is required", null);
+    }
+
+    @Test
+    public void testErrorNamesIndexOfInvalidFilter() {
+        MarketingTargetFilterDto withoutName = filter("B");
+        withoutName.setFilterName(" ");
+        assertError("Filter #1: Filter name is required", Arrays.asList(filter("A"), withoutName));
+
+        MarketingTargetFilterDto withoutTarget = filter("C");
+        withoutTarget.setMarketingTargetId(null);
+        assertError("Filter #2: Marketing target ID is required", Arrays.asList(filter("A"), filter("B"), withoutTarget));
+
+        MarketingTargetFilterDto withoutConditions = filter("B");
+        withoutConditions.setConditions(Collections.emptyList());
+        assertError("Filter #1: Filter must have at least one condition or group",
+            Arrays.asList(filter("A"), withoutConditions));
+
+        MarketingTargetFilterDto withoutValue = filter("A");
+        withoutValue.getConditions().get(0).setFieldValue(null);
+        assertError("Filter #0: Field value is required for condition 0 at root level with operator EQUAL",
+            Arrays.asList(withoutValue, filter("B")));
+
+        assertError("Filter #1: Filter name is required",
+            Arrays.asList(filter("A"), null));
+
+        verify(filterRepository, never()).findExistingFilterNames(any());
+        verify(filterRepository, never()).save(any());
+    }
+
+    @Test
+    public void testNameGivenTwiceIsRejected() {
+        assertError("Filter #2: Filter with name 'A' is given twice",
+            Arrays.asList(filter("A"), filter("B"), filter("A")));
+
+        verify(filterRepository, never()).findExistingFilterNames(any());
+        verify(filterRepository, never()).save(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExistingNamesAreCheckedWithOneQuery() {
+        when(filterRepository.findExistingFilterNames(any())).thenReturn(Collections.singletonList("B"));
+
+        assertError("Filter with name 'B' already exists", Arrays.asList(filter("A"), filter("B"), filter("C")));
+
+        ArgumentCaptor<Collection<String>> names = ArgumentCaptor.forClass(Collection.class);
+        verify(filterRepository, times(1)).findExistingFilterNames(names.capture());
+        assertEquals(new HashSet<>(Arrays.asList("A", "B", "C")), new HashSet<>(names.getValue()));
+        verify(filterRepository, never()).existsByFilterName(any());
+        verify(filterRepository, never()).save(any());
+    }
+
+    @Test
+    public void testPersistenceContextIsFlushedEveryFlushSize() {
+        List<MarketingTargetFilterDto> filters = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            filters.add(filter("Filter " + i));
+        }
+
+        filterService.createFilters(filters);
+
+        // After the 2nd and the 4th filter, then once for the rest
+        InOrder order = inOrder(filterRepository);
+        order.verify(filterRepository, times(2)).save(any());
+        order.verify(filterRepository).flushAndClear();
+        order.verify(filterRepository, times(2)).save(any());
+        order.verify(filterRepository).flushAndClear();
+        order.verify(filterRepository).save(any());
+        order.verify(filterRepository).flushAndClear();
+        verify(filterRepository, times(3)).flushAndClear();
+    }
+
+    @Test
+    public void testCreatedFiltersAreWrittenWithTheirTrees() {
+        MarketingTargetFilterDto grouped = filter("B");
+        FilterGroupDto group = new FilterGroupDto();
+        group.setGroupName("Group");
+        group.setLogicalOperator(LogicalOperator.OR);
+        group.setOrderIndex(0);
+        group.setConditions(Arrays.asList(condition(FilterFieldType.OPERATING_SYSTEM, "Android")));
+        grouped.setGroups(Arrays.asList(group));
+
+        filterService.createFilters(Arrays.asList(filter("A"), grouped));
+
+        ArgumentCaptor<MarketingTargetFilter> saved = ArgumentCaptor.forClass(MarketingTargetFilter.class);
+        verify(filterRepository, times(2)).save(saved.capture());
+        MarketingTargetFilter first = saved.getAllValues().get(0);
+        MarketingTargetFilter second = saved.getAllValues().get(1);
+        assertEquals("A", first.getFilterName());
+        assertTrue(first.getDefinition().contains("\"fieldValue\":\"UA\""));
+        assertEquals(1, second.getGroups().size());
+        assertEquals(second.getGroups().get(0).getId(), second.getGroups().get(0).getConditions().get(0).getGroupId());
+        assertTrue(second.getDefinition().contains("\"fieldValue\":\"Android\""));
+
+        verify(groupRepository, times(1)).save(any());
+        verify(conditionRepository, times(3)).save(any());
+        verify(filterChangedEvent, times(2)).fire(any());
+    }
+
+    @Test
+    public void testFiltersByConditionMatchInValuesIgnoringCase() {
+        MarketingTargetFilter equal = stored(1L, "{\"conditions\":[{\"fieldType\":\"COUNTRY\",\"operator\":\"EQUAL\","
+            + "\"fieldValue\":\"ua\"}]}");
+        MarketingTargetFilter in = stored(2L, "{\"groups\":[{\"conditions\":[{\"fieldType\":\"COUNTRY\","
+            + "\"operator\":\"IN\",\"fieldValue\":\"PL, UA\"}]}]}");
+        MarketingTargetFilter jsonArray = stored(3L, "{\"conditions\":[{\"fieldType\":\"COUNTRY\",\"operator\":\"NOT_IN\","
+            + "\"fieldValue\":\"[\\\"DE\\\", \\\"UA\\\"]\"}]}");
+        MarketingTargetFilter other = stored(4L, "{\"conditions\":[{\"fieldType\":\"COUNTRY\",\"operator\":\"EQUAL\","
+            + "\"fieldValue\":\"UAE\"},{\"fieldType\":\"BROWSER\",\"operator\":\"EQUAL\",\"fieldValue\":\"UA\"}]}");
+        ArgumentCaptor<String> rootCondition = ArgumentCaptor.forClass(String.class);
+        when(filterRepository.findByDefinitionContaining(rootCondition.capture(), any()))
+            .thenReturn(Arrays.asList(equal, in, jsonArray, other));
+
+        List<MarketingTargetFilterDto> filters = filterService.getFiltersByCondition(FilterFieldType.COUNTRY, "UA ");
+
+        assertEquals(Arrays.asList(1L, 2L, 3L), filters.stream().map(MarketingTargetFilterDto::getId)
+            .collect(Collectors.toList()));
+        // Candidates are looked up by the field type only
+        assertEquals("{\"conditions\":[{\"fieldType\":\"COUNTRY\"}]}", rootCondition.getValue());
+    }
+
+    private static MarketingTargetFilter stored(Long id, String definition) {
+        MarketingTargetFilter filter = new MarketingTargetFilter();
+        filter.setId(id);
+        filter.setFilterName("Filter " + id);
+        filter.setDefinition(definition);
+        return filter;
+    }
+
+    private void assertError(String message, List<MarketingTargetFilterDto> filters) {
+        try {
+            filterService.createFilters(filters);
+            fail("Expected: " + message);
+        } catch (RuntimeException e) {
+            assertEquals(message, e.getMessage());
+        }
+    }
+
+    private static MarketingTargetFilterDto filter(String name) {
+        MarketingTargetFilterDto filter = new MarketingTargetFilterDto();
+        filter.setFilterName(name);
+        filter.setMarketingTargetId(1L);
+        filter.setConditions(new ArrayList<>(Arrays.asList(condition(FilterFieldType.COUNTRY, "UA"))));
+        filter.setGroups(Collections.emptyList());
+        return filter;
+    }
+
+    private static FilterConditionDto condition(FilterFieldType fieldType, String value) {
+        FilterConditionDto condition = new FilterConditionDto();
+        condition.setFieldType(fieldType);
+        condition.setOperator(FilterOperator.EQUAL);
+        condition.setFieldValue(value);
+        condition.setOrderIndex(0);
+        return condition;
+    }
+}
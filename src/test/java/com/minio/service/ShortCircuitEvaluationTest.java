@@ -0,0 +1,122 @@
+package com.minio.service;
+
+import com.minio.dto.EvaluationStatisticsDto;
+import com.minio.dto.FilterConditionDto;
+import com.minio.dto.FilterGroupDto;
+import com.minio.dto.MarketingTargetFilterDto;
+import com.minio.dto.UserRequestDto;
+import com.minio.model.FilterFieldType;
+import com.minio.model.FilterOperator;
+import com.minio.model.LogicalOperator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for short-circuit evaluation. The list membership service is not set,
+ * so any DISTRIBUTION_GROUPS_FILE lookup that is not skipped fails the test.
+ */
+public class ShortCircuitEvaluationTest {
+
+    private FilterEvaluationService filterEvaluationService;
+
+    @Before
+    public void setUp() {
+        filterEvaluationService = new FilterEvaluationService();
+    }
+
+    @Test
+    public void testLookupSkippedWhenCheapConditionFails() {
+        MarketingTargetFilterDto filter = createFilter(
+            condition(FilterFieldType.COUNTRY, FilterOperator.EQUAL, "UA", null),
+            condition(FilterFieldType.DISTRIBUTION_GROUPS_FILE, FilterOperator.IN, "file-1", LogicalOperator.AND));
+
+        assertFalse(filterEvaluationService.evaluateFilter(filter, createUser("DE")));
+
+        EvaluationStatisticsDto statistics = filterEvaluationService.getStatistics();
+        assertEquals(0, statistics.getLookupsPerformed());
+        assertEquals(1, statistics.getLookupsSkipped());
+    }
+
+    @Test
+    public void testLookupScheduledAfterCheapConditionInSameRun() {
+        MarketingTargetFilterDto filter = createFilter(
+            condition(FilterFieldType.DISTRIBUTION_GROUPS_FILE, FilterOperator.IN, "file-1", null),
+            condition(FilterFieldType.COUNTRY, FilterOperator.EQUAL, "UA", LogicalOperator.AND));
+
+        assertFalse(filterEvaluationService.evaluateFilter(filter, createUser("DE")));
+        assertEquals(1, filterEvaluationService.getStatistics().getLookupsSkipped());
+    }
+
+    @Test
+    public void testLookupSkippedWhenOrAlreadyTrue() {
+        MarketingTargetFilterDto filter = createFilter(
+            condition(FilterFieldType.DISTRIBUTION_GROUPS_FILE, FilterOperator.NOT_IN, "file-1", null),
+            condition(FilterFieldType.COUNTRY, FilterOperator.EQUAL, "UA", LogicalOperator.OR));
+
+        assertTrue(filterEvaluationService.evaluateFilter(filter, createUser("UA")));
+        assertEquals(1, filterEvaluationService.getStatistics().getLookupsSkipped());
+    }
+
+    @Test
+    public void testGroupsSkippedWhenRootConditionsFail() {
+        MarketingTargetFilterDto filter = createFilter(
+            condition(FilterFieldType.COUNTRY, FilterOperator.EQUAL, "UA", null));
+        FilterGroupDto group = new FilterGroupDto("Lists", LogicalOperator.AND);
+        group.setConditions(Arrays.asList(
+            condition(FilterFieldType.DISTRIBUTION_GROUPS_FILE, FilterOperator.IN, "file-1", null),
+            condition(FilterFieldType.DISTRIBUTION_GROUPS_FILE, FilterOperator.IN, "file-2", LogicalOperator.OR)));
+        filter.setGroups(Collections.singletonList(group));
+
+        assertFalse(filterEvaluationService.evaluateFilter(filter, createUser("DE")));
+        assertEquals(2, filterEvaluationService.getStatistics().getLookupsSkipped());
+    }
+
+    @Test
+    public void testMixedOperatorsKeepLeftToRightSemantics() {
+        // ((COUNTRY = UA OR OS = Android) AND BROWSER = Chrome) OR CLIENT_VERSION = 1.0
+        MarketingTargetFilterDto filter = createFilter(
+            condition(FilterFieldType.COUNTRY, FilterOperator.EQUAL, "UA", null),
+            condition(FilterFieldType.OPERATING_SYSTEM, FilterOperator.EQUAL, "Android", LogicalOperator.OR),
+            condition(FilterFieldType.BROWSER, FilterOperator.EQUAL, "Chrome", LogicalOperator.AND),
+            condition(FilterFieldType.CLIENT_VERSION, FilterOperator.EQUAL, "1.0", LogicalOperator.OR));
+
+        for (int mask = 0; mask < 16; mask++) {
+            boolean a = (mask & 1) != 0;
+            boolean b = (mask & 2) != 0;
+            boolean c = (mask & 4) != 0;
+            boolean d = (mask & 8) != 0;
+
+            UserRequestDto user = createUser(a ? "UA" : "DE");
+            user.setOperatingSystem(b ? "Android" : "iOS");
+            user.setBrowser(c ? "Chrome" : "Safari");
+            user.setClientVersion(d ? "1.0" : "2.0");
+
+            assertEquals("mask " + mask, ((a || b) && c) || d, filterEvaluationService.evaluateFilter(filter, user));
+        }
+    }
+
+    private FilterConditionDto condition(FilterFieldType fieldType, FilterOperator operator, String value,
+                                         LogicalOperator logicalOperator) {
+        FilterConditionDto condition = new FilterConditionDto(fieldType, operator, value);
+        condition.setLogicalOperator(logicalOperator);
+        return condition;
+    }
+
+    private MarketingTargetFilterDto createFilter(FilterConditionDto... conditions) {
+        MarketingTargetFilterDto filter = new MarketingTargetFilterDto("Short-circuit filter", 1L);
+        filter.setConditions(Arrays.asList(conditions));
+        return filter;
+    }
+
+    private UserRequestDto createUser(String country) {
+        UserRequestDto user = new UserRequestDto();
+        user.setSmid("12345");
+        user.setCountry(country);
+        return user;
+    }
+}
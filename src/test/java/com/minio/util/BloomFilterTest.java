@@ -0,0 +1,65 @@
+package com.minio.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for Bloom filter sizing, lookups and serialization
+ */
+public class BloomFilterTest {
+
+    @Test
+    public void testNoFalseNegatives() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("smid-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("smid-" + i));
+        }
+        assertFalse(filter.mightContain(null));
+    }
+
+    @Test
+    public void testFalsePositiveRateIsNearConfigured() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(Integer.toString(i));
+        }
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filter.mightContain(Integer.toString(i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue("False positives: " + falsePositives, falsePositives < 2_000);
+        assertEquals(7, filter.getNumHashes());
+    }
+
+    @Test
+    public void testSerializationRoundTrip() throws IOException {
+        BloomFilter filter = BloomFilter.create(100, 0.01);
+        filter.put("100");
+        filter.put("abc");
+
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        filter.writeTo(buffer);
+        assertEquals(filter.serializedSize(), buffer.size());
+
+        BloomFilter restored = BloomFilter.readFrom(new ByteArrayInputStream(buffer.toByteArray()));
+        assertTrue(restored.mightContain("100"));
+        assertTrue(restored.mightContain("abc"));
+        assertEquals(filter.getNumBits(), restored.getNumBits());
+        assertEquals(filter.getNumHashes(), restored.getNumHashes());
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsForeignData() throws IOException {
+        BloomFilter.readFrom(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12}));
+    }
+}
@@ -0,0 +1,56 @@
+package com.minio.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for splitting a list file into line-aligned byte ranges
+ */
+public class LineRangeInputStreamTest {
+
+    @Test
+    public void testEveryLineBelongsToExactlyOneRange() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            content.append("smid-").append(i * 7919).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        content.append("last");
+        byte[] data = content.toString().getBytes(StandardCharsets.UTF_8);
+        List<String> expected = parse(data, 0, data.length);
+
+        for (int rangeSize : new int[] {1, 2, 3, 7, 13, 64, 1000, data.length}) {
+            List<String> smids = new ArrayList<>();
+            for (long start = 0; start < data.length; start += rangeSize) {
+                smids.addAll(parse(data, start, Math.min(start + rangeSize, data.length)));
+            }
+            assertEquals("range size " + rangeSize, expected, smids);
+        }
+    }
+
+    @Test
+    public void testRangeInsideOneLineIsEmpty() throws IOException {
+        byte[] data = "1001\n1002-long-line\n1003\n".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(Arrays.asList(), parse(data, 7, 12));
+        assertEquals(Arrays.asList("1002-long-line"), parse(data, 5, 6));
+        assertEquals(Arrays.asList("1002-long-line", "1003"), parse(data, 5, 21));
+    }
+
+    private static List<String> parse(byte[] data, long start, long end) throws IOException {
+        int offset = (int) LineRangeInputStream.openOffset(start);
+        LineRangeInputStream input = new LineRangeInputStream(
+            new ByteArrayInputStream(data, offset, data.length - offset), start, end);
+        List<String> smids = new ArrayList<>();
+        new SmidListParser(16).parse(input,
+            (buffer, from, length) -> smids.add(new String(buffer, from, length, StandardCharsets.UTF_8)));
+        return smids;
+    }
+}
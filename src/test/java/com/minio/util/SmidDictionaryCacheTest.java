@@ -0,0 +1,79 @@
+package com.minio.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the bounded SMID dictionary cache used by list loads
+ */
+public class SmidDictionaryCacheTest {
+
+    @Test
+    public void testCachedIdentifiersAreReturned() {
+        SmidDictionaryCache cache = new SmidDictionaryCache(100);
+        cache.put("smid-1", 1L);
+        cache.put("smid-2", 2L);
+
+        assertEquals(Long.valueOf(1L), cache.get("smid-1"));
+        assertEquals(Long.valueOf(2L), cache.get("smid-2"));
+        assertNull(cache.get("smid-3"));
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        SmidDictionaryCache cache = new SmidDictionaryCache(10);
+        for (long i = 0; i < 1000; i++) {
+            cache.put("smid-" + i, i);
+        }
+
+        assertTrue("Cache holds " + cache.size() + " entries", cache.size() <= 10);
+        assertEquals(Long.valueOf(999L), cache.get("smid-999"));
+        assertNull(cache.get("smid-0"));
+    }
+
+    @Test
+    public void testRecentlyUsedEntriesSurviveRotation() {
+        SmidDictionaryCache cache = new SmidDictionaryCache(10);
+        cache.put("hot", 0L);
+        for (long i = 1; i < 100; i++) {
+            // Every lookup keeps the entry in the current generation
+            assertEquals(Long.valueOf(0L), cache.get("hot"));
+            cache.put("smid-" + i, i);
+        }
+
+        assertEquals(Long.valueOf(0L), cache.get("hot"));
+    }
+
+    @Test
+    public void testConcurrentLoadsShareEntries() throws Exception {
+        SmidDictionaryCache cache = new SmidDictionaryCache(100_000);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (long i = 0; i < 10_000; i++) {
+                        cache.put("smid-" + i, i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(10_000, cache.size());
+        for (long i = 0; i < 10_000; i++) {
+            assertEquals(Long.valueOf(i), cache.get("smid-" + i));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.minio.util;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for writing and memory-mapped lookups of SMID index files
+ */
+public class SmidIndexFileTest {
+
+    private Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("smid-index-test");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+
+    @Test
+    public void testLookups() throws IOException {
+        Path path = dir.resolve("1-v1.idx");
+        SmidIndexFile.write(Arrays.asList("300", "100", "abc", "007", "200", "100", "Żółw", "ab").iterator(), path);
+
+        SmidIndexFile index = SmidIndexFile.open(path);
+        assertEquals(7, index.size());
+        assertTrue(index.contains("100"));
+        assertTrue(index.contains("200"));
+        assertTrue(index.contains("300"));
+        assertTrue(index.contains("abc"));
+        assertTrue(index.contains("ab"));
+        assertTrue(index.contains("007"));
+        assertTrue(index.contains("Żółw"));
+
+        assertFalse(index.contains("7"));
+        assertFalse(index.contains("150"));
+        assertFalse(index.contains("a"));
+        assertFalse(index.contains("abcd"));
+        assertFalse(index.contains(null));
+        assertEquals(Files.size(path), index.getMappedBytes());
+    }
+
+    @Test
+    public void testManyNumericValues() throws IOException {
+        Path path = dir.resolve("2-v1.idx");
+        Iterable<String> evens = () -> Stream.iterate(0L, i -> i + 2).limit(100_000).map(Object::toString).iterator();
+        SmidIndexFile.write(evens.iterator(), path);
+
+        SmidIndexFile index = SmidIndexFile.open(path);
+        assertEquals(100_000, index.size());
+        for (long i = 0; i < 200_000; i += 997) {
+            assertEquals(i % 2 == 0, index.contains(Long.toString(i)));
+        }
+    }
+
+    @Test
+    public void testEmptyList() throws IOException {
+        Path path = dir.resolve("3-v1.idx");
+        SmidIndexFile.write(Collections.<String>emptyIterator(), path);
+
+        SmidIndexFile index = SmidIndexFile.open(path);
+        assertEquals(0, index.size());
+        assertFalse(index.contains("1"));
+        assertFalse(index.contains("abc"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testRejectsForeignFile() throws IOException {
+        Path path = dir.resolve("4-v1.idx");
+        Files.write(path, new byte[64]);
+        SmidIndexFile.open(path);
+    }
+}
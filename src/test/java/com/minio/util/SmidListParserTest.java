@@ -0,0 +1,72 @@
+package com.minio.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for incremental parsing of SMID list files
+ */
+public class SmidListParserTest {
+
+    @Test
+    public void testPlainListWithHeaderAndWindowsLineBreaks() throws IOException {
+        SmidListParser parser = new SmidListParser();
+        List<String> smids = parse(parser, "﻿SMID\r\n1001\r\n\r\n  1002 \r\nabc-1\r\n1003");
+
+        assertEquals(Arrays.asList("1001", "1002", "abc-1", "1003"), smids);
+        assertEquals(4, parser.getAccepted());
+        assertEquals(0, parser.getRejected());
+    }
+
+    @Test
+    public void testCsvTakesFirstQuotedColumn() throws IOException {
+        SmidListParser parser = new SmidListParser();
+        List<String> smids = parse(parser, "smid,country\n\"1001\",UA\n1002;PL\n1003\tDE\n");
+
+        assertEquals(Arrays.asList("1001", "1002", "1003"), smids);
+    }
+
+    @Test
+    public void testInvalidValuesAreRejected() throws IOException {
+        SmidListParser parser = new SmidListParser();
+        char[] tooLong = new char[SmidListParser.MAX_SMID_BYTES + 1];
+        Arrays.fill(tooLong, '7');
+        List<String> smids = parse(parser, "1001\nbad\\smid\n" + new String(tooLong) + "\nbad\u0001\n1002\n");
+
+        assertEquals(Arrays.asList("1001", "1002"), smids);
+        assertEquals(3, parser.getRejected());
+    }
+
+    @Test
+    public void testLinesSplitAcrossSmallBuffer() throws IOException {
+        SmidListParser parser = new SmidListParser(16);
+        StringBuilder content = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add("smid-" + i);
+            content.append("smid-").append(i).append('\n');
+        }
+        // Longer than the buffer: dropped without breaking the following lines
+        content.append("x-12345678901234567890\n").append("last");
+        expected.add("last");
+
+        assertEquals(expected, parse(parser, content.toString()));
+        assertEquals(1, parser.getRejected());
+        assertEquals(content.toString().getBytes(StandardCharsets.UTF_8).length, parser.getBytesRead());
+    }
+
+    private static List<String> parse(SmidListParser parser, String content) throws IOException {
+        List<String> smids = new ArrayList<>();
+        parser.parse(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+            (buffer, offset, length) -> smids.add(new String(buffer, offset, length, StandardCharsets.UTF_8)));
+        return smids;
+    }
+}